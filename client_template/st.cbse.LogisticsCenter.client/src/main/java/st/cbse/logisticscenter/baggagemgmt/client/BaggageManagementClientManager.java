@@ -6,11 +6,17 @@ import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry; // NEW IMPORT: For baggage history
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;     // NEW IMPORT: For baggage status display
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusChange;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusView;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestFormat;
 import st.cbse.logisticscenter.passengermgmt.server.start.data.Passenger;
 import st.cbse.logisticscenter.flightmgmt.client.FlightManagementClientManager;
 
+import javax.naming.Context;
+import java.util.ArrayList;
 import java.util.List; // NEW IMPORT: For list of history entries
 import java.util.Scanner;
+import java.util.UUID;
 import java.util.logging.Level; // For better error logging
 import java.util.logging.Logger; // For better error logging
 
@@ -21,6 +27,7 @@ public class BaggageManagementClientManager {
     private IBaggageManagementRemote baggageManagementRemote;
     private Scanner scanner;
     private FlightManagementClientManager flightManagementClientManager; // To lookup flights
+    private Context namingContext; // For the JMS lookups of live status subscriptions
 
     // --- REMOVED JNDI Lookup Constants ---
     // These constants and the initializeRemoteEJB method are no longer needed
@@ -32,11 +39,14 @@ public class BaggageManagementClientManager {
      * @param scanner The shared Scanner for user input.
      * @param baggageManagementRemote The remote EJB interface for baggage management, injected directly.
      * @param flightManagementClientManager The client manager for flight operations, to look up flights.
+     * @param namingContext The client's JNDI context, used to subscribe to live status changes.
      */
-    public BaggageManagementClientManager(Scanner scanner, IBaggageManagementRemote baggageManagementRemote, FlightManagementClientManager flightManagementClientManager) {
+    public BaggageManagementClientManager(Scanner scanner, IBaggageManagementRemote baggageManagementRemote, FlightManagementClientManager flightManagementClientManager,
+                                          Context namingContext) {
         this.scanner = scanner;
         this.baggageManagementRemote = baggageManagementRemote; // Assign the injected remote EJB
         this.flightManagementClientManager = flightManagementClientManager;
+        this.namingContext = namingContext;
         LOGGER.info("BaggageManagementClientManager initialized with direct EJB reference.");
     }
 
@@ -93,8 +103,17 @@ public class BaggageManagementClientManager {
 
         try {
             // Call the dropBaggage method from IBaggageManagementRemote
-            // The BaggageManagementBean now handles the full workflow initiation
-            Baggage droppedBaggage = baggageManagementRemote.dropBaggage(baggageNumber, weightKg, flight);
+            // The BaggageManagementBean now handles the full workflow initiation.
+            // The idempotency key makes the retry safe: if the first call did reach the server, the retry
+            // returns the bag it dropped instead of failing as a duplicate.
+            String idempotencyKey = UUID.randomUUID().toString();
+            Baggage droppedBaggage;
+            try {
+                droppedBaggage = baggageManagementRemote.dropBaggage(idempotencyKey, baggageNumber, weightKg, flight);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Drop of baggage " + baggageNumber + " failed, retrying once: " + e.getMessage());
+                droppedBaggage = baggageManagementRemote.dropBaggage(idempotencyKey, baggageNumber, weightKg, flight);
+            }
             
             if (droppedBaggage != null) {
                 System.out.println("Baggage successfully dropped!");
@@ -122,19 +141,17 @@ public class BaggageManagementClientManager {
         String baggageNumber = scanner.nextLine();
 
         try {
-            Baggage baggage = baggageManagementRemote.getBaggageByNumber(baggageNumber);
+            // The status view carries no history; the history is fetched once, below.
+            BaggageStatusView baggage = baggageManagementRemote.getBaggageStatusView(baggageNumber);
 
             if (baggage != null) {
                 System.out.println("\n--- Details for Baggage: " + baggage.getBaggageNumber() + " ---");
                 System.out.println("Current Status: " + baggage.getStatus().getDisplayName());
                 System.out.println("Weight: " + baggage.getWeightKg() + " KG");
-                if (baggage.getFlight() != null) {
-                    System.out.println("Associated Flight: " + baggage.getFlight().getFlightNumber() +
-                                       " (" + baggage.getFlight().getOrigin() + " to " + baggage.getFlight().getDestination() + ")");
-                } else {
-                    System.out.println("Associated Flight: N/A");
-                }
+                System.out.println("Associated Flight: " + baggage.getFlightNumber() +
+                                   " (" + baggage.getOrigin() + " to " + baggage.getDestination() + ")");
                 System.out.println("On Hold: " + (baggage.isHeldForInspection() ? "YES" : "NO"));
+                System.out.println("Last Update: " + (baggage.getLastUpdated() != null ? baggage.getLastUpdated() : "N/A"));
 
 
                 System.out.println("\n--- Baggage History ---");
@@ -156,4 +173,93 @@ public class BaggageManagementClientManager {
             System.err.println("An error occurred while checking baggage status. See logs for details.");
         }
     }
+
+    /**
+     * Shows the status changes of one or more bags live, as the server pushes them, until Enter is pressed.
+     * Replaces repeated calls to checkBaggageStatus.
+     */
+    public void watchBaggageStatus() {
+        System.out.println("\n--- Watch Baggage Status (live) ---");
+        System.out.print("Enter Baggage Number(s) to watch, separated by commas: ");
+        List<String> baggageNumbers = new ArrayList<>();
+        for (String number : scanner.nextLine().split(",")) {
+            if (!number.trim().isEmpty()) {
+                baggageNumbers.add(number.trim());
+            }
+        }
+        if (baggageNumbers.isEmpty()) {
+            System.out.println("No baggage number entered.");
+            return;
+        }
+        BaggageStatusSubscription subscription = null;
+        try {
+            subscription = BaggageStatusSubscription.forBaggage(namingContext, baggageNumbers, this::printStatusChange);
+            // Current status first (cheap index lookup on the server), then the changes as they happen.
+            for (String baggageNumber : baggageNumbers) {
+                BaggageStatus status = baggageManagementRemote.getBaggageStatus(baggageNumber);
+                System.out.println("  " + baggageNumber + ": " + (status != null ? status.getDisplayName() : "not found"));
+            }
+            System.out.println("Watching " + baggageNumbers + ". Press Enter to stop.");
+            scanner.nextLine();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error subscribing to baggage status changes: " + e.getMessage(), e);
+            System.err.println("Could not subscribe to baggage status changes. See logs for details.");
+        } finally {
+            if (subscription != null) {
+                subscription.close();
+            }
+        }
+    }
+
+    /**
+     * Shows the status changes of all bags of a flight live until Enter is pressed.
+     */
+    public void watchFlightBaggage() {
+        System.out.println("\n--- Watch Flight Baggage (live) ---");
+        System.out.print("Enter Flight Number to watch: ");
+        String flightNumber = scanner.nextLine().trim();
+        BaggageStatusSubscription subscription = null;
+        try {
+            subscription = BaggageStatusSubscription.forFlight(namingContext, flightNumber, this::printStatusChange);
+            System.out.println("Watching the baggage of flight " + flightNumber + ". Press Enter to stop.");
+            scanner.nextLine();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error subscribing to flight baggage changes: " + e.getMessage(), e);
+            System.err.println("Could not subscribe to flight baggage changes. See logs for details.");
+        } finally {
+            if (subscription != null) {
+                subscription.close();
+            }
+        }
+    }
+
+    /**
+     * Has the server write a flight's loading manifest to a file and shows where it can be downloaded.
+     */
+    public void exportFlightManifest() {
+        System.out.println("\n--- Export Flight Manifest ---");
+        System.out.print("Enter Flight Number: ");
+        String flightNumber = scanner.nextLine().trim();
+        System.out.print("Format (csv/binary) [csv]: ");
+        String format = scanner.nextLine().trim();
+        try {
+            String file = baggageManagementRemote.exportFlightManifest(flightNumber,
+                    "binary".equalsIgnoreCase(format) ? ManifestFormat.BINARY : ManifestFormat.CSV);
+            if (file != null) {
+                System.out.println("Manifest written, download it from http://localhost:8080" + file);
+            } else {
+                System.out.println("No manifest written. Check that flight " + flightNumber + " exists.");
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error exporting flight manifest: " + e.getMessage(), e);
+            System.err.println("Could not export the manifest. See logs for details.");
+        }
+    }
+
+    private void printStatusChange(BaggageStatusChange change) {
+        System.out.println("  [" + change.getChangedAt() + "] " + change.getBaggageNumber() + " (Flight " + change.getFlightNumber() + "): "
+                + (change.getPreviousStatus() != null ? change.getPreviousStatus().getDisplayName() + " -> " : "")
+                + change.getStatus().getDisplayName()
+                + (change.getDetails() != null ? " - " + change.getDetails() : ""));
+    }
 }
\ No newline at end of file
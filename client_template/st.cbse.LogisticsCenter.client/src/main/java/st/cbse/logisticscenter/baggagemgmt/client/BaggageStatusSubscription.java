@@ -0,0 +1,111 @@
+package st.cbse.logisticscenter.baggagemgmt.client;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusChange;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSConsumer;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.Topic;
+
+import javax.naming.Context;
+import javax.naming.NamingException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Live subscription to baggage status changes pushed by the server over JMS
+ * (topic jms/topic/BaggageStatus on the WildFly embedded broker).
+ * Filtering happens on the broker through a message selector, so the client only receives the
+ * changes of the bags or the flight it asked for. Close the subscription to stop receiving.
+ *
+ * The broker requires an application user with the "guest" role (add-user.sh -a). Credentials are read
+ * from the system properties logistics.jms.user and logistics.jms.password.
+ */
+public class BaggageStatusSubscription implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageStatusSubscription.class.getName());
+
+    private static final String CONNECTION_FACTORY = "jms/RemoteConnectionFactory";
+
+    private final JMSContext context;
+    private final JMSConsumer consumer;
+
+    private BaggageStatusSubscription(Context namingContext, String selector, Consumer<BaggageStatusChange> listener) throws NamingException {
+        ConnectionFactory connectionFactory = (ConnectionFactory) namingContext.lookup(CONNECTION_FACTORY);
+        Topic topic = (Topic) namingContext.lookup(BaggageStatusChange.TOPIC_JNDI_NAME);
+        String user = System.getProperty("logistics.jms.user");
+        this.context = user != null
+                ? connectionFactory.createContext(user, System.getProperty("logistics.jms.password"))
+                : connectionFactory.createContext();
+        this.consumer = context.createConsumer(topic, selector);
+        this.consumer.setMessageListener(message -> {
+            try {
+                listener.accept(toChange(message));
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not handle baggage status message: " + e.getMessage(), e);
+            }
+        });
+        LOGGER.info("Subscribed to baggage status changes with selector: " + selector);
+    }
+
+    /**
+     * Subscribes to the changes of the given bags.
+     */
+    public static BaggageStatusSubscription forBaggage(Context namingContext, Collection<String> baggageNumbers,
+                                                       Consumer<BaggageStatusChange> listener) throws NamingException {
+        StringBuilder selector = new StringBuilder(BaggageStatusChange.BAGGAGE_NUMBER).append(" IN (");
+        boolean first = true;
+        for (String baggageNumber : baggageNumbers) {
+            if (!first) {
+                selector.append(", ");
+            }
+            selector.append(quote(baggageNumber));
+            first = false;
+        }
+        selector.append(')');
+        return new BaggageStatusSubscription(namingContext, selector.toString(), listener);
+    }
+
+    /**
+     * Subscribes to the changes of all bags of a flight.
+     */
+    public static BaggageStatusSubscription forFlight(Context namingContext, String flightNumber,
+                                                      Consumer<BaggageStatusChange> listener) throws NamingException {
+        return new BaggageStatusSubscription(namingContext,
+                BaggageStatusChange.FLIGHT_NUMBER + " = " + quote(flightNumber), listener);
+    }
+
+    @Override
+    public void close() {
+        try {
+            consumer.close();
+        } finally {
+            context.close();
+        }
+    }
+
+    private static BaggageStatusChange toChange(Message message) throws JMSException {
+        MapMessage map = (MapMessage) message;
+        String previous = map.getString(BaggageStatusChange.PREVIOUS_STATUS);
+        String changedAt = map.getString(BaggageStatusChange.CHANGED_AT);
+        return new BaggageStatusChange(
+                map.getString(BaggageStatusChange.BAGGAGE_NUMBER),
+                map.getString(BaggageStatusChange.FLIGHT_NUMBER),
+                previous != null ? BaggageStatus.valueOf(previous) : null,
+                BaggageStatus.valueOf(map.getString(BaggageStatusChange.STATUS)),
+                map.getString(BaggageStatusChange.DETAILS),
+                changedAt != null ? LocalDateTime.parse(changedAt) : null);
+    }
+
+    // Selector string literal: single quotes are escaped by doubling them.
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -77,7 +77,7 @@ public class Client {
             // 2. Setup Baggage Management EJB and Manager (baggageManagementClientManager does its own JNDI lookup internally for its needs)
             // But for direct admin calls from Client.java, we need a direct reference.
             baggageManagementRemoteDirect = lookupRemoteEJB(initialContext, JNDI_BAGGAGE_MGMT, IBaggageManagementRemote.class); // <--- NEW DIRECT LOOKUP
-            baggageManagementClientManager = new BaggageManagementClientManager(scanner, baggageManagementRemoteDirect, flightManagementClientManager); // <--- MODIFIED CONSTRUCTOR CALL (passing direct remote for convenience)
+            baggageManagementClientManager = new BaggageManagementClientManager(scanner, baggageManagementRemoteDirect, flightManagementClientManager, initialContext); // <--- MODIFIED CONSTRUCTOR CALL (passing direct remote for convenience)
             System.out.println("Baggage Management EJB connected successfully via client manager.");
 
 
@@ -219,9 +219,11 @@ public class Client {
         System.out.println("\n--- Administrator Role Access ---");
         System.out.println("1. Business Management Manager");
         System.out.println("2. Baggage Manager");
+        System.out.println("3. Watch Flight Baggage (live)");
+        System.out.println("4. Export Flight Manifest");
 
-        System.out.println("3. Back to Main Menu");
-        System.out.print("Select an option (1-3): ");
+        System.out.println("5. Back to Main Menu");
+        System.out.print("Select an option (1-5): ");
         String choice = scanner.nextLine();
 
         switch (choice) {
@@ -229,6 +231,12 @@ public class Client {
                 adminHoldReleaseBaggage(); // Call the admin function
                 break;
             case "3":
+                baggageManagementClientManager.watchFlightBaggage(); // Live status changes of a flight's bags
+                break;
+            case "4":
+                baggageManagementClientManager.exportFlightManifest();
+                break;
+            case "5":
                 return; // Go back to main menu
             default:
                 System.out.println("Invalid choice. Please try again.");
@@ -2,10 +2,13 @@ package st.cbse.logisticscenter.flightmgmt.client;
 
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightListRow;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightSearchPage;
 import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -73,7 +76,38 @@ public class FlightManagementClientManager {
         } catch (Exception e) {
             System.err.println("Error retrieving all flights: " + e.getMessage());
             e.printStackTrace(); // Added for debugging
-            return new java.util.ArrayList<>(); // Return empty list on error
+            return new ArrayList<>(); // Return empty list on error
+        }
+    }
+
+    public List<FlightListRow> getFlightList() {
+        try {
+            return flightManagementRemote.getFlightList();
+        } catch (Exception e) {
+            System.err.println("Error retrieving the flight list: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    public FlightSearchPage searchFlights(String origin, String destination, LocalDateTime fromTime, LocalDateTime toTime,
+                                          FlightSearchPage.Cursor after, int pageSize) {
+        try {
+            return flightManagementRemote.searchFlights(origin, destination, fromTime, toTime, after, pageSize);
+        } catch (Exception e) {
+            System.err.println("Error searching flights: " + e.getMessage());
+            e.printStackTrace();
+            return new FlightSearchPage(new ArrayList<>(), null);
+        }
+    }
+
+    public boolean bookSeats(String flightNumber, int seats) {
+        try {
+            return flightManagementRemote.bookSeats(flightNumber, seats);
+        } catch (Exception e) {
+            System.err.println("Error booking seats: " + e.getMessage());
+            e.printStackTrace();
+            return false;
         }
     }
 
@@ -84,7 +118,7 @@ public class FlightManagementClientManager {
             System.out.println("1. Add New Flight");
             System.out.println("2. View My Flights");
             System.out.println("3. Delete Flight");
-            System.out.println("4. Update Flight");
+            System.out.println("4. Update Flight Start Time");
             System.out.println("5. Back to Main Menu");
             System.out.print("Select an option (1-5): ");
 
@@ -101,7 +135,7 @@ public class FlightManagementClientManager {
                     System.out.println("---Under Development---");
                     break;
                 case "4":
-                    System.out.println("---Under Development---");
+                    changeFlightStartTime(currentAirline);
                     break;
                 case "5":
                     running = false;
@@ -112,6 +146,45 @@ public class FlightManagementClientManager {
         }
     }
 
+    private void changeFlightStartTime(Airline airline) {
+        System.out.println("\n--- Update Flight Start Time ---");
+        System.out.print("Enter Flight Number: ");
+        String flightNumber = scanner.nextLine();
+
+        Flight flight = getFlightByFlightNumber(flightNumber);
+        if (flight == null || flight.getAirline() == null || !flight.getAirline().getId().equals(airline.getId())) {
+            System.out.println("Flight " + flightNumber + " not found for your airline.");
+            return;
+        }
+        System.out.println("Current Start Time: " + flight.getStartTime().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+
+        LocalDateTime startTime = null;
+        boolean validTime = false;
+        while (!validTime) {
+            System.out.print("Enter New Start Time (YYYY-MM-DD HH:MM): ");
+            String timeStr = scanner.nextLine();
+            try {
+                startTime = LocalDateTime.parse(timeStr, java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+                validTime = true;
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date/time format. Please use YYYY-MM-DD HH:MM.");
+            }
+        }
+
+        try {
+            Flight updated = flightManagementRemote.updateFlightStartTime(flightNumber, startTime);
+            if (updated != null) {
+                System.out.println("Start time of flight " + updated.getFlightNumber() + " changed to "
+                        + updated.getStartTime().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) + ".");
+            } else {
+                System.out.println("Failed to update the start time. Please check server logs.");
+            }
+        } catch (Exception e) {
+            System.err.println("Error updating flight start time: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private void addNewFlight(Airline airline) {
         System.out.println("\n--- Add New Flight ---");
         System.out.print("Enter Flight Number: ");
@@ -4,9 +4,14 @@ import st.cbse.logisticscenter.passengermgmt.server.start.data.Passenger;
 import st.cbse.logisticscenter.passengermgmt.server.start.interfaces.IPassengerManagementRemote;
 import st.cbse.logisticscenter.flightmgmt.client.FlightManagementClientManager; // Needed to view flights
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight; // Needed to display flights
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightListRow;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightSearchPage;
 import st.cbse.logisticscenter.baggagemgmt.client.BaggageManagementClientManager; // <--- NEW IMPORT for Baggage
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -16,6 +21,8 @@ import java.util.Scanner;
  */
 public class PassengerManagementClientManager {
 
+    private static final int SEARCH_PAGE_SIZE = 10;
+
     private final IPassengerManagementRemote passengerManagementRemote;
     private final FlightManagementClientManager flightManagementClientManager; // To access flight view methods
     private final BaggageManagementClientManager baggageManagementClientManager; // <--- NEW FIELD for Baggage
@@ -71,8 +78,10 @@ public class PassengerManagementClientManager {
             System.out.println("3. Drop Baggage");
             System.out.println("4. Check Baggage Status"); // <--- NEW OPTION
             System.out.println("5. View My Booking History");
-            System.out.println("6. Logout (Return to Main Menu)"); // <--- Adjusted option number
-            System.out.print("Select an option (1-6): "); // <--- Adjusted option range
+            System.out.println("6. Watch Baggage Status (live updates)");
+            System.out.println("7. Search Flights by Route and Date");
+            System.out.println("8. Logout (Return to Main Menu)");
+            System.out.print("Select an option (1-8): ");
 
             String choice = scanner.nextLine();
 
@@ -81,7 +90,7 @@ public class PassengerManagementClientManager {
                     viewAllAvailableFlights(); // Use the FlightManagementClientManager
                     break;
                 case "2":
-                    System.out.println("Booking functionality is under development. Please check back later!");
+                    bookFlight();
                     break;
                 case "3":
                     if (baggageManagementClientManager != null) {
@@ -100,7 +109,17 @@ public class PassengerManagementClientManager {
                 case "5": // <--- Adjusted option number
                     System.out.println("Booking history functionality is under development. Please check back later!");
                     break;
-                case "6": // <--- Adjusted option number
+                case "6":
+                    if (baggageManagementClientManager != null) {
+                        baggageManagementClientManager.watchBaggageStatus();
+                    } else {
+                        System.out.println("Baggage status service not available.");
+                    }
+                    break;
+                case "7":
+                    searchFlights();
+                    break;
+                case "8":
                     loggedInMenu = false; // Exit this menu and return to Client's main menu
                     System.out.println("Logging out " + currentPassenger.getFirstName() + ".");
                     return;
@@ -110,24 +129,96 @@ public class PassengerManagementClientManager {
         }
     }
 
+    /**
+     * Books seats on a flight chosen by flight number.
+     */
+    private void bookFlight() {
+        System.out.println("\n--- Book a Flight ---");
+        System.out.print("Flight number: ");
+        String flightNumber = scanner.nextLine().trim();
+        System.out.print("Number of seats: ");
+        int seats;
+        try {
+            seats = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number of seats.");
+            return;
+        }
+        if (seats <= 0) {
+            System.out.println("Please book at least one seat.");
+            return;
+        }
+        if (flightManagementClientManager.bookSeats(flightNumber, seats)) {
+            System.out.println(seats + " seat(s) booked on flight " + flightNumber + ".");
+        } else {
+            System.out.println("Booking failed: flight " + flightNumber + " does not exist or has fewer than " + seats + " seat(s) left.");
+        }
+    }
+
+    /**
+     * Searches flights by route and departure date on the server and shows them page by page.
+     */
+    private void searchFlights() {
+        System.out.println("\n--- Search Flights ---");
+        System.out.print("Origin (empty for any): ");
+        String origin = scanner.nextLine().trim();
+        System.out.print("Destination (empty for any): ");
+        String destination = scanner.nextLine().trim();
+        System.out.print("Departure date (yyyy-MM-dd, empty for any): ");
+        String date = scanner.nextLine().trim();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        if (!date.isEmpty()) {
+            try {
+                from = LocalDate.parse(date).atStartOfDay();
+                to = from.plusDays(1);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date format. Please use yyyy-MM-dd.");
+                return;
+            }
+        }
+
+        FlightSearchPage.Cursor cursor = null;
+        int shown = 0;
+        do {
+            FlightSearchPage page = flightManagementClientManager.searchFlights(origin.isEmpty() ? null : origin,
+                    destination.isEmpty() ? null : destination, from, to, cursor, SEARCH_PAGE_SIZE);
+            for (Flight flight : page.getItems()) {
+                String airlineName = (flight.getAirline() != null) ? flight.getAirline().getName() : "Unknown Airline";
+                System.out.println("   - " + flight.getStartTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) + "  Flight "
+                        + flight.getFlightNumber() + " (" + airlineName + ") " + flight.getOrigin() + " -> " + flight.getDestination()
+                        + ", " + flight.getCurrentPassengers() + "/" + flight.getCapacity() + " booked, base price "
+                        + String.format("%.2f", flight.getBasePrice()));
+            }
+            shown += page.getItems().size();
+            cursor = page.getNextCursor();
+            if (cursor != null) {
+                System.out.print("Press Enter for more flights, or type q to stop: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    break;
+                }
+            }
+        } while (cursor != null);
+        System.out.println(shown == 0 ? "No matching flights found." : shown + " flight(s) shown.");
+    }
+
     /**
      * Helper method to display all flights, delegated to FlightManagementClientManager.
      */
     private void viewAllAvailableFlights() {
         System.out.println("\n--- All Available Flights ---");
-        // Calls the correct method in FlightManagementClientManager
-        List<Flight> allFlights = flightManagementClientManager.getAllFlights();
+        // Compact rows: only what is shown below travels over the wire
+        List<FlightListRow> allFlights = flightManagementClientManager.getFlightList();
 
         if (allFlights != null && !allFlights.isEmpty()) {
             System.out.println("Found " + allFlights.size() + " flight(s):");
             allFlights.forEach(flight -> {
-                String airlineName = (flight.getAirline() != null) ? flight.getAirline().getName() : "Unknown Airline";
-                System.out.println("   - Flight " + flight.getFlightNumber() + " (" + airlineName + ")");
+                System.out.println("   - Flight " + flight.getFlightNumber() + " (" + flight.getAirlineName() + ")");
                 System.out.println("     Origin: " + flight.getOrigin() + ", Destination: " + flight.getDestination());
                 System.out.println("     Time: " + flight.getStartTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
                 System.out.println("     Capacity: " + flight.getCapacity() + ", Current Passengers: " + flight.getCurrentPassengers());
                 System.out.println("     Base Price: " + String.format("%.2f", flight.getBasePrice()) + ", Baggage Price: " + String.format("%.2f", flight.getPricePerBaggage()));
-                System.out.println("     Plane Type: " + flight.getPlaneType() + ", Plane Number: " + flight.getPlaneNumber());
+                System.out.println("     Plane Type: " + flight.getPlaneType());
                 System.out.println("     ID: " + flight.getId());
                 System.out.println("-------------------------------------");
             });
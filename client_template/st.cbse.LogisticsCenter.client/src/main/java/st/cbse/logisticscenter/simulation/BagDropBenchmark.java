@@ -0,0 +1,127 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDrop;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDropResult;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of the two drop paths: --bags bags dropped one call per bag (dropBaggage), and the same
+ * number dropped in calls of --batchSize bags (dropBaggageBatch). Each path gets a flight of its own and the same
+ * number of client threads (--threads), which split the bags between them. Prints bags per second for each path
+ * and the number of drops the server accepted.
+ *
+ * Both paths hand the bags to the same pipeline, so the server's pipeline mode applies to both alike.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.BagDropBenchmark --bags=5000 --batchSize=500
+ */
+public class BagDropBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        int bags = Math.max(1, Integer.parseInt(args.getOrDefault("bags", "5000")));
+        int batchSize = Math.max(1, Integer.parseInt(args.getOrDefault("batchSize", "500")));
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "4")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+        IBaggageManagementRemote baggageManagement = BaggageHallSimulator.lookup(context, "BaggageManagementBean", IBaggageManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Drop Bench " + runId, "D" + runId.charAt(runId.length() - 1) + runId,
+                "drops-" + runId + "@example.org");
+        if (airline == null) {
+            System.err.println("Could not register the benchmark airline, aborting.");
+            return;
+        }
+        Flight singleFlight = flightManagement.addFlight(airline, "BD" + runId + "-S", "FRA", "JFK",
+                LocalDateTime.now().plusDays(1), 99.0, 25.0, "A320", "D-DROP", 180, 0);
+        Flight batchFlight = flightManagement.addFlight(airline, "BD" + runId + "-B", "FRA", "JFK",
+                LocalDateTime.now().plusDays(1).plusMinutes(1), 99.0, 25.0, "A320", "D-DROP", 180, 0);
+        if (singleFlight == null || batchFlight == null) {
+            System.err.println("Could not create the benchmark flights, aborting.");
+            return;
+        }
+        System.out.println("Dropping " + bags + " bags per path with " + threads + " thread(s), batches of " + batchSize + ".");
+
+        AtomicLong singleAccepted = new AtomicLong();
+        double singleSeconds = run(threads, bags, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (baggageManagement.dropBaggage("BD" + runId + "-S" + i, 18.0, singleFlight) != null) {
+                    singleAccepted.incrementAndGet();
+                }
+            }
+        });
+
+        AtomicLong batchAccepted = new AtomicLong();
+        double batchSeconds = run(threads, bags, batchSize, (from, to) -> {
+            List<BagDrop> drops = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                drops.add(new BagDrop("BD" + runId + "-B" + i, 18.0, batchFlight));
+            }
+            for (BagDropResult result : baggageManagement.dropBaggageBatch(drops)) {
+                if (result.isAccepted()) {
+                    batchAccepted.incrementAndGet();
+                }
+            }
+        });
+
+        System.out.println();
+        System.out.println("=== Drop throughput ===");
+        System.out.println("path                    accepted    seconds     bags/s");
+        System.out.println(row("dropBaggage", singleAccepted.get(), singleSeconds));
+        System.out.println(row("dropBaggageBatch (" + batchSize + ")", batchAccepted.get(), batchSeconds));
+        if (singleSeconds > 0 && batchSeconds > 0) {
+            System.out.println(String.format(Locale.ROOT, "Batch path: %.1fx the bags per second of the per-bag path.",
+                    (batchAccepted.get() / batchSeconds) / Math.max(1e-9, singleAccepted.get() / singleSeconds)));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Slice {
+        void drop(int from, int to) throws Exception;
+    }
+
+    // Cuts 0..bags into slices of sliceSize, worked off by the threads; returns the elapsed seconds.
+    private static double run(int threads, int bags, int sliceSize, Slice slice) throws Exception {
+        AtomicLong next = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int from = (int) next.getAndAdd(sliceSize); from < bags; from = (int) next.getAndAdd(sliceSize)) {
+                        slice.drop(from, Math.min(from + sliceSize, bags));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static String row(String path, long accepted, double seconds) {
+        return String.format(Locale.ROOT, "%-22s %9d %10.2f %10.0f", path, accepted, seconds, accepted / Math.max(1e-9, seconds));
+    }
+}
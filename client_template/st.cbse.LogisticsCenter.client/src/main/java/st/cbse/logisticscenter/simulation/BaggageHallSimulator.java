@@ -0,0 +1,216 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+import st.cbse.logisticscenter.passengermgmt.server.start.interfaces.IPassengerManagementRemote;
+
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for the baggage workflow. Builds a synthetic schedule (airline, flights, optionally
+ * passengers), then replays check-in waves of bag drops against a running server while issuing
+ * hold/release actions and status scans, and reports throughput, latency percentiles per remote
+ * operation and the backlog of every pipeline stage.
+ *
+ * Drops are open-loop: each drop is issued at its planned time regardless of how fast earlier drops
+ * completed. "dropBaggage" is the service time of the call, "dropBaggage (response)" is measured from the
+ * planned time and so includes the time a drop waited for a free client thread.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.BaggageHallSimulator --flights=20 --threads=32
+ */
+public class BaggageHallSimulator {
+
+    private static final String MODULE_NAME = "st.cbse.LogisticsCenter.server";
+    private static final String[] AIRPORTS = {"FRA", "MUC", "BER", "LHR", "CDG", "AMS", "MAD", "FCO", "VIE", "ZRH", "CPH", "JFK"};
+    private static final String[] PLANE_TYPES = {"A320", "B738", "A359", "B77W", "E190", "A321"};
+
+    private final SimulationConfig config;
+    private final IFlightManagementRemote flightManagement;
+    private final IPassengerManagementRemote passengerManagement;
+    private final IBaggageManagementRemote baggageManagement;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final PipelineBacklogMonitor backlog;
+    private final List<String> droppedBags = Collections.synchronizedList(new ArrayList<>());
+
+    BaggageHallSimulator(SimulationConfig config, Context context) throws NamingException {
+        this.config = config;
+        this.flightManagement = lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+        this.passengerManagement = lookup(context, "PassengerManagementBean", IPassengerManagementRemote.class);
+        this.baggageManagement = lookup(context, "BaggageManagementBean", IBaggageManagementRemote.class);
+        this.backlog = new PipelineBacklogMonitor(baggageManagement);
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulationConfig config = SimulationConfig.parse(args);
+        System.out.println("Baggage hall simulation: " + config);
+        new BaggageHallSimulator(config, initialContext(config.providerUrl)).run();
+    }
+
+    void run() throws InterruptedException {
+        Random random = new Random(config.seed);
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+
+        List<Flight> flights = createSchedule(runId, random);
+        if (flights.isEmpty()) {
+            System.err.println("No flights could be created, aborting.");
+            return;
+        }
+        List<CheckInWaves.PlannedDrop> drops = CheckInWaves.plan(config, runId, random);
+        System.out.println("Planned " + drops.size() + " bag drops for " + flights.size() + " flights.");
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads);
+        ScheduledExecutorService timers = Executors.newScheduledThreadPool(2);
+        timers.scheduleAtFixedRate(backlog::sample, 0, 1, TimeUnit.SECONDS);
+        if (config.scansPerSecond > 0) {
+            long periodMicros = Math.max(1, (long) (1_000_000 / config.scansPerSecond));
+            timers.scheduleAtFixedRate(() -> workers.execute(this::scan), periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+        }
+
+        long start = System.nanoTime();
+        for (CheckInWaves.PlannedDrop drop : drops) {
+            long plannedNanos = start + TimeUnit.MILLISECONDS.toNanos(drop.atMillis);
+            long wait = plannedNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            Flight flight = flights.get(drop.flightIndex % flights.size());
+            workers.execute(() -> drop(drop, flight, plannedNanos, timers));
+        }
+        System.out.println("All drops dispatched, waiting for outstanding calls...");
+        workers.shutdown(); // The scan ticker stops once it can no longer submit
+        workers.awaitTermination(5, TimeUnit.MINUTES);
+        timers.shutdown(); // Periodic tasks are cancelled, pending releases still run
+        timers.awaitTermination(config.holdSeconds + 10L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        waitForPipelineToDrain();
+
+        System.out.println();
+        System.out.println("=== Remote operations (" + String.format(Locale.ROOT, "%.1f", elapsed) + " s) ===");
+        System.out.print(latencies.report(elapsed));
+        System.out.println();
+        System.out.println("=== Pipeline backlog per stage ===");
+        System.out.print(backlog.report());
+    }
+
+    private void drop(CheckInWaves.PlannedDrop drop, Flight flight, long plannedNanos, ScheduledExecutorService timers) {
+        long start = System.nanoTime();
+        Baggage baggage = latencies.time("dropBaggage", () -> baggageManagement.dropBaggage("drop-" + drop.baggageNumber, drop.baggageNumber, drop.weightKg, flight));
+        latencies.record("dropBaggage (response)", System.nanoTime() - plannedNanos, baggage != null);
+        if (baggage == null) {
+            return;
+        }
+        droppedBags.add(drop.baggageNumber);
+        if (ThreadLocalRandom.current().nextDouble() < config.holdRatio) {
+            latencies.time("setBaggageHoldStatus(hold)", () -> {
+                baggageManagement.setBaggageHoldStatus(drop.baggageNumber, true);
+                return Boolean.TRUE;
+            });
+            try {
+                timers.schedule(() -> latencies.time("setBaggageHoldStatus(release)", () -> {
+                    baggageManagement.setBaggageHoldStatus(drop.baggageNumber, false);
+                    return Boolean.TRUE;
+                }), config.holdSeconds, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                // Timers already shut down; the bag simply stays held.
+            }
+        }
+        if (start - plannedNanos > TimeUnit.SECONDS.toNanos(1) && ThreadLocalRandom.current().nextInt(100) == 0) {
+            System.out.println("Client is falling behind the planned drop rate (" + (start - plannedNanos) / 1_000_000 + " ms late).");
+        }
+    }
+
+    private void scan() {
+        String baggageNumber;
+        synchronized (droppedBags) {
+            if (droppedBags.isEmpty()) {
+                return;
+            }
+            baggageNumber = droppedBags.get(ThreadLocalRandom.current().nextInt(droppedBags.size()));
+        }
+        if (ThreadLocalRandom.current().nextDouble() < config.fullReadRatio) {
+            latencies.time("getBaggageByNumber", () -> baggageManagement.getBaggageByNumber(baggageNumber));
+        } else {
+            latencies.time("getBaggageStatus", () -> baggageManagement.getBaggageStatus(baggageNumber));
+        }
+    }
+
+    private List<Flight> createSchedule(String runId, Random random) throws InterruptedException {
+        String iata = "S" + runId.charAt(runId.length() - 1);
+        Airline airline = latencies.time("registerAirline", () -> flightManagement.registerAirline("Simulated Airways " + runId, iata + runId, "sim-" + runId + "@example.org"));
+        if (airline == null) {
+            System.err.println("Could not register the simulation airline.");
+            return Collections.emptyList();
+        }
+        List<Flight> flights = new ArrayList<>();
+        long waveMinutes = Math.max(1, config.durationSeconds / 60 / Math.max(1, config.waves));
+        for (int i = 0; i < config.flights; i++) {
+            int originIndex = random.nextInt(AIRPORTS.length);
+            String origin = AIRPORTS[originIndex];
+            String destination = AIRPORTS[(originIndex + 1 + random.nextInt(AIRPORTS.length - 1)) % AIRPORTS.length];
+            LocalDateTime departure = LocalDateTime.now().plusHours(2).plusMinutes((i % Math.max(1, config.waves)) * waveMinutes);
+            String flightNumber = "SIM" + runId + "-" + i;
+            String planeType = PLANE_TYPES[i % PLANE_TYPES.length];
+            Flight flight = latencies.time("addFlight", () -> flightManagement.addFlight(airline, flightNumber, origin, destination,
+                    departure, 99.0, 25.0, planeType, "D-S" + flightNumber, config.passengersPerFlight, 0));
+            if (flight != null) {
+                flights.add(flight);
+            }
+        }
+        if (config.registerPassengers) {
+            ExecutorService pool = Executors.newFixedThreadPool(config.threads);
+            int passengers = config.flights * config.passengersPerFlight;
+            for (int i = 0; i < passengers; i++) {
+                int n = i;
+                pool.execute(() -> latencies.time("registerPassenger", () -> passengerManagement.registerPassenger(
+                        "sim" + runId + "p" + n, "secret", "Sim", "Passenger " + n, "sim" + runId + "p" + n + "@example.org")));
+            }
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.MINUTES);
+        }
+        System.out.println("Created " + flights.size() + " flights" + (config.registerPassengers ? " and registered passengers" : "") + ".");
+        return flights;
+    }
+
+    private void waitForPipelineToDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        backlog.sample();
+        while (backlog.currentBacklog() > 0 && System.nanoTime() < deadline) {
+            System.out.println("Pipeline backlog: " + backlog.currentBacklog() + " bag(s) queued...");
+            TimeUnit.SECONDS.sleep(1);
+            backlog.sample();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T lookup(Context context, String beanName, Class<T> remoteInterface) throws NamingException {
+        return (T) context.lookup("ejb:/" + MODULE_NAME + "/" + beanName + "!" + remoteInterface.getName());
+    }
+
+    static Context initialContext(String providerUrl) throws NamingException {
+        Hashtable<String, String> jndiProperties = new Hashtable<>();
+        jndiProperties.put(Context.URL_PKG_PREFIXES, "org.jboss.ejb.client.naming");
+        jndiProperties.put(Context.PROVIDER_URL, providerUrl);
+        jndiProperties.put(Context.INITIAL_CONTEXT_FACTORY, "org.jboss.naming.remote.client.InitialContextFactory");
+        jndiProperties.put("jboss.naming.client.ejb.context", "true");
+        return new InitialContext(jndiProperties);
+    }
+}
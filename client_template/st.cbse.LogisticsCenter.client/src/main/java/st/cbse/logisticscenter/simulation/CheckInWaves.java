@@ -0,0 +1,76 @@
+package st.cbse.logisticscenter.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the bag drop arrivals of a simulation run.
+ * Departures are grouped into waves (banks); the bags of a flight arrive around a peak some time before
+ * its departure, normally distributed, so drops ramp up and down per wave and overlapping flights
+ * of the same wave create the peaks seen at real check-in halls.
+ */
+class CheckInWaves {
+
+    /**
+     * One planned drop: when (ms after the start of the run), which flight and which bag.
+     */
+    static final class PlannedDrop {
+        final long atMillis;
+        final int flightIndex;
+        final String baggageNumber;
+        final double weightKg;
+
+        PlannedDrop(long atMillis, int flightIndex, String baggageNumber, double weightKg) {
+            this.atMillis = atMillis;
+            this.flightIndex = flightIndex;
+            this.baggageNumber = baggageNumber;
+            this.weightKg = weightKg;
+        }
+    }
+
+    private CheckInWaves() {
+    }
+
+    /**
+     * @param runId Makes baggage numbers unique across runs against the same server.
+     * @return All drops of the run, ordered by time.
+     */
+    static List<PlannedDrop> plan(SimulationConfig config, String runId, Random random) {
+        long durationMillis = (long) (config.durationSeconds * 1000L / config.timeScale);
+        int waves = Math.max(1, config.waves);
+        long waveLength = durationMillis / waves;
+        List<PlannedDrop> drops = new ArrayList<>();
+        int bagSequence = 0;
+        for (int flight = 0; flight < config.flights; flight++) {
+            int wave = flight % waves;
+            // Peak of the flight somewhere in the middle of its wave, spread of a quarter wave.
+            double peak = wave * waveLength + waveLength * (0.35 + 0.3 * random.nextDouble());
+            double spread = waveLength / 4.0;
+            for (int passenger = 0; passenger < config.passengersPerFlight; passenger++) {
+                int bags = bagsOf(config.bagsPerPassenger, random);
+                long at = clamp((long) (peak + random.nextGaussian() * spread), 0, durationMillis);
+                for (int bag = 0; bag < bags; bag++) {
+                    String number = "S" + runId + "-" + (bagSequence++);
+                    double weight = Math.round((8 + random.nextDouble() * 24) * 10) / 10.0; // 8 - 32 kg
+                    drops.add(new PlannedDrop(at + bag * 200L, flight, number, weight));
+                }
+            }
+        }
+        drops.sort(Comparator.comparingLong(drop -> drop.atMillis));
+        return drops;
+    }
+
+    private static int bagsOf(double average, Random random) {
+        int bags = (int) average;
+        if (random.nextDouble() < average - bags) {
+            bags++;
+        }
+        return bags;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
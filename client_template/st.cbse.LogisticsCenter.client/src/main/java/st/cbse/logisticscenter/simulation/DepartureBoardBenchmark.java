@@ -0,0 +1,110 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Departure;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightSearchPage;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the in-memory departure board with the database-backed flight search for "next departures" queries.
+ *
+ * Schedules --flights flights from --airports airports, spread evenly over the next --days days, then times
+ * --queries random airport windows of --hours hours: getUpcomingDepartures against searchFlights (first page of
+ * 100 flights). Finally checks that the board follows changes: a flight rescheduled into the window must appear
+ * on the next query, one rescheduled into the past must disappear.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.DepartureBoardBenchmark --flights=20000 --hours=4
+ */
+public class DepartureBoardBenchmark {
+
+    private static final String[] AIRPORTS = {"FRA", "JFK", "LHR", "CDG", "AMS", "MAD", "FCO", "IST", "DXB", "SIN",
+            "HKG", "NRT", "LAX", "ORD", "ATL", "YYZ", "GRU", "SYD", "JNB", "DEL"};
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        int flights = Math.max(2, Integer.parseInt(args.getOrDefault("flights", "20000")));
+        int airports = Math.max(2, Math.min(AIRPORTS.length, Integer.parseInt(args.getOrDefault("airports", "10"))));
+        int days = Math.max(1, Integer.parseInt(args.getOrDefault("days", "7")));
+        int hours = Math.max(1, Integer.parseInt(args.getOrDefault("hours", "4")));
+        int queries = Math.max(1, Integer.parseInt(args.getOrDefault("queries", "1000")));
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "16")));
+        Random random = new Random(Long.parseLong(args.getOrDefault("seed", "42")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Board Bench " + runId, "B" + runId.charAt(runId.length() - 1) + runId,
+                "board-" + runId + "@example.org");
+        if (airline == null) {
+            System.err.println("Could not register the benchmark airline, aborting.");
+            return;
+        }
+        LocalDateTime firstDeparture = LocalDateTime.now().plusMinutes(10).withSecond(0).withNano(0);
+        long minutesBetween = Math.max(1, TimeUnit.DAYS.toMinutes(days) / flights);
+        long start = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < flights; i++) {
+            int flight = i;
+            pool.execute(() -> {
+                String origin = AIRPORTS[flight % airports];
+                String destination = AIRPORTS[(flight + 1) % airports];
+                if (flightManagement.addFlight(airline, "DB" + runId + "-" + flight, origin, destination,
+                        firstDeparture.plusMinutes(flight * minutesBetween), 99.0, 25.0, "A320", "D-BORD", 180, 0) == null) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        System.out.printf(Locale.ROOT, "Scheduled %d flights from %d airports over %d day(s) (%.1f s, %d failed).%n",
+                flights - failed.get(), airports, days, (System.nanoTime() - start) / 1e9, failed.get());
+
+        LatencyRecorder latencies = new LatencyRecorder();
+        long boardRows = 0;
+        long searchRows = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            String origin = AIRPORTS[random.nextInt(airports)];
+            List<Departure> board = latencies.time("departure board", () -> flightManagement.getUpcomingDepartures(origin, hours));
+            LocalDateTime now = LocalDateTime.now();
+            FlightSearchPage page = latencies.time("searchFlights (database)", () ->
+                    flightManagement.searchFlights(origin, null, now, now.plusHours(hours), null, 100));
+            boardRows += board != null ? board.size() : 0;
+            searchRows += page != null ? page.getItems().size() : 0;
+        }
+        System.out.println();
+        System.out.print(latencies.report((System.nanoTime() - start) / 1e9));
+        System.out.printf(Locale.ROOT, "Average departures per window: board %.1f, search %.1f (first page, at most 100).%n",
+                (double) boardRows / queries, (double) searchRows / queries);
+
+        // The last flight leaves at the end of the schedule, outside the window; move it in and out again.
+        String probe = "DB" + runId + "-" + (flights - 1);
+        Flight moved = flightManagement.updateFlightStartTime(probe, LocalDateTime.now().plusMinutes(5));
+        boolean appeared = moved != null && contains(flightManagement.getUpcomingDepartures(moved.getOrigin(), hours), probe);
+        flightManagement.updateFlightStartTime(probe, LocalDateTime.now().minusMinutes(5));
+        boolean disappeared = moved != null && !contains(flightManagement.getUpcomingDepartures(moved.getOrigin(), hours), probe);
+        System.out.println();
+        System.out.println("Rescheduled " + probe + " into the window: " + (appeared ? "shown" : "NOT shown")
+                + "; into the past: " + (disappeared ? "removed" : "STILL shown") + ".");
+    }
+
+    private static boolean contains(List<Departure> departures, String flightNumber) {
+        return departures != null && departures.stream().anyMatch(d -> flightNumber.equals(d.getFlightNumber()));
+    }
+}
@@ -0,0 +1,134 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightSearchPage;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shows that searchFlights costs the same however large the schedule is.
+ *
+ * Grows a synthetic schedule step by step (--sizes, total flights after each step) over a fixed set of routes,
+ * adding further days at the same density, so a route/day search always matches about the same number of flights.
+ * After each step it times --searches random route/day searches (first page, plus the second page where there is one)
+ * and prints a table of schedule size against search latency. With the (origin, destination, startTime) index the
+ * latencies stay flat; without it they would grow with the schedule.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.FlightSearchBenchmark --sizes=10000,50000,100000,300000
+ */
+public class FlightSearchBenchmark {
+
+    private static final String[] AIRPORTS = {"FRA", "JFK", "LHR", "CDG", "AMS", "MAD", "FCO", "IST", "DXB", "SIN",
+            "HKG", "NRT", "LAX", "ORD", "ATL", "YYZ", "GRU", "SYD", "JNB", "DEL"};
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        String[] sizes = args.getOrDefault("sizes", "10000,50000,100000,200000").split(",");
+        int routes = Math.min(AIRPORTS.length * (AIRPORTS.length - 1), Integer.parseInt(args.getOrDefault("routes", "200")));
+        int flightsPerRouteDay = Math.max(1, Integer.parseInt(args.getOrDefault("flightsPerRouteDay", "24")));
+        int searches = Integer.parseInt(args.getOrDefault("searches", "500"));
+        int pageSize = Integer.parseInt(args.getOrDefault("pageSize", "20"));
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "16")));
+        Random random = new Random(Long.parseLong(args.getOrDefault("seed", "42")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Search Bench " + runId, "S" + runId.charAt(runId.length() - 1) + runId,
+                "search-" + runId + "@example.org");
+        if (airline == null) {
+            System.err.println("Could not register the benchmark airline, aborting.");
+            return;
+        }
+        LocalDateTime firstDay = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        long minutesBetween = TimeUnit.DAYS.toMinutes(1) / flightsPerRouteDay;
+
+        List<String> rows = new ArrayList<>();
+        int scheduled = 0;
+        for (String size : sizes) {
+            int target = Integer.parseInt(size.trim());
+            long start = System.nanoTime();
+            scheduled = grow(flightManagement, airline, runId, scheduled, target, routes, firstDay, minutesBetween, threads);
+            System.out.printf(Locale.ROOT, "%nSchedule grown to %d flights (%.1f s).%n", scheduled, (System.nanoTime() - start) / 1e9);
+
+            int days = Math.max(1, scheduled / (routes * flightsPerRouteDay));
+            LatencyRecorder latencies = new LatencyRecorder();
+            long searchStart = System.nanoTime();
+            for (int i = 0; i < searches; i++) {
+                int route = random.nextInt(routes);
+                LocalDateTime from = firstDay.plusDays(random.nextInt(days));
+                FlightSearchPage first = latencies.time("first page", () ->
+                        flightManagement.searchFlights(origin(route), destination(route), from, from.plusDays(1), null, pageSize));
+                if (first != null && first.hasMore()) {
+                    latencies.time("next page", () -> flightManagement.searchFlights(origin(route), destination(route),
+                            from, from.plusDays(1), first.getNextCursor(), pageSize));
+                }
+            }
+            String report = latencies.report((System.nanoTime() - searchStart) / 1e9);
+            System.out.print(report);
+            for (String line : report.split("\n")) {
+                if (line.startsWith("first page") || line.startsWith("next page")) {
+                    rows.add(String.format(Locale.ROOT, "%9d  %s", scheduled, line));
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("=== Search latency by schedule size ===");
+        System.out.printf(Locale.ROOT, "%9s  %-28s %9s %7s %10s %10s %10s %10s %10s%n",
+                "flights", "operation", "calls", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        rows.forEach(System.out::println);
+    }
+
+    // Adds flights until the schedule holds target flights. Flight i flies route i % routes, in slot i / routes.
+    private static int grow(IFlightManagementRemote flightManagement, Airline airline, String runId, int from, int target,
+                            int routes, LocalDateTime firstDay, long minutesBetween, int threads) throws InterruptedException {
+        if (target <= from) {
+            return from;
+        }
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = from; i < target; i++) {
+            int flight = i;
+            pool.execute(() -> {
+                int route = flight % routes;
+                LocalDateTime departure = firstDay.plusMinutes((flight / routes) * minutesBetween);
+                if (flightManagement.addFlight(airline, "SB" + runId + "-" + flight, origin(route), destination(route), departure,
+                        99.0, 25.0, "A320", "D-SRCH", 180, 0) == null) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        if (failed.get() > 0) {
+            System.err.println(failed.get() + " flight(s) could not be added.");
+        }
+        return target;
+    }
+
+    private static String origin(int route) {
+        return AIRPORTS[route / (AIRPORTS.length - 1)];
+    }
+
+    // Skips the origin itself, so every route index maps to a distinct airport pair.
+    private static String destination(int route) {
+        int origin = route / (AIRPORTS.length - 1);
+        int destination = route % (AIRPORTS.length - 1);
+        return AIRPORTS[destination >= origin ? destination + 1 : destination];
+    }
+}
@@ -0,0 +1,93 @@
+package st.cbse.logisticscenter.simulation;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects call latencies per operation and reports throughput and percentiles.
+ * Samples are kept exactly (a growable long[] per operation), which is fine for the sample counts
+ * of a simulation run and avoids histogram rounding in the tail percentiles.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> operations = new ConcurrentHashMap<>();
+
+    void record(String operation, long nanos, boolean success) {
+        operations.computeIfAbsent(operation, k -> new Samples()).add(nanos, success);
+    }
+
+    /**
+     * Times a call and records it under the operation name.
+     * @return The call's result, or null if it threw (counted as error).
+     */
+    <T> T time(String operation, RemoteCall<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            record(operation, System.nanoTime() - start, true);
+            return result;
+        } catch (Exception e) {
+            record(operation, System.nanoTime() - start, false);
+            return null;
+        }
+    }
+
+    String report(double elapsedSeconds) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-28s %9s %7s %10s %10s %10s %10s %10s%n",
+                "operation", "calls", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        operations.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            long[] sorted = entry.getValue().sorted();
+            out.append(String.format(Locale.ROOT, "%-28s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(), sorted.length, entry.getValue().errors(), sorted.length / elapsedSeconds,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)), millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0)));
+        });
+        return out.toString();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    interface RemoteCall<T> {
+        T call() throws Exception;
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long nanos, boolean success) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
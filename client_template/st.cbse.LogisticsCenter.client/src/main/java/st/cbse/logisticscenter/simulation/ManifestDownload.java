@@ -0,0 +1,159 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDrop;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDropResult;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestBinaryFormat;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads a flight's loading manifest from the server's manifest servlet in both formats and reports size and time.
+ * The binary manifest is decoded row by row while it arrives, so the client needs as little memory as the server.
+ *
+ * Without --flight a wide-body test flight with --bags bags is created first.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.ManifestDownload --flight=LH400
+ */
+public class ManifestDownload {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        String baseUrl = args.getOrDefault("baseUrl", "http://localhost:8080/st.cbse.LogisticsCenter.server");
+        String flightNumber = args.get("flight");
+        int rounds = Math.max(1, Integer.parseInt(args.getOrDefault("rounds", "3")));
+
+        if (flightNumber == null) {
+            flightNumber = createFlight(providerUrl, Integer.parseInt(args.getOrDefault("bags", "5000")));
+            if (flightNumber == null) {
+                System.err.println("Could not create the test flight, aborting.");
+                return;
+            }
+        }
+        String url = baseUrl + "/manifests/" + URLEncoder.encode(flightNumber, StandardCharsets.UTF_8);
+
+        for (int round = 1; round <= rounds; round++) {
+            System.out.println();
+            System.out.println("=== Round " + round + " ===");
+
+            long start = System.nanoTime();
+            long[] lines = {0};
+            long csvBytes = download(url + "?format=csv", in -> {
+                for (int b = in.read(); b >= 0; b = in.read()) {
+                    if (b == '\n') {
+                        lines[0]++;
+                    }
+                }
+            });
+            report("csv", lines[0] - 1, csvBytes, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            AtomicLong rows = new AtomicLong();
+            long binaryBytes = download(url + "?format=binary",
+                    in -> ManifestBinaryFormat.read(new DataInputStream(in), entry -> rows.incrementAndGet()));
+            report("binary", rows.get(), binaryBytes, System.nanoTime() - start);
+        }
+    }
+
+    private interface Body {
+        void read(InputStream in) throws IOException;
+    }
+
+    // Returns the number of bytes received.
+    private static long download(String url, Body body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException(url + " answered " + connection.getResponseCode() + " " + connection.getResponseMessage());
+            }
+            try (CountingInputStream in = new CountingInputStream(new BufferedInputStream(connection.getInputStream(), 1 << 16))) {
+                body.read(in);
+                return in.count;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void report(String format, long rows, long bytes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf(Locale.ROOT, "%-7s %8d bags  %10d bytes (%5.1f bytes/bag)  %7.3f s  %9.0f bags/s%n",
+                format, rows, bytes, rows > 0 ? (double) bytes / rows : 0, seconds, rows / seconds);
+    }
+
+    private static String createFlight(String providerUrl, int bags) throws Exception {
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+        IBaggageManagementRemote baggageManagement = BaggageHallSimulator.lookup(context, "BaggageManagementBean", IBaggageManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Manifest Check " + runId, "M" + runId.charAt(runId.length() - 1) + runId,
+                "manifest-" + runId + "@example.org");
+        Flight flight = airline == null ? null : flightManagement.addFlight(airline, "MF" + runId, "FRA", "JFK",
+                LocalDateTime.now().plusHours(6), 99.0, 25.0, "B77W", "D-MANI", bags, 0);
+        if (flight == null) {
+            return null;
+        }
+        List<BagDrop> chunk = new ArrayList<>();
+        int dropped = 0;
+        for (int i = 0; i < bags; i++) {
+            chunk.add(new BagDrop("MF" + runId + "-" + i, 15.0 + (i % 20), flight));
+            if (chunk.size() == 500 || i == bags - 1) {
+                for (BagDropResult result : baggageManagement.dropBaggageBatch(chunk)) {
+                    if (result.isAccepted()) {
+                        dropped++;
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        System.out.println("Dropped " + dropped + " bags on flight " + flight.getFlightNumber() + ".");
+        return flight.getFlightNumber();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+import st.cbse.logisticscenter.passengermgmt.server.start.interfaces.IPassengerManagementRemote;
+
+import javax.naming.Context;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares the entity-returning read calls with their DTO counterparts, by payload size and round-trip time:
+ *   getAllFlights          vs. getFlightList         (Flight with Airline vs. FlightListRow)
+ *   getBaggageByNumber     vs. getBaggageStatusView  (Baggage with history vs. BaggageStatusView)
+ *   getPassengerByUsername vs. getPassengerProfile   (Passenger entity vs. PassengerProfile)
+ *
+ * Creates --flights flights, one bag with --history status changes and one passenger first. Each call is timed
+ * --rounds times; the payload is the Java serialization of the result, measured once on the client.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.PayloadBenchmark --flights=200 --history=20
+ */
+public class PayloadBenchmark {
+
+    private static final BaggageStatus[] IRREGULARITIES = {BaggageStatus.LOST, BaggageStatus.DAMAGED, BaggageStatus.MISROUTED};
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        int flights = Math.max(1, Integer.parseInt(args.getOrDefault("flights", "200")));
+        int history = Math.max(0, Integer.parseInt(args.getOrDefault("history", "20")));
+        int rounds = Math.max(1, Integer.parseInt(args.getOrDefault("rounds", "200")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+        IBaggageManagementRemote baggageManagement = BaggageHallSimulator.lookup(context, "BaggageManagementBean", IBaggageManagementRemote.class);
+        IPassengerManagementRemote passengerManagement = BaggageHallSimulator.lookup(context, "PassengerManagementBean", IPassengerManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Payload Bench " + runId, "P" + runId.charAt(runId.length() - 1) + runId,
+                "payload-" + runId + "@example.org");
+        if (airline == null) {
+            System.err.println("Could not register the benchmark airline, aborting.");
+            return;
+        }
+        Flight first = null;
+        for (int i = 0; i < flights; i++) {
+            Flight flight = flightManagement.addFlight(airline, "PB" + runId + "-" + i, "FRA", "JFK",
+                    LocalDateTime.now().plusDays(1).plusMinutes(i), 99.0, 25.0, "A320", "D-PAYL", 180, 0);
+            if (first == null) {
+                first = flight;
+            }
+        }
+        String baggageNumber = "PB" + runId + "-BAG";
+        // LOST stops the automated pipeline, so the history below is all the bag gets.
+        if (first == null || baggageManagement.dropBaggage(baggageNumber, 18.0, first) == null
+                || baggageManagement.updateBaggageStatus(baggageNumber, BaggageStatus.LOST) == null) {
+            System.err.println("Could not create the benchmark flights and bag, aborting.");
+            return;
+        }
+        for (int i = 0; i < history; i++) {
+            baggageManagement.recordBaggageStatus(baggageNumber, IRREGULARITIES[i % IRREGULARITIES.length], "payload benchmark report " + i);
+        }
+        String username = "payload-" + runId.toLowerCase(Locale.ROOT);
+        if (passengerManagement.registerPassenger(username, "secret-" + runId, "Pay", "Load", username + "@example.org") == null) {
+            System.err.println("Could not register the benchmark passenger, aborting.");
+            return;
+        }
+        System.out.println("Created " + flights + " flights, bag " + baggageNumber + " with " + history + " extra history entries and passenger " + username + ".");
+
+        LatencyRecorder latencies = new LatencyRecorder();
+        List<String> sizes = new ArrayList<>();
+        long start = System.nanoTime();
+        compare(latencies, sizes, rounds, "getAllFlights", flightManagement::getAllFlights);
+        compare(latencies, sizes, rounds, "getFlightList", flightManagement::getFlightList);
+        compare(latencies, sizes, rounds, "getBaggageByNumber", () -> baggageManagement.getBaggageByNumber(baggageNumber));
+        compare(latencies, sizes, rounds, "getBaggageStatusView", () -> baggageManagement.getBaggageStatusView(baggageNumber));
+        compare(latencies, sizes, rounds, "getPassengerByUsername", () -> passengerManagement.getPassengerByUsername(username));
+        compare(latencies, sizes, rounds, "getPassengerProfile", () -> passengerManagement.getPassengerProfile(username));
+
+        System.out.println();
+        System.out.println("=== Payload (Java serialization of the result) ===");
+        sizes.forEach(System.out::println);
+        System.out.println();
+        System.out.println("=== Round trip ===");
+        System.out.print(latencies.report((System.nanoTime() - start) / 1e9));
+        Baggage full = baggageManagement.getBaggageByNumber(baggageNumber);
+        if (full != null) {
+            System.out.println();
+            System.out.println("(getBaggageByNumber carried " + full.getHistory().size() + " history entries)");
+        }
+    }
+
+    private static void compare(LatencyRecorder latencies, List<String> sizes, int rounds, String operation,
+                                LatencyRecorder.RemoteCall<?> call) throws Exception {
+        sizes.add(String.format(Locale.ROOT, "%-28s %10d bytes", operation, serializedSize(call.call())));
+        for (int i = 0; i < rounds; i++) {
+            latencies.time(operation, call);
+        }
+    }
+
+    private static long serializedSize(Object result) throws IOException {
+        long[] count = {0};
+        OutputStream counter = new OutputStream() {
+            @Override
+            public void write(int b) {
+                count[0]++;
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) {
+                count[0] += length;
+            }
+        };
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(result);
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,77 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.PipelineStageStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Samples the server's pipeline statistics during a run and keeps the peak queue depth per stage.
+ * "missed" counts bags a stage took up after their flight's baggage deadline.
+ */
+class PipelineBacklogMonitor {
+
+    private final IBaggageManagementRemote baggageManagement;
+    private final Map<BaggageProcessingStage, Integer> peakDepth = new EnumMap<>(BaggageProcessingStage.class);
+    private Map<BaggageProcessingStage, PipelineStageStats> first;
+    private Map<BaggageProcessingStage, PipelineStageStats> last;
+
+    PipelineBacklogMonitor(IBaggageManagementRemote baggageManagement) {
+        this.baggageManagement = baggageManagement;
+    }
+
+    synchronized void sample() {
+        try {
+            Map<BaggageProcessingStage, PipelineStageStats> current = new EnumMap<>(BaggageProcessingStage.class);
+            List<PipelineStageStats> stats = baggageManagement.getPipelineStats();
+            for (PipelineStageStats stage : stats) {
+                current.put(stage.getStage(), stage);
+                peakDepth.merge(stage.getStage(), stage.getQueueDepth(), Math::max);
+            }
+            if (first == null) {
+                first = current;
+            }
+            last = current;
+        } catch (Exception e) {
+            // Monitoring must never disturb the run.
+        }
+    }
+
+    /**
+     * @return The total number of bags still queued in the pipeline at the last sample.
+     */
+    synchronized int currentBacklog() {
+        int backlog = 0;
+        if (last != null) {
+            for (PipelineStageStats stage : last.values()) {
+                backlog += stage.getQueueDepth();
+            }
+        }
+        return backlog;
+    }
+
+    synchronized String report() {
+        if (last == null || last.isEmpty()) {
+            return "No pipeline statistics (server in inline mode or not reachable).\n";
+        }
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-10s %8s %11s %11s %11s %9s %9s %9s %12s%n",
+                "stage", "workers", "peak queue", "end queue", "processed", "failed", "rejected", "missed", "max late s"));
+        for (Map.Entry<BaggageProcessingStage, PipelineStageStats> entry : last.entrySet()) {
+            PipelineStageStats end = entry.getValue();
+            PipelineStageStats start = first.get(entry.getKey());
+            out.append(String.format(Locale.ROOT, "%-10s %8d %11d %11d %11d %9d %9d %9d %12d%n",
+                    entry.getKey(), end.getWorkers(), peakDepth.getOrDefault(entry.getKey(), 0), end.getQueueDepth(),
+                    end.getProcessed() - (start != null ? start.getProcessed() : 0),
+                    end.getFailed() - (start != null ? start.getFailed() : 0),
+                    end.getRejected() - (start != null ? start.getRejected() : 0),
+                    end.getMissedDeadlines() - (start != null ? start.getMissedDeadlines() : 0),
+                    end.getMaxLatenessSeconds()));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ReferenceCacheStats;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares flight reference data lookups with and without the server's reference data caches.
+ *
+ * Creates an airline and --flights flights, then runs the same read mix twice, once with the caches switched on
+ * and once with them off (setReferenceCacheEnabled): --threads client threads each perform --calls random
+ * getFlightByFlightNumber and getAirlineByIataCode lookups, after --warmup untimed calls. Prints the latency
+ * report and the server's cache counters of each run.
+ *
+ * The caches are switched back on at the end.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.ReferenceLookupBenchmark --flights=1000 --threads=16
+ */
+public class ReferenceLookupBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        int flights = Math.max(1, Integer.parseInt(args.getOrDefault("flights", "1000")));
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "16")));
+        int calls = Math.max(1, Integer.parseInt(args.getOrDefault("calls", "2000")));
+        int warmup = Math.max(0, Integer.parseInt(args.getOrDefault("warmup", "200")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        String iataCode = "R" + runId.charAt(runId.length() - 1) + runId;
+        Airline airline = flightManagement.registerAirline("Reference Bench " + runId, iataCode, "reference-" + runId + "@example.org");
+        if (airline == null) {
+            System.err.println("Could not register the benchmark airline, aborting.");
+            return;
+        }
+        List<String> flightNumbers = new ArrayList<>();
+        LocalDateTime departure = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < flights; i++) {
+            String flightNumber = "RB" + runId + "-" + i;
+            if (flightManagement.addFlight(airline, flightNumber, "FRA", "JFK", departure.plusMinutes(i), 99.0, 25.0,
+                    "A320", "D-REFB", 180, 0) != null) {
+                flightNumbers.add(flightNumber);
+            }
+        }
+        if (flightNumbers.isEmpty()) {
+            System.err.println("Could not add any benchmark flight, aborting.");
+            return;
+        }
+        System.out.println("Created " + flightNumbers.size() + " flights of airline " + iataCode + ".");
+
+        try {
+            for (boolean enabled : new boolean[] {true, false}) {
+                flightManagement.setReferenceCacheEnabled(enabled); // Also empties the caches and resets the counters
+                run(flightManagement, flightNumbers, iataCode, threads, warmup, null); // Untimed, fills the caches
+                LatencyRecorder latencies = new LatencyRecorder();
+                long start = System.nanoTime();
+                run(flightManagement, flightNumbers, iataCode, threads, calls, latencies);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.println();
+                System.out.println("=== Reference caches " + (enabled ? "enabled" : "disabled") + " ===");
+                System.out.print(latencies.report(seconds));
+                System.out.println();
+                System.out.printf(Locale.ROOT, "%-20s %10s %10s %8s %10s%n", "cache", "hits", "misses", "ratio", "entries");
+                for (ReferenceCacheStats stats : flightManagement.getReferenceCacheStats()) {
+                    System.out.printf(Locale.ROOT, "%-20s %10d %10d %7.1f%% %10s%n", stats.getCache(), stats.getHits(),
+                            stats.getMisses(), 100 * stats.getHitRatio(), stats.getEntries() < 0 ? "-" : Long.toString(stats.getEntries()));
+                }
+            }
+        } finally {
+            flightManagement.setReferenceCacheEnabled(true);
+        }
+    }
+
+    // Every thread performs calls lookups; recorded only if latencies is given.
+    private static void run(IFlightManagementRemote flightManagement, List<String> flightNumbers, String iataCode,
+                            int threads, int calls, LatencyRecorder latencies) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < calls; i++) {
+                    if (random.nextInt(4) == 0) {
+                        lookup(latencies, "getAirlineByIataCode", () -> flightManagement.getAirlineByIataCode(iataCode));
+                    } else {
+                        String flightNumber = flightNumbers.get(random.nextInt(flightNumbers.size()));
+                        lookup(latencies, "getFlightByFlightNumber", () -> flightManagement.getFlightByFlightNumber(flightNumber));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+    }
+
+    private static void lookup(LatencyRecorder latencies, String operation, LatencyRecorder.RemoteCall<?> call) throws Exception {
+        if (latencies == null) {
+            call.call();
+        } else {
+            latencies.time(operation, call);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDrop;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDropResult;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ScanIngestionStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput benchmark of the server's tag-scan ingestion.
+ *
+ * Drops a set of bags, streams scansPerBag sightings per bag over the scan socket (several connections in
+ * parallel, all scans of a bag on the same connection so their order is defined) and waits until the server
+ * has applied all of them. Reports the send rate, the end-to-end ingestion rate and the batching the server
+ * achieved. With --lanes=1,2,4,8 the run is repeated once per lane count (the server's ingestion lanes are
+ * switched between rounds and restored afterwards) and a table shows how the ingestion rate scales.
+ * For comparison, remoteCalls sightings are then recorded with one recordBaggageStatus call each.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.ScanIngestionBenchmark --bags=5000 --scansPerBag=4 --lanes=1,2,4,8
+ */
+public class ScanIngestionBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        String scanHost = args.getOrDefault("scanHost", "localhost");
+        int scanPort = Integer.parseInt(args.getOrDefault("scanPort", "7701"));
+        int bags = Integer.parseInt(args.getOrDefault("bags", "2000"));
+        int scansPerBag = Integer.parseInt(args.getOrDefault("scansPerBag", "4"));
+        int connections = Math.max(1, Integer.parseInt(args.getOrDefault("connections", "4")));
+        int remoteCalls = Integer.parseInt(args.getOrDefault("remoteCalls", "1000"));
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "16")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+        IBaggageManagementRemote baggageManagement = BaggageHallSimulator.lookup(context, "BaggageManagementBean", IBaggageManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        List<String> numbers = dropBags(flightManagement, baggageManagement, runId, bags);
+        if (numbers.isEmpty()) {
+            System.err.println("No bags could be dropped, aborting.");
+            return;
+        }
+        String laneCounts = args.get("lanes");
+        if (laneCounts == null) {
+            round(baggageManagement, scanHost, scanPort, numbers, connections, scansPerBag);
+        } else {
+            int configured = baggageManagement.getScanIngestionStats().getLanes();
+            List<String> rows = new ArrayList<>();
+            try {
+                for (String lanes : laneCounts.split(",")) {
+                    baggageManagement.setScanIngestionLanes(Integer.parseInt(lanes.trim()));
+                    System.out.println();
+                    System.out.println("##### " + lanes.trim() + " lane(s) #####");
+                    rows.add(String.format(Locale.ROOT, "%5s  %12.0f", lanes.trim(),
+                            round(baggageManagement, scanHost, scanPort, numbers, connections, scansPerBag)));
+                }
+            } finally {
+                baggageManagement.setScanIngestionLanes(configured);
+            }
+            System.out.println();
+            System.out.println("=== Scaling with lane count ===");
+            System.out.println("lanes  scans/s (end to end)");
+            rows.forEach(System.out::println);
+        }
+
+        if (remoteCalls > 0) {
+            System.out.println();
+            System.out.println("=== Baseline: one recordBaggageStatus call per scan (" + remoteCalls + " calls, " + threads + " threads) ===");
+            LatencyRecorder latencies = new LatencyRecorder();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long baselineStart = System.nanoTime();
+            for (int i = 0; i < remoteCalls; i++) {
+                String number = numbers.get(i % numbers.size());
+                pool.execute(() -> latencies.time("recordBaggageStatus", () -> {
+                    BaggageStatus status = baggageManagement.getBaggageStatus(number);
+                    baggageManagement.recordBaggageStatus(number, status, "Scanned at BENCH-REMOTE.");
+                    return Boolean.TRUE;
+                }));
+            }
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.MINUTES);
+            System.out.print(latencies.report((System.nanoTime() - baselineStart) / 1e9));
+        }
+    }
+
+    // Streams scansPerBag scans per bag and waits until the server has handled them all. Returns the end-to-end rate.
+    private static double round(IBaggageManagementRemote baggageManagement, String scanHost, int scanPort, List<String> numbers,
+                                int connections, int scansPerBag) throws Exception {
+        long total = (long) numbers.size() * scansPerBag;
+        System.out.println("Streaming " + total + " scans for " + numbers.size() + " bags over " + connections + " connection(s)...");
+
+        ScanIngestionStats before = baggageManagement.getScanIngestionStats();
+        long start = System.nanoTime();
+        ExecutorService senders = Executors.newFixedThreadPool(connections);
+        List<Future<?>> sent = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            int connection = c;
+            sent.add(senders.submit(() -> {
+                send(scanHost, scanPort, numbers, connection, connections, scansPerBag);
+                return null;
+            }));
+        }
+        for (Future<?> future : sent) {
+            future.get();
+        }
+        senders.shutdown();
+        double sendSeconds = (System.nanoTime() - start) / 1e9;
+
+        ScanIngestionStats after = before;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (after.getCompleted() - before.getCompleted() < total && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            after = baggageManagement.getScanIngestionStats();
+        }
+        double ingestSeconds = (System.nanoTime() - start) / 1e9;
+        long completed = after.getCompleted() - before.getCompleted();
+        long batches = after.getBatches() - before.getBatches();
+
+        System.out.println();
+        System.out.println("=== Scan ingestion (" + after.getLanes() + " lane(s)) ===");
+        System.out.printf(Locale.ROOT, "scans sent            %10d in %.2f s (%.0f scans/s)%n", total, sendSeconds, total / sendSeconds);
+        System.out.printf(Locale.ROOT, "scans completed       %10d in %.2f s (%.0f scans/s end to end)%n", completed, ingestSeconds, completed / ingestSeconds);
+        System.out.printf(Locale.ROOT, "batches               %10d (avg %.1f scans per transaction)%n", batches, batches > 0 ? (double) completed / batches : 0);
+        System.out.printf(Locale.ROOT, "applied / rejected    %10d / %d%n", after.getApplied() - before.getApplied(), after.getRejected() - before.getRejected());
+        System.out.printf(Locale.ROOT, "unknown bags / failed %10d / %d%n", after.getUnknownBags() - before.getUnknownBags(), after.getFailed() - before.getFailed());
+        if (completed < total) {
+            System.out.println("Timed out waiting for the server, " + (total - completed) + " scan(s) outstanding.");
+        }
+        return completed / ingestSeconds;
+    }
+
+    private static List<String> dropBags(IFlightManagementRemote flightManagement, IBaggageManagementRemote baggageManagement,
+                                         String runId, int bags) {
+        Airline airline = flightManagement.registerAirline("Scan Bench " + runId, "B" + runId.charAt(runId.length() - 1) + runId,
+                "scan-" + runId + "@example.org");
+        if (airline == null) {
+            return List.of();
+        }
+        Flight flight = flightManagement.addFlight(airline, "SCAN" + runId, "FRA", "JFK", LocalDateTime.now().plusHours(6),
+                99.0, 25.0, "B77W", "D-SCAN", bags, 0);
+        if (flight == null) {
+            return List.of();
+        }
+        List<String> numbers = new ArrayList<>(bags);
+        List<BagDrop> chunk = new ArrayList<>();
+        for (int i = 0; i < bags; i++) {
+            chunk.add(new BagDrop("SC" + runId + "-" + i, 18.0, flight));
+            if (chunk.size() == 500 || i == bags - 1) {
+                for (BagDropResult result : baggageManagement.dropBaggageBatch(chunk)) {
+                    if (result.isAccepted()) {
+                        numbers.add(result.getBaggageNumber());
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        System.out.println("Dropped " + numbers.size() + " bags on flight " + flight.getFlightNumber() + ".");
+        return numbers;
+    }
+
+    // Round-robin over the bags of this connection, so consecutive scans of a bag are spread out like on a belt.
+    private static void send(String host, int port, List<String> numbers, int connection, int connections, int scansPerBag)
+            throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            for (int scan = 0; scan < scansPerBag; scan++) {
+                for (int i = connection; i < numbers.size(); i += connections) {
+                    out.write(numbers.get(i));
+                    out.write(",BENCH-BELT-");
+                    out.write(Integer.toString(scan));
+                    out.write('\n');
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Uploads a flight schedule to the server's schedule servlet and reports how fast it was imported.
+ *
+ * With --file the given CSV file is sent as it is. Otherwise a synthetic schedule of --rows departures is
+ * generated while it is sent (for a new airline unless --airline names an existing one), with a malformed and a
+ * duplicate line every --badEvery rows to show the per-line error reporting. Prints the first --showErrors
+ * rejected lines, the server's progress and the overall throughput.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.ScheduleUpload --rows=100000
+ */
+public class ScheduleUpload {
+
+    private static final String[] AIRPORTS = {"FRA", "JFK", "LHR", "CDG", "AMS", "MAD", "FCO", "IST", "DXB", "SIN"};
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    private interface Body {
+        void write(Writer out) throws IOException;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        String baseUrl = args.getOrDefault("baseUrl", "http://localhost:8080/st.cbse.LogisticsCenter.server");
+        String file = args.get("file");
+        int rows = Math.max(1, Integer.parseInt(args.getOrDefault("rows", "100000")));
+        int badEvery = Math.max(0, Integer.parseInt(args.getOrDefault("badEvery", "10000")));
+        int showErrors = Math.max(0, Integer.parseInt(args.getOrDefault("showErrors", "10")));
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        String iataCode = args.get("airline");
+        if (iataCode == null) {
+            Context context = BaggageHallSimulator.initialContext(providerUrl);
+            IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+            Airline airline = flightManagement.registerAirline("Schedule Import " + runId, "I" + runId.charAt(runId.length() - 1) + runId,
+                    "schedule-" + runId + "@example.org");
+            if (airline == null) {
+                System.err.println("Could not register the schedule airline, aborting.");
+                return;
+            }
+            iataCode = airline.getIataCode();
+        }
+
+        Body body;
+        if (file != null) {
+            body = out -> {
+                try (BufferedReader in = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+                    in.transferTo(out);
+                }
+            };
+        } else {
+            String flightPrefix = "IM" + runId + "-";
+            body = out -> generate(out, flightPrefix, rows, badEvery);
+        }
+
+        String url = baseUrl + "/schedules/" + URLEncoder.encode(iataCode, StandardCharsets.UTF_8);
+        System.out.println("Uploading " + (file != null ? file : rows + " generated departures") + " to " + url);
+        long start = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(1 << 16); // Sent while generated, never held in memory as a whole
+            connection.setRequestProperty("Content-Type", "text/csv; charset=UTF-8");
+            try (OutputStream raw = connection.getOutputStream();
+                 Writer out = new BufferedWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8), 1 << 16)) {
+                body.write(out);
+            }
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                System.err.println(url + " answered " + connection.getResponseCode() + " " + connection.getResponseMessage());
+                return;
+            }
+            long errors = 0;
+            String last = null;
+            try (InputStream raw = connection.getInputStream();
+                 BufferedReader in = new BufferedReader(new InputStreamReader(raw, StandardCharsets.UTF_8))) {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (line.startsWith("#")) {
+                        last = line;
+                    } else if (errors++ < showErrors) {
+                        System.out.println("  " + line);
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (errors > showErrors) {
+                System.out.println("  ... " + (errors - showErrors) + " more rejected line(s)");
+            }
+            System.out.println(last);
+            System.out.printf(Locale.ROOT, "Upload and import took %.2f s", seconds);
+            System.out.println(file != null ? "." : String.format(Locale.ROOT, " (%.0f departures/s).", rows / seconds));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void generate(Writer out, String flightPrefix, int rows, int badEvery) throws IOException {
+        out.write("flightNumber,origin,destination,startTime,basePrice,pricePerBaggage,planeType,planeNumber,capacity\n");
+        LocalDateTime firstDeparture = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+        for (int i = 0; i < rows; i++) {
+            String origin = AIRPORTS[i % AIRPORTS.length];
+            String destination = AIRPORTS[(i / AIRPORTS.length + i + 1) % AIRPORTS.length];
+            if (destination.equals(origin)) {
+                destination = AIRPORTS[(i + 1) % AIRPORTS.length];
+            }
+            out.write(flightPrefix + i + "," + origin + "," + destination + "," + firstDeparture.plusMinutes(i).format(TIME)
+                    + ",149.0,30.0,A320,D-SCHD,180\n");
+            if (badEvery > 0 && i % badEvery == badEvery - 1) {
+                out.write(flightPrefix + "BAD" + i + "," + origin + ",,not-a-time,x,30.0,A320,D-SCHD,180\n");
+                out.write(flightPrefix + i + "," + origin + "," + destination + "," + firstDeparture.format(TIME) + ",149.0,30.0,A320,D-SCHD,180\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.SeatInventoryStats;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sells out one hot flight from many parallel bookers and checks that it is never oversold.
+ *
+ * For each seat token block size in --blockSizes (0 = every booking is a conditional UPDATE of the flight row)
+ * a fresh flight with --capacity seats is created, and --threads client threads book 1 to --maxSeats seats per
+ * call. A refused party is retried with one seat less, until the flight refuses a single seat. Afterwards the held
+ * tokens are given back and the flight's booked seats must equal the seats the clients were granted, and the
+ * flight must be sold out exactly to its capacity. Prints the booking latency
+ * and the server's counters (database updates against bookings served from tokens) per block size.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.SeatBookingBenchmark --blockSizes=0,10,50 --threads=64
+ */
+public class SeatBookingBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        String[] blockSizes = args.getOrDefault("blockSizes", "0,10,50").split(",");
+        int capacity = Math.max(1, Integer.parseInt(args.getOrDefault("capacity", "20000")));
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "64")));
+        int maxSeats = Math.max(1, Integer.parseInt(args.getOrDefault("maxSeats", "2")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Seat Bench " + runId, "B" + runId.charAt(runId.length() - 1) + runId,
+                "seats-" + runId + "@example.org");
+        if (airline == null) {
+            System.err.println("Could not register the benchmark airline, aborting.");
+            return;
+        }
+
+        int configuredBlockSize = flightManagement.getSeatInventoryStats().getTokenBlockSize();
+        List<String> rows = new ArrayList<>();
+        boolean ok = true;
+        try {
+            for (String value : blockSizes) {
+                int blockSize = Integer.parseInt(value.trim());
+                String flightNumber = "SE" + runId + "-" + blockSize;
+                if (flightManagement.addFlight(airline, flightNumber, "FRA", "JFK", LocalDateTime.now().plusDays(1), 99.0, 25.0,
+                        "A388", "D-SEAT", capacity, 0) == null) {
+                    System.err.println("Could not add flight " + flightNumber + ", skipping block size " + blockSize + ".");
+                    continue;
+                }
+                flightManagement.setSeatTokenBlockSize(blockSize); // Also resets the server's counters
+
+                LatencyRecorder latencies = new LatencyRecorder();
+                AtomicLong granted = new AtomicLong();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                List<Future<?>> workers = new ArrayList<>();
+                long start = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    workers.add(pool.submit(() -> {
+                        int seats = 1 + ThreadLocalRandom.current().nextInt(maxSeats);
+                        for (;;) {
+                            int party = seats;
+                            Boolean booked = latencies.time("bookSeats", () -> flightManagement.bookSeats(flightNumber, party));
+                            if (booked == null) {
+                                return null; // The call failed
+                            }
+                            if (booked) {
+                                granted.addAndGet(party);
+                                seats = 1 + ThreadLocalRandom.current().nextInt(maxSeats);
+                            } else if (party == 1) {
+                                return null; // Sold out
+                            } else {
+                                seats = party - 1; // Not that many left; try a smaller party
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                pool.shutdown();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                SeatInventoryStats stats = flightManagement.getSeatInventoryStats();
+                flightManagement.setSeatTokenBlockSize(0); // Gives the held tokens back
+                Flight flight = flightManagement.getFlightByFlightNumber(flightNumber);
+                int booked = flight == null ? -1 : flight.getCurrentPassengers();
+
+                System.out.println();
+                System.out.println("=== Token block size " + blockSize + " (" + stats.getStripes() + " stripe(s) per flight) ===");
+                String report = latencies.report(seconds);
+                System.out.print(report);
+                System.out.printf(Locale.ROOT, "granted %d of %d seats, flight shows %d booked; %d bookings, %d from tokens, %d database updates%n",
+                        granted.get(), capacity, booked, stats.getBookings(), stats.getTokenBookings(), stats.getUpdates());
+                boolean consistent = booked == granted.get() && booked == capacity;
+                if (!consistent) {
+                    System.out.println("FAILED: the flight's seat count does not match the granted seats, or the flight is "
+                            + (booked > capacity ? "oversold." : "undersold."));
+                }
+                ok &= consistent;
+                for (String line : report.split("\n")) {
+                    if (line.startsWith("bookSeats")) {
+                        rows.add(String.format(Locale.ROOT, "%6d  %s %9d %s", blockSize, line, stats.getUpdates(), consistent ? "ok" : "FAILED"));
+                    }
+                }
+            }
+        } finally {
+            flightManagement.setSeatTokenBlockSize(configuredBlockSize);
+        }
+
+        System.out.println();
+        System.out.println("=== Booking latency by token block size ===");
+        System.out.printf(Locale.ROOT, "%6s  %-28s %9s %7s %10s %10s %10s %10s %10s %9s %s%n",
+                "block", "operation", "calls", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "updates", "seats");
+        rows.forEach(System.out::println);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package st.cbse.logisticscenter.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a simulation run, read from "--name=value" command line arguments.
+ * Every setting has a default, so the simulator runs without arguments against a local WildFly.
+ */
+public class SimulationConfig {
+
+    final String providerUrl;
+    final int flights;                // Flights in the synthetic schedule
+    final int passengersPerFlight;
+    final double bagsPerPassenger;    // Average, the rest is randomized
+    final int durationSeconds;        // Length of the check-in period that is simulated
+    final int waves;                  // Check-in waves (banks of departures) within the run
+    final double timeScale;           // >1 compresses the schedule, e.g. 2 runs it twice as fast
+    final int threads;                // Client threads issuing remote calls
+    final double holdRatio;           // Share of dropped bags that are held and released again
+    final int holdSeconds;            // Time a held bag stays on hold
+    final double scansPerSecond;      // getBaggageStatus calls per second on random dropped bags
+    final double fullReadRatio;       // Share of scans done with getBaggageByNumber instead
+    final boolean registerPassengers; // Register one passenger account per simulated passenger
+    final long seed;
+
+    SimulationConfig(Map<String, String> args) {
+        providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        flights = Integer.parseInt(args.getOrDefault("flights", "12"));
+        passengersPerFlight = Integer.parseInt(args.getOrDefault("passengersPerFlight", "150"));
+        bagsPerPassenger = Double.parseDouble(args.getOrDefault("bagsPerPassenger", "1.2"));
+        durationSeconds = Integer.parseInt(args.getOrDefault("durationSeconds", "120"));
+        waves = Integer.parseInt(args.getOrDefault("waves", "3"));
+        timeScale = Double.parseDouble(args.getOrDefault("timeScale", "1"));
+        threads = Integer.parseInt(args.getOrDefault("threads", "16"));
+        holdRatio = Double.parseDouble(args.getOrDefault("holdRatio", "0.02"));
+        holdSeconds = Integer.parseInt(args.getOrDefault("holdSeconds", "5"));
+        scansPerSecond = Double.parseDouble(args.getOrDefault("scansPerSecond", "50"));
+        fullReadRatio = Double.parseDouble(args.getOrDefault("fullReadRatio", "0.1"));
+        registerPassengers = Boolean.parseBoolean(args.getOrDefault("registerPassengers", "false"));
+        seed = Long.parseLong(args.getOrDefault("seed", "42"));
+    }
+
+    static SimulationConfig parse(String[] argv) {
+        return new SimulationConfig(arguments(argv));
+    }
+
+    /**
+     * Splits "--name=value" arguments into a map.
+     */
+    static Map<String, String> arguments(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                args.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "', expected --name=value");
+            }
+        }
+        return args;
+    }
+
+    @Override
+    public String toString() {
+        return "flights=" + flights + ", passengersPerFlight=" + passengersPerFlight + ", bagsPerPassenger=" + bagsPerPassenger
+                + ", durationSeconds=" + durationSeconds + ", waves=" + waves + ", timeScale=" + timeScale
+                + ", threads=" + threads + ", holdRatio=" + holdRatio + ", scansPerSecond=" + scansPerSecond
+                + ", fullReadRatio=" + fullReadRatio + ", seed=" + seed;
+    }
+}
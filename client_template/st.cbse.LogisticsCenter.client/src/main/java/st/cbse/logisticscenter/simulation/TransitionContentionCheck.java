@@ -0,0 +1,139 @@
+package st.cbse.logisticscenter.simulation;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ContentionStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightBaggageSummary;
+import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
+
+import javax.naming.Context;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that concurrent status changes of one bag are neither lost nor double counted.
+ *
+ * Drops a single bag, reports it LOST and then lets `threads` client threads each record `calls` irregularity
+ * reports (LOST, DAMAGED or MISROUTED, at random) for that bag at the same time. Every call carries its own
+ * idempotency key and must succeed, retried by the server after a version conflict if necessary. Afterwards
+ * the bag's history must contain exactly one entry per call and the flight's per-status counters must still
+ * add up to one bag, counted in its final status. Prints the server's contention counters before and after.
+ *
+ * Usage (see client README):
+ *   java -cp st.cbse.LogisticsCenter.client.jar st.cbse.logisticscenter.simulation.TransitionContentionCheck --threads=16 --calls=50
+ */
+public class TransitionContentionCheck {
+
+    private static final BaggageStatus[] IRREGULARITIES = {BaggageStatus.LOST, BaggageStatus.DAMAGED, BaggageStatus.MISROUTED};
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = SimulationConfig.arguments(argv);
+        String providerUrl = args.getOrDefault("providerUrl", "http-remoting://localhost:8080");
+        int threads = Math.max(1, Integer.parseInt(args.getOrDefault("threads", "16")));
+        int calls = Math.max(1, Integer.parseInt(args.getOrDefault("calls", "50")));
+
+        Context context = BaggageHallSimulator.initialContext(providerUrl);
+        IFlightManagementRemote flightManagement = BaggageHallSimulator.lookup(context, "FlightManagementBean", IFlightManagementRemote.class);
+        IBaggageManagementRemote baggageManagement = BaggageHallSimulator.lookup(context, "BaggageManagementBean", IBaggageManagementRemote.class);
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000L, 36).toUpperCase(Locale.ROOT);
+        Airline airline = flightManagement.registerAirline("Contention Check " + runId, "C" + runId.charAt(runId.length() - 1) + runId,
+                "contention-" + runId + "@example.org");
+        Flight flight = airline == null ? null : flightManagement.addFlight(airline, "CC" + runId, "FRA", "JFK",
+                LocalDateTime.now().plusHours(6), 99.0, 25.0, "A320", "D-CONT", 1, 0);
+        if (flight == null) {
+            System.err.println("Could not create the test flight, aborting.");
+            return;
+        }
+        String number = "CC" + runId + "-1";
+        Baggage baggage = baggageManagement.dropBaggage("drop-" + number, number, 18.0, flight);
+        // LOST stops the automated pipeline, so only the calls below change the bag.
+        if (baggage == null || baggageManagement.updateBaggageStatus(number, BaggageStatus.LOST) == null) {
+            System.err.println("Could not drop and report baggage " + number + ", aborting.");
+            return;
+        }
+
+        List<ContentionStats> before = baggageManagement.getContentionStats();
+        String detailsPrefix = "contention-check " + runId + " ";
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < calls; i++) {
+                    BaggageStatus status = IRREGULARITIES[ThreadLocalRandom.current().nextInt(IRREGULARITIES.length)];
+                    String call = thread + "-" + i;
+                    try {
+                        if (baggageManagement.recordBaggageStatus("cc-" + runId + "-" + call, number, status, detailsPrefix + call) != status) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        System.err.println("Call " + call + " failed: " + e);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int expected = threads * calls;
+        long recorded = 0;
+        BaggageStatus last = null;
+        for (BaggageHistoryEntry entry : baggageManagement.getBaggageHistory(number)) {
+            if (entry.getDetails() != null && entry.getDetails().startsWith(detailsPrefix)) {
+                recorded++;
+            }
+            last = entry.getStatus();
+        }
+        BaggageStatus status = baggageManagement.getBaggageStatus(number);
+        FlightBaggageSummary summary = baggageManagement.getFlightBaggageSummary(flight.getFlightNumber());
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%d calls from %d threads in %.2f s%n", expected, threads, seconds);
+        boolean ok = true;
+        ok &= check("every call succeeded", failed.get() == 0, failed.get() + " failed");
+        ok &= check("one history entry per call", recorded == expected, recorded + " of " + expected);
+        ok &= check("last history entry matches the bag", last == status, last + " vs. " + status);
+        ok &= check("flight counts the bag once", summary.getTotal() == 1, "total " + summary.getTotal());
+        ok &= check("flight counts the final status", summary.getCount(status) == 1, summary.getCounts().toString());
+
+        System.out.println();
+        System.out.println("=== Contention (before -> after) ===");
+        for (ContentionStats after : baggageManagement.getContentionStats()) {
+            ContentionStats previous = before.stream().filter(s -> s.getOperation().equals(after.getOperation())).findFirst()
+                    .orElse(new ContentionStats(after.getOperation(), 0, 0, 0, 0));
+            System.out.printf(Locale.ROOT, "%-55s calls %6d  conflicts %6d  retried %6d  exhausted %4d%n", after.getOperation(),
+                    after.getCalls() - previous.getCalls(), after.getConflicts() - previous.getConflicts(),
+                    after.getRetried() - previous.getRetried(), after.getExhausted() - previous.getExhausted());
+        }
+        System.out.println();
+        System.out.println(ok ? "PASSED" : "FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(String name, boolean passed, String detail) {
+        System.out.printf(Locale.ROOT, "%-40s %s (%s)%n", name, passed ? "ok" : "FAILED", detail);
+        return passed;
+    }
+}
@@ -0,0 +1,211 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.IdempotencyRecord;
+import st.cbse.logisticscenter.flightmgmt.server.start.beans.ReferenceDataCache;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Transactional core of the single-bag write calls (drop-off, status update, hold/release).
+ * Each public method does its work in one transaction, so a call retried after a conflict starts from a fresh read.
+ *
+ * The keyed calls are insert-first: the idempotency key (if the client sent one) and the bag itself are inserted
+ * and flushed without checking for an existing row, in a transaction of their own. A retry or a racing
+ * duplicate therefore fails on the IDEMPOTENCY_RECORD primary key or the BAGGAGE.baggageNumber unique
+ * constraint instead of slipping through a read-then-write window; BaggageManagementBean then answers
+ * it from the committed row.
+ *
+ * Configuration (system properties):
+ *   baggage.idempotency.retentionHours  how long claimed keys are kept (default 24)
+ */
+@Stateless
+public class BaggageCommands {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageCommands.class.getName());
+
+    private static final int DEFAULT_RETENTION_HOURS = 24;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @EJB
+    private BaggagePipeline baggagePipeline;
+
+    @EJB
+    private BaggageTransitionEngine transitionEngine;
+
+    @EJB
+    private FlightBaggageCounters flightCounters;
+
+    @EJB
+    private BaggageSnapshots snapshots;
+
+    @EJB
+    private BaggageStatusPublisher statusPublisher;
+
+    @EJB
+    private BaggageTrackingIndex trackingIndex;
+
+    @EJB
+    private ReferenceDataCache referenceData;
+
+    /**
+     * Drops off a new bag in its own transaction.
+     * @param idempotencyKey Client key of the call, or null.
+     * @return The detached new bag, or null if the flight does not exist.
+     * @throws jakarta.persistence.PersistenceException (wrapped by the container) if the key was already
+     *         claimed or the baggage number already exists; the transaction is rolled back.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Baggage drop(String idempotencyKey, String baggageNumber, double weightKg, Long flightId) {
+        IdempotencyRecord record = claim(IdempotencyRecord.DROP, idempotencyKey, baggageNumber);
+
+        // It's crucial to fetch the Flight entity within the EJB's persistence context
+        // if the incoming 'flight' object is detached.
+        Flight managedFlight = referenceData.findFlight(flightId); // Usually a second-level cache hit
+        if (managedFlight == null) {
+            LOGGER.severe("Managed Flight entity not found for ID: " + flightId);
+            return null; // The claim is kept: a retry of this call would fail the same way
+        }
+
+        // Use the new Baggage constructor which sets initial status (DROPPED_OFF)
+        // and automatically adds the first history entry.
+        Baggage newBaggage = new Baggage(baggageNumber, weightKg, managedFlight);
+        em.persist(newBaggage);
+        // Flush so a duplicate baggage number fails here, on the unique constraint, rather than at commit.
+        em.flush();
+
+        LOGGER.info("Baggage " + newBaggage.getBaggageNumber() + " dropped off and persisted successfully.");
+
+        // Hand the bag to the asynchronous pipeline. It is queued only after this transaction commits,
+        // so the caller gets the freshly dropped bag back without waiting for security, sorting and loading.
+        flightCounters.adjust(managedFlight.getId(), BaggageStatus.DROPPED_OFF, 1);
+        snapshots.create(newBaggage);
+        BaggageState state = BaggageState.of(newBaggage);
+        statusPublisher.publishDropped(List.of(state));
+        trackingIndex.updateAfterCommit(state, BaggageStatus.DROPPED_OFF);
+        continueProcessing(state);
+        if (record != null) {
+            record.setResultStatus(state.getStatus());
+        }
+
+        // newBaggage was built in memory, so its history list is already complete. Detach before returning.
+        for (BaggageHistoryEntry entry : newBaggage.getHistory()) {
+            em.detach(entry);
+        }
+        em.detach(newBaggage);
+        newBaggage.setStatus(state.getStatus()); // Reflect inline transitions, which bypass the entity
+        return newBaggage;
+    }
+
+    /**
+     * Records a status change with a history entry in the caller's transaction.
+     * @return The status of the bag afterwards, or null if the bag was not found.
+     */
+    public BaggageStatus recordStatus(String baggageNumber, BaggageStatus newStatus, String details) {
+        BaggageState baggage = transitionEngine.load(baggageNumber); // Status projection only, never the history
+        if (baggage == null) {
+            LOGGER.severe("Error: Baggage " + baggageNumber + " not found for status update (recordBaggageStatus).");
+            return null;
+        }
+        if (baggage.getStatus() == newStatus && (details == null || details.isEmpty())) {
+            LOGGER.info("Baggage " + baggageNumber + " already in status " + newStatus.getDisplayName() + ". Not recording duplicate entry without new details.");
+            return newStatus;
+        }
+        transitionEngine.transition(baggage, newStatus, details);
+        return baggage.getStatus();
+    }
+
+    /**
+     * recordStatus under an idempotency key, in its own transaction.
+     * @throws jakarta.persistence.PersistenceException (wrapped by the container) if the key was already claimed.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public BaggageStatus recordStatusOnce(String idempotencyKey, String baggageNumber, BaggageStatus newStatus, String details) {
+        IdempotencyRecord record = claim(IdempotencyRecord.STATUS, idempotencyKey, baggageNumber);
+        BaggageStatus result = recordStatus(baggageNumber, newStatus, details);
+        record.setResultStatus(result);
+        return result;
+    }
+
+    /**
+     * Holds or releases a bag; a released bag resumes automated processing in the same transaction.
+     */
+    public void setHoldStatus(String baggageNumber, boolean hold) {
+        BaggageState baggage = transitionEngine.load(baggageNumber); // Single read for check, transition and restart
+        if (baggage == null) {
+            LOGGER.warning("Baggage " + baggageNumber + " not found to set hold status.");
+            return;
+        }
+
+        if (hold) {
+            if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
+                LOGGER.info("Baggage " + baggageNumber + " is already HELD_FOR_INSPECTION.");
+                return;
+            }
+            if (transitionEngine.transition(baggage, BaggageStatus.HELD_FOR_INSPECTION, "Held by administrator.")) {
+                LOGGER.info("Baggage " + baggageNumber + " is now HELD_FOR_INSPECTION.");
+            }
+        } else {
+            if (baggage.getStatus() != BaggageStatus.HELD_FOR_INSPECTION) {
+                LOGGER.info("Baggage " + baggageNumber + " is not currently HELD_FOR_INSPECTION. No action taken.");
+                return;
+            }
+            transitionEngine.transition(baggage, BaggageStatus.DROPPED_OFF, "Released by administrator.");
+            LOGGER.info("Baggage " + baggageNumber + " RELEASED from hold. Re-evaluating next processing step.");
+            continueProcessing(baggage);
+        }
+    }
+
+    /**
+     * Moves a bag on through automated processing: in inline mode all remaining stages are applied
+     * right away in this transaction, otherwise the bag is queued for its next pipeline stage after commit.
+     */
+    public void continueProcessing(BaggageState baggage) {
+        if (baggagePipeline.isInline()) {
+            transitionEngine.advance(baggage, Integer.MAX_VALUE);
+            return;
+        }
+        BaggageProcessingStage stage = BaggageStateMachine.automaticStage(baggage.getStatus());
+        if (stage != null) {
+            baggagePipeline.submitAfterCommit(stage, baggage);
+        }
+    }
+
+    @Schedule(hour = "*", minute = "50", persistent = false)
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(Integer.getInteger("baggage.idempotency.retentionHours", DEFAULT_RETENTION_HOURS));
+        int purged = em.createQuery("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+                       .setParameter("cutoff", cutoff)
+                       .executeUpdate();
+        if (purged > 0) {
+            LOGGER.info("Purged " + purged + " idempotency key(s) older than " + cutoff + ".");
+        }
+    }
+
+    // Inserts the key before anything else is written, so a retry fails first and cheaply.
+    private IdempotencyRecord claim(String operation, String idempotencyKey, String baggageNumber) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        IdempotencyRecord record = new IdempotencyRecord(operation, idempotencyKey, baggageNumber);
+        em.persist(record);
+        em.flush();
+        return record;
+    }
+}
@@ -0,0 +1,242 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ColdBaggageHistory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The archive files of BAGGAGE_HISTORY on local disk.
+ * The archive is partitioned by month of the archived entries (one directory per month, e.g. 2025-03),
+ * and every archive chunk adds one immutable HistoryArchiveSegment to its partition.
+ * All segments are opened at startup, and an in-memory index maps each baggage number to the segments
+ * holding a record of it, so a lookup only reads those segments.
+ *
+ * A segment is written before its rows are deleted from the database, and published (its index renamed into
+ * place) after that transaction commits. Segments still pending at startup, left by a crash between commit and
+ * publishing, are published if their rows are gone from BAGGAGE_HISTORY_COLD and deleted otherwise.
+ *
+ * Location: system property baggage.archive.dir, by default "baggage-history-archive" in the WildFly
+ * data directory (or java.io.tmpdir outside WildFly).
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class BaggageHistoryArchive {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageHistoryArchive.class.getName());
+
+    private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter SEGMENT_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    // Partition and segment names sort chronologically, so path order is archive order.
+    private static final Comparator<HistoryArchiveSegment> CHRONOLOGICAL =
+            Comparator.comparing(segment -> segment.getDataFile().toString());
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    private volatile List<HistoryArchiveSegment> segments = List.of(); // Replaced as a whole, never modified
+    // Segments holding a record of a bag, in chronological order; the lists are replaced, never modified.
+    private final Map<String, List<HistoryArchiveSegment>> segmentsByBag = new ConcurrentHashMap<>();
+    private Path directory;
+
+    @PostConstruct
+    void open() {
+        try {
+            String configured = System.getProperty("baggage.archive.dir");
+            directory = Files.createDirectories(configured != null
+                    ? Paths.get(configured)
+                    : Paths.get(System.getProperty("jboss.server.data.dir", System.getProperty("java.io.tmpdir")), "baggage-history-archive"));
+            List<HistoryArchiveSegment> found = new ArrayList<>();
+            try (DirectoryStream<Path> partitions = Files.newDirectoryStream(directory, Files::isDirectory)) {
+                for (Path partition : partitions) {
+                    try (DirectoryStream<Path> dataFiles = Files.newDirectoryStream(partition, "*" + HistoryArchiveSegment.DATA_SUFFIX)) {
+                        for (Path dataFile : dataFiles) {
+                            if (Files.exists(HistoryArchiveSegment.indexFileOf(dataFile))) {
+                                found.add(HistoryArchiveSegment.open(dataFile));
+                            } else if (Files.exists(HistoryArchiveSegment.pendingIndexOf(dataFile)) && committed(dataFile)) {
+                                HistoryArchiveSegment.publish(dataFile);
+                                LOGGER.info("Published archive segment " + dataFile + " left pending after its commit.");
+                                found.add(HistoryArchiveSegment.open(dataFile));
+                            } else {
+                                // Written by a transaction that never committed: its rows are still in the database.
+                                LOGGER.warning("Removing uncommitted archive segment " + dataFile + ".");
+                                HistoryArchiveSegment.delete(dataFile);
+                            }
+                        }
+                    }
+                }
+            }
+            found.sort(CHRONOLOGICAL);
+            for (HistoryArchiveSegment segment : found) {
+                register(segment);
+            }
+            LOGGER.info("Baggage history archive at " + directory + ": " + segments.size() + " segment(s), "
+                    + segmentsByBag.size() + " bag(s).");
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not open baggage history archive", e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (HistoryArchiveSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                LOGGER.fine("Closing archive segment " + segment.getDataFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the given cold histories as a new segment of the partition of 'month'.
+     * The segment becomes visible to readers when the caller's transaction commits and is deleted
+     * again if it rolls back, so archived entries are never lost nor served twice.
+     */
+    public void writeSegment(LocalDateTime month, List<ColdBaggageHistory> histories) throws IOException {
+        if (histories.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<byte[], String>> records = new ArrayList<>(histories.size());
+        for (ColdBaggageHistory history : histories) {
+            records.add(Map.entry(HistoryArchiveSegment.key(history.getBaggageNumber()), history.getEncodedEntries()));
+        }
+        records.sort((a, b) -> HistoryArchiveSegment.compareKeys(a.getKey(), b.getKey()));
+
+        Path partition = Files.createDirectories(directory.resolve(month.format(PARTITION)));
+        Path dataFile = partition.resolve("segment-" + LocalDateTime.now().format(SEGMENT_STAMP) + "-"
+                + Long.toHexString(System.nanoTime()) + HistoryArchiveSegment.DATA_SUFFIX);
+        HistoryArchiveSegment.write(dataFile, records);
+
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == Status.STATUS_COMMITTED) {
+                        HistoryArchiveSegment.publish(dataFile);
+                        register(HistoryArchiveSegment.open(dataFile));
+                    } else {
+                        HistoryArchiveSegment.delete(dataFile);
+                    }
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, "Archive segment " + dataFile + " could not be "
+                            + (status == Status.STATUS_COMMITTED ? "opened" : "removed after rollback"), e);
+                }
+            }
+        });
+        LOGGER.info("Wrote archive segment " + dataFile + " with " + records.size() + " bag histories.");
+    }
+
+    /**
+     * @return All archived entries of the bag in chronological order (empty if nothing is archived).
+     */
+    public List<BaggageHistoryEntry> read(String baggageNumber) {
+        List<BaggageHistoryEntry> entries = new ArrayList<>();
+        for (HistoryArchiveSegment segment : segmentsByBag.getOrDefault(baggageNumber, List.of())) {
+            try {
+                String encoded = segment.find(baggageNumber);
+                if (encoded != null) {
+                    entries.addAll(ColdBaggageHistory.decode(encoded));
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Could not read archived history of " + baggageNumber + " from " + segment.getDataFile(), e);
+            }
+        }
+        entries.sort(Comparator.comparing(BaggageHistoryEntry::getTimestamp));
+        return entries;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    // The bags' index entries are added before the segment list, so a segment is never listed but unreachable.
+    private synchronized void register(HistoryArchiveSegment segment) {
+        for (String baggageNumber : segment.baggageNumbers()) {
+            segmentsByBag.merge(baggageNumber, List.of(segment), (current, added) -> {
+                List<HistoryArchiveSegment> updated = new ArrayList<>(current);
+                updated.addAll(added);
+                updated.sort(CHRONOLOGICAL);
+                return List.copyOf(updated);
+            });
+        }
+        List<HistoryArchiveSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(CHRONOLOGICAL);
+        segments = List.copyOf(updated);
+    }
+
+    /**
+     * Whether the transaction that wrote a pending segment committed. All rows of a segment are deleted in that
+     * transaction, so its first bag tells: if the transaction rolled back, the bag's cold row still starts with
+     * the archived entries (compaction only appends to it).
+     */
+    private boolean committed(Path dataFile) {
+        HistoryArchiveSegment pending;
+        try {
+            pending = HistoryArchiveSegment.openPending(dataFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unreadable pending archive segment " + dataFile, e);
+            return false;
+        }
+        try {
+            List<String> numbers = pending.baggageNumbers();
+            if (numbers.isEmpty()) {
+                return false;
+            }
+            String archived = pending.find(numbers.get(0));
+            List<String> stored = em.createQuery(
+                    "SELECT c.entries FROM ColdBaggageHistory c WHERE c.baggageNumber = :baggageNumber", String.class)
+                    .setParameter("baggageNumber", numbers.get(0))
+                    .getResultList();
+            return stored.isEmpty() || !stored.get(0).startsWith(archived);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unreadable pending archive segment " + dataFile, e);
+            return false;
+        } finally {
+            try {
+                pending.close();
+            } catch (IOException e) {
+                LOGGER.fine("Closing archive segment " + dataFile + ": " + e.getMessage());
+            }
+        }
+    }
+}
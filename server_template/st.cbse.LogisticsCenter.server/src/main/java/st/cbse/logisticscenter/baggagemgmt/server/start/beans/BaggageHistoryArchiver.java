@@ -0,0 +1,117 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ColdBaggageHistory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Moves compacted history (ColdBaggageHistory) whose newest entry is older than a configurable age
+ * out of the database into the BaggageHistoryArchive files. Runs nightly in chunks of bags; each chunk
+ * locks only its own rows, writes one segment per month partition and deletes the rows in a short
+ * transaction of its own.
+ *
+ * Configuration (system properties):
+ *   baggage.history.archiveAfterDays  age after which compacted history is archived (default 180)
+ */
+@Stateless
+public class BaggageHistoryArchiver {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageHistoryArchiver.class.getName());
+
+    private static final int DEFAULT_ARCHIVE_AFTER_DAYS = 180;
+    private static final int BAGS_PER_CHUNK = 500;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @EJB
+    private BaggageHistoryArchive archive;
+
+    @Schedule(hour = "2", minute = "30", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void scheduledArchival() {
+        archive(LocalDateTime.now().minusDays(Integer.getInteger("baggage.history.archiveAfterDays", DEFAULT_ARCHIVE_AFTER_DAYS)));
+    }
+
+    /**
+     * Archives the compacted history of every bag whose last compacted entry is older than the cutoff.
+     * @return The number of bags archived.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int archive(LocalDateTime cutoff) {
+        BaggageHistoryArchiver self = sessionContext.getBusinessObject(BaggageHistoryArchiver.class);
+        int total = 0;
+        int archived;
+        do {
+            archived = self.archiveChunk(cutoff);
+            total += archived;
+        } while (archived > 0);
+        if (total > 0) {
+            LOGGER.info("Archived the compacted history of " + total + " bag(s) older than " + cutoff + ".");
+        }
+        return total;
+    }
+
+    /**
+     * Archives up to BAGS_PER_CHUNK bags in one transaction.
+     * @return The number of bags archived.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int archiveChunk(LocalDateTime cutoff) {
+        // Locked so the compaction job cannot append to a row between writing the file and deleting it.
+        List<ColdBaggageHistory> rows = em.createQuery(
+                "SELECT c FROM ColdBaggageHistory c WHERE c.lastEntryAt < :cutoff ORDER BY c.baggageId", ColdBaggageHistory.class)
+                .setParameter("cutoff", cutoff)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(BAGS_PER_CHUNK)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<LocalDateTime, List<ColdBaggageHistory>> byMonth = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ColdBaggageHistory row : rows) {
+            LocalDateTime month = row.getLastEntryAt().toLocalDate().withDayOfMonth(1).atStartOfDay();
+            byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(row);
+            ids.add(row.getBaggageId());
+        }
+        try {
+            for (Map.Entry<LocalDateTime, List<ColdBaggageHistory>> partition : byMonth.entrySet()) {
+                archive.writeSegment(partition.getKey(), partition.getValue());
+            }
+        } catch (IOException e) {
+            // Rolls back this chunk; segments already written are removed on rollback.
+            throw new UncheckedIOException("Writing baggage history archive failed", e);
+        }
+
+        for (ColdBaggageHistory row : rows) {
+            em.remove(row);
+        }
+        em.createQuery("UPDATE BaggageSnapshot s SET s.historyArchived = true WHERE s.baggageId IN :ids")
+          .setParameter("ids", ids)
+          .executeUpdate();
+        return rows.size();
+    }
+}
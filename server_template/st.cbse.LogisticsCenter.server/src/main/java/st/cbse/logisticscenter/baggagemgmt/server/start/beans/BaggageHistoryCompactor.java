@@ -0,0 +1,124 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ColdBaggageHistory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Moves history entries older than a configurable age out of BAGGAGE_HISTORY into one compacted
+ * ColdBaggageHistory row per bag. Runs hourly and in chunks of bags, each chunk in its own short
+ * transaction, so live traffic is never blocked for long.
+ *
+ * Configuration (system properties):
+ *   baggage.history.compactAfterDays  age after which entries are compacted (default 30)
+ */
+@Stateless
+public class BaggageHistoryCompactor {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageHistoryCompactor.class.getName());
+
+    private static final int DEFAULT_COMPACT_AFTER_DAYS = 30;
+    private static final int BAGS_PER_CHUNK = 200;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @Schedule(hour = "*", minute = "40", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void scheduledCompaction() {
+        compact(LocalDateTime.now().minusDays(Integer.getInteger("baggage.history.compactAfterDays", DEFAULT_COMPACT_AFTER_DAYS)));
+    }
+
+    /**
+     * Compacts all history entries older than the cutoff.
+     * @return The number of entries moved to cold storage.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int compact(LocalDateTime cutoff) {
+        BaggageHistoryCompactor self = sessionContext.getBusinessObject(BaggageHistoryCompactor.class);
+        int total = 0;
+        int moved;
+        do {
+            moved = self.compactChunk(cutoff);
+            total += moved;
+        } while (moved > 0);
+        if (total > 0) {
+            LOGGER.info("Compacted " + total + " baggage history entries older than " + cutoff + ".");
+        }
+        return total;
+    }
+
+    /**
+     * Compacts the old entries of up to BAGS_PER_CHUNK bags in one transaction.
+     * @return The number of entries moved.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int compactChunk(LocalDateTime cutoff) {
+        List<Long> baggageIds = em.createQuery(
+                "SELECT DISTINCT h.baggage.id FROM BaggageHistoryEntry h WHERE h.timestamp < :cutoff", Long.class)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(BAGS_PER_CHUNK)
+                .getResultList();
+        if (baggageIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<BaggageHistoryEntry>> entriesByBag = new HashMap<>();
+        List<Long> entryIds = new ArrayList<>();
+        for (BaggageHistoryEntry entry : em.createQuery(
+                "SELECT h FROM BaggageHistoryEntry h WHERE h.baggage.id IN :ids AND h.timestamp < :cutoff ORDER BY h.timestamp, h.id",
+                BaggageHistoryEntry.class)
+                .setParameter("ids", baggageIds)
+                .setParameter("cutoff", cutoff)
+                .getResultList()) {
+            entriesByBag.computeIfAbsent(entry.getBaggage().getId(), id -> new ArrayList<>()).add(entry);
+            entryIds.add(entry.getId());
+        }
+
+        Map<Long, ColdBaggageHistory> coldRows = new HashMap<>();
+        for (ColdBaggageHistory cold : em.createQuery(
+                "SELECT c FROM ColdBaggageHistory c WHERE c.baggageId IN :ids", ColdBaggageHistory.class)
+                .setParameter("ids", baggageIds)
+                .getResultList()) {
+            coldRows.put(cold.getBaggageId(), cold);
+        }
+        Map<Long, String> numbers = new HashMap<>();
+        for (Object[] row : em.createQuery("SELECT b.id, b.baggageNumber FROM Baggage b WHERE b.id IN :ids", Object[].class)
+                              .setParameter("ids", baggageIds)
+                              .getResultList()) {
+            numbers.put((Long) row[0], (String) row[1]);
+        }
+
+        for (Map.Entry<Long, List<BaggageHistoryEntry>> bag : entriesByBag.entrySet()) {
+            ColdBaggageHistory cold = coldRows.get(bag.getKey());
+            if (cold == null) {
+                cold = new ColdBaggageHistory(bag.getKey(), numbers.get(bag.getKey()));
+                em.persist(cold);
+            }
+            cold.append(bag.getValue());
+        }
+        em.flush();
+        em.createQuery("DELETE FROM BaggageHistoryEntry h WHERE h.id IN :ids")
+          .setParameter("ids", entryIds)
+          .executeUpdate();
+        return entryIds.size();
+    }
+}
@@ -0,0 +1,144 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed set of single-threaded lanes that work off items keyed by baggage number in micro-batches.
+ *
+ * An item always goes to lane hash(baggageNumber) mod lanes, and each lane has exactly one thread that takes
+ * its items in arrival order. Items of one bag are therefore handled strictly in order, while different bags
+ * spread over all lanes and run in parallel without locking each other. Each lane has its own bounded queue;
+ * a full lane blocks only the producers that feed it.
+ *
+ * A lane thread collects up to batchSize items, closing the batch early once batchDelayMs have passed since
+ * its first item, and hands the batch to the sink. A batch only ever contains items of its own lane.
+ */
+final class BaggageLanes<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageLanes.class.getName());
+
+    private final Function<T, String> baggageNumber;
+    private final Consumer<List<T>> sink;
+    private final int batchSize;
+    private final long batchDelayNanos;
+    private final List<BlockingQueue<T>> queues = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * Starts the lane threads.
+     * @param capacity Total number of queued items, split evenly over the lanes.
+     */
+    BaggageLanes(String name, int lanes, int capacity, int batchSize, long batchDelayMs, ThreadFactory threadFactory,
+                 Function<T, String> baggageNumber, Consumer<List<T>> sink) {
+        this.baggageNumber = baggageNumber;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(batchDelayMs);
+        int laneCapacity = Math.max(batchSize, capacity / lanes);
+        for (int i = 0; i < lanes; i++) {
+            BlockingQueue<T> queue = new ArrayBlockingQueue<>(laneCapacity);
+            queues.add(queue);
+            Thread thread = threadFactory.newThread(() -> runLane(queue));
+            thread.setName(name + "-lane-" + i);
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+    }
+
+    /**
+     * Queues an item on its bag's lane, blocking while that lane is full.
+     */
+    void put(T item) throws InterruptedException {
+        queues.get(laneOf(baggageNumber.apply(item))).put(item);
+    }
+
+    int laneOf(String number) {
+        return Math.floorMod(spread(number.hashCode()), queues.size());
+    }
+
+    int lanes() {
+        return queues.size();
+    }
+
+    int queued() {
+        int queued = 0;
+        for (BlockingQueue<T> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    int capacity() {
+        int capacity = 0;
+        for (BlockingQueue<T> queue : queues) {
+            capacity += queue.size() + queue.remainingCapacity();
+        }
+        return capacity;
+    }
+
+    /**
+     * Stops the lanes once they have worked off what is queued, and waits for that.
+     * No more items may be put once this is called.
+     */
+    void drainAndStop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stops the lanes immediately, dropping queued items.
+     */
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    private void runLane(BlockingQueue<T> queue) {
+        List<T> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                T first = queue.poll(100, TimeUnit.MILLISECONDS); // Bounded wait, so a stop is noticed
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + batchDelayNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    T next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    sink.accept(batch);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, Thread.currentThread().getName() + ": batch of " + batch.size() + " item(s) failed", e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Baggage numbers share long prefixes; mix the high bits in so consecutive numbers spread over the lanes.
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,20 +1,53 @@
 package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
 
+import jakarta.ejb.EJB;
+import jakarta.ejb.EJBException;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.interceptor.Interceptors;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.NonUniqueResultException;
 
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDrop;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDropResult;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSelectionCriteria;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSnapshot;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusView;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSummary;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSummaryPage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ColdBaggageHistory;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ContentionStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightBaggageSummary;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightLoadSheet;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestFormat;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.IdempotencyRecord;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.PipelineStageStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ScanIngestionStats;
 import st.cbse.logisticscenter.baggagemgmt.server.start.interfaces.IBaggageManagementRemote;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
 
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList; // Added for defensive copying
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 import java.util.logging.Logger;
 
 @Stateless
@@ -22,9 +55,76 @@ public class BaggageManagementBean implements IBaggageManagementRemote {
 
     private static final Logger LOGGER = Logger.getLogger(BaggageManagementBean.class.getName());
 
+    // Must match hibernate.jdbc.batch_size in persistence.xml so every flush sends full batches.
+    private static final int JDBC_BATCH_SIZE = 50;
+    // Upper bound for IN-list parameters in a single validation query.
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final String SUMMARY_SELECT =
+            "SELECT new st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSummary("
+            + "b.id, b.baggageNumber, b.status, f.flightNumber, b.weightKg, b.heldForInspection) "
+            + "FROM Baggage b JOIN b.flight f ";
+
+    private static final String STATUS_VIEW_SELECT =
+            "SELECT new st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusView("
+            + "b.baggageNumber, b.status, b.weightKg, b.heldForInspection, b.holdCompartment, "
+            + "f.flightNumber, f.origin, f.destination, "
+            + "(SELECT MAX(h.timestamp) FROM BaggageHistoryEntry h WHERE h.baggage = b)) "
+            + "FROM Baggage b JOIN b.flight f WHERE b.baggageNumber = :baggageNumber";
+
     @PersistenceContext(unitName = "JPAUnit")
     private EntityManager em;
 
+    @EJB
+    private BaggagePipeline baggagePipeline;
+
+    @EJB
+    private BaggageTransitionEngine transitionEngine;
+
+    @EJB
+    private FlightBaggageCounters flightCounters;
+
+    @EJB
+    private BulkBaggageOperations bulkOperations;
+
+    @EJB
+    private BaggageSnapshots snapshots;
+
+    @EJB
+    private BaggageHistoryCompactor historyCompactor;
+
+    @EJB
+    private BaggageHistoryArchive historyArchive;
+
+    @EJB
+    private BaggageHistoryArchiver historyArchiver;
+
+    @EJB
+    private BaggageStatusPublisher statusPublisher;
+
+    @EJB
+    private BaggageTrackingIndex trackingIndex;
+
+    @EJB
+    private FlightLoadAggregates loadAggregates;
+
+    @EJB
+    private BaggageCommands baggageCommands;
+
+    @EJB
+    private IdempotencyCache idempotencyCache;
+
+    @EJB
+    private ScanIngestion scanIngestion;
+
+    @EJB
+    private ContentionMetrics contentionMetrics;
+
+    @EJB
+    private FlightManifestWriter manifestWriter;
+
     private Baggage findBaggageEntity(String baggageNumber) {
         try {
             // Use LEFT JOIN FETCH to eagerly fetch the history in the query itself
@@ -52,93 +152,197 @@ public class BaggageManagementBean implements IBaggageManagementRemote {
         }
     }
 
-@Override
-public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight) {
-    LOGGER.info("Attempting to drop baggage: " + baggageNumber + " for flight: " + (flight != null ? flight.getFlightNumber() : "N/A"));
-
-    // Check if baggage with this number already exists
-    Baggage existingBaggage = findBaggageEntity(baggageNumber); // This already uses LEFT JOIN FETCH for history
-    if (existingBaggage != null) {
-        LOGGER.warning("Baggage with number " + baggageNumber + " already exists. Cannot drop duplicate.");
-        // If you return existingBaggage, ensure it's detached here too.
-        em.detach(existingBaggage);
-        return existingBaggage; 
-    }
-
-    // It's crucial to fetch the Flight entity within the EJB's persistence context
-    // if the incoming 'flight' object is detached.
-    Flight managedFlight = em.find(Flight.class, flight.getId()); 
-    if (managedFlight == null) {
-        LOGGER.severe("Managed Flight entity not found for ID: " + flight.getId());
-        return null; // Or throw an exception
-    }
-
-    // Use the new Baggage constructor which sets initial status (DROPPED_OFF)
-    // and automatically adds the first history entry.
-    Baggage newBaggage = new Baggage(baggageNumber, weightKg, managedFlight);
-    
-    try {
-        em.persist(newBaggage); // Persist the new Baggage entity
-        // Flush ensures the entity and its initial history entry are written to the DB
-        // and the newBaggage object is fully managed with its ID assigned.
-        em.flush(); 
-
-        LOGGER.info("Baggage " + newBaggage.getBaggageNumber() + " dropped off and persisted successfully.");
-
-        // IMPORTANT: Before initiating automated processing and returning,
-        // we need to get a fully initialized (and eventually detached) Baggage object.
-        // Calling findBaggageEntity again immediately after persist+flush will
-        // load the newly persisted Baggage *with* its history initialized via LEFT JOIN FETCH.
-        Baggage fullyInitializedBaggage = findBaggageEntity(baggageNumber);
-
-        if (fullyInitializedBaggage == null) {
-            LOGGER.severe("Failed to retrieve newly persisted baggage " + baggageNumber + " for processing.");
-            // Even if processing fails, ensure we try to detach the original newBaggage
-            // if it's still managed, to avoid issues if we somehow return it.
-            try {
-                if (em.contains(newBaggage)) {
-                    em.detach(newBaggage);
+    @Override
+    public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight) {
+        return dropBaggage(null, baggageNumber, weightKg, flight);
+    }
+
+    @Override
+    public Baggage dropBaggage(String idempotencyKey, String baggageNumber, double weightKg, Flight flight) {
+        LOGGER.info("Attempting to drop baggage: " + baggageNumber + " for flight: " + (flight != null ? flight.getFlightNumber() : "N/A"));
+        String recordId = idempotencyKey != null ? IdempotencyRecord.idOf(IdempotencyRecord.DROP, idempotencyKey) : null;
+        if (recordId != null) {
+            IdempotencyCache.Result cached = idempotencyCache.get(recordId);
+            if (cached != null && cached.getValue() instanceof Baggage) {
+                if (isReusedFor(recordId, cached.getBaggageNumber(), baggageNumber)) {
+                    return null;
                 }
-            } catch (Exception detachEx) {
-                LOGGER.warning("Could not detach newBaggage after retrieve failure: " + detachEx.getMessage());
+                LOGGER.info("Retried drop of baggage " + baggageNumber + " answered from the idempotency cache.");
+                return (Baggage) cached.getValue();
             }
+        }
+        if (flight == null || flight.getId() == null) {
+            LOGGER.severe("Cannot drop baggage " + baggageNumber + " without a persisted flight.");
             return null;
         }
 
-        // Initiate the automated processing workflow for this new baggage.
-        // This will operate on a managed instance (fullyInitializedBaggage).
-        startBaggageProcessing(baggageNumber);
+        try {
+            // No existence check up front: the insert itself detects retries and duplicates.
+            Baggage dropped = baggageCommands.drop(idempotencyKey, baggageNumber, weightKg, flight.getId());
+            if (dropped != null && recordId != null) {
+                idempotencyCache.put(recordId, baggageNumber, dropped);
+            }
+            return dropped;
+        } catch (EJBException e) {
+            // The drop's transaction was rolled back. Find out which row was already there.
+            if (recordId != null) {
+                IdempotencyRecord record = em.find(IdempotencyRecord.class, recordId);
+                if (record != null) {
+                    return replayDrop(record, baggageNumber);
+                }
+            }
+            if (transitionEngine.load(baggageNumber) != null) {
+                LOGGER.warning("Baggage with number " + baggageNumber + " already exists. Cannot drop duplicate.");
+                return null;
+            }
+            LOGGER.severe("Error persisting or processing new baggage " + baggageNumber + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-        // After all processing and status updates (which use recordBaggageStatus and merge),
-        // the fullyInitializedBaggage object is still managed.
-        // We need to detach it before returning it to the client.
+    // Answers a retried drop from the committed IdempotencyRecord: the bag the original call created.
+    private Baggage replayDrop(IdempotencyRecord record, String baggageNumber) {
+        if (isReusedFor(record.getId(), record.getBaggageNumber(), baggageNumber)) {
+            return null;
+        }
+        if (record.getResultStatus() == null) {
+            return null; // The original call created no bag (flight not found)
+        }
+        Baggage baggage = findBaggageEntity(baggageNumber);
+        if (baggage != null) {
+            em.detach(baggage);
+            idempotencyCache.put(record.getId(), baggageNumber, baggage);
+            LOGGER.info("Retried drop of baggage " + baggageNumber + " answered from its idempotency record.");
+        }
+        return baggage;
+    }
 
-        // Also, ensure any lazy loaded fields within the history entries themselves are initialized if they exist
-        // (e.g., if BaggageHistoryEntry had a LAZY ManyToOne to another entity).
-        for(BaggageHistoryEntry entry : fullyInitializedBaggage.getHistory()) {
-            // entry.getSomeLazyField(); // If BaggageHistoryEntry has its own lazy fields
-            em.detach(entry); // Detach each history entry as well
+    // An idempotency key answers only calls for the bag it was first used for, whether from the cache or the record.
+    private static boolean isReusedFor(String recordId, String usedFor, String baggageNumber) {
+        if (usedFor.equals(baggageNumber)) {
+            return false;
         }
-        
-        em.detach(fullyInitializedBaggage); // Detach the main Baggage entity
-
-        LOGGER.info("Returning detached Baggage entity " + fullyInitializedBaggage.getBaggageNumber() + " to client.");
-        return fullyInitializedBaggage;
-    } catch (Exception e) {
-        LOGGER.severe("Error persisting or processing new baggage " + baggageNumber + ": " + e.getMessage());
-        e.printStackTrace();
-        // If an error occurs, ensure the object is not returned in a half-baked state.
-        // Also try to detach the initial newBaggage if it's still managed.
+        LOGGER.warning("Idempotency key " + recordId + " was used for baggage " + usedFor
+                + ", rejecting its reuse for " + baggageNumber + ".");
+        return true;
+    }
+
+    @Override
+    public List<BagDropResult> dropBaggageBatch(List<BagDrop> drops) {
+        if (drops == null || drops.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LOGGER.info("Attempting batch drop of " + drops.size() + " baggage items.");
+
+        // Collect tags and flights up front so both can be validated with set-based queries.
+        Set<String> requestedNumbers = new HashSet<>();
+        Set<Long> flightIds = new HashSet<>();
+        for (BagDrop drop : drops) {
+            if (drop == null) continue;
+            if (drop.getBaggageNumber() != null) requestedNumbers.add(drop.getBaggageNumber());
+            if (drop.getFlight() != null && drop.getFlight().getId() != null) flightIds.add(drop.getFlight().getId());
+        }
+        Set<String> existingNumbers = findExistingBaggageNumbers(requestedNumbers);
+        Map<Long, Flight> flightsById = findFlightsById(flightIds);
+
+        List<BagDropResult> results = new ArrayList<>(drops.size());
+        List<String> acceptedNumbers = new ArrayList<>();
+        List<BaggageState> droppedStates = new ArrayList<>();
+        Map<Long, Long> droppedPerFlight = new HashMap<>();
+        Set<String> seenInBatch = new HashSet<>();
         try {
-            if (newBaggage != null && em.contains(newBaggage)) {
-                em.detach(newBaggage);
+            int pending = 0;
+            for (BagDrop drop : drops) {
+                String number = drop != null ? drop.getBaggageNumber() : null;
+                if (number == null || number.trim().isEmpty()) {
+                    results.add(BagDropResult.rejected(number, "Missing baggage number."));
+                    continue;
+                }
+                if (drop.getWeightKg() <= 0) {
+                    results.add(BagDropResult.rejected(number, "Weight must be positive."));
+                    continue;
+                }
+                if (existingNumbers.contains(number) || !seenInBatch.add(number)) {
+                    results.add(BagDropResult.rejected(number, "Baggage number already exists."));
+                    continue;
+                }
+                Flight flight = drop.getFlight() != null ? flightsById.get(drop.getFlight().getId()) : null;
+                if (flight == null) {
+                    results.add(BagDropResult.rejected(number, "Flight not found."));
+                    continue;
+                }
+
+                // The constructor adds the initial DROPPED_OFF history entry, which is cascaded on persist.
+                Baggage baggage = new Baggage(number, drop.getWeightKg(), flight);
+                em.persist(baggage);
+                snapshots.create(baggage);
+                droppedPerFlight.merge(flight.getId(), 1L, Long::sum);
+                BaggageState state = BaggageState.of(baggage);
+                trackingIndex.updateAfterCommit(state, BaggageStatus.DROPPED_OFF);
+                droppedStates.add(state);
+                acceptedNumbers.add(number);
+                results.add(BagDropResult.accepted(number, BaggageStatus.DROPPED_OFF));
+
+                if (++pending % JDBC_BATCH_SIZE == 0) {
+                    // Send the current batch and keep the persistence context small.
+                    // Flights stay usable as references after clear(); only their ids are needed.
+                    em.flush();
+                    em.clear();
+                }
             }
-        } catch (Exception detachEx) {
-            LOGGER.warning("Could not detach newBaggage on error: " + detachEx.getMessage());
+            em.flush();
+            em.clear();
+            // One counter update per flight instead of one per bag.
+            for (Map.Entry<Long, Long> dropped : droppedPerFlight.entrySet()) {
+                flightCounters.adjust(dropped.getKey(), BaggageStatus.DROPPED_OFF, dropped.getValue());
+            }
+            statusPublisher.publishDropped(droppedStates); // Ahead of the stage changes that follow
+            if (baggagePipeline.isInline()) {
+                // One status UPDATE per stage for all new bags, not one per bag (each of which would force a flush).
+                for (int from = 0; from < droppedStates.size(); from += IN_CLAUSE_CHUNK) {
+                    transitionEngine.advanceAll(droppedStates.subList(from, Math.min(from + IN_CLAUSE_CHUNK, droppedStates.size())));
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.severe("Error persisting baggage batch: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
         }
-        return null;
+
+        LOGGER.info("Batch drop persisted " + acceptedNumbers.size() + " of " + drops.size() + " baggage items.");
+
+        if (!baggagePipeline.isInline()) {
+            baggagePipeline.submitAllAfterCommit(BaggageProcessingStage.SECURITY, droppedStates);
+        }
+        return results;
+    }
+
+    private Set<String> findExistingBaggageNumbers(Set<String> baggageNumbers) {
+        Set<String> existing = new HashSet<>();
+        List<String> numbers = new ArrayList<>(baggageNumbers);
+        for (int from = 0; from < numbers.size(); from += IN_CLAUSE_CHUNK) {
+            List<String> chunk = numbers.subList(from, Math.min(from + IN_CLAUSE_CHUNK, numbers.size()));
+            existing.addAll(em.createQuery(
+                    "SELECT b.baggageNumber FROM Baggage b WHERE b.baggageNumber IN :numbers", String.class)
+                    .setParameter("numbers", chunk)
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    private Map<Long, Flight> findFlightsById(Set<Long> flightIds) {
+        Map<Long, Flight> flights = new HashMap<>();
+        if (flightIds.isEmpty()) {
+            return flights;
+        }
+        for (Flight flight : em.createQuery("SELECT f FROM Flight f WHERE f.id IN :ids", Flight.class)
+                               .setParameter("ids", flightIds)
+                               .getResultList()) {
+            flights.put(flight.getId(), flight);
+        }
+        return flights;
     }
-}
 
     @Override
     public Baggage getBaggageByNumber(String baggageNumber) {
@@ -154,27 +358,54 @@ public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight)
             for(BaggageHistoryEntry entry : baggage.getHistory()) {
                 // entry.getSomeOtherLazyField().getId(); // Force init of nested lazy fields
             }
-            em.detach(baggage); // Detach the entity before sending to client
+            detachWithFullHistory(baggage, em.find(ColdBaggageHistory.class, baggage.getId()));
         }
         return baggage;
     }
 
     @Override
+    public BaggageStatusView getBaggageStatusView(String baggageNumber) {
+        try {
+            List<BaggageStatusView> views = em.createQuery(STATUS_VIEW_SELECT, BaggageStatusView.class)
+                                              .setParameter("baggageNumber", baggageNumber)
+                                              .getResultList();
+            return views.isEmpty() ? null : views.get(0);
+        } catch (Exception e) {
+            LOGGER.severe("Error reading status of baggage " + baggageNumber + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public BaggageStatus getBaggageStatus(String baggageNumber) {
+        TrackedBaggage tracked = trackingIndex.get(baggageNumber);
+        if (tracked != null) {
+            return tracked.getStatus();
+        }
+        // Not (yet) indexed, e.g. dropped by a transaction that is still committing.
+        BaggageState state = transitionEngine.load(baggageNumber);
+        return state != null ? state.getStatus() : null;
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // One transaction per attempt, see OptimisticRetryInterceptor
+    @Interceptors(OptimisticRetryInterceptor.class)
     public Baggage updateBaggageStatus(String baggageNumber, BaggageStatus newStatus) {
         LOGGER.info("Attempting to update status for baggage " + baggageNumber + " to " + newStatus.getDisplayName());
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage != null) {
-            try {
-                recordBaggageStatus(baggageNumber, newStatus, "Status manually updated.");
-                // After recordBaggageStatus, the baggage object should be managed and its history updated.
-                // Detach it before returning.
-                em.detach(baggage);
-                return baggage;
-            } catch (Exception e) {
-                LOGGER.severe("Error updating status for baggage " + baggageNumber + ": " + e.getMessage());
-                e.printStackTrace();
-                return null;
+        BaggageState state = transitionEngine.load(baggageNumber);
+        if (state != null) {
+            // The transition commits on its own; a conflict propagates to the retry interceptor.
+            if (!transitionEngine.transition(state, newStatus, "Status manually updated.")) {
+                throw new IllegalStateException("Baggage " + baggageNumber + " cannot move from " + state.getStatus().getDisplayName()
+                        + " to " + newStatus.getDisplayName() + ".");
             }
+            // The bag is returned to the client, so only now read it together with its (updated) history.
+            Baggage baggage = findBaggageEntity(baggageNumber);
+            if (baggage != null) {
+                detachWithFullHistory(baggage, em.find(ColdBaggageHistory.class, baggage.getId()));
+            }
+            return baggage;
         }
         LOGGER.warning("Baggage " + baggageNumber + " not found for status update.");
         return null;
@@ -188,6 +419,10 @@ public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight)
             List<Baggage> result = em.createQuery(
                 "SELECT b FROM Baggage b LEFT JOIN FETCH b.history", Baggage.class)
                 .getResultList();
+            Map<Long, ColdBaggageHistory> coldById = new HashMap<>();
+            for (ColdBaggageHistory cold : em.createQuery("SELECT c FROM ColdBaggageHistory c", ColdBaggageHistory.class).getResultList()) {
+                coldById.put(cold.getBaggageId(), cold);
+            }
             
             // Detach each entity in the list and ensure all nested lazy fields are initialized if needed.
             List<Baggage> detachedResult = new ArrayList<>();
@@ -197,7 +432,7 @@ public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight)
                 for(BaggageHistoryEntry entry : b.getHistory()) {
                     // entry.getSomeOtherLazyField(); // For example
                 }
-                em.detach(b);
+                detachWithFullHistory(b, coldById.get(b.getId()));
                 detachedResult.add(b);
             }
 
@@ -211,8 +446,81 @@ public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight)
     }
 
     @Override
+    public BaggageSummaryPage getBaggagePage(Long afterId, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        try {
+            // Fetch one extra row to know whether another page follows.
+            List<BaggageSummary> rows = em.createQuery(
+                    SUMMARY_SELECT + "WHERE b.id > :afterId ORDER BY b.id", BaggageSummary.class)
+                    .setParameter("afterId", afterId != null ? afterId : Long.MIN_VALUE)
+                    .setMaxResults(size + 1)
+                    .getResultList();
+            if (rows.size() <= size) {
+                return new BaggageSummaryPage(new ArrayList<>(rows), null);
+            }
+            List<BaggageSummary> items = new ArrayList<>(rows.subList(0, size));
+            return new BaggageSummaryPage(items, items.get(size - 1).getId());
+        } catch (Exception e) {
+            LOGGER.severe("Error retrieving baggage page after id " + afterId + ": " + e.getMessage());
+            e.printStackTrace();
+            return new BaggageSummaryPage(Collections.emptyList(), null);
+        }
+    }
+
+    @Override
+    public String exportBaggageSummaries() {
+        try {
+            Path file = ExportFiles.newExportFile("baggage", "csv");
+            long count = 0;
+            // Constructor projections are never managed, so the persistence context stays empty while streaming.
+            try (Stream<BaggageSummary> rows = em.createQuery(SUMMARY_SELECT + "ORDER BY b.id", BaggageSummary.class)
+                                                 .setHint("org.hibernate.fetchSize", EXPORT_FETCH_SIZE)
+                                                 .setHint("org.hibernate.readOnly", true)
+                                                 .getResultStream();
+                 BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("baggageNumber,status,flightNumber,weightKg,heldForInspection");
+                out.newLine();
+                for (BaggageSummary row : (Iterable<BaggageSummary>) rows::iterator) {
+                    out.write(ExportFiles.csv(row.getBaggageNumber()) + "," + row.getStatus() + ","
+                            + ExportFiles.csv(row.getFlightNumber()) + "," + row.getWeightKg() + "," + row.isHeldForInspection());
+                    out.newLine();
+                    count++;
+                }
+            }
+            LOGGER.info("Exported " + count + " baggage summaries to " + file);
+            return ExportFiles.downloadPath(file);
+        } catch (Exception e) {
+            LOGGER.severe("Error exporting baggage summaries: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public String exportFlightManifest(String flightNumber, ManifestFormat format) {
+        try {
+            // Validates the flight number, which becomes part of the file name, and creates no file for unknown flights.
+            Long flightId = manifestWriter.findFlightId(flightNumber);
+            if (flightId == null) {
+                return null;
+            }
+            Path file = ExportFiles.newExportFile("manifest-" + flightNumber, format.getExtension());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                manifestWriter.write(flightId, flightNumber, format, out);
+            }
+            return ExportFiles.downloadPath(file);
+        } catch (Exception e) {
+            LOGGER.severe("Error exporting the manifest of flight " + flightNumber + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // One transaction per attempt, see OptimisticRetryInterceptor
+    @Interceptors(OptimisticRetryInterceptor.class)
     public void startBaggageProcessing(String baggageNumber) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
+        BaggageState baggage = transitionEngine.load(baggageNumber);
         if (baggage == null) {
             LOGGER.warning("Cannot start processing: Baggage " + baggageNumber + " not found.");
             return;
@@ -220,14 +528,8 @@ public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight)
 
         LOGGER.info("\n--- Initiating automated processing for Baggage: " + baggageNumber + " (Current Status: " + baggage.getStatus().getDisplayName() + ") ---");
         
-        if (baggage.getStatus() == BaggageStatus.DROPPED_OFF) {
-            processSecurity(baggageNumber);
-        } else if (baggage.getStatus() == BaggageStatus.SECURITY_CLEARED) {
-            processSorting(baggageNumber);
-        } else if (baggage.getStatus() == BaggageStatus.SORTED) {
-            processCBR(baggageNumber);
-        } else if (baggage.getStatus() == BaggageStatus.CBR_READY) {
-            processLoading(baggageNumber);
+        if (BaggageStateMachine.automaticStage(baggage.getStatus()) != null) {
+            baggageCommands.continueProcessing(baggage);
         } else if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
             LOGGER.info("Baggage " + baggageNumber + " is currently HELD_FOR_INSPECTION. Automated processing will resume once released.");
         } else if (baggage.getStatus() == BaggageStatus.LOADED || 
@@ -241,140 +543,166 @@ public Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight)
     }
 
     @Override
-    public void recordBaggageStatus(String baggageNumber, BaggageStatus newStatus, String details) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage != null) {
-            if (baggage.getStatus() == newStatus && (details == null || details.isEmpty())) {
-                LOGGER.info("Baggage " + baggageNumber + " already in status " + newStatus.getDisplayName() + ". Not recording duplicate entry without new details.");
-                return;
-            }
-            baggage.addHistoryEntry(newStatus, details); 
-            em.merge(baggage);
-            LOGGER.info("Baggage " + baggageNumber + " status updated to: " + newStatus.getDisplayName() + (details != null && !details.isEmpty() ? " (" + details + ")" : ""));
-        } else {
-            LOGGER.severe("Error: Baggage " + baggageNumber + " not found for status update (recordBaggageStatus).");
+    public FlightBaggageSummary getFlightBaggageSummary(String flightNumber) {
+        try {
+            return flightCounters.summary(flightNumber);
+        } catch (Exception e) {
+            LOGGER.severe("Error reading baggage summary for flight " + flightNumber + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
         }
     }
 
     @Override
-    public List<BaggageHistoryEntry> getBaggageHistory(String baggageNumber) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This method now uses LEFT JOIN FETCH
-        if (baggage != null) {
-            // The history collection is guaranteed to be initialized by findBaggageEntity.
-            // Return an unmodifiable list of detached history entries.
-            List<BaggageHistoryEntry> detachedHistory = new ArrayList<>();
-            for (BaggageHistoryEntry entry : baggage.getHistory()) {
-                 em.detach(entry); // Detach each history entry as well
-                 detachedHistory.add(entry);
-            }
-            return Collections.unmodifiableList(detachedHistory);
+    public FlightLoadSheet getFlightLoadSheet(String flightNumber) {
+        try {
+            return loadAggregates.loadSheet(flightNumber);
+        } catch (Exception e) {
+            LOGGER.severe("Error reading load sheet for flight " + flightNumber + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
         }
-        LOGGER.info("No baggage found for history retrieval: " + baggageNumber);
-        return Collections.emptyList();
     }
 
     @Override
-    public void setBaggageHoldStatus(String baggageNumber, boolean hold) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage == null) {
-            LOGGER.warning("Baggage " + baggageNumber + " not found to set hold status.");
-            return;
-        }
-
-        if (hold) {
-            if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
-                LOGGER.info("Baggage " + baggageNumber + " is already HELD_FOR_INSPECTION.");
-                return;
-            }
-            recordBaggageStatus(baggageNumber, BaggageStatus.HELD_FOR_INSPECTION, "Held by administrator.");
-            LOGGER.info("Baggage " + baggageNumber + " is now HELD_FOR_INSPECTION.");
-        } else {
-            if (baggage.getStatus() != BaggageStatus.HELD_FOR_INSPECTION) {
-                LOGGER.info("Baggage " + baggageNumber + " is not currently HELD_FOR_INSPECTION. No action taken.");
-                return;
-            }
-            recordBaggageStatus(baggageNumber, BaggageStatus.DROPPED_OFF, "Released by administrator.");
-            LOGGER.info("Baggage " + baggageNumber + " RELEASED from hold. Re-evaluating next processing step.");
-            startBaggageProcessing(baggageNumber);
-        }
+    public int rebuildFlightBaggageCounters() {
+        return flightCounters.rebuild();
     }
 
-    private void processSecurity(String baggageNumber) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage == null) return;
+    @Override
+    public List<ContentionStats> getContentionStats() {
+        return contentionMetrics.getStats();
+    }
 
-        if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
-            LOGGER.info("Baggage " + baggageNumber + " is currently HELD_FOR_INSPECTION. Security processing paused.");
-            return;
-        }
-        if (baggage.getStatus() != BaggageStatus.DROPPED_OFF) {
-               LOGGER.info("Baggage " + baggageNumber + " not in DROPPED_OFF status for security check. Current: " + baggage.getStatus().getDisplayName() + ". Skipping security check.");
-               return;
-        }
+    @Override
+    public List<PipelineStageStats> getPipelineStats() {
+        return baggagePipeline.getStats();
+    }
 
-        LOGGER.info("Baggage " + baggageNumber + ": Entering Security Scan...");
-        recordBaggageStatus(baggageNumber, BaggageStatus.SECURITY_CLEARED, "Cleared by X-ray scan.");
+    @Override
+    public ScanIngestionStats getScanIngestionStats() {
+        return scanIngestion.getStats();
+    }
 
-        LOGGER.info("Baggage " + baggageNumber + ": Security scan DONE. Passing to Sorting.");
-        processSorting(baggageNumber);
+    @Override
+    public int setScanIngestionLanes(int lanes) {
+        return scanIngestion.setLanes(lanes);
     }
 
-    private void processSorting(String baggageNumber) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage == null) return;
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // One transaction per attempt, see OptimisticRetryInterceptor
+    @Interceptors(OptimisticRetryInterceptor.class)
+    public void recordBaggageStatus(String baggageNumber, BaggageStatus newStatus, String details) {
+        baggageCommands.recordStatus(baggageNumber, newStatus, details);
+    }
 
-        if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
-            LOGGER.info("Baggage " + baggageNumber + " is currently HELD_FOR_INSPECTION. Sorting processing paused.");
-            return;
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // One transaction per attempt, see OptimisticRetryInterceptor
+    @Interceptors(OptimisticRetryInterceptor.class)
+    public BaggageStatus recordBaggageStatus(String idempotencyKey, String baggageNumber, BaggageStatus newStatus, String details) {
+        if (idempotencyKey == null) {
+            return baggageCommands.recordStatus(baggageNumber, newStatus, details);
         }
-        if (baggage.getStatus() != BaggageStatus.SECURITY_CLEARED) {
-            LOGGER.info("Baggage " + baggageNumber + " not in SECURITY_CLEARED status for sorting. Current: " + baggage.getStatus().getDisplayName() + ". Skipping sorting.");
-            return;
+        String recordId = IdempotencyRecord.idOf(IdempotencyRecord.STATUS, idempotencyKey);
+        IdempotencyCache.Result cached = idempotencyCache.get(recordId);
+        if (cached != null && cached.getValue() instanceof BaggageStatus) {
+            return isReusedFor(recordId, cached.getBaggageNumber(), baggageNumber) ? null : (BaggageStatus) cached.getValue();
+        }
+        try {
+            BaggageStatus result = baggageCommands.recordStatusOnce(idempotencyKey, baggageNumber, newStatus, details);
+            if (result != null) {
+                idempotencyCache.put(recordId, baggageNumber, result);
+            }
+            return result;
+        } catch (EJBException e) {
+            if (OptimisticRetryInterceptor.isConflict(e)) {
+                throw e; // Rolled back together with the key claim, the interceptor retries the whole call
+            }
+            IdempotencyRecord record = em.find(IdempotencyRecord.class, recordId);
+            if (record == null) {
+                LOGGER.severe("Error recording status " + newStatus + " for baggage " + baggageNumber + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+            if (isReusedFor(recordId, record.getBaggageNumber(), baggageNumber)) {
+                return null;
+            }
+            LOGGER.info("Retried status update of baggage " + baggageNumber + " answered from its idempotency record.");
+            if (record.getResultStatus() != null) {
+                idempotencyCache.put(recordId, baggageNumber, record.getResultStatus());
+            }
+            return record.getResultStatus();
         }
-
-        LOGGER.info("Baggage " + baggageNumber + ": Entering Sorting Facility...");
-        recordBaggageStatus(baggageNumber, BaggageStatus.SORTED, "Sorted to Gate " + baggage.getFlight().getFlightNumber() + " conveyor."); // Flight is EAGER, so safe to access
-
-        LOGGER.info("Baggage " + baggageNumber + ": Sorting DONE. Passing to CBR.");
-        processCBR(baggageNumber);
     }
 
-    private void processCBR(String baggageNumber) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage == null) return;
-
-        if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
-            LOGGER.info("Baggage " + baggageNumber + " is currently HELD_FOR_INSPECTION. CBR processing paused.");
-            return;
+    @Override
+    public List<BaggageHistoryEntry> getBaggageHistory(String baggageNumber) {
+        Baggage baggage = findBaggageEntity(baggageNumber); // This method now uses LEFT JOIN FETCH
+        if (baggage != null) {
+            detachWithFullHistory(baggage, em.find(ColdBaggageHistory.class, baggage.getId()));
+            return Collections.unmodifiableList(baggage.getHistory());
         }
-        if (baggage.getStatus() != BaggageStatus.SORTED) {
-            LOGGER.info("Baggage " + baggageNumber + " not in SORTED status for CBR. Current: " + baggage.getStatus().getDisplayName() + ". Skipping CBR.");
-            return;
+        LOGGER.info("No baggage found for history retrieval: " + baggageNumber);
+        return Collections.emptyList();
+    }
+
+    /**
+     * Detaches the bag (and its hot history entries) and replaces its history by the full history: archived entries,
+     * the bag's ColdBaggageHistory row and BAGGAGE_HISTORY. Each source is in chronological order; they are merged
+     * by timestamp (stable, so on equal timestamps the older source comes first).
+     * The archive is always consulted, a bag that has no archived entries costs one in-memory lookup.
+     */
+    private void detachWithFullHistory(Baggage baggage, ColdBaggageHistory cold) {
+        // The hot history collection is guaranteed to be initialized by the fetch join.
+        List<BaggageHistoryEntry> merged = new ArrayList<>(historyArchive.read(baggage.getBaggageNumber()));
+        if (cold != null) {
+            merged.addAll(cold.getEntries());
         }
+        merged.addAll(baggage.getHistory());
+        em.detach(baggage); // Cascades to the history entries
+        merged.sort(Comparator.comparing(BaggageHistoryEntry::getTimestamp)); // A merge of the sorted runs
+        baggage.setHistory(merged);
+    }
 
-        LOGGER.info("Baggage " + baggageNumber + ": Preparing for CBR...");
-        recordBaggageStatus(baggageNumber, BaggageStatus.CBR_READY, "Ready for Container/Cart/Bag Loading.");
+    @Override
+    public BaggageSnapshot getBaggageSnapshot(String baggageNumber) {
+        try {
+            BaggageSnapshot snapshot = snapshots.find(baggageNumber);
+            if (snapshot != null) {
+                em.detach(snapshot);
+            }
+            return snapshot;
+        } catch (Exception e) {
+            LOGGER.severe("Error reading snapshot of baggage " + baggageNumber + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-        LOGGER.info("Baggage " + baggageNumber + ": CBR READY. Passing to Loading.");
-        processLoading(baggageNumber);
+    @Override
+    public int compactBaggageHistory(int olderThanDays) {
+        return historyCompactor.compact(LocalDateTime.now().minusDays(Math.max(0, olderThanDays)));
     }
 
-    private void processLoading(String baggageNumber) {
-        Baggage baggage = findBaggageEntity(baggageNumber); // This now fetches and initializes history
-        if (baggage == null) return;
+    @Override
+    public int archiveBaggageHistory(int olderThanDays) {
+        return historyArchiver.archive(LocalDateTime.now().minusDays(Math.max(0, olderThanDays)));
+    }
 
-        if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
-            LOGGER.info("Baggage " + baggageNumber + " is currently HELD_FOR_INSPECTION. Loading processing paused.");
-            return;
-        }
-        if (baggage.getStatus() != BaggageStatus.CBR_READY) {
-            LOGGER.info("Baggage " + baggageNumber + " not in CBR_READY status for loading. Current: " + baggage.getStatus().getDisplayName() + ". Skipping loading.");
-            return;
-        }
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // One transaction per attempt, see OptimisticRetryInterceptor
+    @Interceptors(OptimisticRetryInterceptor.class)
+    public void setBaggageHoldStatus(String baggageNumber, boolean hold) {
+        baggageCommands.setHoldStatus(baggageNumber, hold);
+    }
 
-        LOGGER.info("Baggage " + baggageNumber + ": Loading onto flight " + baggage.getFlight().getFlightNumber() + "..."); // Flight is EAGER, so safe to access
-        recordBaggageStatus(baggageNumber, BaggageStatus.LOADED, "Loaded onto Flight " + baggage.getFlight().getFlightNumber());
+    @Override
+    public int holdBaggage(BaggageSelectionCriteria criteria) {
+        return bulkOperations.hold(criteria);
+    }
 
-        LOGGER.info("Baggage " + baggageNumber + ": LOADING DONE. Automated ground processing complete. Awaiting Flight Departure/Arrival events for further status changes.");
+    @Override
+    public int releaseBaggage(BaggageSelectionCriteria criteria) {
+        return bulkOperations.release(criteria);
     }
 }
\ No newline at end of file
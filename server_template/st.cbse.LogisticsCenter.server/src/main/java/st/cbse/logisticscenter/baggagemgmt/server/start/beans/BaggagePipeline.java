@@ -0,0 +1,353 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.ejb.Schedule;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.PipelineStageStats;
+import st.cbse.logisticscenter.flightmgmt.server.start.beans.AfterCommitChanges;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous baggage processing pipeline.
+ * Every BaggageProcessingStage has its own bounded queue and its own pool of worker threads.
+ * A worker runs one stage for one bag in a separate transaction (BaggageStageProcessor) and then hands
+ * the bag to the next stage's queue. Callers such as dropBaggage therefore only wait for the bag to be persisted.
+ *
+ * Scheduling: queues are earliest deadline first (DeadlineQueue). A bag's deadline is its flight's start time
+ * minus the minimum connection time (FlightDeadlines), so bags for the next departures overtake bags for flights
+ * hours away; bags of the same flight stay in arrival order. When a flight's start time changes, its queued bags
+ * are moved accordingly. A bag taken up by a stage after its deadline is counted as a missed deadline.
+ *
+ * Per-stage settings are read from system properties, e.g.
+ *   baggage.pipeline.security.workers=4
+ *   baggage.pipeline.security.queueCapacity=2000
+ *   baggage.pipeline.offerTimeoutMs=5000
+ *
+ * With baggage.pipeline.mode=inline no workers are started; callers then apply all automated stages
+ * in their own transaction through BaggageTransitionEngine.advance (useful for development and batch jobs).
+ *
+ * Backpressure: a worker handing a bag to the next stage waits up to offerTimeoutMs for room in that stage's
+ * queue, so a slow downstream stage throttles this one. Submissions after a commit never wait. A bag that finds
+ * the queue full is counted as rejected and put on the stage's backlog, while the bag itself stays in the stage's
+ * from-status in the database. The backlog is queued again every 10 seconds as far as there is room. Queues and
+ * backlogs do not survive a restart, so at startup every bag waiting in the from-status of a stage is queued again.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class BaggagePipeline {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggagePipeline.class.getName());
+
+    private static final int DEFAULT_WORKERS = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final long DEFAULT_OFFER_TIMEOUT_MS = 5000;
+    private static final int RECOVERY_FETCH_SIZE = 1000;
+
+    // A bag to be queued for a stage once the transaction that moved it there has committed. The deadline is
+    // looked up before the commit: afterCompletion runs without a transaction and must not query the database.
+    private static final class Submission {
+        private final BaggageProcessingStage stage;
+        private final String baggageNumber;
+        private final Long flightId;
+        private final long deadlineMillis;
+
+        Submission(BaggageProcessingStage stage, String baggageNumber, Long flightId, long deadlineMillis) {
+            this.stage = stage;
+            this.baggageNumber = baggageNumber;
+            this.flightId = flightId;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    @EJB
+    private BaggageStageProcessor stageProcessor;
+
+    @EJB
+    private FlightDeadlines flightDeadlines;
+
+    private final Map<BaggageProcessingStage, StageWorkers> stages = new EnumMap<>(BaggageProcessingStage.class);
+    private final AfterCommitChanges<String, Submission> submissions = new AfterCommitChanges<>(
+            BaggagePipeline.class.getName() + ".submissions", (committed, stamp) -> committed.values().forEach(this::submit));
+    private final AfterCommitChanges<Long, LocalDateTime> departureChanges = new AfterCommitChanges<>(
+            BaggagePipeline.class.getName() + ".departures",
+            (committed, stamp) -> committed.forEach((flightId, startTime) -> reprioritise(flightId, startTime, stamp)));
+    private long offerTimeoutMs;
+    private boolean inline;
+    private volatile boolean running;
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    void start() {
+        offerTimeoutMs = Long.getLong("baggage.pipeline.offerTimeoutMs", DEFAULT_OFFER_TIMEOUT_MS);
+        inline = "inline".equalsIgnoreCase(System.getProperty("baggage.pipeline.mode", "async"));
+        if (inline) {
+            LOGGER.info("Baggage pipeline in inline mode: automated stages run in the caller's transaction.");
+            return;
+        }
+        running = true;
+        for (BaggageProcessingStage stage : BaggageProcessingStage.values()) {
+            String prefix = "baggage.pipeline." + stage.name().toLowerCase() + ".";
+            int workers = Math.max(1, Integer.getInteger(prefix + "workers", DEFAULT_WORKERS));
+            int capacity = Math.max(1, Integer.getInteger(prefix + "queueCapacity", DEFAULT_QUEUE_CAPACITY));
+            StageWorkers stageWorkers = new StageWorkers(stage, workers, capacity);
+            stages.put(stage, stageWorkers);
+            stageWorkers.start();
+        }
+        recoverWaitingBags();
+        LOGGER.info("Baggage pipeline started: " + getStats());
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (StageWorkers stageWorkers : stages.values()) {
+            stageWorkers.stop();
+        }
+        LOGGER.info("Baggage pipeline stopped.");
+    }
+
+    /**
+     * @return true if automated stages should be applied synchronously by the caller instead of being queued.
+     */
+    public boolean isInline() {
+        return inline;
+    }
+
+    /**
+     * Queues the bag for the given stage once the caller's transaction has committed,
+     * so workers never see a bag that is not yet visible in the database.
+     * Without a transaction the bag is queued immediately. Never waits for room in the queue.
+     */
+    public void submitAfterCommit(BaggageProcessingStage stage, BaggageState baggage) {
+        submitAllAfterCommit(stage, List.of(baggage));
+    }
+
+    /**
+     * Bulk variant of submitAfterCommit.
+     */
+    public void submitAllAfterCommit(BaggageProcessingStage stage, Collection<BaggageState> bags) {
+        for (BaggageState bag : bags) {
+            submissions.put(txRegistry, bag.getBaggageNumber(), new Submission(stage, bag.getBaggageNumber(), bag.getFlightId(),
+                    flightDeadlines.deadlineOf(bag.getFlightId())));
+        }
+    }
+
+    /**
+     * Re-prioritises the queued bags of a flight for its new start time once the caller's transaction has committed.
+     * The flight's row must already be updated (flushed), so that concurrent changes are applied in commit order.
+     */
+    public void departureChangedAfterCommit(Long flightId, LocalDateTime startTime) {
+        departureChanges.put(txRegistry, flightId, startTime);
+    }
+
+    /**
+     * Queues the backlogged bags again, as far as the queues have room.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/10", persistent = false)
+    public void retryBacklog() {
+        for (StageWorkers stageWorkers : stages.values()) {
+            stageWorkers.drainBacklog();
+        }
+    }
+
+    public List<PipelineStageStats> getStats() {
+        List<PipelineStageStats> stats = new ArrayList<>();
+        for (StageWorkers stageWorkers : stages.values()) {
+            stats.add(stageWorkers.stats());
+        }
+        return stats;
+    }
+
+    private void submit(Submission submission) {
+        StageWorkers stageWorkers = stages.get(submission.stage);
+        if (stageWorkers == null) {
+            LOGGER.warning("Baggage pipeline is not running, baggage " + submission.baggageNumber + " not queued for "
+                    + submission.stage + ".");
+            return;
+        }
+        stageWorkers.submit(submission.baggageNumber, submission.flightId, submission.deadlineMillis, 0);
+    }
+
+    // Queues the bags a previous run left waiting between stages (queued, backlogged or being handed over).
+    private void recoverWaitingBags() {
+        List<BaggageStatus> waiting = new ArrayList<>();
+        for (BaggageProcessingStage stage : BaggageProcessingStage.values()) {
+            waiting.add(stage.getFromStatus());
+        }
+        long count = 0;
+        try (Stream<Object[]> rows = em.createQuery(
+                "SELECT b.baggageNumber, b.flight.id, b.status FROM Baggage b WHERE b.status IN :waiting ORDER BY b.id", Object[].class)
+                .setParameter("waiting", waiting)
+                .setHint("org.hibernate.fetchSize", RECOVERY_FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                Long flightId = (Long) row[1];
+                stages.get(BaggageProcessingStage.forStatus((BaggageStatus) row[2]))
+                      .submit((String) row[0], flightId, flightDeadlines.deadlineOf(flightId), 0);
+                count++;
+            }
+        }
+        if (count > 0) {
+            LOGGER.info("Baggage pipeline resumed " + count + " bag(s) waiting for an automated stage.");
+        }
+    }
+
+    private void reprioritise(Long flightId, LocalDateTime startTime, long stamp) {
+        long deadline = flightDeadlines.update(flightId, startTime, stamp);
+        int moved = 0;
+        for (StageWorkers stageWorkers : stages.values()) {
+            moved += stageWorkers.queue.reprioritise(flightId, deadline);
+        }
+        LOGGER.info("Start time of flight " + flightId + " changed to " + startTime + ", " + moved + " queued bag(s) re-prioritised.");
+    }
+
+    /**
+     * Queue, worker threads and counters of one stage.
+     */
+    private final class StageWorkers {
+        private final BaggageProcessingStage stage;
+        private final int workerCount;
+        private final DeadlineQueue queue;
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final Map<String, Long> backlog = new ConcurrentHashMap<>(); // Baggage number to flight id
+        private final AtomicLong missedDeadlines = new AtomicLong();
+        private final LongAccumulator maxLatenessMillis = new LongAccumulator(Math::max, 0);
+
+        StageWorkers(BaggageProcessingStage stage, int workerCount, int queueCapacity) {
+            this.stage = stage;
+            this.workerCount = workerCount;
+            this.queue = new DeadlineQueue(queueCapacity);
+        }
+
+        void start() {
+            for (int i = 0; i < workerCount; i++) {
+                Thread thread = threadFactory.newThread(this::runWorker);
+                thread.setName("baggage-" + stage.name().toLowerCase() + "-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+        }
+
+        void stop() {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Queues a bag, waiting up to timeoutMs for room; if there is none the bag goes to the backlog.
+         */
+        void submit(String baggageNumber, Long flightId, long deadlineMillis, long timeoutMs) {
+            if (offer(baggageNumber, flightId, deadlineMillis, timeoutMs)) {
+                submitted.incrementAndGet();
+                return;
+            }
+            rejected.incrementAndGet();
+            if (backlog.put(baggageNumber, flightId) == null) {
+                LOGGER.warning("Pipeline stage " + stage + " is full (" + queue.size() + " queued). Baggage "
+                        + baggageNumber + " waits in " + stage.getFromStatus() + " on the backlog.");
+            }
+        }
+
+        void drainBacklog() {
+            for (Iterator<Map.Entry<String, Long>> it = backlog.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Long> bag = it.next();
+                if (!offer(bag.getKey(), bag.getValue(), flightDeadlines.deadlineOf(bag.getValue()), 0)) {
+                    return; // Still full
+                }
+                it.remove();
+                submitted.incrementAndGet();
+            }
+        }
+
+        private boolean offer(String baggageNumber, Long flightId, long deadlineMillis, long timeoutMs) {
+            try {
+                return queue.offer(baggageNumber, flightId, deadlineMillis, timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void runWorker() {
+            while (running) {
+                DeadlineQueue.ScheduledBag bag;
+                try {
+                    bag = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                String baggageNumber = bag.getBaggageNumber();
+                long lateness = System.currentTimeMillis() - bag.getDeadlineMillis();
+                if (lateness > 0) {
+                    missedDeadlines.incrementAndGet();
+                    maxLatenessMillis.accumulate(lateness);
+                    LOGGER.fine("Baggage " + baggageNumber + " reached " + stage + " " + lateness / 1000 + " s after its deadline.");
+                }
+                try {
+                    boolean advanced = stageProcessor.process(stage, baggageNumber);
+                    processed.incrementAndGet();
+                    BaggageProcessingStage next = stage.next();
+                    if (advanced && next != null) {
+                        // Blocking hand-off: a slow downstream stage throttles this one.
+                        stages.get(next).submit(baggageNumber, bag.getFlightId(), bag.getDeadlineMillis(), offerTimeoutMs);
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    LOGGER.log(Level.SEVERE, "Pipeline stage " + stage + " failed for baggage " + baggageNumber, e);
+                }
+            }
+        }
+
+        PipelineStageStats stats() {
+            return new PipelineStageStats(stage, workerCount, queue.size(), queue.capacity(),
+                    submitted.get(), processed.get(), failed.get(), rejected.get(), backlog.size(),
+                    missedDeadlines.get(), maxLatenessMillis.get() / 1000);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSnapshot;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps BaggageSnapshot rows in step with status transitions. Runs in the caller's transaction.
+ */
+@Stateless
+public class BaggageSnapshots {
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    /**
+     * Creates the snapshot of a newly persisted bag (its id must be assigned).
+     */
+    public void create(Baggage baggage) {
+        em.persist(new BaggageSnapshot(baggage.getId(), baggage.getBaggageNumber(), baggage.getStatus(),
+                baggage.getDroppedAt() != null ? baggage.getDroppedAt() : LocalDateTime.now()));
+    }
+
+    /**
+     * Records one transition of a bag.
+     */
+    public void record(BaggageState baggage, BaggageStatus newStatus, LocalDateTime at) {
+        BaggageSnapshot snapshot = em.find(BaggageSnapshot.class, baggage.getId());
+        if (snapshot == null) {
+            // Bag created before snapshots existed: start tracking from now.
+            snapshot = new BaggageSnapshot(baggage.getId(), baggage.getBaggageNumber(), baggage.getStatus(), at);
+            em.persist(snapshot);
+        }
+        snapshot.recordTransition(newStatus, at);
+    }
+
+    /**
+     * Records the same transition for many bags, loading their snapshots with one query.
+     * The bags' states must still hold their previous status.
+     */
+    public void recordAll(List<BaggageState> bags, BaggageStatus newStatus, LocalDateTime at) {
+        if (bags.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(bags.size());
+        for (BaggageState bag : bags) {
+            ids.add(bag.getId());
+        }
+        Map<Long, BaggageSnapshot> snapshots = new HashMap<>();
+        for (BaggageSnapshot snapshot : em.createQuery(
+                "SELECT s FROM BaggageSnapshot s WHERE s.baggageId IN :ids", BaggageSnapshot.class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            snapshots.put(snapshot.getBaggageId(), snapshot);
+        }
+        for (BaggageState bag : bags) {
+            BaggageSnapshot snapshot = snapshots.get(bag.getId());
+            if (snapshot == null) {
+                snapshot = new BaggageSnapshot(bag.getId(), bag.getBaggageNumber(), bag.getStatus(), at);
+                em.persist(snapshot);
+            }
+            snapshot.recordTransition(newStatus, at);
+        }
+    }
+
+    /**
+     * @return The snapshot (managed), or null if the bag is unknown.
+     */
+    public BaggageSnapshot find(String baggageNumber) {
+        List<BaggageSnapshot> found = em.createQuery(
+                "SELECT s FROM BaggageSnapshot s WHERE s.baggageNumber = :baggageNumber", BaggageSnapshot.class)
+                .setParameter("baggageNumber", baggageNumber)
+                .getResultList();
+        return found.isEmpty() ? null : found.get(0);
+    }
+}
@@ -0,0 +1,52 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.interceptor.Interceptors;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+import java.util.logging.Logger;
+
+/**
+ * Executes a single automated processing stage for one bag.
+ * Called by the BaggagePipeline workers; the stage transition commits in its own short transaction,
+ * so a bag's progress is visible as soon as a stage completes. If the bag was changed concurrently
+ * (e.g. held by an administrator), the call is retried from a fresh read by OptimisticRetryInterceptor.
+ */
+@Stateless
+public class BaggageStageProcessor {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageStageProcessor.class.getName());
+
+    @EJB
+    private BaggageTransitionEngine transitionEngine;
+
+    /**
+     * Moves the bag through the given stage.
+     * @return true if the bag advanced and should be handed to the next stage, false if it was skipped
+     *         (not found, held for inspection, or not in the stage's input status).
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // Read and transition run in transactions of their own
+    @Interceptors(OptimisticRetryInterceptor.class)
+    public boolean process(BaggageProcessingStage stage, String baggageNumber) {
+        BaggageState baggage = transitionEngine.load(baggageNumber);
+        if (baggage == null) {
+            LOGGER.warning("Baggage " + baggageNumber + " not found for " + stage + " stage.");
+            return false;
+        }
+        if (baggage.getStatus() == BaggageStatus.HELD_FOR_INSPECTION) {
+            LOGGER.info("Baggage " + baggageNumber + " is currently HELD_FOR_INSPECTION. " + stage + " processing paused.");
+            return false;
+        }
+        if (baggage.getStatus() != stage.getFromStatus()) {
+            LOGGER.info("Baggage " + baggageNumber + " not in " + stage.getFromStatus() + " status for " + stage
+                    + ". Current: " + baggage.getStatus().getDisplayName() + ". Skipping.");
+            return false;
+        }
+        return transitionEngine.advance(baggage, 1) == 1;
+    }
+}
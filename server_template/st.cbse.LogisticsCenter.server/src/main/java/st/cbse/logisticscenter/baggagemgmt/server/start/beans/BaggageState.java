@@ -0,0 +1,110 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.HoldCompartment;
+
+/**
+ * Lightweight, unmanaged view of a bag used on the transition write path.
+ * Loaded with a JPQL constructor projection, so neither the Baggage entity nor its history
+ * ends up in the persistence context. The status is kept in sync by BaggageTransitionEngine.
+ */
+public class BaggageState {
+
+    /**
+     * Projection query prefix, to be completed with a WHERE clause on b (Baggage) and/or f (Flight).
+     */
+    static final String SELECT = "SELECT new st.cbse.logisticscenter.baggagemgmt.server.start.beans.BaggageState("
+            + "b.id, b.baggageNumber, b.status, f.id, f.flightNumber, b.weightKg, b.holdCompartment, b.version) "
+            + "FROM Baggage b JOIN b.flight f ";
+
+    private final Long id;
+    private final String baggageNumber;
+    private BaggageStatus status;
+    private final Long flightId;
+    private final String flightNumber;
+    private final double weightKg;
+    private HoldCompartment compartment;
+    private long version; // Baggage.version as read, advanced by every UPDATE this transaction makes to the row
+
+    /**
+     * Constructor of the JPQL projection, see SELECT.
+     */
+    public BaggageState(Long id, String baggageNumber, BaggageStatus status, Long flightId, String flightNumber, double weightKg,
+                        HoldCompartment compartment, long version) {
+        this.id = id;
+        this.baggageNumber = baggageNumber;
+        this.status = status;
+        this.flightId = flightId;
+        this.flightNumber = flightNumber;
+        this.weightKg = weightKg;
+        this.compartment = compartment;
+        this.version = version;
+    }
+
+    /**
+     * Builds the state of a bag that was just persisted (its id must already be assigned).
+     */
+    public static BaggageState of(Baggage baggage) {
+        return new BaggageState(baggage.getId(), baggage.getBaggageNumber(), baggage.getStatus(),
+                baggage.getFlight().getId(), baggage.getFlight().getFlightNumber(), baggage.getWeightKg(),
+                baggage.getHoldCompartment(), baggage.getVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    void setStatus(BaggageStatus status) {
+        this.status = status;
+    }
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public double getWeightKg() {
+        return weightKg;
+    }
+
+    public HoldCompartment getCompartment() {
+        return compartment;
+    }
+
+    void setCompartment(HoldCompartment compartment) {
+        this.compartment = compartment;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Called after an UPDATE of the bag's row that incremented Baggage.version.
+     */
+    void incrementVersion() {
+        version++;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageState{" +
+               "id=" + id +
+               ", baggageNumber='" + baggageNumber + '\'' +
+               ", status=" + status +
+               ", flight=" + flightNumber +
+               '}';
+    }
+}
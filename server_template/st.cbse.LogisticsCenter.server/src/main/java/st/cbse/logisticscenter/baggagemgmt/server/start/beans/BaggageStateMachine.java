@@ -0,0 +1,90 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transition table of the baggage lifecycle.
+ * Every status maps to the set of statuses a bag may move to next, and the ground-processing
+ * statuses additionally map to the automated stage that moves them forward.
+ * Lookups are EnumMap/EnumSet based, i.e. plain array indexing by ordinal.
+ */
+public final class BaggageStateMachine {
+
+    // Irregularities that can be reported from any status before delivery.
+    private static final Set<BaggageStatus> IRREGULAR = EnumSet.of(
+            BaggageStatus.LOST, BaggageStatus.DAMAGED, BaggageStatus.MISROUTED);
+
+    private static final Map<BaggageStatus, Set<BaggageStatus>> ALLOWED = new EnumMap<>(BaggageStatus.class);
+    private static final Map<BaggageStatus, BaggageProcessingStage> AUTOMATIC = new EnumMap<>(BaggageStatus.class);
+
+    static {
+        allow(BaggageStatus.DROPPED_OFF, BaggageStatus.SECURITY_CLEARED, BaggageStatus.HELD_FOR_INSPECTION);
+        allow(BaggageStatus.SECURITY_CLEARED, BaggageStatus.SORTED, BaggageStatus.HELD_FOR_INSPECTION);
+        allow(BaggageStatus.SORTED, BaggageStatus.CBR_READY, BaggageStatus.HELD_FOR_INSPECTION);
+        allow(BaggageStatus.CBR_READY, BaggageStatus.LOADED, BaggageStatus.HELD_FOR_INSPECTION);
+        // Holds only pause ground processing; a loaded bag must be offloaded (back to the container/cart stage) first.
+        allow(BaggageStatus.LOADED, BaggageStatus.TRANSIT, BaggageStatus.CBR_READY);
+        allow(BaggageStatus.TRANSIT, BaggageStatus.ARRIVED);
+        allow(BaggageStatus.ARRIVED, BaggageStatus.DELIVERED);
+        allow(BaggageStatus.DELIVERED, BaggageStatus.DAMAGED);
+        // Released, found or re-routed bags re-enter ground processing from the start,
+        // or are handed over directly if they already reached the destination.
+        allow(BaggageStatus.HELD_FOR_INSPECTION, BaggageStatus.DROPPED_OFF);
+        allow(BaggageStatus.LOST, BaggageStatus.DROPPED_OFF, BaggageStatus.ARRIVED, BaggageStatus.DELIVERED);
+        allow(BaggageStatus.MISROUTED, BaggageStatus.DROPPED_OFF, BaggageStatus.ARRIVED, BaggageStatus.DELIVERED);
+        allow(BaggageStatus.DAMAGED, BaggageStatus.DROPPED_OFF, BaggageStatus.ARRIVED, BaggageStatus.DELIVERED);
+
+        for (BaggageStatus status : BaggageStatus.values()) {
+            if (status != BaggageStatus.DELIVERED) {
+                ALLOWED.get(status).addAll(IRREGULAR);
+            }
+            // Re-recording the current status with new details (e.g. a scan) is always allowed.
+            ALLOWED.get(status).add(status);
+        }
+        for (BaggageProcessingStage stage : BaggageProcessingStage.values()) {
+            AUTOMATIC.put(stage.getFromStatus(), stage);
+        }
+    }
+
+    private BaggageStateMachine() {
+    }
+
+    private static void allow(BaggageStatus from, BaggageStatus... to) {
+        Set<BaggageStatus> targets = EnumSet.noneOf(BaggageStatus.class);
+        for (BaggageStatus status : to) {
+            targets.add(status);
+        }
+        ALLOWED.put(from, targets);
+    }
+
+    public static boolean isAllowed(BaggageStatus from, BaggageStatus to) {
+        return from != null && to != null && ALLOWED.get(from).contains(to);
+    }
+
+    /**
+     * @return All statuses other than 'to' itself from which a bag may move to 'to'.
+     */
+    public static Set<BaggageStatus> sourcesOf(BaggageStatus to) {
+        Set<BaggageStatus> sources = EnumSet.noneOf(BaggageStatus.class);
+        for (Map.Entry<BaggageStatus, Set<BaggageStatus>> entry : ALLOWED.entrySet()) {
+            if (entry.getKey() != to && entry.getValue().contains(to)) {
+                sources.add(entry.getKey());
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * @return The automated stage that processes bags in the given status, or null if the status
+     *         is not part of automated ground processing (held, loaded and beyond, irregularities).
+     */
+    public static BaggageProcessingStage automaticStage(BaggageStatus status) {
+        return status != null ? AUTOMATIC.get(status) : null;
+    }
+}
@@ -0,0 +1,99 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.Stateless;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSDestinationDefinition;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Topic;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusChange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Publishes status changes to the baggage status topic, so clients are pushed the changes they are
+ * interested in instead of polling getBaggageByNumber.
+ * Messages are sent through the XA connection factory (java:/JmsXA) in the caller's transaction:
+ * subscribers only receive a change once the status update has committed, and never one that rolled back.
+ */
+@JMSDestinationDefinition(
+        name = "java:jboss/exported/" + BaggageStatusChange.TOPIC_JNDI_NAME,
+        interfaceName = "jakarta.jms.Topic",
+        destinationName = "BaggageStatusTopic")
+@Stateless
+public class BaggageStatusPublisher {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageStatusPublisher.class.getName());
+
+    private static final String DROP_DETAILS = "Baggage initially dropped off.";
+
+    @Resource(lookup = "java:/JmsXA")
+    private ConnectionFactory connectionFactory;
+
+    @Resource(lookup = "java:jboss/exported/" + BaggageStatusChange.TOPIC_JNDI_NAME)
+    private Topic topic;
+
+    /**
+     * Publishes one change. previousStatus is null for a newly dropped bag.
+     */
+    public void publish(BaggageState baggage, BaggageStatus previousStatus, BaggageStatus newStatus, String details) {
+        try (JMSContext context = connectionFactory.createContext()) {
+            send(context, context.createProducer(), baggage, previousStatus, newStatus, details, LocalDateTime.now());
+        } catch (JMSException | JMSRuntimeException e) {
+            LOGGER.warning("Could not publish status change of baggage " + baggage.getBaggageNumber() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the same change for many bags over one session. The bags' states must still hold their previous status.
+     */
+    public void publishAll(List<BaggageState> bags, BaggageStatus newStatus, String details) {
+        publishAll(bags, false, newStatus, details);
+    }
+
+    /**
+     * Publishes the initial DROPPED_OFF change of newly dropped bags.
+     */
+    public void publishDropped(List<BaggageState> bags) {
+        publishAll(bags, true, BaggageStatus.DROPPED_OFF, DROP_DETAILS);
+    }
+
+    private void publishAll(List<BaggageState> bags, boolean dropped, BaggageStatus newStatus, String details) {
+        if (bags.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try (JMSContext context = connectionFactory.createContext()) {
+            JMSProducer producer = context.createProducer();
+            for (BaggageState baggage : bags) {
+                send(context, producer, baggage, dropped ? null : baggage.getStatus(), newStatus, details, now);
+            }
+        } catch (JMSException | JMSRuntimeException e) {
+            LOGGER.warning("Could not publish status change of " + bags.size() + " bag(s): " + e.getMessage());
+        }
+    }
+
+    private void send(JMSContext context, JMSProducer producer, BaggageState baggage, BaggageStatus previousStatus,
+                      BaggageStatus newStatus, String details, LocalDateTime at) throws JMSException {
+        MapMessage message = context.createMapMessage();
+        message.setString(BaggageStatusChange.BAGGAGE_NUMBER, baggage.getBaggageNumber());
+        message.setString(BaggageStatusChange.FLIGHT_NUMBER, baggage.getFlightNumber());
+        message.setString(BaggageStatusChange.PREVIOUS_STATUS, previousStatus != null ? previousStatus.name() : null);
+        message.setString(BaggageStatusChange.STATUS, newStatus.name());
+        message.setString(BaggageStatusChange.DETAILS, details);
+        message.setString(BaggageStatusChange.CHANGED_AT, at.toString());
+        // Selector properties
+        message.setStringProperty(BaggageStatusChange.BAGGAGE_NUMBER, baggage.getBaggageNumber());
+        message.setStringProperty(BaggageStatusChange.FLIGHT_NUMBER, baggage.getFlightNumber());
+        message.setStringProperty(BaggageStatusChange.STATUS, newStatus.name());
+        producer.send(topic, message);
+    }
+}
@@ -0,0 +1,128 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.flightmgmt.server.start.beans.AfterCommitChanges;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index from baggage number to the bag's committed status, flight and hold flag.
+ * Serves status lookups (tag scans, "where is my bag") without a database round trip.
+ *
+ * Warmed at startup by streaming a projection of all bags that have not been delivered. Afterwards it is written
+ * through: changes are collected per transaction and applied once the transaction has committed
+ * (AfterCommitChanges), so the index never shows a status that was rolled back. Every change carries the bag's
+ * Baggage.version, and a change that completes after a newer one of the same bag is ignored.
+ *
+ * Delivered bags are evicted once they have been delivered for baggage.index.deliveredRetentionMinutes
+ * (default 60); lookups of bags the index does not know fall back to the database.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class BaggageTrackingIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageTrackingIndex.class.getName());
+
+    private static final int WARMUP_FETCH_SIZE = 1000;
+    private static final long DEFAULT_DELIVERED_RETENTION_MINUTES = 60;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    // The bags' versions order the changes, the stamps are not needed.
+    private final AfterCommitChanges<String, TrackedBaggage> changes = new AfterCommitChanges<>(
+            BaggageTrackingIndex.class.getName() + ".pending", (committed, stamp) -> committed.forEach(this::apply));
+    private final Map<String, TrackedBaggage> index = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    void warmUp() {
+        long count = 0;
+        try (Stream<Object[]> rows = em.createQuery(
+                "SELECT b.baggageNumber, b.status, b.flight.id, b.version FROM Baggage b WHERE b.status <> :delivered", Object[].class)
+                .setParameter("delivered", BaggageStatus.DELIVERED)
+                .setHint("org.hibernate.fetchSize", WARMUP_FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                // A change committed while warming up is newer than the row read here.
+                apply((String) row[0], new TrackedBaggage((BaggageStatus) row[1], (Long) row[2], (Long) row[3]));
+                count++;
+            }
+        }
+        LOGGER.info("Baggage tracking index warmed up with " + count + " bag(s).");
+    }
+
+    /**
+     * @return The committed state of the bag, or null if the index does not know it.
+     */
+    public TrackedBaggage get(String baggageNumber) {
+        return baggageNumber != null ? index.get(baggageNumber) : null;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Records the new status of a bag, applied when the caller's transaction commits
+     * (immediately if there is no transaction).
+     * @param baggage The bag, with the version its row has after the change.
+     */
+    public void updateAfterCommit(BaggageState baggage, BaggageStatus status) {
+        changes.put(txRegistry, baggage.getBaggageNumber(), new TrackedBaggage(status, baggage.getFlightId(), baggage.getVersion()));
+    }
+
+    /**
+     * Bulk variant of updateAfterCommit for bags that all moved to the same status.
+     */
+    public void updateAllAfterCommit(List<BaggageState> bags, BaggageStatus status) {
+        for (BaggageState bag : bags) {
+            updateAfterCommit(bag, status);
+        }
+    }
+
+    /**
+     * Evicts the bags delivered longer ago than the retention time.
+     */
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    public void evictDelivered() {
+        long retentionMinutes = Long.getLong("baggage.index.deliveredRetentionMinutes", DEFAULT_DELIVERED_RETENTION_MINUTES);
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(Math.max(0, retentionMinutes));
+        int before = index.size();
+        // Removes an entry only while it is still the delivered one; a bag changed meanwhile stays.
+        index.values().removeIf(tracked -> tracked.getStatus() == BaggageStatus.DELIVERED && tracked.getIndexedAt() < cutoff);
+        int evicted = before - index.size();
+        if (evicted > 0) {
+            LOGGER.fine("Baggage tracking index evicted " + evicted + " delivered bag(s), " + index.size() + " left.");
+        }
+    }
+
+    // Keeps whichever of the indexed and the new state is the newer version of the bag.
+    private void apply(String baggageNumber, TrackedBaggage tracked) {
+        index.merge(baggageNumber, tracked, (current, next) -> next.getVersion() > current.getVersion() ? next : current);
+    }
+}
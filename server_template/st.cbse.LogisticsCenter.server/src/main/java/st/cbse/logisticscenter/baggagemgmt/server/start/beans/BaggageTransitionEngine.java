@@ -0,0 +1,210 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Applies status transitions to baggage, checked against the BaggageStateMachine table.
+ * The write path is append-only: a bag is read once as a BaggageState projection, each transition
+ * inserts one BaggageHistoryEntry (referencing the bag by id) and moves Baggage.status with a single
+ * targeted UPDATE. Neither the Baggage entity nor its history collection is loaded or dirty-checked,
+ * so the cost of a transition does not depend on how long the bag's history is.
+ * The per-flight status counters and hold loads and the bag's BaggageSnapshot are updated, and the change is published
+ * to status subscribers and the BaggageTrackingIndex, in the same transaction.
+ * Runs in the caller's transaction.
+ */
+@Stateless
+public class BaggageTransitionEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(BaggageTransitionEngine.class.getName());
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @EJB
+    private FlightBaggageCounters flightCounters;
+
+    @EJB
+    private BaggageSnapshots snapshots;
+
+    @EJB
+    private BaggageStatusPublisher statusPublisher;
+
+    @EJB
+    private BaggageTrackingIndex trackingIndex;
+
+    @EJB
+    private FlightLoadAggregates loadAggregates;
+
+    /**
+     * Reads the current state of a bag (no entity, no history).
+     * @return The bag's state, or null if no bag has this number.
+     */
+    public BaggageState load(String baggageNumber) {
+        List<BaggageState> found = em.createQuery(
+                BaggageState.SELECT + "WHERE b.baggageNumber = :baggageNumber", BaggageState.class)
+                .setParameter("baggageNumber", baggageNumber)
+                .getResultList();
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Moves the bag to a new status and appends the history entry.
+     * The status UPDATE is conditional on the version the bag was read with; if another transaction
+     * changed the bag in the meantime an OptimisticLockException is thrown and nothing is written.
+     * Callers that should retry are wrapped in OptimisticRetryInterceptor.
+     * @return false if the move is not allowed from the bag's current status.
+     */
+    public boolean transition(BaggageState baggage, BaggageStatus newStatus, String details) {
+        BaggageStatus current = baggage.getStatus();
+        if (!BaggageStateMachine.isAllowed(current, newStatus)) {
+            LOGGER.warning("Baggage " + baggage.getBaggageNumber() + ": transition " + current + " -> " + newStatus + " is not allowed.");
+            return false;
+        }
+
+        // The version is bumped even when the status is only re-recorded, so the history entry below can never
+        // describe a status the bag has already left in another, concurrently committed transaction.
+        int updated = em.createQuery(
+                "UPDATE Baggage b SET b.status = :newStatus, b.heldForInspection = :held, b.version = b.version + 1 "
+                        + "WHERE b.id = :id AND b.version = :version")
+                .setParameter("newStatus", newStatus)
+                .setParameter("held", newStatus == BaggageStatus.HELD_FOR_INSPECTION)
+                .setParameter("id", baggage.getId())
+                .setParameter("version", baggage.getVersion())
+                .executeUpdate();
+        if (updated != 1) {
+            throw new OptimisticLockException("Baggage " + baggage.getBaggageNumber() + " was changed concurrently (read in "
+                    + current + ", version " + baggage.getVersion() + ").");
+        }
+        baggage.incrementVersion();
+        if (current != newStatus) {
+            flightCounters.move(baggage.getFlightId(), current, newStatus);
+            loadAggregates.onTransition(baggage, current, newStatus);
+            snapshots.record(baggage, newStatus, LocalDateTime.now());
+            statusPublisher.publish(baggage, current, newStatus, details);
+            trackingIndex.updateAfterCommit(baggage, newStatus);
+        }
+        em.persist(new BaggageHistoryEntry(em.getReference(Baggage.class, baggage.getId()), newStatus, details));
+        baggage.setStatus(newStatus);
+
+        LOGGER.info("Baggage " + baggage.getBaggageNumber() + " status updated to: " + newStatus.getDisplayName()
+                + (details != null && !details.isEmpty() ? " (" + details + ")" : ""));
+        return true;
+    }
+
+    /**
+     * Applies up to maxSteps automated processing stages, stopping at the first status
+     * without an automated stage (held, loaded, irregularities).
+     * @return The number of stages applied.
+     */
+    public int advance(BaggageState baggage, int maxSteps) {
+        int steps = 0;
+        BaggageProcessingStage stage = BaggageStateMachine.automaticStage(baggage.getStatus());
+        while (stage != null && steps < maxSteps) {
+            if (!transition(baggage, stage.getToStatus(), stageDetails(stage, baggage))) {
+                break;
+            }
+            steps++;
+            stage = BaggageStateMachine.automaticStage(baggage.getStatus());
+        }
+        return steps;
+    }
+
+    /**
+     * Bulk variant of advance for bags this transaction has just created (batch drop) or still holds locked (bulk
+     * release): applies the automated stages to all of them with one status UPDATE per stage and source status instead
+     * of one per bag, so the history inserts go out as JDBC batches. No other transaction may be able to change the
+     * bags meanwhile; at most IN-list size.
+     */
+    public void advanceAll(List<BaggageState> bags) {
+        List<BaggageState> moving = bags;
+        while (!moving.isEmpty()) {
+            Map<BaggageStatus, List<BaggageState>> byStatus = new EnumMap<>(BaggageStatus.class);
+            for (BaggageState bag : moving) {
+                if (BaggageStateMachine.automaticStage(bag.getStatus()) != null) {
+                    byStatus.computeIfAbsent(bag.getStatus(), s -> new ArrayList<>()).add(bag);
+                }
+            }
+            moving = new ArrayList<>();
+            for (Map.Entry<BaggageStatus, List<BaggageState>> group : byStatus.entrySet()) {
+                transitionAll(group.getValue(), group.getKey(), BaggageStateMachine.automaticStage(group.getKey()));
+                moving.addAll(group.getValue());
+            }
+        }
+    }
+
+    private void transitionAll(List<BaggageState> bags, BaggageStatus from, BaggageProcessingStage stage) {
+        BaggageStatus to = stage.getToStatus();
+        List<Long> ids = new ArrayList<>(bags.size());
+        Map<Long, List<BaggageState>> byFlight = new HashMap<>();
+        for (BaggageState bag : bags) {
+            ids.add(bag.getId());
+            byFlight.computeIfAbsent(bag.getFlightId(), id -> new ArrayList<>()).add(bag);
+        }
+        int updated = em.createQuery(
+                "UPDATE Baggage b SET b.status = :to, b.heldForInspection = :held, b.version = b.version + 1 "
+                        + "WHERE b.id IN :ids AND b.status = :from")
+                .setParameter("to", to)
+                .setParameter("held", to == BaggageStatus.HELD_FOR_INSPECTION)
+                .setParameter("ids", ids)
+                .setParameter("from", from)
+                .executeUpdate();
+        if (updated != ids.size()) {
+            throw new OptimisticLockException("Stage " + stage + ": " + updated + " of " + ids.size() + " bag(s) in " + from + " updated.");
+        }
+
+        // All before the states are switched to 'to'
+        LocalDateTime now = LocalDateTime.now();
+        loadAggregates.onBulkTransition(bags, to);
+        snapshots.recordAll(bags, to, now);
+        trackingIndex.updateAllAfterCommit(bags, to);
+        for (Map.Entry<Long, List<BaggageState>> flight : byFlight.entrySet()) {
+            flightCounters.adjust(flight.getKey(), from, -flight.getValue().size());
+            flightCounters.adjust(flight.getKey(), to, flight.getValue().size());
+            statusPublisher.publishAll(flight.getValue(), to, stageDetails(stage, flight.getValue().get(0)));
+        }
+
+        List<BaggageHistoryEntry> entries = new ArrayList<>(bags.size());
+        for (BaggageState bag : bags) {
+            BaggageHistoryEntry entry = new BaggageHistoryEntry(em.getReference(Baggage.class, bag.getId()), to, stageDetails(stage, bag));
+            em.persist(entry);
+            entries.add(entry);
+            bag.incrementVersion();
+            bag.setStatus(to);
+        }
+        em.flush(); // History inserts go out as JDBC batches
+        entries.forEach(em::detach);
+        LOGGER.info(bags.size() + " baggage item(s) moved from " + from + " to " + to.getDisplayName() + ".");
+    }
+
+    private String stageDetails(BaggageProcessingStage stage, BaggageState baggage) {
+        switch (stage) {
+            case SECURITY:
+                return "Cleared by X-ray scan.";
+            case SORTING:
+                return "Sorted to Gate " + baggage.getFlightNumber() + " conveyor.";
+            case CBR:
+                return "Ready for Container/Cart/Bag Loading.";
+            case LOADING:
+                return "Loaded onto Flight " + baggage.getFlightNumber();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageProcessingStage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSelectionCriteria;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Set-based hold and release of many bags at once (whole flights, check-in time windows).
+ * Bags are selected as BaggageState projections. Per chunk and source status, the rows still unchanged since
+ * they were read are locked with one SELECT ... FOR UPDATE and moved with one UPDATE; bags changed concurrently are
+ * skipped. History entries are inserted as JDBC batches. Status counters are adjusted once per
+ * (flight, status) and released bags are handed back to the pipeline chunk by chunk.
+ */
+@Stateless
+public class BulkBaggageOperations {
+
+    private static final Logger LOGGER = Logger.getLogger(BulkBaggageOperations.class.getName());
+
+    private static final int CHUNK_SIZE = 1000; // Bags per UPDATE (IN-list size) and per flush
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @EJB
+    private FlightBaggageCounters flightCounters;
+
+    @EJB
+    private BaggagePipeline baggagePipeline;
+
+    @EJB
+    private BaggageTransitionEngine transitionEngine;
+
+    @EJB
+    private BaggageSnapshots snapshots;
+
+    @EJB
+    private BaggageStatusPublisher statusPublisher;
+
+    @EJB
+    private BaggageTrackingIndex trackingIndex;
+
+    @EJB
+    private FlightLoadAggregates loadAggregates;
+
+    /**
+     * Holds every matching bag that can currently be held.
+     * @return The number of bags put on hold.
+     */
+    public int hold(BaggageSelectionCriteria criteria) {
+        List<BaggageState> held = bulkTransition(criteria, BaggageStateMachine.sourcesOf(BaggageStatus.HELD_FOR_INSPECTION),
+                BaggageStatus.HELD_FOR_INSPECTION, "Held by administrator (bulk hold).");
+        LOGGER.info("Bulk hold " + criteria + ": " + held.size() + " bag(s) now HELD_FOR_INSPECTION.");
+        return held.size();
+    }
+
+    /**
+     * Releases every matching held bag and resumes its automated processing.
+     * @return The number of bags released.
+     */
+    public int release(BaggageSelectionCriteria criteria) {
+        List<BaggageState> released = bulkTransition(criteria, EnumSet.of(BaggageStatus.HELD_FOR_INSPECTION),
+                BaggageStatus.DROPPED_OFF, "Released by administrator (bulk release).");
+
+        for (int from = 0; from < released.size(); from += CHUNK_SIZE) {
+            List<BaggageState> chunk = released.subList(from, Math.min(from + CHUNK_SIZE, released.size()));
+            if (baggagePipeline.isInline()) {
+                transitionEngine.advanceAll(chunk); // The released rows are still locked by this transaction
+            } else {
+                baggagePipeline.submitAllAfterCommit(BaggageProcessingStage.SECURITY, chunk);
+            }
+        }
+        LOGGER.info("Bulk release " + criteria + ": " + released.size() + " bag(s) released to processing.");
+        return released.size();
+    }
+
+    private List<BaggageState> bulkTransition(BaggageSelectionCriteria criteria, Set<BaggageStatus> fromStatuses,
+                                              BaggageStatus to, String details) {
+        if (criteria == null || criteria.isEmpty()) {
+            LOGGER.warning("Bulk " + to + " rejected: at least one selection criterion is required.");
+            return new ArrayList<>();
+        }
+        List<BaggageState> candidates = select(criteria, fromStatuses);
+        List<BaggageState> moved = new ArrayList<>(candidates.size());
+        Map<Long, Map<BaggageStatus, Long>> counterDeltas = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < candidates.size(); from += CHUNK_SIZE) {
+            List<BaggageState> chunk = candidates.subList(from, Math.min(from + CHUNK_SIZE, candidates.size()));
+
+            // One UPDATE per source status, so each row's previous status is known for history and counters.
+            Map<BaggageStatus, List<BaggageState>> byStatus = new EnumMap<>(BaggageStatus.class);
+            for (BaggageState state : chunk) {
+                byStatus.computeIfAbsent(state.getStatus(), s -> new ArrayList<>()).add(state);
+            }
+            List<BaggageState> movedInChunk = new ArrayList<>(chunk.size());
+            for (Map.Entry<BaggageStatus, List<BaggageState>> group : byStatus.entrySet()) {
+                movedInChunk.addAll(updateGroup(group.getValue(), group.getKey(), to));
+            }
+            // Both before the states are switched to 'to'
+            snapshots.recordAll(movedInChunk, to, now);
+            loadAggregates.onBulkTransition(movedInChunk, to);
+            statusPublisher.publishAll(movedInChunk, to, details);
+            trackingIndex.updateAllAfterCommit(movedInChunk, to);
+
+            List<BaggageHistoryEntry> entries = new ArrayList<>(movedInChunk.size());
+            for (BaggageState state : movedInChunk) {
+                Map<BaggageStatus, Long> deltas = counterDeltas.computeIfAbsent(state.getFlightId(), id -> new EnumMap<>(BaggageStatus.class));
+                deltas.merge(state.getStatus(), -1L, Long::sum);
+                deltas.merge(to, 1L, Long::sum);
+                state.setStatus(to);
+                BaggageHistoryEntry entry = new BaggageHistoryEntry(em.getReference(Baggage.class, state.getId()), to, details);
+                em.persist(entry);
+                entries.add(entry);
+            }
+            em.flush(); // History inserts go out as JDBC batches
+            // Keeps the persistence context small; only the entries created here are detached, not the caller's entities.
+            entries.forEach(em::detach);
+            moved.addAll(movedInChunk);
+        }
+
+        for (Map.Entry<Long, Map<BaggageStatus, Long>> flight : counterDeltas.entrySet()) {
+            for (Map.Entry<BaggageStatus, Long> delta : flight.getValue().entrySet()) {
+                flightCounters.adjust(flight.getKey(), delta.getKey(), delta.getValue());
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Moves a group of bags that were all read in status 'from'. Only rows still in the version that was read are
+     * moved; they are locked first, so the UPDATE moves exactly them and nothing another transaction changed.
+     * @return The bags actually moved by this transaction.
+     */
+    private List<BaggageState> updateGroup(List<BaggageState> group, BaggageStatus from, BaggageStatus to) {
+        Map<Long, BaggageState> byId = new HashMap<>();
+        for (BaggageState state : group) {
+            byId.put(state.getId(), state);
+        }
+        List<Object[]> current = em.createQuery(
+                "SELECT b.id, b.version FROM Baggage b WHERE b.id IN :ids AND b.status = :from", Object[].class)
+                .setParameter("ids", byId.keySet())
+                .setParameter("from", from)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        List<Long> ids = new ArrayList<>(current.size());
+        List<BaggageState> moved = new ArrayList<>(current.size());
+        for (Object[] row : current) {
+            BaggageState state = byId.get((Long) row[0]);
+            if (state.getVersion() == (Long) row[1]) { // Otherwise changed and changed back since it was read
+                ids.add(state.getId());
+                moved.add(state);
+            }
+        }
+        if (moved.size() < group.size()) {
+            LOGGER.warning("Bulk " + to + ": " + (group.size() - moved.size()) + " of " + group.size()
+                    + " bag(s) in " + from + " changed concurrently and were skipped.");
+        }
+        if (ids.isEmpty()) {
+            return moved;
+        }
+        int updated = em.createQuery(
+                "UPDATE Baggage b SET b.status = :to, b.heldForInspection = :held, b.version = b.version + 1 "
+                        + "WHERE b.id IN :ids AND b.status = :from")
+                .setParameter("to", to)
+                .setParameter("held", to == BaggageStatus.HELD_FOR_INSPECTION)
+                .setParameter("ids", ids)
+                .setParameter("from", from)
+                .executeUpdate();
+        if (updated != ids.size()) { // Cannot happen while the rows are locked; never report bags twice
+            throw new OptimisticLockException("Bulk " + to + ": " + updated + " of " + ids.size() + " locked bag(s) updated.");
+        }
+        for (BaggageState state : moved) {
+            state.incrementVersion();
+        }
+        return moved;
+    }
+
+    private List<BaggageState> select(BaggageSelectionCriteria criteria, Set<BaggageStatus> statuses) {
+        StringBuilder jpql = new StringBuilder(BaggageState.SELECT + "WHERE b.status IN :statuses");
+        if (criteria.getFlightNumber() != null) {
+            jpql.append(" AND f.flightNumber = :flightNumber");
+        }
+        if (criteria.getDroppedFrom() != null) {
+            jpql.append(" AND b.droppedAt >= :droppedFrom");
+        }
+        if (criteria.getDroppedTo() != null) {
+            jpql.append(" AND b.droppedAt < :droppedTo");
+        }
+        jpql.append(" ORDER BY b.id");
+
+        TypedQuery<BaggageState> query = em.createQuery(jpql.toString(), BaggageState.class)
+                                           .setParameter("statuses", statuses);
+        if (criteria.getFlightNumber() != null) {
+            query.setParameter("flightNumber", criteria.getFlightNumber());
+        }
+        if (criteria.getDroppedFrom() != null) {
+            query.setParameter("droppedFrom", criteria.getDroppedFrom());
+        }
+        if (criteria.getDroppedTo() != null) {
+            query.setParameter("droppedTo", criteria.getDroppedTo());
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,60 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ContentionStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of OptimisticRetryInterceptor, per intercepted operation (Bean.method).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class ContentionMetrics {
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retried = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+
+    private final Map<String, Counters> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Records a finished call.
+     * @param conflicts Number of attempts that failed with a conflict.
+     * @param succeeded false if the call gave up after the last attempt.
+     */
+    public void record(String operation, int conflicts, boolean succeeded) {
+        Counters counters = operations.computeIfAbsent(operation, o -> new Counters());
+        counters.calls.increment();
+        counters.conflicts.add(conflicts);
+        if (!succeeded) {
+            counters.exhausted.increment();
+        } else if (conflicts > 0) {
+            counters.retried.increment();
+        }
+    }
+
+    public List<ContentionStats> getStats() {
+        List<ContentionStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Counters> entry : new TreeMap<>(operations).entrySet()) {
+            Counters counters = entry.getValue();
+            stats.add(new ContentionStats(entry.getKey(), counters.calls.sum(), counters.conflicts.sum(),
+                    counters.retried.sum(), counters.exhausted.sum()));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,169 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded blocking queue of one pipeline stage that hands out bags earliest deadline first.
+ *
+ * All bags of a flight share the same deadline, so bags are kept in one FIFO bucket per flight and only the
+ * buckets are ordered, in a binary heap keyed by deadline. Enqueueing and dequeueing cost O(log F) for F flights
+ * with queued bags, independent of how many bags a burst puts into the queue, and bags of the same flight keep
+ * their arrival order. Changing a flight's deadline moves its whole bucket.
+ */
+final class DeadlineQueue {
+
+    /**
+     * A bag taken from the queue, with the deadline it was scheduled by.
+     */
+    static final class ScheduledBag {
+        private final String baggageNumber;
+        private final Long flightId;
+        private final long deadlineMillis;
+
+        ScheduledBag(String baggageNumber, Long flightId, long deadlineMillis) {
+            this.baggageNumber = baggageNumber;
+            this.flightId = flightId;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        String getBaggageNumber() {
+            return baggageNumber;
+        }
+
+        Long getFlightId() {
+            return flightId;
+        }
+
+        /**
+         * @return Epoch millis by which the bag must be loaded, Long.MAX_VALUE if the flight has no departure time.
+         */
+        long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+
+    private static final class FlightBucket implements Comparable<FlightBucket> {
+        private final Long flightId;
+        private final long sequence; // Tie-breaker: equal deadlines are served in order of arrival
+        private final ArrayDeque<String> bags = new ArrayDeque<>();
+        private long deadlineMillis;
+
+        FlightBucket(Long flightId, long deadlineMillis, long sequence) {
+            this.flightId = flightId;
+            this.deadlineMillis = deadlineMillis;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(FlightBucket other) {
+            int byDeadline = Long.compare(deadlineMillis, other.deadlineMillis);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final PriorityQueue<FlightBucket> heap = new PriorityQueue<>();
+    private final Map<Long, FlightBucket> buckets = new HashMap<>(); // HashMap allows the null key of bags without flight
+    private long nextSequence;
+    private int size;
+
+    DeadlineQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a bag, waiting up to the timeout for free capacity.
+     * @param deadlineMillis Used only if no bag of the flight is queued yet, otherwise the bucket's deadline applies.
+     * @return false if the queue stayed full.
+     */
+    boolean offer(String baggageNumber, Long flightId, long deadlineMillis, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            FlightBucket bucket = buckets.get(flightId);
+            if (bucket == null) {
+                bucket = new FlightBucket(flightId, deadlineMillis, nextSequence++);
+                buckets.put(flightId, bucket);
+                heap.add(bucket);
+            }
+            bucket.bags.addLast(baggageNumber);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest bag of the flight with the earliest deadline, waiting until one is available.
+     */
+    ScheduledBag take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            FlightBucket bucket = heap.peek();
+            String baggageNumber = bucket.bags.pollFirst();
+            if (bucket.bags.isEmpty()) {
+                heap.poll();
+                buckets.remove(bucket.flightId);
+            }
+            size--;
+            notFull.signal();
+            return new ScheduledBag(baggageNumber, bucket.flightId, bucket.deadlineMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the queued bags of a flight to their new position after the flight's deadline changed.
+     * @return The number of bags re-prioritised.
+     */
+    int reprioritise(Long flightId, long deadlineMillis) {
+        lock.lock();
+        try {
+            FlightBucket bucket = buckets.get(flightId);
+            if (bucket == null || bucket.deadlineMillis == deadlineMillis) {
+                return 0;
+            }
+            // O(F) removal, but F is the number of flights with queued bags, not the number of bags.
+            heap.remove(bucket);
+            bucket.deadlineMillis = deadlineMillis;
+            heap.add(bucket);
+            return bucket.bags.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
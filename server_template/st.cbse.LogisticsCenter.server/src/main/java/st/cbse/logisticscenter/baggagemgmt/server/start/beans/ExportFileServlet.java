@@ -0,0 +1,39 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Serves the files written by the export operations of IBaggageManagementRemote, which return the download path:
+ *   GET /st.cbse.LogisticsCenter.server/exports/{fileName}
+ * Only plain file names inside the export directory are served. Responds 404 for anything else.
+ */
+@WebServlet("/exports/*")
+public class ExportFileServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = Logger.getLogger(ExportFileServlet.class.getName());
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo();
+        Path file = path == null || path.length() <= 1 ? null : ExportFiles.existingExportFile(path.substring(1));
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such export file");
+            return;
+        }
+        String name = file.getFileName().toString();
+        response.setContentType(name.endsWith(".csv") ? "text/csv; charset=UTF-8" : "application/octet-stream");
+        response.setContentLengthLong(Files.size(file));
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + name + "\"");
+        Files.copy(file, response.getOutputStream());
+        LOGGER.fine("Export file " + name + " sent to " + request.getRemoteAddr() + ".");
+    }
+}
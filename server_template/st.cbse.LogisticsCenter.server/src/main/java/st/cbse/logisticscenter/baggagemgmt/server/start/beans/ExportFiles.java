@@ -0,0 +1,71 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Location of server-side export files.
+ * Exports go to the directory given by the system property baggage.export.dir,
+ * by default an "exports" folder in the WildFly data directory (or java.io.tmpdir outside WildFly).
+ * Clients download them through ExportFileServlet (see downloadPath).
+ */
+public final class ExportFiles {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String DOWNLOAD_PREFIX = "/st.cbse.LogisticsCenter.server/exports/";
+
+    private ExportFiles() {
+    }
+
+    public static Path exportDirectory() throws IOException {
+        String configured = System.getProperty("baggage.export.dir");
+        Path dir = configured != null
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("jboss.server.data.dir", System.getProperty("java.io.tmpdir")), "exports");
+        return Files.createDirectories(dir);
+    }
+
+    /**
+     * @return A new, timestamped file path in the export directory, e.g. baggage-20250101-120000-000.csv
+     */
+    public static Path newExportFile(String prefix, String extension) throws IOException {
+        return exportDirectory().resolve(prefix + "-" + LocalDateTime.now().format(STAMP) + "." + extension);
+    }
+
+    /**
+     * @return The HTTP path under which ExportFileServlet serves an export file.
+     */
+    public static String downloadPath(Path file) {
+        return DOWNLOAD_PREFIX + file.getFileName();
+    }
+
+    /**
+     * @return The export file with this plain name, or null if there is none (or the name points elsewhere).
+     */
+    public static Path existingExportFile(String name) throws IOException {
+        if (name.isEmpty() || name.contains("/") || name.contains("\\") || name.startsWith(".")) {
+            return null;
+        }
+        Path dir = exportDirectory().toAbsolutePath().normalize();
+        Path file = dir.resolve(name).normalize();
+        return file.getParent().equals(dir) && Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Quotes a CSV field if needed (RFC 4180).
+     */
+    public static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,187 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightBaggageStatusCount;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightBaggageSummary;
+
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Maintains the per-flight baggage status counters (FlightBaggageStatusCount).
+ * adjust/move run in the caller's transaction, so counters commit or roll back together with the
+ * status change they reflect. A nightly job recomputes all counters from BAGGAGE with a single GROUP BY.
+ */
+@Stateless
+public class FlightBaggageCounters {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightBaggageCounters.class.getName());
+
+    // Flights whose counter rows are known to exist, saves the existence check on every update.
+    private static final Set<Long> INITIALIZED_FLIGHTS = ConcurrentHashMap.newKeySet();
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    /**
+     * Records that one bag of the flight left status 'from' and entered status 'to'.
+     */
+    public void move(Long flightId, BaggageStatus from, BaggageStatus to) {
+        if (from == to) {
+            return;
+        }
+        adjust(flightId, from, -1);
+        adjust(flightId, to, 1);
+    }
+
+    /**
+     * Adds delta to the number of bags of the flight in the given status.
+     */
+    public void adjust(Long flightId, BaggageStatus status, long delta) {
+        if (delta == 0 || flightId == null || status == null) {
+            return;
+        }
+        ensureCounters(flightId);
+        int updated = em.createQuery(
+                "UPDATE FlightBaggageStatusCount c SET c.bagCount = c.bagCount + :delta "
+                        + "WHERE c.flightId = :flightId AND c.status = :status")
+                .setParameter("delta", delta)
+                .setParameter("flightId", flightId)
+                .setParameter("status", status)
+                .executeUpdate();
+        if (updated != 1) {
+            LOGGER.warning("No baggage counter for flight id " + flightId + " / " + status + ". Counters will be corrected by the next rebuild.");
+        }
+    }
+
+    /**
+     * Reads the counters of a flight.
+     * @return The summary, or null if the flight does not exist.
+     */
+    public FlightBaggageSummary summary(String flightNumber) {
+        List<Long> flightIds = em.createQuery("SELECT f.id FROM Flight f WHERE f.flightNumber = :flightNumber", Long.class)
+                                 .setParameter("flightNumber", flightNumber)
+                                 .getResultList();
+        if (flightIds.isEmpty()) {
+            return null;
+        }
+        FlightBaggageSummary summary = new FlightBaggageSummary(flightNumber);
+        for (BaggageStatus status : BaggageStatus.values()) {
+            summary.setCount(status, 0);
+        }
+        for (Object[] row : em.createQuery(
+                "SELECT c.status, c.bagCount FROM FlightBaggageStatusCount c WHERE c.flightId = :flightId", Object[].class)
+                .setParameter("flightId", flightIds.get(0))
+                .getResultList()) {
+            summary.setCount((BaggageStatus) row[0], (Long) row[1]);
+        }
+        return summary;
+    }
+
+    /**
+     * Recomputes every counter from the BAGGAGE table with one GROUP BY query.
+     * Counter rows are zeroed (and thereby locked) first, so status changes racing with the rebuild
+     * wait for it and then apply their delta on top of the recomputed values.
+     * @return The number of (flight, status) groups found.
+     */
+    @Schedule(hour = "3", minute = "15", persistent = false)
+    public int rebuild() {
+        LOGGER.info("Rebuilding flight baggage status counters...");
+        em.createQuery("UPDATE FlightBaggageStatusCount c SET c.bagCount = 0").executeUpdate();
+
+        List<Object[]> groups = em.createQuery(
+                "SELECT b.flight.id, b.status, COUNT(b) FROM Baggage b GROUP BY b.flight.id, b.status", Object[].class)
+                .getResultList();
+        for (Object[] group : groups) {
+            Long flightId = (Long) group[0];
+            BaggageStatus status = (BaggageStatus) group[1];
+            long count = (Long) group[2];
+            int updated = em.createQuery(
+                    "UPDATE FlightBaggageStatusCount c SET c.bagCount = :count WHERE c.flightId = :flightId AND c.status = :status")
+                    .setParameter("count", count)
+                    .setParameter("flightId", flightId)
+                    .setParameter("status", status)
+                    .executeUpdate();
+            if (updated == 0) {
+                em.persist(new FlightBaggageStatusCount(flightId, status, count));
+            }
+        }
+        LOGGER.info("Flight baggage status counters rebuilt from " + groups.size() + " groups.");
+        return groups.size();
+    }
+
+    /**
+     * Creates the missing counter rows of a flight in a separate transaction, so a concurrent
+     * creation (unique constraint violation) does not roll back the caller's transaction.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void createCounters(Long flightId) {
+        Set<BaggageStatus> missing = EnumSet.allOf(BaggageStatus.class);
+        missing.removeAll(existingStatuses(flightId));
+        for (BaggageStatus status : missing) {
+            em.persist(new FlightBaggageStatusCount(flightId, status, 0));
+        }
+        em.flush(); // A concurrent creation fails here, as a unique constraint violation
+    }
+
+    /**
+     * @return true if the exception (or one of its causes, e.g. inside an EJBException) is a unique constraint
+     *         violation (SQLState 23505).
+     */
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Marks the flight as initialized only once its rows are known to exist; any other failure fails the caller.
+    private void ensureCounters(Long flightId) {
+        if (INITIALIZED_FLIGHTS.contains(flightId)) {
+            return;
+        }
+        try {
+            sessionContext.getBusinessObject(FlightBaggageCounters.class).createCounters(flightId);
+        } catch (RuntimeException e) {
+            if (!isUniqueViolation(e)) {
+                throw e;
+            }
+            // Created concurrently by another transaction, which has committed by now.
+            if (existingStatuses(flightId).size() < BaggageStatus.values().length) {
+                throw e;
+            }
+            LOGGER.log(Level.FINE, "Counters of flight id " + flightId + " were created concurrently.");
+        }
+        INITIALIZED_FLIGHTS.add(flightId);
+    }
+
+    private List<BaggageStatus> existingStatuses(Long flightId) {
+        return em.createQuery("SELECT c.status FROM FlightBaggageStatusCount c WHERE c.flightId = :flightId", BaggageStatus.class)
+                 .setParameter("flightId", flightId)
+                 .getResultList();
+    }
+}
@@ -0,0 +1,125 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Processing deadline of every flight's baggage: the flight's start time minus the minimum connection time,
+ * i.e. the latest moment a bag can finish ground processing and still make the flight.
+ * Kept in memory so the pipeline can schedule bags without a query; flights not seen yet are loaded on first use.
+ * Callers look deadlines up inside their transaction (deadlineOf may query), never in afterCompletion. Flights that
+ * departed more than baggage.scheduling.departedRetentionHours ago (default 6) are dropped once an hour.
+ *
+ * Configuration (system properties):
+ *   baggage.scheduling.minConnectionMinutes   minimum connection time in minutes (default 45)
+ *   baggage.scheduling.departedRetentionHours hours a departed flight's deadline is kept (default 6)
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class FlightDeadlines {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightDeadlines.class.getName());
+
+    private static final int DEFAULT_MIN_CONNECTION_MINUTES = 45;
+    private static final int DEFAULT_DEPARTED_RETENTION_HOURS = 6;
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    // A flight's deadline and the commit stamp of the start time it was computed from (0 if read from the database).
+    private static final class Deadline {
+        private final long millis;
+        private final long stamp;
+
+        Deadline(long millis, long stamp) {
+            this.millis = millis;
+            this.stamp = stamp;
+        }
+    }
+
+    private final Map<Long, Deadline> deadlines = new ConcurrentHashMap<>();
+    private long minConnectionMillis;
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    void warmUp() {
+        minConnectionMillis = Integer.getInteger("baggage.scheduling.minConnectionMinutes", DEFAULT_MIN_CONNECTION_MINUTES) * 60_000L;
+        List<Object[]> rows = em.createQuery("SELECT f.id, f.startTime FROM Flight f", Object[].class).getResultList();
+        for (Object[] row : rows) {
+            deadlines.putIfAbsent((Long) row[0], new Deadline(toDeadline((LocalDateTime) row[1]), 0));
+        }
+        LOGGER.info("Loaded baggage deadlines of " + rows.size() + " flight(s), minimum connection time "
+                + minConnectionMillis / 60_000 + " min.");
+    }
+
+    /**
+     * @return The deadline of the flight's bags in epoch millis, NO_DEADLINE if the flight is unknown or has no start time.
+     */
+    public long deadlineOf(Long flightId) {
+        if (flightId == null) {
+            return NO_DEADLINE;
+        }
+        Deadline deadline = deadlines.get(flightId);
+        if (deadline == null) {
+            List<LocalDateTime> startTime = em.createQuery("SELECT f.startTime FROM Flight f WHERE f.id = :id", LocalDateTime.class)
+                    .setParameter("id", flightId)
+                    .getResultList();
+            Deadline loaded = new Deadline(startTime.isEmpty() ? NO_DEADLINE : toDeadline(startTime.get(0)), 0);
+            deadline = deadlines.putIfAbsent(flightId, loaded);
+            if (deadline == null) {
+                deadline = loaded;
+            }
+        }
+        return deadline.millis;
+    }
+
+    /**
+     * Records a changed start time, unless a change with a newer commit stamp was recorded already.
+     * @return The flight's deadline afterwards.
+     */
+    public long update(Long flightId, LocalDateTime startTime, long stamp) {
+        Deadline changed = new Deadline(toDeadline(startTime), stamp);
+        return deadlines.merge(flightId, changed, (current, next) -> next.stamp > current.stamp ? next : current).millis;
+    }
+
+    /**
+     * Drops the deadlines of flights that departed longer ago than the retention time; late lookups reload them.
+     */
+    @Schedule(hour = "*", minute = "20", persistent = false)
+    public void expireDeparted() {
+        long retention = TimeUnit.HOURS.toMillis(Integer.getInteger("baggage.scheduling.departedRetentionHours", DEFAULT_DEPARTED_RETENTION_HOURS));
+        long departedBefore = System.currentTimeMillis() - retention;
+        int before = deadlines.size();
+        deadlines.values().removeIf(deadline -> deadline.millis != NO_DEADLINE && deadline.millis + minConnectionMillis < departedBefore);
+        int expired = before - deadlines.size();
+        if (expired > 0) {
+            LOGGER.fine("Dropped the baggage deadlines of " + expired + " departed flight(s), " + deadlines.size() + " left.");
+        }
+    }
+
+    private long toDeadline(LocalDateTime startTime) {
+        if (startTime == null) {
+            return NO_DEADLINE;
+        }
+        return startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - minConnectionMillis;
+    }
+}
@@ -0,0 +1,289 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightHoldLoad;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightLoadSheet;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.HoldCompartment;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Maintains the per-flight, per-compartment baggage weight aggregates (FlightHoldLoad).
+ * A bag is assigned a hold compartment when it becomes CBR_READY (the compartment with the lowest fill
+ * ratio) and counts as loaded while LOADED or in TRANSIT. Every transition costs at most one small
+ * projection query and one UPDATE, independent of the number of bags on the flight.
+ * Runs in the caller's transaction.
+ *
+ * A flight's rows are created on first use, counting the bags already in its hold, so a row that went missing is
+ * rebuilt from BAGGAGE rather than starting from zero. If a row cannot be created the caller's transaction fails.
+ * Compartment limits are not stored: they are looked up (PlaneTypeLimits) whenever a bag is assigned or the load
+ * sheet is read, so a changed plane type or limit applies right away.
+ */
+@Stateless
+public class FlightLoadAggregates {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightLoadAggregates.class.getName());
+
+    private static final Set<BaggageStatus> LOADED = EnumSet.of(BaggageStatus.LOADED, BaggageStatus.TRANSIT);
+
+    // Flights whose aggregate rows are known to exist.
+    private static final Set<Long> INITIALIZED_FLIGHTS = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    /**
+     * Applies one status change of a bag. Must be called with the bag's state still holding its compartment
+     * (the compartment of newly ready bags is assigned here).
+     */
+    public void onTransition(BaggageState bag, BaggageStatus from, BaggageStatus to) {
+        int readyDelta = (to == BaggageStatus.CBR_READY ? 1 : 0) - (from == BaggageStatus.CBR_READY ? 1 : 0);
+        int loadedDelta = (LOADED.contains(to) ? 1 : 0) - (LOADED.contains(from) ? 1 : 0);
+        if (readyDelta == 0 && loadedDelta == 0) {
+            return;
+        }
+        ensureRows(bag.getFlightId());
+        HoldCompartment compartment = bag.getCompartment();
+        if (compartment == null) {
+            if (readyDelta < 0 || loadedDelta < 0) {
+                return; // Left the hold before compartments were tracked
+            }
+            compartment = assignCompartment(bag);
+        }
+        adjust(bag.getFlightId(), compartment, readyDelta, readyDelta * bag.getWeightKg(),
+                loadedDelta, loadedDelta * bag.getWeightKg());
+    }
+
+    /**
+     * Applies the same status change for many bags, with one UPDATE per (flight, compartment).
+     * The bags' states must still hold their previous status.
+     */
+    public void onBulkTransition(List<BaggageState> bags, BaggageStatus to) {
+        Map<LoadKey, double[]> deltas = new HashMap<>(); // readyBags, readyWeight, loadedBags, loadedWeight
+        for (BaggageState bag : bags) {
+            BaggageStatus from = bag.getStatus();
+            int readyDelta = (to == BaggageStatus.CBR_READY ? 1 : 0) - (from == BaggageStatus.CBR_READY ? 1 : 0);
+            int loadedDelta = (LOADED.contains(to) ? 1 : 0) - (LOADED.contains(from) ? 1 : 0);
+            if (readyDelta == 0 && loadedDelta == 0) {
+                continue;
+            }
+            if (bag.getCompartment() == null) {
+                onTransition(bag, from, to); // Needs a compartment assignment (or is untracked)
+                continue;
+            }
+            double[] delta = deltas.computeIfAbsent(new LoadKey(bag.getFlightId(), bag.getCompartment()), k -> new double[4]);
+            delta[0] += readyDelta;
+            delta[1] += readyDelta * bag.getWeightKg();
+            delta[2] += loadedDelta;
+            delta[3] += loadedDelta * bag.getWeightKg();
+        }
+        for (Map.Entry<LoadKey, double[]> entry : deltas.entrySet()) {
+            ensureRows(entry.getKey().flightId);
+            double[] delta = entry.getValue();
+            adjust(entry.getKey().flightId, entry.getKey().compartment, (long) delta[0], delta[1], (long) delta[2], delta[3]);
+        }
+    }
+
+    /**
+     * Reads the load sheet of a flight.
+     * @return The load sheet, or null if the flight does not exist.
+     */
+    public FlightLoadSheet loadSheet(String flightNumber) {
+        List<Object[]> flights = em.createQuery(
+                "SELECT f.id, f.planeType FROM Flight f WHERE f.flightNumber = :flightNumber", Object[].class)
+                .setParameter("flightNumber", flightNumber)
+                .getResultList();
+        if (flights.isEmpty()) {
+            return null;
+        }
+        Long flightId = (Long) flights.get(0)[0];
+        String planeType = (String) flights.get(0)[1];
+        ensureRows(flightId);
+        List<FlightHoldLoad> compartments = em.createQuery(
+                "SELECT l FROM FlightHoldLoad l WHERE l.flightId = :flightId ORDER BY l.compartment", FlightHoldLoad.class)
+                .setParameter("flightId", flightId)
+                .getResultList();
+        for (FlightHoldLoad load : compartments) {
+            em.detach(load);
+            load.setLimitKg(PlaneTypeLimits.limitKg(planeType, load.getCompartment()));
+        }
+        return new FlightLoadSheet(flightNumber, planeType, compartments);
+    }
+
+    /**
+     * Creates the missing aggregate rows of a flight in a separate transaction, so a concurrent
+     * creation (unique constraint violation) does not roll back the caller's transaction.
+     * The rows start with the committed bags already assigned to their compartment.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void createRows(Long flightId) {
+        Map<HoldCompartment, FlightHoldLoad> missing = new EnumMap<>(HoldCompartment.class);
+        for (HoldCompartment compartment : HoldCompartment.values()) {
+            missing.put(compartment, new FlightHoldLoad(flightId, compartment));
+        }
+        missing.keySet().removeAll(existingCompartments(flightId));
+        if (missing.isEmpty()) {
+            return;
+        }
+        Set<BaggageStatus> inHold = EnumSet.copyOf(LOADED);
+        inHold.add(BaggageStatus.CBR_READY);
+        for (Object[] row : em.createQuery(
+                "SELECT b.holdCompartment, b.status, COUNT(b), SUM(b.weightKg) FROM Baggage b "
+                        + "WHERE b.flight.id = :flightId AND b.holdCompartment IS NOT NULL AND b.status IN :inHold "
+                        + "GROUP BY b.holdCompartment, b.status", Object[].class)
+                .setParameter("flightId", flightId)
+                .setParameter("inHold", inHold)
+                .getResultList()) {
+            FlightHoldLoad load = missing.get((HoldCompartment) row[0]);
+            if (load == null) {
+                continue;
+            }
+            if (row[1] == BaggageStatus.CBR_READY) {
+                load.addReady((Long) row[2], (Double) row[3]);
+            } else {
+                load.addLoaded((Long) row[2], (Double) row[3]);
+            }
+        }
+        missing.values().forEach(em::persist);
+        em.flush(); // A concurrent creation fails here, as a unique constraint violation
+    }
+
+    /**
+     * Puts the bag into the compartment with the lowest fill ratio that still has room for it,
+     * or the least filled one (with an over-limit alert) if none has.
+     */
+    private HoldCompartment assignCompartment(BaggageState bag) {
+        HoldCompartment best = null;
+        double bestRatio = Double.MAX_VALUE;
+        boolean bestFits = false;
+        double bestTotal = 0;
+        double bestLimit = 0;
+        for (Object[] row : em.createQuery(
+                "SELECT l.compartment, f.planeType, l.readyWeightKg + l.loadedWeightKg FROM FlightHoldLoad l, Flight f "
+                        + "WHERE l.flightId = :flightId AND f.id = l.flightId", Object[].class)
+                .setParameter("flightId", bag.getFlightId())
+                .getResultList()) {
+            double limit = PlaneTypeLimits.limitKg((String) row[1], (HoldCompartment) row[0]);
+            double total = (Double) row[2];
+            boolean fits = total + bag.getWeightKg() <= limit;
+            double ratio = limit > 0 ? total / limit : Double.MAX_VALUE;
+            if (best == null || (fits && !bestFits) || (fits == bestFits && ratio < bestRatio)) {
+                best = (HoldCompartment) row[0];
+                bestRatio = ratio;
+                bestFits = fits;
+                bestTotal = total;
+                bestLimit = limit;
+            }
+        }
+        if (best == null) {
+            best = HoldCompartment.BULK;
+        } else if (!bestFits) {
+            LOGGER.warning("LOAD ALERT: Flight " + bag.getFlightNumber() + " " + best.getDisplayName() + " over limit: "
+                    + (bestTotal + bag.getWeightKg()) + " kg of " + bestLimit + " kg after adding baggage " + bag.getBaggageNumber() + ".");
+        }
+        // Runs right after the bag's versioned status UPDATE in the same transaction, so no check is needed here.
+        em.createQuery("UPDATE Baggage b SET b.holdCompartment = :compartment, b.version = b.version + 1 WHERE b.id = :id")
+          .setParameter("compartment", best)
+          .setParameter("id", bag.getId())
+          .executeUpdate();
+        bag.setCompartment(best);
+        bag.incrementVersion();
+        return best;
+    }
+
+    private void adjust(Long flightId, HoldCompartment compartment, long readyBags, double readyWeight, long loadedBags, double loadedWeight) {
+        if (update(flightId, compartment, readyBags, readyWeight, loadedBags, loadedWeight) == 1) {
+            return;
+        }
+        // The row was removed after it had been created: rebuild it from the committed bags, then apply the change.
+        LOGGER.warning("No hold load row for flight id " + flightId + " / " + compartment + ", rebuilding the flight's rows.");
+        INITIALIZED_FLIGHTS.remove(flightId);
+        ensureRows(flightId);
+        if (update(flightId, compartment, readyBags, readyWeight, loadedBags, loadedWeight) != 1) {
+            throw new IllegalStateException("No hold load row for flight id " + flightId + " / " + compartment + ".");
+        }
+    }
+
+    private int update(Long flightId, HoldCompartment compartment, long readyBags, double readyWeight, long loadedBags, double loadedWeight) {
+        return em.createQuery(
+                "UPDATE FlightHoldLoad l SET l.readyBags = l.readyBags + :readyBags, l.readyWeightKg = l.readyWeightKg + :readyWeight, "
+                        + "l.loadedBags = l.loadedBags + :loadedBags, l.loadedWeightKg = l.loadedWeightKg + :loadedWeight "
+                        + "WHERE l.flightId = :flightId AND l.compartment = :compartment")
+                .setParameter("readyBags", readyBags)
+                .setParameter("readyWeight", readyWeight)
+                .setParameter("loadedBags", loadedBags)
+                .setParameter("loadedWeight", loadedWeight)
+                .setParameter("flightId", flightId)
+                .setParameter("compartment", compartment)
+                .executeUpdate();
+    }
+
+    // Marks the flight as initialized only once its rows are known to exist; any other failure fails the caller.
+    private void ensureRows(Long flightId) {
+        if (INITIALIZED_FLIGHTS.contains(flightId)) {
+            return;
+        }
+        try {
+            sessionContext.getBusinessObject(FlightLoadAggregates.class).createRows(flightId);
+        } catch (RuntimeException e) {
+            if (!FlightBaggageCounters.isUniqueViolation(e)) {
+                throw e;
+            }
+            // Created concurrently by another transaction, which has committed by now.
+            if (existingCompartments(flightId).size() < HoldCompartment.values().length) {
+                throw e;
+            }
+            LOGGER.log(Level.FINE, "Hold load rows of flight id " + flightId + " were created concurrently.");
+        }
+        INITIALIZED_FLIGHTS.add(flightId);
+    }
+
+    private List<HoldCompartment> existingCompartments(Long flightId) {
+        return em.createQuery("SELECT l.compartment FROM FlightHoldLoad l WHERE l.flightId = :flightId", HoldCompartment.class)
+                 .setParameter("flightId", flightId)
+                 .getResultList();
+    }
+
+    private static final class LoadKey {
+        private final Long flightId;
+        private final HoldCompartment compartment;
+
+        LoadKey(Long flightId, HoldCompartment compartment) {
+            this.flightId = flightId;
+            this.compartment = compartment;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LoadKey)) return false;
+            LoadKey other = (LoadKey) o;
+            return flightId.equals(other.flightId) && compartment == other.compartment;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(flightId, compartment);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestFormat;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Streams a flight's loading manifest over HTTP, straight from the database cursor into the response:
+ *   GET /st.cbse.LogisticsCenter.server/manifests/{flightNumber}?format=csv|binary   (default csv)
+ * Responds 404 if the flight does not exist and 400 for an unknown format or a flight number that is not valid
+ * (see FlightManifestWriter.isValidFlightNumber).
+ */
+@WebServlet("/manifests/*")
+public class FlightManifestServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = Logger.getLogger(FlightManifestServlet.class.getName());
+
+    @EJB
+    private transient FlightManifestWriter manifestWriter; // Injected again by the container, never serialized
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo();
+        if (path == null || path.length() <= 1) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected /manifests/{flightNumber}");
+            return;
+        }
+        String flightNumber = path.substring(1);
+        if (!FlightManifestWriter.isValidFlightNumber(flightNumber)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid flight number");
+            return;
+        }
+        ManifestFormat format;
+        try {
+            String requested = request.getParameter("format");
+            format = requested == null ? ManifestFormat.CSV : ManifestFormat.valueOf(requested.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown format, expected csv or binary");
+            return;
+        }
+
+        Long flightId = manifestWriter.findFlightId(flightNumber);
+        if (flightId == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Flight " + flightNumber + " not found");
+            return;
+        }
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"manifest-" + flightNumber + "." + format.getExtension() + "\"");
+        long rows = manifestWriter.write(flightId, flightNumber, format, response.getOutputStream());
+        LOGGER.fine("Manifest of flight " + flightNumber + " sent to " + request.getRemoteAddr() + " (" + rows + " bag(s)).");
+    }
+}
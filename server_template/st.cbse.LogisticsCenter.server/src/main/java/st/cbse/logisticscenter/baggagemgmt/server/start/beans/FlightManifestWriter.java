@@ -0,0 +1,133 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestBinaryFormat;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestFormat;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Writes the loading manifest of one flight: every bag with its weight, status, hold compartment and last scan time.
+ *
+ * The bags are read with a forward-only cursor over a constructor projection (nothing enters the persistence
+ * context) and every row is written to the output as soon as it is fetched, so memory use is constant however
+ * many bags the flight has. The last scan time is a correlated MAX over the bag's history rows, served by the
+ * history's baggage_id foreign key index; for bags whose history has been compacted it is the compacted row's last
+ * entry, and for bags whose history is archived completely it is read from the archive. Rows are ordered by
+ * baggage number.
+ *
+ * Flight numbers are only accepted if they consist of letters, digits, '-' and '_', since they become part of
+ * file names and download headers.
+ */
+@Stateless
+public class FlightManifestWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightManifestWriter.class.getName());
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String MANIFEST_SELECT =
+            "SELECT new st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestEntry("
+            + "b.baggageNumber, b.weightKg, b.status, b.holdCompartment, b.heldForInspection, "
+            + "COALESCE((SELECT MAX(h.timestamp) FROM BaggageHistoryEntry h WHERE h.baggage = b), "
+            + "(SELECT c.lastEntryAt FROM ColdBaggageHistory c WHERE c.baggageId = b.id))) "
+            + "FROM Baggage b WHERE b.flight.id = :flightId ORDER BY b.baggageNumber";
+
+    private static final Pattern FLIGHT_NUMBER = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]{0,63}");
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @EJB
+    private BaggageHistoryArchive historyArchive;
+
+    /**
+     * @return Whether the flight number can be used in a manifest's file name (letters, digits, '-' and '_').
+     */
+    public static boolean isValidFlightNumber(String flightNumber) {
+        return flightNumber != null && FLIGHT_NUMBER.matcher(flightNumber).matches();
+    }
+
+    /**
+     * @return The id of the flight, or null if there is no such flight (or the flight number is not valid).
+     */
+    public Long findFlightId(String flightNumber) {
+        if (!isValidFlightNumber(flightNumber)) {
+            LOGGER.warning("Invalid flight number for a manifest: " + flightNumber);
+            return null;
+        }
+        List<Long> flightIds = em.createQuery("SELECT f.id FROM Flight f WHERE f.flightNumber = :flightNumber", Long.class)
+                                 .setParameter("flightNumber", flightNumber)
+                                 .getResultList();
+        if (flightIds.isEmpty()) {
+            LOGGER.warning("Flight " + flightNumber + " not found, no manifest written.");
+            return null;
+        }
+        return flightIds.get(0);
+    }
+
+    /**
+     * Streams the manifest of a flight found by findFlightId to the given output. The output is flushed but not closed.
+     * @return The number of bags written.
+     */
+    public long write(Long flightId, String flightNumber, ManifestFormat format, OutputStream output) throws IOException {
+        long count = 0;
+        try (Stream<ManifestEntry> rows = em.createQuery(MANIFEST_SELECT, ManifestEntry.class)
+                                            .setParameter("flightId", flightId)
+                                            .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                                            .setHint("org.hibernate.readOnly", true)
+                                            .getResultStream()
+                                            .map(this::withArchivedLastScan)) {
+            if (format == ManifestFormat.BINARY) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+                ManifestBinaryFormat.writeHeader(out, flightNumber, LocalDateTime.now());
+                for (ManifestEntry row : (Iterable<ManifestEntry>) rows::iterator) {
+                    ManifestBinaryFormat.writeRow(out, row);
+                    count++;
+                }
+                ManifestBinaryFormat.writeTrailer(out, count);
+                out.flush();
+            } else {
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+                out.write("baggageNumber,weightKg,status,holdCompartment,heldForInspection,lastScanAt");
+                out.newLine();
+                for (ManifestEntry row : (Iterable<ManifestEntry>) rows::iterator) {
+                    out.write(ExportFiles.csv(row.getBaggageNumber()) + "," + row.getWeightKg() + "," + row.getStatus() + ","
+                            + ExportFiles.csv(row.getHoldCompartment()) + "," + row.isHeldForInspection() + ","
+                            + ExportFiles.csv(row.getLastScanAt()));
+                    out.newLine();
+                    count++;
+                }
+                out.flush();
+            }
+        }
+        LOGGER.info("Manifest of flight " + flightNumber + " written (" + format + ", " + count + " bag(s)).");
+        return count;
+    }
+
+    // A bag without history rows in the database has its whole history in the archive (an in-memory lookup if not).
+    private ManifestEntry withArchivedLastScan(ManifestEntry row) {
+        if (row.getLastScanAt() != null) {
+            return row;
+        }
+        List<BaggageHistoryEntry> archived = historyArchive.read(row.getBaggageNumber());
+        return archived.isEmpty() ? row : row.withLastScanAt(archived.get(archived.size() - 1).getTimestamp());
+    }
+}
@@ -0,0 +1,267 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive segment: a data file with one deflate-compressed record per bag and an index file
+ * with fixed-width entries (baggage number, offset, length) sorted by baggage number.
+ * The index is memory-mapped read-only and the data file is read at the record's offset, so data files may
+ * exceed 2 GB; a lookup is a binary search in the index plus one read and one inflate.
+ *
+ * A new segment is written with a pending index (*.idx.pending), which is renamed to *.idx once the archiving
+ * transaction has committed (publish). A segment with a pending index is not served.
+ *
+ * Index layout: header (magic, keyWidth, count), then count entries of
+ *   key (keyWidth bytes, UTF-8, zero-padded) | offset (long) | compressed length (int) | raw length (int)
+ */
+final class HistoryArchiveSegment {
+
+    static final String DATA_SUFFIX = ".dat";
+    static final String INDEX_SUFFIX = ".idx";
+    static final String PENDING_SUFFIX = ".pending";
+
+    private static final int MAGIC = 0x42484958; // "BHIX"
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_TAIL = 16;
+
+    private final Path dataFile;
+    private final MappedByteBuffer index;
+    private final FileChannel data; // Positional reads only, safe for concurrent lookups
+    private final int keyWidth;
+    private final int count;
+
+    private HistoryArchiveSegment(Path dataFile, MappedByteBuffer index, FileChannel data) throws IOException {
+        this.dataFile = dataFile;
+        this.index = index;
+        this.data = data;
+        if (index.getInt(0) != MAGIC) {
+            throw new IOException("Not a baggage history archive index: " + dataFile);
+        }
+        this.keyWidth = index.getInt(4);
+        this.count = index.getInt(8);
+    }
+
+    /**
+     * Opens a published segment. The index file is written last, so a segment without one is incomplete.
+     */
+    static HistoryArchiveSegment open(Path dataFile) throws IOException {
+        return open(dataFile, indexFileOf(dataFile));
+    }
+
+    /**
+     * Opens a segment whose index has not been published yet, to check whether its transaction committed.
+     */
+    static HistoryArchiveSegment openPending(Path dataFile) throws IOException {
+        return open(dataFile, pendingIndexOf(dataFile));
+    }
+
+    private static HistoryArchiveSegment open(Path dataFile, Path indexFile) throws IOException {
+        MappedByteBuffer index;
+        try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+        }
+        FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ);
+        try {
+            return new HistoryArchiveSegment(dataFile, index, data);
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a new segment with a pending index. Records must be sorted by HistoryArchiveSegment.compareKeys.
+     * Data and index are forced to disk; the pending index only appears (atomic rename) once it is complete.
+     */
+    static void write(Path dataFile, List<Map.Entry<byte[], String>> records) throws IOException {
+        int keyWidth = 1;
+        for (Map.Entry<byte[], String> record : records) {
+            keyWidth = Math.max(keyWidth, record.getKey().length);
+        }
+        ByteBuffer indexBuffer = ByteBuffer.allocate(HEADER_SIZE + records.size() * (keyWidth + ENTRY_TAIL));
+        indexBuffer.putInt(MAGIC).putInt(keyWidth).putInt(records.size());
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (FileChannel out = FileChannel.open(dataFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long offset = 0;
+            for (Map.Entry<byte[], String> record : records) {
+                byte[] raw = record.getValue().getBytes(StandardCharsets.UTF_8);
+                byte[] compressed = deflate(deflater, raw);
+                out.write(ByteBuffer.wrap(compressed));
+
+                indexBuffer.put(Arrays.copyOf(record.getKey(), keyWidth));
+                indexBuffer.putLong(offset).putInt(compressed.length).putInt(raw.length);
+                offset += compressed.length;
+            }
+            out.force(true);
+        } finally {
+            deflater.end();
+        }
+
+        Path tmp = temporaryIndexOf(dataFile);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            indexBuffer.flip();
+            while (indexBuffer.hasRemaining()) {
+                out.write(indexBuffer);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, pendingIndexOf(dataFile), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Makes a written segment complete (atomic rename of its pending index).
+     */
+    static void publish(Path dataFile) throws IOException {
+        Files.move(pendingIndexOf(dataFile), indexFileOf(dataFile), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void delete(Path dataFile) throws IOException {
+        Files.deleteIfExists(indexFileOf(dataFile));
+        Files.deleteIfExists(pendingIndexOf(dataFile));
+        Files.deleteIfExists(temporaryIndexOf(dataFile));
+        Files.deleteIfExists(dataFile);
+    }
+
+    static Path indexFileOf(Path dataFile) {
+        String name = dataFile.getFileName().toString();
+        return dataFile.resolveSibling(name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    static Path pendingIndexOf(Path dataFile) {
+        Path indexFile = indexFileOf(dataFile);
+        return indexFile.resolveSibling(indexFile.getFileName() + PENDING_SUFFIX);
+    }
+
+    private static Path temporaryIndexOf(Path dataFile) {
+        Path indexFile = indexFileOf(dataFile);
+        return indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+    }
+
+    static byte[] key(String baggageNumber) {
+        return baggageNumber.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Order of the index: unsigned byte order of the UTF-8 keys, i.e. the order the binary search relies on.
+     */
+    static int compareKeys(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+
+    Path getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * @return The baggage numbers of the segment's records, in index order.
+     */
+    List<String> baggageNumbers() {
+        List<String> numbers = new ArrayList<>(count);
+        byte[] candidate = new byte[keyWidth];
+        for (int i = 0; i < count; i++) {
+            index.get(HEADER_SIZE + i * (keyWidth + ENTRY_TAIL), candidate);
+            int length = keyWidth;
+            while (length > 0 && candidate[length - 1] == 0) {
+                length--;
+            }
+            numbers.add(new String(candidate, 0, length, StandardCharsets.UTF_8));
+        }
+        return numbers;
+    }
+
+    void close() throws IOException {
+        data.close();
+    }
+
+    /**
+     * @return The archived entries of the bag in encoded form (see ColdBaggageHistory), or null if the
+     *         segment has no record for it.
+     */
+    String find(String baggageNumber) throws IOException {
+        byte[] key = key(baggageNumber);
+        if (key.length > keyWidth) {
+            return null;
+        }
+        byte[] padded = Arrays.copyOf(key, keyWidth);
+        byte[] candidate = new byte[keyWidth];
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = HEADER_SIZE + mid * (keyWidth + ENTRY_TAIL);
+            index.get(position, candidate);
+            int cmp = compareKeys(candidate, padded);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                long offset = index.getLong(position + keyWidth);
+                int length = index.getInt(position + keyWidth + 8);
+                int rawLength = index.getInt(position + keyWidth + 12);
+                ByteBuffer compressed = ByteBuffer.allocate(length);
+                while (compressed.hasRemaining()) {
+                    if (data.read(compressed, offset + compressed.position()) < 0) {
+                        throw new IOException("Truncated archive record in " + dataFile);
+                    }
+                }
+                return new String(inflate(compressed.array(), rawLength), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IOException("Corrupt archive record in " + dataFile);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive record in " + dataFile, e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
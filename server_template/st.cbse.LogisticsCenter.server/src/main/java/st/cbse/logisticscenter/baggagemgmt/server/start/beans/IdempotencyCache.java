@@ -0,0 +1,78 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the results of recently completed idempotent calls, keyed by IdempotencyRecord id.
+ * A retry that hits the cache is answered without touching the database; after eviction (or a restart)
+ * the result is rebuilt from the IdempotencyRecord row.
+ * Only committed results are put here. Each result carries the baggage number its key was used for, so a key
+ * reused for another bag is recognised on a hit just as on the IdempotencyRecord path.
+ *
+ * Configuration (system properties):
+ *   baggage.idempotency.cacheSize  maximum number of cached results (default 10000)
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class IdempotencyCache {
+
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    /**
+     * A cached result with the baggage number of the call that produced it.
+     */
+    public static final class Result {
+        private final String baggageNumber;
+        private final Object value;
+
+        Result(String baggageNumber, Object value) {
+            this.baggageNumber = baggageNumber;
+            this.value = value;
+        }
+
+        public String getBaggageNumber() {
+            return baggageNumber;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    private Map<String, Result> results;
+
+    @PostConstruct
+    void init() {
+        int maxSize = Math.max(1, Integer.getInteger("baggage.idempotency.cacheSize", DEFAULT_CACHE_SIZE));
+        results = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return The cached result, or null if there is none.
+     */
+    public Result get(String recordId) {
+        synchronized (results) { // Access order makes every get a structural modification
+            return results.get(recordId);
+        }
+    }
+
+    public void put(String recordId, String baggageNumber, Object result) {
+        synchronized (results) {
+            results.put(recordId, new Result(baggageNumber, result));
+        }
+    }
+}
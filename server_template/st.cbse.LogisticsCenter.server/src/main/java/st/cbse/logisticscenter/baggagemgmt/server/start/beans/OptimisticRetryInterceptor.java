@@ -0,0 +1,83 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InvocationContext;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Re-invokes a bag transition that failed because another transaction changed the bag first
+ * (OptimisticLockException from the versioned UPDATE in BaggageTransitionEngine), after a short randomized backoff.
+ *
+ * Only useful on methods that run without a transaction of their own (NOT_SUPPORTED) and do their work in a
+ * new transaction per call, so each attempt re-reads the bag and the failed attempt has been rolled back.
+ * Inside an active transaction the conflict is passed on unchanged.
+ *
+ * Configuration (system properties):
+ *   baggage.optimistic.maxAttempts  attempts per call, including the first (default 5)
+ */
+public class OptimisticRetryInterceptor {
+
+    private static final Logger LOGGER = Logger.getLogger(OptimisticRetryInterceptor.class.getName());
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long BACKOFF_MS = 5;
+
+    @EJB
+    private ContentionMetrics metrics;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    @AroundInvoke
+    public Object retry(InvocationContext context) throws Exception {
+        if (txRegistry.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+            return context.proceed();
+        }
+        String operation = context.getMethod().getDeclaringClass().getSimpleName() + "." + context.getMethod().getName();
+        int maxAttempts = Math.max(1, Integer.getInteger("baggage.optimistic.maxAttempts", DEFAULT_MAX_ATTEMPTS));
+        int conflicts = 0;
+        while (true) {
+            try {
+                Object result = context.proceed();
+                metrics.record(operation, conflicts, true);
+                return result;
+            } catch (Exception e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                conflicts++;
+                if (conflicts >= maxAttempts) {
+                    metrics.record(operation, conflicts, false);
+                    LOGGER.warning(operation + " gave up after " + conflicts + " conflicting attempt(s): " + e.getMessage());
+                    throw e;
+                }
+                LOGGER.fine(operation + " conflicted (attempt " + conflicts + "), retrying.");
+                // Randomized, growing backoff so the competing transactions do not collide again in lockstep.
+                TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(1, BACKOFF_MS * conflicts + 2));
+            }
+        }
+    }
+
+    /**
+     * @return true if the exception (or one of its causes, e.g. inside an EJBException) is an optimistic lock failure.
+     */
+    public static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.HoldCompartment;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Baggage weight limits per hold compartment, derived from Flight.planeType.
+ * Plane types are matched by prefix (e.g. "A320neo" uses the "A32" limits); unknown types get
+ * narrow-body limits. A limit can be overridden with the system property
+ * baggage.holdLimit.&lt;planeType&gt;.&lt;compartment&gt;, e.g. baggage.holdLimit.A320.BULK=1200
+ */
+public final class PlaneTypeLimits {
+
+    private static final Map<String, Map<HoldCompartment, Double>> BY_PREFIX = new LinkedHashMap<>();
+    private static final Map<HoldCompartment, Double> NARROW_BODY = limits(3400, 4200, 1400);
+
+    static {
+        Map<HoldCompartment, Double> regional = limits(1200, 1400, 400);
+        Map<HoldCompartment, Double> wideBody = limits(12000, 10000, 3000);
+        Map<HoldCompartment, Double> jumbo = limits(16000, 14000, 3500);
+        BY_PREFIX.put("A31", NARROW_BODY);
+        BY_PREFIX.put("A32", NARROW_BODY);
+        BY_PREFIX.put("B73", NARROW_BODY);
+        BY_PREFIX.put("B75", NARROW_BODY);
+        BY_PREFIX.put("A33", wideBody);
+        BY_PREFIX.put("A34", wideBody);
+        BY_PREFIX.put("A35", wideBody);
+        BY_PREFIX.put("B76", wideBody);
+        BY_PREFIX.put("B77", wideBody);
+        BY_PREFIX.put("B78", wideBody);
+        BY_PREFIX.put("A38", jumbo);
+        BY_PREFIX.put("B74", jumbo);
+        BY_PREFIX.put("E1", regional);
+        BY_PREFIX.put("CRJ", regional);
+        BY_PREFIX.put("ATR", regional);
+        BY_PREFIX.put("DH8", regional);
+    }
+
+    private PlaneTypeLimits() {
+    }
+
+    /**
+     * @return The baggage weight limit in kg of the compartment for the plane type.
+     */
+    public static double limitKg(String planeType, HoldCompartment compartment) {
+        String type = planeType != null ? planeType.trim().toUpperCase(Locale.ROOT).replace("-", "") : "";
+        String override = System.getProperty("baggage.holdLimit." + type + "." + compartment.name());
+        if (override != null) {
+            try {
+                return Double.parseDouble(override);
+            } catch (NumberFormatException e) {
+                // Fall through to the built-in limit
+            }
+        }
+        for (Map.Entry<String, Map<HoldCompartment, Double>> entry : BY_PREFIX.entrySet()) {
+            if (type.startsWith(entry.getKey())) {
+                return entry.getValue().get(compartment);
+            }
+        }
+        return NARROW_BODY.get(compartment);
+    }
+
+    private static Map<HoldCompartment, Double> limits(double forward, double aft, double bulk) {
+        Map<HoldCompartment, Double> limits = new EnumMap<>(HoldCompartment.class);
+        limits.put(HoldCompartment.FORWARD, forward);
+        limits.put(HoldCompartment.AFT, aft);
+        limits.put(HoldCompartment.BULK, bulk);
+        return limits;
+    }
+}
@@ -0,0 +1,93 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.interceptor.Interceptors;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a micro-batch of tag scans in a single transaction.
+ * The bags are read with one projection query per 1000 baggage numbers, then the scans are applied through
+ * BaggageTransitionEngine strictly in the given order, so several scans of the same bag in one batch are
+ * recorded in the order they were received. History entries are written as JDBC batches on flush.
+ * applyRetrying applies the scans of a single bag and starts over from a fresh read if a concurrent transition
+ * (e.g. a pipeline worker) changed the bag first, so a scan racing with the pipeline is not lost.
+ */
+@Stateless
+public class ScanBatchApplier {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @EJB
+    private BaggageTransitionEngine transitionEngine;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public ScanBatchResult apply(List<TagScan> scans) {
+        Map<String, BaggageState> bags = load(scans);
+        ScanBatchResult result = new ScanBatchResult();
+        for (TagScan scan : scans) {
+            BaggageState baggage = bags.get(scan.getBaggageNumber());
+            if (baggage == null) {
+                result.unknownBag();
+                continue;
+            }
+            BaggageStatus status = scan.getStatus() != null ? scan.getStatus() : baggage.getStatus();
+            // The state object is updated by the engine, so the next scan of this bag sees the new status.
+            if (transitionEngine.transition(baggage, status, "Scanned at " + scan.getScanPoint() + ".")) {
+                result.applied();
+            } else {
+                result.rejected();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Like apply, but each attempt runs in a transaction of its own and is retried on an optimistic conflict.
+     * Meant for the scans of one bag, after the batch they came in failed.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED) // One transaction per attempt, see OptimisticRetryInterceptor
+    @Interceptors(OptimisticRetryInterceptor.class)
+    public ScanBatchResult applyRetrying(List<TagScan> scans) {
+        return sessionContext.getBusinessObject(ScanBatchApplier.class).apply(scans);
+    }
+
+    private Map<String, BaggageState> load(List<TagScan> scans) {
+        Set<String> numbers = new LinkedHashSet<>();
+        for (TagScan scan : scans) {
+            numbers.add(scan.getBaggageNumber());
+        }
+        List<String> all = new ArrayList<>(numbers);
+        Map<String, BaggageState> bags = new HashMap<>();
+        for (int from = 0; from < all.size(); from += IN_CLAUSE_CHUNK) {
+            List<BaggageState> found = em.createQuery(
+                    BaggageState.SELECT + "WHERE b.baggageNumber IN :numbers", BaggageState.class)
+                    .setParameter("numbers", all.subList(from, Math.min(from + IN_CLAUSE_CHUNK, all.size())))
+                    .getResultList();
+            for (BaggageState state : found) {
+                bags.put(state.getBaggageNumber(), state);
+            }
+        }
+        return bags;
+    }
+}
@@ -0,0 +1,35 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+/**
+ * Outcome of applying a batch of tag scans (see ScanBatchApplier).
+ */
+public final class ScanBatchResult {
+
+    private int applied;
+    private int rejected; // Status not reachable from the bag's current status
+    private int unknownBags;
+
+    void applied() {
+        applied++;
+    }
+
+    void rejected() {
+        rejected++;
+    }
+
+    void unknownBag() {
+        unknownBags++;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public int getUnknownBags() {
+        return unknownBags;
+    }
+}
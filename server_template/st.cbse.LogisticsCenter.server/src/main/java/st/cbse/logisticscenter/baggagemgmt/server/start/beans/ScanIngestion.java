@@ -0,0 +1,346 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ScanIngestionStats;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ingestion of the tag scans produced by belt and loading scanners ("bag X seen at point Y").
+ *
+ * Scans arrive as text lines (see TagScan) over two local channels:
+ *   - a TCP socket bound to the loopback interface, one scan per line, any number of lines per connection;
+ *   - a drop directory polled every few seconds; *.scan files are read and renamed to *.done. A file is renamed
+ *     to *.scan.processing while it is read; files left in that state by a shutdown are queued again on startup
+ *     and read from the start.
+ * Both feed a set of single-threaded lanes (BaggageLanes), chosen by a hash of the baggage number. Each lane
+ * cuts its queue into micro-batches of up to batchSize scans, closing a batch early once batchDelayMs have passed
+ * since its first scan, and applies each batch in one transaction (ScanBatchApplier). All scans of a bag go
+ * through the same lane, so they are recorded in the order they were received, while the lanes apply the scans
+ * of different bags in parallel. A full lane blocks the readers, which throttles the scanners through TCP flow
+ * control instead of dropping scans. The number of lanes can be changed at runtime (setLanes); the old lanes
+ * are drained first, so no bag's scans overtake each other across the switch.
+ *
+ * If a batch fails (e.g. a bag changed status concurrently), its scans are re-applied bag by bag, so a
+ * single bad bag does not lose the scans of the others. Each bag is re-read and retried while it conflicts with
+ * concurrent transitions (ScanBatchApplier.applyRetrying); only scans that still fail are counted as failed.
+ *
+ * Configuration (system properties):
+ *   baggage.scan.port           socket port on 127.0.0.1 (default 7701, -1 disables the socket)
+ *   baggage.scan.dropDir        drop directory (default "scan-drop" in the WildFly data directory)
+ *   baggage.scan.batchSize      maximum scans per transaction (default 500)
+ *   baggage.scan.batchDelayMs   maximum time a scan waits for its batch to fill (default 50)
+ *   baggage.scan.queueCapacity  scans buffered between readers and lanes, over all lanes (default 20000)
+ *   baggage.scan.lanes          number of lanes (default: number of available processors, at most maxLanes)
+ *   baggage.scan.maxLanes       upper bound for the number of lanes, also at runtime (default 4 x available processors)
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ScanIngestion {
+
+    private static final Logger LOGGER = Logger.getLogger(ScanIngestion.class.getName());
+
+    private static final int DEFAULT_PORT = 7701;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_BATCH_DELAY_MS = 50;
+    private static final int DEFAULT_QUEUE_CAPACITY = 20_000;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    @EJB
+    private ScanBatchApplier batchApplier;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong unknownBags = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet(); // Live acceptor and reader threads
+
+    // Readers put scans under the read lock; setLanes swaps the lanes under the write lock.
+    private final ReadWriteLock laneSwitch = new ReentrantReadWriteLock();
+    private volatile BaggageLanes<TagScan> lanes;
+    private int batchSize;
+    private long batchDelayMs;
+    private int queueCapacity;
+    private int maxLanes;
+    private Path dropDir;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        batchSize = Math.max(1, Integer.getInteger("baggage.scan.batchSize", DEFAULT_BATCH_SIZE));
+        batchDelayMs = Math.max(0, Long.getLong("baggage.scan.batchDelayMs", DEFAULT_BATCH_DELAY_MS));
+        queueCapacity = Math.max(batchSize, Integer.getInteger("baggage.scan.queueCapacity", DEFAULT_QUEUE_CAPACITY));
+        int processors = Runtime.getRuntime().availableProcessors();
+        maxLanes = Math.max(1, Integer.getInteger("baggage.scan.maxLanes", 4 * processors));
+        running = true;
+        lanes = newLanes(Math.min(maxLanes, Math.max(1, Integer.getInteger("baggage.scan.lanes", processors))));
+
+        int port = Integer.getInteger("baggage.scan.port", DEFAULT_PORT);
+        if (port >= 0) {
+            try {
+                serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+                startThread("baggage-scan-acceptor", this::runAcceptor);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Cannot open tag-scan socket on port " + port + ", socket ingestion disabled.", e);
+            }
+        }
+        try {
+            String configured = System.getProperty("baggage.scan.dropDir");
+            dropDir = Files.createDirectories(configured != null
+                    ? Paths.get(configured)
+                    : Paths.get(System.getProperty("jboss.server.data.dir", System.getProperty("java.io.tmpdir")), "scan-drop"));
+            requeueInterruptedFiles();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Cannot create tag-scan drop directory, file ingestion disabled.", e);
+        }
+        LOGGER.info("Tag-scan ingestion started: socket " + (serverSocket != null ? serverSocket.getLocalSocketAddress() : "disabled")
+                + ", drop directory " + dropDir + ", " + lanes.lanes() + " lane(s), batches of up to " + batchSize + " scans / "
+                + batchDelayMs + " ms.");
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                LOGGER.fine("Closing tag-scan socket: " + e.getMessage());
+            }
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        lanes.stop();
+        LOGGER.info("Tag-scan ingestion stopped: " + getStats());
+    }
+
+    public ScanIngestionStats getStats() {
+        BaggageLanes<TagScan> current = lanes;
+        return new ScanIngestionStats(received.get(), malformed.get(), applied.get(), rejected.get(), unknownBags.get(),
+                failed.get(), batches.get(), current.queued(), current.capacity(), current.lanes());
+    }
+
+    /**
+     * Replaces the lanes by the given number of new ones. Waits until the scans queued on the old lanes are applied;
+     * readers block meanwhile.
+     * @return The previous number of lanes.
+     * @throws IllegalArgumentException if the count is not between 1 and baggage.scan.maxLanes.
+     */
+    public int setLanes(int count) {
+        if (count < 1 || count > maxLanes) {
+            throw new IllegalArgumentException("Number of tag-scan lanes must be between 1 and " + maxLanes + ", was " + count);
+        }
+        laneSwitch.writeLock().lock();
+        try {
+            BaggageLanes<TagScan> old = lanes;
+            if (old.lanes() == count) {
+                return count;
+            }
+            old.drainAndStop();
+            lanes = newLanes(count);
+            LOGGER.info("Tag-scan ingestion switched from " + old.lanes() + " to " + count + " lane(s).");
+            return old.lanes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while draining the tag-scan lanes", e);
+        } finally {
+            laneSwitch.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads new *.scan files from the drop directory in name order.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/5", persistent = false)
+    public void pollDropDirectory() {
+        if (dropDir == null) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dropDir, "*.scan")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot list tag-scan drop directory " + dropDir, e);
+            return;
+        }
+        files.sort(null);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Path processing = file.resolveSibling(name + ".processing");
+            try {
+                // Rename first, so a file still being polled is never picked up twice.
+                Files.move(file, processing, StandardCopyOption.ATOMIC_MOVE);
+                long lines;
+                try (BufferedReader reader = Files.newBufferedReader(processing, StandardCharsets.UTF_8)) {
+                    lines = ingest(reader);
+                }
+                Files.move(processing, file.resolveSibling(name.substring(0, name.length() - ".scan".length()) + ".done"),
+                        StandardCopyOption.REPLACE_EXISTING);
+                LOGGER.info("Tag-scan file " + name + " queued (" + lines + " line(s)).");
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Cannot read tag-scan file " + file, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Renames *.scan.processing files, whose reading was cut short by a shutdown, back to *.scan.
+    private void requeueInterruptedFiles() {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dropDir, "*.scan.processing")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    Files.move(file, file.resolveSibling(name.substring(0, name.length() - ".processing".length())),
+                            StandardCopyOption.ATOMIC_MOVE);
+                    LOGGER.info("Tag-scan file " + name + " was not completely read, queued again.");
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Cannot queue tag-scan file " + file + " again", e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot list tag-scan drop directory " + dropDir, e);
+        }
+    }
+
+    private void startThread(String name, Runnable task) {
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                task.run();
+            } finally {
+                threads.remove(Thread.currentThread());
+            }
+        });
+        thread.setName(name);
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void runAcceptor() {
+        int connections = 0;
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                startThread("baggage-scan-reader-" + connections++, () -> readConnection(socket));
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.log(Level.WARNING, "Accepting tag-scan connection failed", e);
+                }
+            }
+        }
+    }
+
+    private void readConnection(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            long lines = ingest(reader);
+            LOGGER.info("Tag-scan connection from " + connection.getRemoteSocketAddress() + " closed after " + lines + " line(s).");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Reading tag scans failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Blocks while the lane of a scan is full.
+    private long ingest(BufferedReader reader) throws IOException, InterruptedException {
+        long lines = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines++;
+            TagScan scan = TagScan.parse(line);
+            if (scan == null) {
+                if (!line.isBlank() && !line.trim().startsWith("#")) {
+                    malformed.incrementAndGet();
+                }
+                continue;
+            }
+            laneSwitch.readLock().lock();
+            try {
+                lanes.put(scan);
+            } finally {
+                laneSwitch.readLock().unlock();
+            }
+            received.incrementAndGet();
+        }
+        return lines;
+    }
+
+    private BaggageLanes<TagScan> newLanes(int count) {
+        return new BaggageLanes<>("baggage-scan", count, queueCapacity, batchSize, batchDelayMs, threadFactory,
+                TagScan::getBaggageNumber, this::applyBatch);
+    }
+
+    private void applyBatch(List<TagScan> batch) {
+        batches.incrementAndGet();
+        try {
+            count(batchApplier.apply(batch));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Tag-scan batch of " + batch.size() + " failed, re-applying bag by bag: " + e.getMessage());
+            Map<String, List<TagScan>> byBag = new LinkedHashMap<>();
+            for (TagScan scan : batch) {
+                byBag.computeIfAbsent(scan.getBaggageNumber(), n -> new ArrayList<>()).add(scan);
+            }
+            for (List<TagScan> scans : byBag.values()) {
+                try {
+                    count(batchApplier.applyRetrying(scans));
+                } catch (Exception bagFailure) {
+                    failed.addAndGet(scans.size());
+                    LOGGER.log(Level.SEVERE, scans.size() + " tag scan(s) of baggage " + scans.get(0).getBaggageNumber() + " failed", bagFailure);
+                }
+            }
+        }
+    }
+
+    private void count(ScanBatchResult result) {
+        applied.addAndGet(result.getApplied());
+        rejected.addAndGet(result.getRejected());
+        unknownBags.addAndGet(result.getUnknownBags());
+    }
+}
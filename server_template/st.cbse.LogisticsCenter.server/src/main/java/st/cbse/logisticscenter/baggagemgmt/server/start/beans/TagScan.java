@@ -0,0 +1,62 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+/**
+ * One tag scan: bag X seen at scan point Y, optionally reporting a new status.
+ * Received by ScanIngestion as a text line "baggageNumber,scanPoint[,status]", e.g. "AB12345,SORTER-3,SORTED".
+ * Without a status the scan is recorded as a sighting in the bag's current status.
+ */
+public final class TagScan {
+
+    private final String baggageNumber;
+    private final String scanPoint;
+    private final BaggageStatus status;
+
+    public TagScan(String baggageNumber, String scanPoint, BaggageStatus status) {
+        this.baggageNumber = baggageNumber;
+        this.scanPoint = scanPoint;
+        this.status = status;
+    }
+
+    /**
+     * @return The scan, or null if the line is blank, a comment (#) or malformed.
+     */
+    public static TagScan parse(String line) {
+        if (line == null) {
+            return null;
+        }
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        String[] fields = trimmed.split(",", -1);
+        if (fields.length < 2 || fields.length > 3 || fields[0].trim().isEmpty() || fields[1].trim().isEmpty()) {
+            return null;
+        }
+        BaggageStatus status = null;
+        if (fields.length == 3 && !fields[2].trim().isEmpty()) {
+            try {
+                status = BaggageStatus.valueOf(fields[2].trim());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return new TagScan(fields[0].trim(), fields[1].trim(), status);
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public String getScanPoint() {
+        return scanPoint;
+    }
+
+    /**
+     * @return The reported status, or null for a plain sighting.
+     */
+    public BaggageStatus getStatus() {
+        return status;
+    }
+}
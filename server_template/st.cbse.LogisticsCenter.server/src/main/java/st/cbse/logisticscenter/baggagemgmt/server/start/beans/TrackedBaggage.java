@@ -0,0 +1,40 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+
+/**
+ * Entry of the BaggageTrackingIndex: the committed status of one bag. Immutable, replaced on every change.
+ */
+public final class TrackedBaggage {
+
+    private final BaggageStatus status;
+    private final Long flightId;
+    private final long version; // Baggage.version of the committed change
+    private final long indexedAt = System.currentTimeMillis();
+
+    public TrackedBaggage(BaggageStatus status, Long flightId, long version) {
+        this.status = status;
+        this.flightId = flightId;
+        this.version = version;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isHeld() {
+        return status == BaggageStatus.HELD_FOR_INSPECTION;
+    }
+
+    long getIndexedAt() {
+        return indexedAt;
+    }
+}
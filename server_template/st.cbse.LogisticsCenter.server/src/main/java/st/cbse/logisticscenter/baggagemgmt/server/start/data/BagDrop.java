@@ -0,0 +1,58 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+/**
+ * One item of a batch bag drop (see IBaggageManagementRemote.dropBaggageBatch).
+ * Carries the same data as a single dropBaggage call.
+ */
+public class BagDrop implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String baggageNumber;
+    private double weightKg;
+    private Flight flight;
+
+    public BagDrop() {
+    }
+
+    public BagDrop(String baggageNumber, double weightKg, Flight flight) {
+        this.baggageNumber = baggageNumber;
+        this.weightKg = weightKg;
+        this.flight = flight;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public void setBaggageNumber(String baggageNumber) {
+        this.baggageNumber = baggageNumber;
+    }
+
+    public double getWeightKg() {
+        return weightKg;
+    }
+
+    public void setWeightKg(double weightKg) {
+        this.weightKg = weightKg;
+    }
+
+    public Flight getFlight() {
+        return flight;
+    }
+
+    public void setFlight(Flight flight) {
+        this.flight = flight;
+    }
+
+    @Override
+    public String toString() {
+        return "BagDrop{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", weightKg=" + weightKg +
+               ", flight=" + (flight != null ? flight.getFlightNumber() : "N/A") +
+               '}';
+    }
+}
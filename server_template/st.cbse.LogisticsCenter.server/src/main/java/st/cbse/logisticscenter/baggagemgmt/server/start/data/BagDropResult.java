@@ -0,0 +1,75 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Per-item outcome of a batch bag drop. Results are returned in the same order as the submitted drops.
+ */
+public class BagDropResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String baggageNumber;
+    private boolean accepted;
+    private BaggageStatus status; // Status right after the drop, null if the drop was rejected
+    private String message;
+
+    public BagDropResult() {
+    }
+
+    public BagDropResult(String baggageNumber, boolean accepted, BaggageStatus status, String message) {
+        this.baggageNumber = baggageNumber;
+        this.accepted = accepted;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static BagDropResult accepted(String baggageNumber, BaggageStatus status) {
+        return new BagDropResult(baggageNumber, true, status, "Dropped off.");
+    }
+
+    public static BagDropResult rejected(String baggageNumber, String reason) {
+        return new BagDropResult(baggageNumber, false, null, reason);
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public void setBaggageNumber(String baggageNumber) {
+        this.baggageNumber = baggageNumber;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BaggageStatus status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "BagDropResult{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", accepted=" + accepted +
+               ", status=" + (status != null ? status.getDisplayName() : "N/A") +
+               ", message='" + message + '\'' +
+               '}';
+    }
+}
@@ -2,23 +2,36 @@ package st.cbse.logisticscenter.baggagemgmt.server.start.data;
 
 import jakarta.persistence.*; // Use jakarta.persistence for JPA annotations
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
 
 @Entity
-@Table(name = "BAGGAGE") // Explicitly define table name for clarity
+@Table(name = "BAGGAGE", // Explicitly define table name for clarity
+       indexes = {
+           @Index(name = "IDX_BAGGAGE_FLIGHT", columnList = "flight_id"),      // Bulk operations by flight
+           @Index(name = "IDX_BAGGAGE_DROPPED_AT", columnList = "droppedAt")   // Bulk operations by drop time window
+       })
 public class Baggage implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // Pooled sequence instead of IDENTITY: Hibernate cannot batch inserts when the id
+    // is only known after each INSERT, and the batch drop path relies on JDBC batching.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "baggageSeq")
+    @SequenceGenerator(name = "baggageSeq", sequenceName = "BAGGAGE_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false) // Ensure baggageNumber is unique and not null
     private String baggageNumber; // Unique tracking number for baggage
 
+    // Optimistic lock: every status change checks and increments it, including the JPQL bulk UPDATEs
+    // (which bump it explicitly). A transition based on a stale read fails instead of overwriting.
+    @Version
+    private long version;
+
     private double weightKg;
 
     @Enumerated(EnumType.STRING)
@@ -29,6 +42,11 @@ public class Baggage implements Serializable {
     @JoinColumn(name = "flight_id", nullable = false) // Foreign key to Flight entity
     private Flight flight;
 
+    private LocalDateTime droppedAt; // When the bag was dropped off (used to select bags by check-in window)
+
+    @Enumerated(EnumType.STRING)
+    private HoldCompartment holdCompartment; // Assigned when the bag becomes CBR_READY, null before
+
     // --- NEW FIELD: Indicates if baggage is held for inspection ---
     private boolean heldForInspection; // <--- ADD THIS LINE
 
@@ -48,6 +66,7 @@ public class Baggage implements Serializable {
         this.weightKg = weightKg;
         this.flight = flight;
         this.status = BaggageStatus.DROPPED_OFF; // Set initial status
+        this.droppedAt = LocalDateTime.now();
         this.heldForInspection = false; // Initialize to false
         // Automatically add the first history entry
         addHistoryEntry(BaggageStatus.DROPPED_OFF, "Baggage initially dropped off.");
@@ -62,6 +81,10 @@ public class Baggage implements Serializable {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getBaggageNumber() {
         return baggageNumber;
     }
@@ -94,6 +117,22 @@ public class Baggage implements Serializable {
         this.flight = flight;
     }
 
+    public HoldCompartment getHoldCompartment() {
+        return holdCompartment;
+    }
+
+    public void setHoldCompartment(HoldCompartment holdCompartment) {
+        this.holdCompartment = holdCompartment;
+    }
+
+    public LocalDateTime getDroppedAt() {
+        return droppedAt;
+    }
+
+    public void setDroppedAt(LocalDateTime droppedAt) {
+        this.droppedAt = droppedAt;
+    }
+
     // --- NEW: Getter and Setter for heldForInspection ---
     public boolean isHeldForInspection() { // <--- ADD THIS METHOD
         return heldForInspection;
@@ -108,6 +147,13 @@ public class Baggage implements Serializable {
         return history;
     }
 
+    /**
+     * Replaces the history of a detached bag, e.g. by its full history including compacted and archived entries.
+     */
+    public void setHistory(List<BaggageHistoryEntry> history) {
+        this.history = history;
+    }
+
     // --- New: Helper method to add history entry and update current status ---
     public void addHistoryEntry(BaggageStatus newStatus, String details) {
         BaggageHistoryEntry entry = new BaggageHistoryEntry(this, newStatus, details);
@@ -10,7 +10,8 @@ public class BaggageHistoryEntry implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "baggageHistorySeq")
+    @SequenceGenerator(name = "baggageHistorySeq", sequenceName = "BAGGAGE_HISTORY_SEQ", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,50 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * The automated ground-processing stages a bag passes through after drop-off.
+ * Each stage moves a bag from one BaggageStatus to the next.
+ */
+public enum BaggageProcessingStage implements Serializable {
+    SECURITY(BaggageStatus.DROPPED_OFF, BaggageStatus.SECURITY_CLEARED),
+    SORTING(BaggageStatus.SECURITY_CLEARED, BaggageStatus.SORTED),
+    CBR(BaggageStatus.SORTED, BaggageStatus.CBR_READY),
+    LOADING(BaggageStatus.CBR_READY, BaggageStatus.LOADED);
+
+    private final BaggageStatus fromStatus;
+    private final BaggageStatus toStatus;
+
+    BaggageProcessingStage(BaggageStatus fromStatus, BaggageStatus toStatus) {
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+    }
+
+    public BaggageStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public BaggageStatus getToStatus() {
+        return toStatus;
+    }
+
+    /**
+     * @return The stage following this one, or null if this is the last automated stage.
+     */
+    public BaggageProcessingStage next() {
+        BaggageProcessingStage[] stages = values();
+        return ordinal() + 1 < stages.length ? stages[ordinal() + 1] : null;
+    }
+
+    /**
+     * @return The stage that processes bags in the given status, or null if no automated stage applies.
+     */
+    public static BaggageProcessingStage forStatus(BaggageStatus status) {
+        for (BaggageProcessingStage stage : values()) {
+            if (stage.fromStatus == status) {
+                return stage;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Selects bags for bulk operations (e.g. holdBaggage / releaseBaggage).
+ * All set fields must match; at least one field has to be set.
+ */
+public class BaggageSelectionCriteria implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String flightNumber;
+    private LocalDateTime droppedFrom; // Inclusive
+    private LocalDateTime droppedTo;   // Exclusive
+
+    public BaggageSelectionCriteria() {
+    }
+
+    public BaggageSelectionCriteria(String flightNumber, LocalDateTime droppedFrom, LocalDateTime droppedTo) {
+        this.flightNumber = flightNumber;
+        this.droppedFrom = droppedFrom;
+        this.droppedTo = droppedTo;
+    }
+
+    public static BaggageSelectionCriteria forFlight(String flightNumber) {
+        return new BaggageSelectionCriteria(flightNumber, null, null);
+    }
+
+    public static BaggageSelectionCriteria droppedBetween(LocalDateTime from, LocalDateTime to) {
+        return new BaggageSelectionCriteria(null, from, to);
+    }
+
+    public boolean isEmpty() {
+        return flightNumber == null && droppedFrom == null && droppedTo == null;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+
+    public LocalDateTime getDroppedFrom() {
+        return droppedFrom;
+    }
+
+    public void setDroppedFrom(LocalDateTime droppedFrom) {
+        this.droppedFrom = droppedFrom;
+    }
+
+    public LocalDateTime getDroppedTo() {
+        return droppedTo;
+    }
+
+    public void setDroppedTo(LocalDateTime droppedTo) {
+        this.droppedTo = droppedTo;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageSelectionCriteria{" +
+               "flightNumber='" + flightNumber + '\'' +
+               ", droppedFrom=" + droppedFrom +
+               ", droppedTo=" + droppedTo +
+               '}';
+    }
+}
@@ -0,0 +1,127 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Derived state of a bag, maintained on every status transition: current status, time of the last
+ * transition and the accumulated time spent in each status. Answers "where is the bag and how long
+ * has it been there" without reading BAGGAGE_HISTORY.
+ */
+@Entity
+@Table(name = "BAGGAGE_SNAPSHOT")
+public class BaggageSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long baggageId; // Same id as the Baggage row
+
+    @Column(unique = true, nullable = false)
+    private String baggageNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BaggageStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime lastTransitionAt;
+
+    private int transitionCount;
+
+    // Completed time per status in milliseconds, encoded as "STATUS=millis;STATUS=millis".
+    // At most one pair per BaggageStatus, so a plain column is enough and avoids a collection table.
+    @Column(length = 1024)
+    private String timeInStatus;
+
+    // Set once older history has been moved to the archive files, so only those bags pay for the file lookup.
+    private boolean historyArchived;
+
+    public BaggageSnapshot() {
+    }
+
+    public BaggageSnapshot(Long baggageId, String baggageNumber, BaggageStatus status, LocalDateTime since) {
+        this.baggageId = baggageId;
+        this.baggageNumber = baggageNumber;
+        this.status = status;
+        this.lastTransitionAt = since;
+        this.transitionCount = 0;
+    }
+
+    /**
+     * Closes the time spent in the current status and moves the snapshot to the new status.
+     */
+    public void recordTransition(BaggageStatus newStatus, LocalDateTime at) {
+        Map<BaggageStatus, Long> times = getMillisInStatus();
+        long spent = Math.max(0, Duration.between(lastTransitionAt, at).toMillis());
+        times.merge(status, spent, Long::sum);
+        timeInStatus = encode(times);
+        status = newStatus;
+        lastTransitionAt = at;
+        transitionCount++;
+    }
+
+    /**
+     * @return Completed time per status in milliseconds (the time in the current status is not included).
+     */
+    public Map<BaggageStatus, Long> getMillisInStatus() {
+        Map<BaggageStatus, Long> times = new EnumMap<>(BaggageStatus.class);
+        if (timeInStatus == null || timeInStatus.isEmpty()) {
+            return times;
+        }
+        for (String pair : timeInStatus.split(";")) {
+            int eq = pair.indexOf('=');
+            times.put(BaggageStatus.valueOf(pair.substring(0, eq)), Long.parseLong(pair.substring(eq + 1)));
+        }
+        return times;
+    }
+
+    private static String encode(Map<BaggageStatus, Long> times) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<BaggageStatus, Long> entry : times.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(entry.getKey().name()).append('=').append(entry.getValue());
+        }
+        return encoded.toString();
+    }
+
+    public Long getBaggageId() {
+        return baggageId;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getLastTransitionAt() {
+        return lastTransitionAt;
+    }
+
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    public boolean isHistoryArchived() {
+        return historyArchived;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageSnapshot{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", status=" + (status != null ? status.getDisplayName() : "N/A") +
+               ", lastTransitionAt=" + lastTransitionAt +
+               ", transitionCount=" + transitionCount +
+               ", timeInStatus=" + timeInStatus +
+               '}';
+    }
+}
@@ -0,0 +1,81 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A committed status change of one bag, as pushed to subscribers on the baggage status topic.
+ * On the wire it is a MapMessage whose baggageNumber, flightNumber and status are also set as message
+ * properties, so subscribers can filter with a JMS message selector, e.g.
+ *   flightNumber = 'LH123'   or   baggageNumber IN ('AB1', 'AB2')
+ */
+public class BaggageStatusChange implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** JNDI name of the topic for remote clients (bound under java:jboss/exported on the server). */
+    public static final String TOPIC_JNDI_NAME = "jms/topic/BaggageStatus";
+
+    // Message property / map keys
+    public static final String BAGGAGE_NUMBER = "baggageNumber";
+    public static final String FLIGHT_NUMBER = "flightNumber";
+    public static final String STATUS = "status";
+    public static final String PREVIOUS_STATUS = "previousStatus";
+    public static final String DETAILS = "details";
+    public static final String CHANGED_AT = "changedAt";
+
+    private String baggageNumber;
+    private String flightNumber;
+    private BaggageStatus previousStatus; // null for a new drop
+    private BaggageStatus status;
+    private String details;
+    private LocalDateTime changedAt;
+
+    public BaggageStatusChange() {
+    }
+
+    public BaggageStatusChange(String baggageNumber, String flightNumber, BaggageStatus previousStatus,
+                               BaggageStatus status, String details, LocalDateTime changedAt) {
+        this.baggageNumber = baggageNumber;
+        this.flightNumber = flightNumber;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.details = details;
+        this.changedAt = changedAt;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public BaggageStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageStatusChange{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", flightNumber='" + flightNumber + '\'' +
+               ", previousStatus=" + previousStatus +
+               ", status=" + status +
+               ", details='" + details + '\'' +
+               ", changedAt=" + changedAt +
+               '}';
+    }
+}
@@ -0,0 +1,85 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Current state of one bag for status checks: status, hold, flight route and the time of the last history entry,
+ * without the history itself. Filled directly by a JPQL constructor projection, no Baggage entity is loaded.
+ */
+public class BaggageStatusView implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String baggageNumber;
+    private BaggageStatus status;
+    private double weightKg;
+    private boolean heldForInspection;
+    private HoldCompartment holdCompartment; // null until the bag is CBR_READY
+    private String flightNumber;
+    private String origin;
+    private String destination;
+    private LocalDateTime lastUpdated;
+
+    public BaggageStatusView() {
+    }
+
+    public BaggageStatusView(String baggageNumber, BaggageStatus status, double weightKg, boolean heldForInspection,
+                             HoldCompartment holdCompartment, String flightNumber, String origin, String destination,
+                             LocalDateTime lastUpdated) {
+        this.baggageNumber = baggageNumber;
+        this.status = status;
+        this.weightKg = weightKg;
+        this.heldForInspection = heldForInspection;
+        this.holdCompartment = holdCompartment;
+        this.flightNumber = flightNumber;
+        this.origin = origin;
+        this.destination = destination;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public double getWeightKg() {
+        return weightKg;
+    }
+
+    public boolean isHeldForInspection() {
+        return heldForInspection;
+    }
+
+    public HoldCompartment getHoldCompartment() {
+        return holdCompartment;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageStatusView{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", status=" + (status != null ? status.getDisplayName() : "N/A") +
+               ", flightNumber='" + flightNumber + '\'' +
+               ", lastUpdated=" + lastUpdated +
+               '}';
+    }
+}
@@ -0,0 +1,66 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Compact, history-free view of a bag for list and export use cases.
+ * Filled directly by a JPQL constructor projection, no Baggage entity is loaded.
+ */
+public class BaggageSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id; // Also the keyset cursor for paging
+    private String baggageNumber;
+    private BaggageStatus status;
+    private String flightNumber;
+    private double weightKg;
+    private boolean heldForInspection;
+
+    public BaggageSummary() {
+    }
+
+    public BaggageSummary(Long id, String baggageNumber, BaggageStatus status, String flightNumber,
+                          double weightKg, boolean heldForInspection) {
+        this.id = id;
+        this.baggageNumber = baggageNumber;
+        this.status = status;
+        this.flightNumber = flightNumber;
+        this.weightKg = weightKg;
+        this.heldForInspection = heldForInspection;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public double getWeightKg() {
+        return weightKg;
+    }
+
+    public boolean isHeldForInspection() {
+        return heldForInspection;
+    }
+
+    @Override
+    public String toString() {
+        return "BaggageSummary{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", status=" + (status != null ? status.getDisplayName() : "N/A") +
+               ", flight=" + flightNumber +
+               ", weightKg=" + weightKg +
+               ", heldForInspection=" + heldForInspection +
+               '}';
+    }
+}
@@ -0,0 +1,36 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of baggage summaries ordered by bag id.
+ * Pass nextCursor to the next getBaggagePage call; it is null on the last page.
+ */
+public class BaggageSummaryPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private ArrayList<BaggageSummary> items = new ArrayList<>();
+    private Long nextCursor;
+
+    public BaggageSummaryPage() {
+    }
+
+    public BaggageSummaryPage(List<BaggageSummary> items, Long nextCursor) {
+        this.items = new ArrayList<>(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BaggageSummary> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,141 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compacted, older part of a bag's history: one row per bag instead of one row per status change.
+ * Entries are appended by the history compaction job and removed from BAGGAGE_HISTORY at the same time.
+ * Encoded one entry per line as "timestamp TAB status TAB details" (tabs, newlines and backslashes
+ * in details are escaped).
+ */
+@Entity
+@Table(name = "BAGGAGE_HISTORY_COLD")
+public class ColdBaggageHistory implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long baggageId; // Same id as the Baggage row
+
+    @Column(unique = true, nullable = false)
+    private String baggageNumber;
+
+    private int entryCount;
+
+    private LocalDateTime lastEntryAt;
+
+    @Lob
+    @Column(nullable = false)
+    private String entries = "";
+
+    public ColdBaggageHistory() {
+    }
+
+    public ColdBaggageHistory(Long baggageId, String baggageNumber) {
+        this.baggageId = baggageId;
+        this.baggageNumber = baggageNumber;
+    }
+
+    /**
+     * Appends entries, which must be newer than the ones already stored and in chronological order.
+     */
+    public void append(List<BaggageHistoryEntry> newEntries) {
+        StringBuilder encoded = new StringBuilder(entries);
+        encodeTo(encoded, newEntries);
+        entries = encoded.toString();
+        entryCount += newEntries.size();
+        if (!newEntries.isEmpty()) {
+            lastEntryAt = newEntries.get(newEntries.size() - 1).getTimestamp();
+        }
+    }
+
+    /**
+     * @return The stored entries as detached BaggageHistoryEntry objects (without id and baggage reference).
+     */
+    public List<BaggageHistoryEntry> getEntries() {
+        return decode(entries);
+    }
+
+    /**
+     * @return The stored entries in their encoded form (see class comment).
+     */
+    public String getEncodedEntries() {
+        return entries;
+    }
+
+    public static void encodeTo(StringBuilder target, List<BaggageHistoryEntry> entries) {
+        for (BaggageHistoryEntry entry : entries) {
+            target.append(entry.getTimestamp()).append('\t')
+                  .append(entry.getStatus().name()).append('\t')
+                  .append(escape(entry.getDetails())).append('\n');
+        }
+    }
+
+    public static List<BaggageHistoryEntry> decode(String encoded) {
+        List<BaggageHistoryEntry> decoded = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return decoded;
+        }
+        for (String line : encoded.split("\n")) {
+            String[] fields = line.split("\t", 3);
+            BaggageHistoryEntry entry = new BaggageHistoryEntry();
+            entry.setTimestamp(LocalDateTime.parse(fields[0]));
+            entry.setStatus(BaggageStatus.valueOf(fields[1]));
+            entry.setDetails(unescape(fields[2]));
+            decoded.add(entry);
+        }
+        return decoded;
+    }
+
+    private static String escape(String details) {
+        if (details == null) {
+            return "\\0";
+        }
+        return details.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String field) {
+        if ("\\0".equals(field)) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    public Long getBaggageId() {
+        return baggageId;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public LocalDateTime getLastEntryAt() {
+        return lastEntryAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ColdBaggageHistory{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", entryCount=" + entryCount +
+               ", lastEntryAt=" + lastEntryAt +
+               '}';
+    }
+}
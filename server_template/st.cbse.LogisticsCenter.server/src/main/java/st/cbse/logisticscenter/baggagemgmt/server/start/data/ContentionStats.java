@@ -0,0 +1,58 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Optimistic-locking contention counters of one retried operation (since server startup).
+ */
+public class ContentionStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String operation;
+    private long calls;
+    private long conflicts;  // Attempts that failed on a concurrent change of the bag
+    private long retried;    // Calls that succeeded after at least one conflict
+    private long exhausted;  // Calls that still conflicted after the last attempt
+
+    public ContentionStats() {
+    }
+
+    public ContentionStats(String operation, long calls, long conflicts, long retried, long exhausted) {
+        this.operation = operation;
+        this.calls = calls;
+        this.conflicts = conflicts;
+        this.retried = retried;
+        this.exhausted = exhausted;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getRetried() {
+        return retried;
+    }
+
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentionStats{" +
+               "operation='" + operation + '\'' +
+               ", calls=" + calls +
+               ", conflicts=" + conflicts +
+               ", retried=" + retried +
+               ", exhausted=" + exhausted +
+               '}';
+    }
+}
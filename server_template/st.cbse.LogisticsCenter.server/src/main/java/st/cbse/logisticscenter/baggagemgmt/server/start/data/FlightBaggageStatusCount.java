@@ -0,0 +1,68 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Incrementally maintained number of bags of one flight that are currently in one status.
+ * One row exists per (flight, status); rows are updated in the same transaction as every status change.
+ */
+@Entity
+@Table(name = "FLIGHT_BAGGAGE_STATUS_COUNT",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"flightId", "status"}))
+public class FlightBaggageStatusCount implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flightBaggageCountSeq")
+    @SequenceGenerator(name = "flightBaggageCountSeq", sequenceName = "FLIGHT_BAGGAGE_COUNT_SEQ", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long flightId; // Plain id instead of a relationship: counters never need the Flight entity
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BaggageStatus status;
+
+    @Column(nullable = false)
+    private long bagCount;
+
+    public FlightBaggageStatusCount() {
+    }
+
+    public FlightBaggageStatusCount(Long flightId, BaggageStatus status, long bagCount) {
+        this.flightId = flightId;
+        this.status = status;
+        this.bagCount = bagCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public long getBagCount() {
+        return bagCount;
+    }
+
+    public void setBagCount(long bagCount) {
+        this.bagCount = bagCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightBaggageStatusCount{" +
+               "flightId=" + flightId +
+               ", status=" + status +
+               ", bagCount=" + bagCount +
+               '}';
+    }
+}
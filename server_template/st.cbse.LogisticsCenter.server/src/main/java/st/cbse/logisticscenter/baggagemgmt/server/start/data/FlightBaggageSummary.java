@@ -0,0 +1,55 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Number of bags of one flight in each BaggageStatus.
+ */
+public class FlightBaggageSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String flightNumber;
+    private EnumMap<BaggageStatus, Long> counts = new EnumMap<>(BaggageStatus.class);
+
+    public FlightBaggageSummary() {
+    }
+
+    public FlightBaggageSummary(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public Map<BaggageStatus, Long> getCounts() {
+        return counts;
+    }
+
+    public long getCount(BaggageStatus status) {
+        return counts.getOrDefault(status, 0L);
+    }
+
+    public void setCount(BaggageStatus status, long count) {
+        counts.put(status, count);
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightBaggageSummary{" +
+               "flightNumber='" + flightNumber + '\'' +
+               ", total=" + getTotal() +
+               ", counts=" + counts +
+               '}';
+    }
+}
@@ -0,0 +1,114 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Incrementally maintained baggage load of one hold compartment of one flight.
+ * "Ready" are bags built up for loading (CBR_READY), "loaded" are bags on board (LOADED, TRANSIT).
+ * One row exists per (flight, compartment); rows are updated in the same transaction as every status change.
+ */
+@Entity
+@Table(name = "FLIGHT_HOLD_LOAD",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"flightId", "compartment"}))
+public class FlightHoldLoad implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flightHoldLoadSeq")
+    @SequenceGenerator(name = "flightHoldLoadSeq", sequenceName = "FLIGHT_HOLD_LOAD_SEQ", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long flightId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldCompartment compartment;
+
+    @Transient
+    private double limitKg; // Current limit of the compartment for the flight's plane type, set when the row is read
+
+    private long readyBags;
+    private double readyWeightKg;
+    private long loadedBags;
+    private double loadedWeightKg;
+
+    public FlightHoldLoad() {
+    }
+
+    public FlightHoldLoad(Long flightId, HoldCompartment compartment) {
+        this.flightId = flightId;
+        this.compartment = compartment;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public HoldCompartment getCompartment() {
+        return compartment;
+    }
+
+    public double getLimitKg() {
+        return limitKg;
+    }
+
+    public void setLimitKg(double limitKg) {
+        this.limitKg = limitKg;
+    }
+
+    /**
+     * Counts bags that are already in the compartment when the row is created.
+     */
+    public void addReady(long bags, double weightKg) {
+        readyBags += bags;
+        readyWeightKg += weightKg;
+    }
+
+    public void addLoaded(long bags, double weightKg) {
+        loadedBags += bags;
+        loadedWeightKg += weightKg;
+    }
+
+    public long getReadyBags() {
+        return readyBags;
+    }
+
+    public double getReadyWeightKg() {
+        return readyWeightKg;
+    }
+
+    public long getLoadedBags() {
+        return loadedBags;
+    }
+
+    public double getLoadedWeightKg() {
+        return loadedWeightKg;
+    }
+
+    /**
+     * @return Weight of all bags assigned to this compartment, ready and loaded.
+     */
+    public double getTotalWeightKg() {
+        return readyWeightKg + loadedWeightKg;
+    }
+
+    public boolean isOverLimit() {
+        return getTotalWeightKg() > limitKg;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightHoldLoad{" +
+               "compartment=" + compartment +
+               ", ready=" + readyBags + " bags/" + readyWeightKg + " kg" +
+               ", loaded=" + loadedBags + " bags/" + loadedWeightKg + " kg" +
+               ", limitKg=" + limitKg +
+               '}';
+    }
+}
@@ -0,0 +1,84 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Baggage load of a flight per hold compartment, as kept by the incremental load aggregates.
+ */
+public class FlightLoadSheet implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String flightNumber;
+    private String planeType;
+    private ArrayList<FlightHoldLoad> compartments = new ArrayList<>();
+
+    public FlightLoadSheet() {
+    }
+
+    public FlightLoadSheet(String flightNumber, String planeType, List<FlightHoldLoad> compartments) {
+        this.flightNumber = flightNumber;
+        this.planeType = planeType;
+        this.compartments = new ArrayList<>(compartments);
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public String getPlaneType() {
+        return planeType;
+    }
+
+    public List<FlightHoldLoad> getCompartments() {
+        return compartments;
+    }
+
+    public long getTotalBags() {
+        long bags = 0;
+        for (FlightHoldLoad load : compartments) {
+            bags += load.getReadyBags() + load.getLoadedBags();
+        }
+        return bags;
+    }
+
+    public double getTotalWeightKg() {
+        double weight = 0;
+        for (FlightHoldLoad load : compartments) {
+            weight += load.getTotalWeightKg();
+        }
+        return weight;
+    }
+
+    public double getLoadedWeightKg() {
+        double weight = 0;
+        for (FlightHoldLoad load : compartments) {
+            weight += load.getLoadedWeightKg();
+        }
+        return weight;
+    }
+
+    /**
+     * @return true if any compartment is above its plane-type limit.
+     */
+    public boolean isOverLimit() {
+        for (FlightHoldLoad load : compartments) {
+            if (load.isOverLimit()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightLoadSheet{" +
+               "flightNumber='" + flightNumber + '\'' +
+               ", planeType='" + planeType + '\'' +
+               ", totalBags=" + getTotalBags() +
+               ", totalWeightKg=" + getTotalWeightKg() +
+               ", compartments=" + compartments +
+               '}';
+    }
+}
@@ -0,0 +1,20 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+/**
+ * Cargo compartments a bag can be loaded into. Assigned when the bag becomes CBR_READY.
+ */
+public enum HoldCompartment {
+    FORWARD("Forward Hold"),
+    AFT("Aft Hold"),
+    BULK("Bulk Hold");
+
+    private final String displayName;
+
+    HoldCompartment(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
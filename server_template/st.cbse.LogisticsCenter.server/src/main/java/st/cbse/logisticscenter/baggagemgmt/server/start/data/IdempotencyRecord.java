@@ -0,0 +1,84 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Claimed idempotency key of a remote call (bag drop or status update) and the outcome of that call.
+ * The key is the primary key, so a retry cannot claim it a second time: the insert fails on the
+ * constraint and the retry is answered from this row instead of executing again.
+ */
+@Entity
+@Table(name = "IDEMPOTENCY_RECORD",
+       indexes = @Index(name = "IDX_IDEMPOTENCY_CREATED_AT", columnList = "createdAt")) // Purging expired keys
+public class IdempotencyRecord implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String DROP = "DROP";
+    public static final String STATUS = "STATUS";
+
+    @Id
+    @Column(length = 160)
+    private String id; // Operation + ":" + client key, the same key may be used once per operation
+
+    @Column(nullable = false, length = 16)
+    private String operation;
+
+    @Column(nullable = false)
+    private String baggageNumber;
+
+    @Enumerated(EnumType.STRING)
+    private BaggageStatus resultStatus; // Status of the bag when the call completed, null if it had no effect
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String operation, String key, String baggageNumber) {
+        this.id = idOf(operation, key);
+        this.operation = operation;
+        this.baggageNumber = baggageNumber;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public static String idOf(String operation, String key) {
+        return operation + ":" + key;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public BaggageStatus getResultStatus() {
+        return resultStatus;
+    }
+
+    public void setResultStatus(BaggageStatus resultStatus) {
+        this.resultStatus = resultStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+               "id='" + id + '\'' +
+               ", baggageNumber='" + baggageNumber + '\'' +
+               ", resultStatus=" + resultStatus +
+               ", createdAt=" + createdAt +
+               '}';
+    }
+}
@@ -0,0 +1,107 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary encoding of a flight manifest ("BMF"), written row by row so it can be streamed.
+ *
+ * Layout (java.io.DataOutput primitives, big endian):
+ *   header   int magic 0x424D4602 ("BMF" + version 2), UTF flightNumber, long generatedAt (time),
+ *            byte n + n UTF status names, byte m + m UTF compartment names
+ *   row      byte 1, UTF baggageNumber, double weightKg, byte status index, byte compartment index (-1 = none),
+ *            boolean heldForInspection, long lastScanAt (time; Long.MIN_VALUE = none)
+ *   trailer  byte 0, long row count
+ * Times are the server's LocalDateTime values as epoch milliseconds at offset UTC, i.e. without a time zone.
+ * Status and compartment indexes refer to the name tables in the header, so readers do not depend on enum order.
+ * A row takes about 24 bytes plus the baggage number, roughly half of the CSV form. Version 1 stored the weight as a
+ * float, which rounds it; read still accepts version 1 manifests.
+ */
+public final class ManifestBinaryFormat {
+
+    public static final int MAGIC = 0x424D4602;
+    private static final int MAGIC_V1 = 0x424D4601; // weightKg as float
+
+    private static final byte ROW = 1;
+    private static final byte END = 0;
+
+    private ManifestBinaryFormat() {
+    }
+
+    public static void writeHeader(DataOutputStream out, String flightNumber, LocalDateTime generatedAt) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeUTF(flightNumber);
+        out.writeLong(epochMillis(generatedAt));
+        out.writeByte(BaggageStatus.values().length);
+        for (BaggageStatus status : BaggageStatus.values()) {
+            out.writeUTF(status.name());
+        }
+        out.writeByte(HoldCompartment.values().length);
+        for (HoldCompartment compartment : HoldCompartment.values()) {
+            out.writeUTF(compartment.name());
+        }
+    }
+
+    public static void writeRow(DataOutputStream out, ManifestEntry entry) throws IOException {
+        out.writeByte(ROW);
+        out.writeUTF(entry.getBaggageNumber());
+        out.writeDouble(entry.getWeightKg());
+        out.writeByte(entry.getStatus().ordinal());
+        out.writeByte(entry.getHoldCompartment() != null ? entry.getHoldCompartment().ordinal() : -1);
+        out.writeBoolean(entry.isHeldForInspection());
+        out.writeLong(entry.getLastScanAt() != null ? epochMillis(entry.getLastScanAt()) : Long.MIN_VALUE);
+    }
+
+    public static void writeTrailer(DataOutputStream out, long rows) throws IOException {
+        out.writeByte(END);
+        out.writeLong(rows);
+    }
+
+    /**
+     * Reads a manifest, handing each row to the consumer as it is decoded.
+     * @return The flight number from the header.
+     * @throws IOException if the stream is not a manifest, is truncated, or its row count does not match the trailer.
+     */
+    public static String read(DataInputStream in, Consumer<ManifestEntry> rows) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC && magic != MAGIC_V1) {
+            throw new IOException("Not a baggage manifest (bad magic number)");
+        }
+        String flightNumber = in.readUTF();
+        in.readLong(); // generatedAt
+        BaggageStatus[] statuses = new BaggageStatus[in.readUnsignedByte()];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = BaggageStatus.valueOf(in.readUTF());
+        }
+        HoldCompartment[] compartments = new HoldCompartment[in.readUnsignedByte()];
+        for (int i = 0; i < compartments.length; i++) {
+            compartments[i] = HoldCompartment.valueOf(in.readUTF());
+        }
+        long count = 0;
+        while (in.readByte() == ROW) {
+            String baggageNumber = in.readUTF();
+            double weightKg = magic == MAGIC_V1 ? in.readFloat() : in.readDouble();
+            BaggageStatus status = statuses[in.readUnsignedByte()];
+            byte compartment = in.readByte();
+            boolean held = in.readBoolean();
+            long lastScan = in.readLong();
+            rows.accept(new ManifestEntry(baggageNumber, weightKg, status, compartment >= 0 ? compartments[compartment] : null,
+                    held, lastScan != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(Math.floorDiv(lastScan, 1000L),
+                            (int) Math.floorMod(lastScan, 1000L) * 1_000_000, ZoneOffset.UTC) : null));
+            count++;
+        }
+        long expected = in.readLong();
+        if (expected != count) {
+            throw new IOException("Manifest of flight " + flightNumber + " has " + count + " rows, trailer says " + expected);
+        }
+        return flightNumber;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,72 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One bag on a flight's loading manifest.
+ * Filled on the server by a JPQL constructor projection, on the client by ManifestBinaryFormat.read.
+ */
+public class ManifestEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String baggageNumber;
+    private double weightKg;
+    private BaggageStatus status;
+    private HoldCompartment holdCompartment; // null until the bag is CBR_READY
+    private boolean heldForInspection;
+    private LocalDateTime lastScanAt; // Newest history entry (hot, compacted or archived), null if there is none
+
+    public ManifestEntry() {
+    }
+
+    public ManifestEntry(String baggageNumber, double weightKg, BaggageStatus status, HoldCompartment holdCompartment,
+                         boolean heldForInspection, LocalDateTime lastScanAt) {
+        this.baggageNumber = baggageNumber;
+        this.weightKg = weightKg;
+        this.status = status;
+        this.holdCompartment = holdCompartment;
+        this.heldForInspection = heldForInspection;
+        this.lastScanAt = lastScanAt;
+    }
+
+    public String getBaggageNumber() {
+        return baggageNumber;
+    }
+
+    public double getWeightKg() {
+        return weightKg;
+    }
+
+    public BaggageStatus getStatus() {
+        return status;
+    }
+
+    public HoldCompartment getHoldCompartment() {
+        return holdCompartment;
+    }
+
+    public boolean isHeldForInspection() {
+        return heldForInspection;
+    }
+
+    public LocalDateTime getLastScanAt() {
+        return lastScanAt;
+    }
+
+    public ManifestEntry withLastScanAt(LocalDateTime lastScanAt) {
+        return new ManifestEntry(baggageNumber, weightKg, status, holdCompartment, heldForInspection, lastScanAt);
+    }
+
+    @Override
+    public String toString() {
+        return "ManifestEntry{" +
+               "baggageNumber='" + baggageNumber + '\'' +
+               ", weightKg=" + weightKg +
+               ", status=" + status +
+               ", holdCompartment=" + holdCompartment +
+               ", heldForInspection=" + heldForInspection +
+               ", lastScanAt=" + lastScanAt +
+               '}';
+    }
+}
@@ -0,0 +1,25 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+/**
+ * Output formats of the per-flight baggage manifest.
+ */
+public enum ManifestFormat {
+    CSV("csv", "text/csv; charset=UTF-8"),
+    BINARY("bmf", "application/octet-stream"); // See ManifestBinaryFormat
+
+    private final String extension;
+    private final String contentType;
+
+    ManifestFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,104 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Point-in-time metrics of one baggage processing stage (queue depth, worker count and counters since startup).
+ */
+public class PipelineStageStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private BaggageProcessingStage stage;
+    private int workers;
+    private int queueDepth;
+    private int queueCapacity;
+    private long submitted;
+    private long processed;
+    private long failed;
+    private long rejected; // Submissions that found the queue full and went to the backlog instead
+    private int backlog; // Rejected bags waiting to be queued again
+    private long missedDeadlines; // Bags taken up by the stage after their flight's baggage deadline
+    private long maxLatenessSeconds;
+
+    public PipelineStageStats() {
+    }
+
+    public PipelineStageStats(BaggageProcessingStage stage, int workers, int queueDepth, int queueCapacity,
+                              long submitted, long processed, long failed, long rejected, int backlog,
+                              long missedDeadlines, long maxLatenessSeconds) {
+        this.stage = stage;
+        this.workers = workers;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.submitted = submitted;
+        this.processed = processed;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.backlog = backlog;
+        this.missedDeadlines = missedDeadlines;
+        this.maxLatenessSeconds = maxLatenessSeconds;
+    }
+
+    public BaggageProcessingStage getStage() {
+        return stage;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * @return How late the latest bag was when the stage took it up, in seconds (0 if no deadline was missed).
+     */
+    public long getMaxLatenessSeconds() {
+        return maxLatenessSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineStageStats{" +
+               "stage=" + stage +
+               ", workers=" + workers +
+               ", queueDepth=" + queueDepth + "/" + queueCapacity +
+               ", submitted=" + submitted +
+               ", processed=" + processed +
+               ", failed=" + failed +
+               ", rejected=" + rejected +
+               ", backlog=" + backlog +
+               ", missedDeadlines=" + missedDeadlines +
+               ", maxLatenessSeconds=" + maxLatenessSeconds +
+               '}';
+    }
+}
@@ -0,0 +1,107 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Point-in-time counters of the tag-scan ingestion (since server startup).
+ */
+public class ScanIngestionStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private long received;
+    private long malformed;
+    private long applied;
+    private long rejected; // Reported status not reachable from the bag's status at the time of the scan
+    private long unknownBags;
+    private long failed; // Scans whose transaction failed even when retried per bag
+    private long batches;
+    private int queueDepth;
+    private int queueCapacity;
+    private int lanes;
+
+    public ScanIngestionStats() {
+    }
+
+    public ScanIngestionStats(long received, long malformed, long applied, long rejected, long unknownBags, long failed,
+                              long batches, int queueDepth, int queueCapacity, int lanes) {
+        this.received = received;
+        this.malformed = malformed;
+        this.applied = applied;
+        this.rejected = rejected;
+        this.unknownBags = unknownBags;
+        this.failed = failed;
+        this.batches = batches;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.lanes = lanes;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getMalformed() {
+        return malformed;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getUnknownBags() {
+        return unknownBags;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return Number of single-threaded lanes the scans are spread over (by baggage number).
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * @return Number of scans that have been fully handled (applied, rejected, unknown bag or failed).
+     */
+    public long getCompleted() {
+        return applied + rejected + unknownBags + failed;
+    }
+
+    public double getAverageBatchSize() {
+        return batches > 0 ? (double) getCompleted() / batches : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanIngestionStats{" +
+               "received=" + received +
+               ", malformed=" + malformed +
+               ", applied=" + applied +
+               ", rejected=" + rejected +
+               ", unknownBags=" + unknownBags +
+               ", failed=" + failed +
+               ", batches=" + batches +
+               ", queueDepth=" + queueDepth + "/" + queueCapacity +
+               ", lanes=" + lanes +
+               '}';
+    }
+}
@@ -1,9 +1,21 @@
 package st.cbse.logisticscenter.baggagemgmt.server.start.interfaces;
 
 import jakarta.ejb.Remote;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDrop;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BagDropResult;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry; // NEW IMPORT: Required for getBaggageHistory
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSelectionCriteria;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSnapshot;
 import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatusView;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSummaryPage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ContentionStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightBaggageSummary;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.FlightLoadSheet;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ManifestFormat;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.PipelineStageStats;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.ScanIngestionStats;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight; // IMPT: Ensure this import path for Flight matches its actual location and package declaration
 
 import java.util.List;
@@ -19,10 +31,37 @@ public interface IBaggageManagementRemote {
      * @param baggageNumber A unique identifier for the baggage.
      * @param weightKg The weight of the baggage in kilograms.
      * @param flight The flight this baggage is associated with.
-     * @return The persisted Baggage entity, or null if creation failed (e.g., baggageNumber already exists).
+     * @return The persisted Baggage entity (status DROPPED_OFF, processing continues asynchronously),
+     *         or null if creation failed (e.g., baggageNumber already exists).
      */
     Baggage dropBaggage(String baggageNumber, double weightKg, Flight flight);
 
+    /**
+     * Idempotent variant of dropBaggage for clients that retry, e.g. kiosks on flaky connections.
+     * The first call with a key drops the bag; every retry with the same key returns that bag
+     * without dropping it again, from a response cache or the stored key. Keys are kept for
+     * baggage.idempotency.retentionHours (default 24).
+     *
+     * @param idempotencyKey Client-generated unique key of this drop (e.g. a UUID), reused unchanged on retries.
+     * @param baggageNumber A unique identifier for the baggage.
+     * @param weightKg The weight of the baggage in kilograms.
+     * @param flight The flight this baggage is associated with.
+     * @return The dropped Baggage, or null if the drop failed (e.g. the baggageNumber was already dropped
+     *         under another key, or the key was already used for a different bag).
+     */
+    Baggage dropBaggage(String idempotencyKey, String baggageNumber, double weightKg, Flight flight);
+
+    /**
+     * Records many bag drops in one call, e.g. for check-in kiosks at peak times.
+     * All tags are validated against existing baggage with a single query, and the new
+     * Baggage rows and their initial history entries are written as JDBC batches.
+     * A rejected item (duplicate tag, unknown flight, invalid weight) does not affect the others.
+     *
+     * @param drops The bags to drop off.
+     * @return One result per submitted drop, in the same order.
+     */
+    List<BagDropResult> dropBaggageBatch(List<BagDrop> drops);
+
     /**
      * Retrieves baggage details by its unique baggage number.
      *
@@ -31,6 +70,24 @@ public interface IBaggageManagementRemote {
      */
     Baggage getBaggageByNumber(String baggageNumber);
 
+    /**
+     * Retrieves only the current status of a bag, e.g. for tag scans and "where is my bag".
+     * Served from the server's in-memory tracking index without a database query,
+     * so it is much cheaper than getBaggageByNumber.
+     *
+     * @param baggageNumber The unique identifier of the baggage.
+     * @return The committed status of the bag, or null if not found.
+     */
+    BaggageStatus getBaggageStatus(String baggageNumber);
+
+    /**
+     * Retrieves the current state of a bag for display: status, hold, flight route and the time of its newest
+     * history entry, but not the history itself (see getBaggageHistory). Much smaller than getBaggageByNumber.
+     * @param baggageNumber The unique identifier of the baggage.
+     * @return The view, or null if the bag was not found.
+     */
+    BaggageStatusView getBaggageStatusView(String baggageNumber);
+
     /**
      * Updates the status of a specific baggage item.
      * NOTE: For automated updates with history, prefer recordBaggageStatus.
@@ -39,24 +96,111 @@ public interface IBaggageManagementRemote {
      * @param baggageNumber The unique identifier of the baggage.
      * @param newStatus The new status to set for the baggage.
      * @return The updated Baggage entity, or null if the baggage was not found.
+     * @throws IllegalStateException if the bag cannot move from its current status to newStatus
+     *         (a remote client receives it wrapped in an EJBException).
      */
     Baggage updateBaggageStatus(String baggageNumber, BaggageStatus newStatus);
 
     /**
      * Retrieves all baggage records in the system.
+     * NOTE: Loads every bag with its full history in one response. Prefer getBaggagePage or
+     * exportBaggageSummaries for anything but small data sets.
      * @return A list of all Baggage entities.
      */
     List<Baggage> getAllBaggage();
 
+    /**
+     * Retrieves one page of baggage summaries (no history), ordered by bag id.
+     * Uses keyset pagination: the cost of a page does not depend on how far into the table it is.
+     * @param afterId Cursor from the previous page (BaggageSummaryPage.getNextCursor()), or null for the first page.
+     * @param pageSize Maximum number of items, capped at 500.
+     * @return The page; its nextCursor is null when there are no further bags.
+     */
+    BaggageSummaryPage getBaggagePage(Long afterId, int pageSize);
+
+    /**
+     * Streams all baggage summaries into a CSV file on the server, walking the table with a
+     * forward-only cursor so memory use stays constant regardless of the number of bags.
+     * @return The HTTP path the file can be downloaded from (/st.cbse.LogisticsCenter.server/exports/{fileName}),
+     *         or null if the export failed.
+     */
+    String exportBaggageSummaries();
+
+    /**
+     * Writes the loading manifest of a flight (every bag with weight, status, hold compartment and last scan time)
+     * into a file on the server, streaming the rows from a forward-only cursor in constant memory.
+     * The same manifest is served over HTTP at /st.cbse.LogisticsCenter.server/manifests/{flightNumber}?format=csv|binary.
+     * @param flightNumber The unique flight number.
+     * @param format CSV, or BINARY for the compact encoding described in ManifestBinaryFormat.
+     * @return The HTTP path the file can be downloaded from (/st.cbse.LogisticsCenter.server/exports/{fileName}),
+     *         or null if the flight does not exist or the export failed.
+     */
+    String exportFlightManifest(String flightNumber, ManifestFormat format);
+
     // --- NEW METHODS FOR AUTOMATED TRACKING, HISTORY, AND ADMIN CONTROL ---
 
     /**
      * Initiates the automated processing workflow for a new baggage item.
      * This should be called once the baggage is dropped off.
+     * Processing is asynchronous: the bag is queued for the stage matching its current status
+     * (after the calling transaction commits) and this method returns immediately.
      * @param baggageNumber The unique identifier of the baggage.
      */
     void startBaggageProcessing(String baggageNumber);
 
+    /**
+     * Number of bags of a flight in each BaggageStatus, e.g. for ops dashboards.
+     * Served from counters that are maintained on every status change, BAGGAGE is not scanned.
+     * @param flightNumber The unique flight number.
+     * @return The per-status counts, or null if the flight does not exist.
+     */
+    FlightBaggageSummary getFlightBaggageSummary(String flightNumber);
+
+    /**
+     * Administrator function: recomputes all per-flight status counters from the baggage table.
+     * Also runs automatically every night.
+     * @return The number of (flight, status) groups found.
+     */
+    int rebuildFlightBaggageCounters();
+
+    /**
+     * Retrieves the baggage load sheet of a flight: number and weight of bags ready for loading and
+     * loaded, per hold compartment, against the compartment limits of the flight's plane type.
+     * Read from incrementally maintained aggregates, bags are not re-summed.
+     * @param flightNumber The flight number.
+     * @return The load sheet, or null if the flight does not exist.
+     */
+    FlightLoadSheet getFlightLoadSheet(String flightNumber);
+
+    /**
+     * Returns queue depth, worker count, throughput and deadline-miss counters for each automated processing stage.
+     * @return One entry per BaggageProcessingStage, in processing order.
+     */
+    List<PipelineStageStats> getPipelineStats();
+
+    /**
+     * Returns how often the optimistic version check of each retried baggage operation failed
+     * and how many calls needed a retry or gave up after the last attempt.
+     * @return One entry per operation that has been called since server startup, sorted by name.
+     */
+    List<ContentionStats> getContentionStats();
+
+    /**
+     * Returns the counters of the tag-scan ingestion (scans received over the scan socket or drop directory,
+     * applied in micro-batches). Scan lines have the form "baggageNumber,scanPoint[,status]".
+     * @return The ingestion counters since server startup.
+     */
+    ScanIngestionStats getScanIngestionStats();
+
+    /**
+     * Changes the number of lanes the tag-scan ingestion spreads scans over (by baggage number, one thread per lane).
+     * Scans already queued are applied on the old lanes first, so the scans of a bag stay in order.
+     * @param lanes The new number of lanes, between 1 and the server's baggage.scan.maxLanes.
+     * @return The previous number of lanes.
+     * @throws IllegalArgumentException if the number of lanes is out of range; nothing is changed then.
+     */
+    int setScanIngestionLanes(int lanes);
+
     /**
      * Records a status update for a baggage item, adding an entry to its history.
      * This method is crucial for tracking the detailed journey of the baggage.
@@ -67,6 +211,18 @@ public interface IBaggageManagementRemote {
      */
     void recordBaggageStatus(String baggageNumber, BaggageStatus newStatus, String details);
 
+    /**
+     * Idempotent variant of recordBaggageStatus: a retry with the same key does not record the status
+     * (and its history entry) a second time but returns the result of the first call.
+     * @param idempotencyKey Client-generated unique key of this update, reused unchanged on retries.
+     * @param baggageNumber The baggage identifier.
+     * @param newStatus The new BaggageStatus.
+     * @param details Optional details about the status change.
+     * @return The status of the bag after the first call with this key, or null if the bag was not found
+     *         or the key was already used for a different bag.
+     */
+    BaggageStatus recordBaggageStatus(String idempotencyKey, String baggageNumber, BaggageStatus newStatus, String details);
+
     /**
      * Retrieves the full history of status changes for a specific baggage item.
      * This provides a chronological log of where and when the baggage was at each stage.
@@ -82,4 +238,48 @@ public interface IBaggageManagementRemote {
      * @param hold True to hold the baggage, false to release it and resume processing.
      */
     void setBaggageHoldStatus(String baggageNumber, boolean hold);
+
+    /**
+     * Administrator function to hold many bags at once, e.g. a whole flight or every bag dropped
+     * in a time window. Uses set-based updates instead of one call per bag.
+     * Bags that are already held or past loading are not affected.
+     * @param criteria Which bags to hold (flight number and/or drop time window, at least one must be set).
+     * @return The number of bags put on hold.
+     */
+    int holdBaggage(BaggageSelectionCriteria criteria);
+
+    /**
+     * Administrator function to release all matching held bags. Released bags restart automated
+     * processing from security, handed to the pipeline in batches.
+     * @param criteria Which bags to release (flight number and/or drop time window, at least one must be set).
+     * @return The number of bags released.
+     */
+    int releaseBaggage(BaggageSelectionCriteria criteria);
+
+    /**
+     * Retrieves the compact status snapshot of a bag: current status, time of the last transition,
+     * number of transitions and the time spent in each status. Reading it never touches the history.
+     * @param baggageNumber The unique identifier of the baggage.
+     * @return The snapshot, or null if not found.
+     */
+    BaggageSnapshot getBaggageSnapshot(String baggageNumber);
+
+    /**
+     * Administrator function to move history entries older than the given age into the compacted
+     * per-bag cold history. getBaggageHistory keeps returning the complete history afterwards.
+     * The same compaction also runs hourly (age from baggage.history.compactAfterDays, default 30).
+     * @param olderThanDays Minimum age of the entries to compact, in days.
+     * @return The number of history entries compacted.
+     */
+    int compactBaggageHistory(int olderThanDays);
+
+    /**
+     * Administrator function to move compacted history whose newest entry is older than the given age
+     * out of the database into compressed archive files on the server's disk (partitioned by month).
+     * getBaggageHistory keeps returning the complete history afterwards.
+     * The same archival also runs nightly (age from baggage.history.archiveAfterDays, default 180).
+     * @param olderThanDays Minimum age of the newest compacted entry of a bag, in days.
+     * @return The number of bags whose history was archived.
+     */
+    int archiveBaggageHistory(int olderThanDays);
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Changes to an in-memory view of committed data (departure board, tracking index, ...), collected per transaction
+ * and handed to the view once the transaction has committed, so the view never shows a change that was rolled back.
+ * Within a transaction the last change per key wins, and keys are applied in the order they were first changed.
+ *
+ * Transactions do not complete in commit order, so two transactions changing the same key may reach the view in the
+ * wrong order. Each transaction therefore takes a stamp from one increasing counter in beforeCompletion, and the view
+ * keeps the change with the higher stamp. As long as the changed row is locked before beforeCompletion (flushed, or
+ * written by an UPDATE statement), the stamps of two changes to it follow their commit order.
+ *
+ * Without a transaction a change is applied immediately; in a transaction that is marked for rollback it is dropped.
+ */
+public final class AfterCommitChanges<K, V> {
+
+    /**
+     * Applies the committed changes of one transaction to the view.
+     */
+    @FunctionalInterface
+    public interface Applier<K, V> {
+        void apply(Map<K, V> changes, long stamp);
+    }
+
+    private static final AtomicLong STAMPS = new AtomicLong();
+
+    private final String resourceKey;
+    private final Applier<K, V> applier;
+
+    /**
+     * @param resourceKey Key of the pending changes in the transaction's resources, unique per view.
+     */
+    public AfterCommitChanges(String resourceKey, Applier<K, V> applier) {
+        this.resourceKey = resourceKey;
+        this.applier = applier;
+    }
+
+    /**
+     * Records a change, applied when the current transaction commits.
+     */
+    public void put(TransactionSynchronizationRegistry txRegistry, K key, V value) {
+        int status = txRegistry.getTransactionStatus();
+        if (status == Status.STATUS_NO_TRANSACTION) {
+            applier.apply(Collections.singletonMap(key, value), STAMPS.incrementAndGet());
+        } else if (status == Status.STATUS_ACTIVE) {
+            pending(txRegistry).put(key, value);
+        }
+        // Otherwise the transaction is marked for rollback or already completing: the change never commits.
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<K, V> pending(TransactionSynchronizationRegistry txRegistry) {
+        Map<K, V> pending = (Map<K, V>) txRegistry.getResource(resourceKey);
+        if (pending == null) {
+            Map<K, V> changes = new LinkedHashMap<>();
+            txRegistry.putResource(resourceKey, changes);
+            txRegistry.registerInterposedSynchronization(new Synchronization() {
+                private long stamp;
+
+                @Override
+                public void beforeCompletion() {
+                    stamp = STAMPS.incrementAndGet(); // Row locks are still held here
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        applier.apply(changes, stamp);
+                    }
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,237 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Departure;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory departure board: every flight that has not departed yet, ordered by departure time, overall and per
+ * origin. A window of departures ("FRA, the next 4 hours") is a range of a skip list, read without a database
+ * round trip and without locks.
+ *
+ * Warmed at startup by streaming a projection of all upcoming flights. Afterwards it is written through: added and
+ * rescheduled flights are collected per transaction and applied once the transaction has committed
+ * (AfterCommitChanges), so the board never shows a flight that was rolled back, and a change that completes after a
+ * newer one of the same flight is ignored. While a flight is being moved to its new time, a concurrent reader may
+ * briefly miss it. Departed flights are never returned; they are dropped from memory once a minute.
+ *
+ * Configuration (system properties):
+ *   flight.board.maxRows  most departures returned by one query (default 500)
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class DepartureBoard {
+
+    private static final Logger LOGGER = Logger.getLogger(DepartureBoard.class.getName());
+
+    private static final int DEFAULT_MAX_ROWS = 500;
+    private static final int WARMUP_FETCH_SIZE = 1000;
+    private static final long LEFT_MARKER_TTL_MS = 60_000;
+
+    // Departure time first; the id keeps flights leaving at the same minute apart.
+    private static final Comparator<Departure> BY_DEPARTURE =
+            Comparator.comparing(Departure::getStartTime).thenComparing(Departure::getId);
+
+    // A flight's place on the board and the stamp of the change that put it there. A flight that left the board
+    // keeps a slot without departure for a while, so that an older change completing late cannot bring it back.
+    private static final class Slot {
+        private final Departure departure;
+        private final long stamp;
+        private final long leftAt;
+
+        Slot(Departure departure, long stamp) {
+            this.departure = departure;
+            this.stamp = stamp;
+            this.leftAt = departure == null ? System.currentTimeMillis() : 0;
+        }
+    }
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    private final AfterCommitChanges<Long, Departure> changes =
+            new AfterCommitChanges<>(DepartureBoard.class.getName() + ".pending", this::applyAll);
+    private final Map<Long, Slot> byId = new ConcurrentHashMap<>(); // Where each flight is on the board
+    private final NavigableSet<Departure> all = new ConcurrentSkipListSet<>(BY_DEPARTURE);
+    private final Map<String, NavigableSet<Departure>> byOrigin = new ConcurrentHashMap<>();
+    private int maxRows;
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    void warmUp() {
+        maxRows = Math.max(1, Integer.getInteger("flight.board.maxRows", DEFAULT_MAX_ROWS));
+        long count = 0;
+        try (Stream<Departure> rows = em.createQuery(
+                "SELECT new st.cbse.logisticscenter.flightmgmt.server.start.data.Departure("
+                + "f.id, f.flightNumber, a.name, a.iataCode, f.origin, f.destination, f.startTime, f.planeType) "
+                + "FROM Flight f JOIN f.airline a WHERE f.startTime > :now", Departure.class)
+                .setParameter("now", LocalDateTime.now())
+                .setHint("org.hibernate.fetchSize", WARMUP_FETCH_SIZE)
+                .getResultStream()) {
+            for (Departure departure : (Iterable<Departure>) rows::iterator) {
+                // computeIfAbsent: a change committed while warming up is newer than the row read here.
+                byId.computeIfAbsent(departure.getId(), id -> {
+                    add(departure);
+                    return new Slot(departure, 0);
+                });
+                count++;
+            }
+        }
+        LOGGER.info("Departure board warmed up with " + count + " upcoming flight(s).");
+    }
+
+    /**
+     * Returns the departures in a time window, in departure order.
+     * @param origin Departure location, or null for all.
+     * @param from Earliest departure (inclusive); departed flights are never returned.
+     * @param to Latest departure (exclusive), or null for no upper bound.
+     * @param maxResults At most this many departures (capped at flight.board.maxRows).
+     */
+    public List<Departure> departures(String origin, LocalDateTime from, LocalDateTime to, int maxResults) {
+        List<Departure> result = new ArrayList<>();
+        NavigableSet<Departure> departures = origin == null ? all : byOrigin.get(key(origin));
+        if (departures == null) {
+            return result;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Departure lower = from == null || !from.isAfter(now) ? probe(now, Long.MAX_VALUE) : probe(from, Long.MIN_VALUE);
+        if (to != null && !to.isAfter(lower.getStartTime())) {
+            return result;
+        }
+        NavigableSet<Departure> window = to == null
+                ? departures.tailSet(lower, false)
+                : departures.subSet(lower, false, probe(to, Long.MIN_VALUE), false);
+        int limit = Math.min(maxResults, maxRows);
+        for (Iterator<Departure> it = window.iterator(); it.hasNext() && result.size() < limit; ) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Records a new or changed flight, applied when the caller's transaction commits
+     * (immediately if there is no transaction).
+     */
+    public void updateAfterCommit(Flight flight) {
+        updateAllAfterCommit(List.of(flight));
+    }
+
+    /**
+     * Bulk variant of updateAfterCommit, e.g. for an imported schedule chunk.
+     */
+    public void updateAllAfterCommit(List<Flight> flights) {
+        if (txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            em.flush(); // Locks the flight rows until commit, so the changes' stamps follow the commit order
+        }
+        for (Flight flight : flights) {
+            changes.put(txRegistry, flight.getId(), new Departure(flight.getId(), flight.getFlightNumber(),
+                    flight.getAirline().getName(), flight.getAirline().getIataCode(), flight.getOrigin(),
+                    flight.getDestination(), flight.getStartTime(), flight.getPlaneType()));
+        }
+    }
+
+    /**
+     * Drops the flights that have departed. Queries already skip them, this only frees the memory.
+     */
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    public void dropDeparted() {
+        int[] dropped = {0};
+        for (Departure departure : all.headSet(probe(LocalDateTime.now(), Long.MAX_VALUE), true)) {
+            byId.computeIfPresent(departure.getId(), (id, current) -> {
+                if (current.departure != departure) {
+                    return current; // Rescheduled meanwhile, apply has already taken the old entry off
+                }
+                remove(departure);
+                dropped[0]++;
+                return new Slot(null, current.stamp);
+            });
+        }
+        long expired = System.currentTimeMillis() - LEFT_MARKER_TTL_MS;
+        byId.values().removeIf(slot -> slot.departure == null && slot.leftAt < expired);
+        if (dropped[0] > 0) {
+            LOGGER.fine("Departure board dropped " + dropped[0] + " departed flight(s), " + all.size() + " left.");
+        }
+    }
+
+    private void applyAll(Map<Long, Departure> departures, long stamp) {
+        departures.values().forEach(departure -> apply(departure, stamp));
+    }
+
+    // Moves the flight to its new place on the board; a flight without a future departure leaves it.
+    private void apply(Departure departure, long stamp) {
+        byId.compute(departure.getId(), (id, previous) -> {
+            if (previous != null && previous.stamp > stamp) {
+                return previous; // A newer change of this flight got here first
+            }
+            if (previous != null && previous.departure != null) {
+                remove(previous.departure);
+            }
+            if (departure.getStartTime() == null || !departure.getStartTime().isAfter(LocalDateTime.now())) {
+                return new Slot(null, stamp);
+            }
+            add(departure);
+            return new Slot(departure, stamp);
+        });
+    }
+
+    private void add(Departure departure) {
+        all.add(departure);
+        if (departure.getOrigin() != null) {
+            byOrigin.computeIfAbsent(key(departure.getOrigin()), k -> new ConcurrentSkipListSet<>(BY_DEPARTURE)).add(departure);
+        }
+    }
+
+    private void remove(Departure departure) {
+        all.remove(departure);
+        if (departure.getOrigin() != null) {
+            NavigableSet<Departure> departures = byOrigin.get(key(departure.getOrigin()));
+            if (departures != null) {
+                departures.remove(departure);
+            }
+        }
+    }
+
+    private static String key(String origin) {
+        return origin.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Bound for range queries: sorts before (Long.MIN_VALUE) or after (Long.MAX_VALUE) every flight leaving at time.
+    private static Departure probe(LocalDateTime time, long id) {
+        return new Departure(id, null, null, null, null, null, time, null);
+    }
+}
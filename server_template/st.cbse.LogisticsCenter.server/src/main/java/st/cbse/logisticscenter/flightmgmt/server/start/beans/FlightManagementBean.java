@@ -1,16 +1,29 @@
 package st.cbse.logisticscenter.flightmgmt.server.start.beans;
 
+import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.NoResultException; // Import for NoResultException
 import jakarta.persistence.TypedQuery; // Import for TypedQuery
 
+import st.cbse.logisticscenter.baggagemgmt.server.start.beans.BaggagePipeline;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Departure;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightListRow;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightSearchPage;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ReferenceCacheStats;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ScheduleImportReport;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.SeatInventoryStats;
 import st.cbse.logisticscenter.flightmgmt.server.start.interfaces.IFlightManagementRemote;
 
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,9 +33,32 @@ public class FlightManagementBean implements IFlightManagementRemote {
 
     private static final Logger LOGGER = Logger.getLogger(FlightManagementBean.class.getName());
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String LIST_ROW_SELECT =
+            "SELECT new st.cbse.logisticscenter.flightmgmt.server.start.data.FlightListRow("
+            + "f.id, f.flightNumber, a.name, a.iataCode, f.origin, f.destination, f.startTime, "
+            + "f.basePrice, f.pricePerBaggage, f.planeType, f.capacity, f.currentPassengers) "
+            + "FROM Flight f JOIN f.airline a ";
+
     @PersistenceContext(unitName = "JPAUnit") // Keeping as JPAUnit as requested
     private EntityManager em;
 
+    @EJB
+    private BaggagePipeline baggagePipeline; // Re-prioritises queued bags when a departure moves
+
+    @EJB
+    private ReferenceDataCache referenceData; // Cached Flight/Airline lookups by id, flight number and IATA code
+
+    @EJB
+    private SeatAllocator seatAllocator;
+
+    @EJB
+    private FlightScheduleImporter scheduleImporter;
+
+    @EJB
+    private DepartureBoard departureBoard; // Upcoming flights in departure order, kept in memory
+
     // Existing methods
 
     @Override
@@ -51,12 +87,11 @@ public class FlightManagementBean implements IFlightManagementRemote {
     @Override
     public Airline getAirlineByIataCode(String iataCode) {
         try {
-            return em.createQuery("SELECT a FROM Airline a WHERE a.iataCode = :iataCode", Airline.class)
-                     .setParameter("iataCode", iataCode.toUpperCase())
-                     .getSingleResult();
-        } catch (jakarta.persistence.NoResultException e) {
-            LOGGER.log(Level.INFO, "No airline found with IATA code: {0}", iataCode);
-            return null;
+            Airline airline = referenceData.findAirlineByIataCode(iataCode.toUpperCase());
+            if (airline == null) {
+                LOGGER.log(Level.INFO, "No airline found with IATA code: {0}", iataCode);
+            }
+            return airline;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error retrieving airline by IATA code", e);
             return null;
@@ -72,16 +107,13 @@ public class FlightManagementBean implements IFlightManagementRemote {
                             String planeType, String planeNumber, int capacity, int currentPassengers) { // Parameters added
         try {
             // Check if flight number already exists
-            List<Flight> existingFlights = em.createQuery("SELECT f FROM Flight f WHERE f.flightNumber = :flightNumber", Flight.class)
-                                             .setParameter("flightNumber", flightNumber)
-                                             .getResultList();
-            if (!existingFlights.isEmpty()) {
+            if (referenceData.findFlightByNumber(flightNumber) != null) {
                 LOGGER.log(Level.WARNING, "Failed to add flight: Flight number {0} already exists.", flightNumber);
                 return null;
             }
 
             // Ensure the passed airline is a managed entity
-            Airline managedAirline = em.find(Airline.class, airline.getId());
+            Airline managedAirline = referenceData.findAirline(airline.getId());
             if (managedAirline == null) {
                 LOGGER.log(Level.WARNING, "Failed to add flight: Associated airline with ID {0} not found or not managed.", airline.getId());
                 return null;
@@ -92,6 +124,7 @@ public class FlightManagementBean implements IFlightManagementRemote {
                                        basePrice, pricePerBaggage, planeType, planeNumber,
                                        capacity, currentPassengers); // Pass new fields
             em.persist(flight);
+            departureBoard.updateAfterCommit(flight);
             LOGGER.log(Level.INFO, "Flight {0} added for airline {1}.", new Object[]{flightNumber, managedAirline.getName()});
             return flight;
         } catch (Exception e) {
@@ -131,20 +164,187 @@ public class FlightManagementBean implements IFlightManagementRemote {
         }
     }
 
+    @Override
+    public List<FlightListRow> getFlightList() {
+        try {
+            return em.createQuery(LIST_ROW_SELECT + "ORDER BY f.startTime DESC", FlightListRow.class)
+                     .getResultList();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving the flight list", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public FlightSearchPage searchFlights(String origin, String destination, LocalDateTime fromTime, LocalDateTime toTime,
+                                          FlightSearchPage.Cursor after, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        try {
+            List<String> conditions = new ArrayList<>();
+            if (origin != null) {
+                conditions.add("f.origin = :origin");
+            }
+            if (destination != null) {
+                conditions.add("f.destination = :destination");
+            }
+            if (fromTime != null) {
+                conditions.add("f.startTime >= :fromTime");
+            }
+            if (toTime != null) {
+                conditions.add("f.startTime < :toTime");
+            }
+            if (after != null) {
+                conditions.add("(f.startTime > :afterTime OR (f.startTime = :afterTime AND f.id > :afterId))");
+            }
+            // JOIN FETCH: the EAGER airline would otherwise be loaded with one extra SELECT per flight.
+            String jpql = "SELECT f FROM Flight f JOIN FETCH f.airline"
+                    + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                    + " ORDER BY f.startTime, f.id";
+
+            TypedQuery<Flight> query = em.createQuery(jpql, Flight.class);
+            if (origin != null) {
+                query.setParameter("origin", origin);
+            }
+            if (destination != null) {
+                query.setParameter("destination", destination);
+            }
+            if (fromTime != null) {
+                query.setParameter("fromTime", fromTime);
+            }
+            if (toTime != null) {
+                query.setParameter("toTime", toTime);
+            }
+            if (after != null) {
+                query.setParameter("afterTime", after.getStartTime());
+                query.setParameter("afterId", after.getId());
+            }
+            // Fetch one extra row to know whether another page follows.
+            List<Flight> rows = query.setMaxResults(size + 1).getResultList();
+            if (rows.size() <= size) {
+                return new FlightSearchPage(new ArrayList<>(rows), null);
+            }
+            List<Flight> items = new ArrayList<>(rows.subList(0, size));
+            Flight last = items.get(size - 1);
+            return new FlightSearchPage(items, new FlightSearchPage.Cursor(last.getStartTime(), last.getId()));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error searching flights", e);
+            return new FlightSearchPage(new ArrayList<>(), null);
+        }
+    }
+
     // --- NEW METHOD IMPLEMENTATION ---
+    @Override
+    public List<Departure> getUpcomingDepartures(String origin, int hours) {
+        LocalDateTime now = LocalDateTime.now();
+        return departureBoard.departures(origin, now, now.plusHours(Math.max(0, hours)), Integer.MAX_VALUE);
+    }
+
     @Override
     public Flight getFlightByFlightNumber(String flightNumber) {
         try {
-            TypedQuery<Flight> query = em.createQuery("SELECT f FROM Flight f WHERE f.flightNumber = :flightNumber", Flight.class);
-            query.setParameter("flightNumber", flightNumber);
-            return query.getSingleResult();
-        } catch (NoResultException e) {
-            LOGGER.log(Level.INFO, "No flight found with flight number: {0}", flightNumber);
-            return null;
+            Flight flight = referenceData.findFlightByNumber(flightNumber);
+            if (flight == null) {
+                LOGGER.log(Level.INFO, "No flight found with flight number: {0}", flightNumber);
+            }
+            return flight;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error retrieving flight by flight number", e);
             e.printStackTrace(); // Keep stack trace for debugging
             return null;
         }
     }
+
+    // No transaction around the whole file: the importer commits chunk by chunk.
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ScheduleImportReport importFlightSchedule(String iataCode, String fileName) {
+        try (BufferedReader in = Files.newBufferedReader(FlightScheduleImporter.importFile(fileName), StandardCharsets.UTF_8)) {
+            return scheduleImporter.importSchedule(iataCode, in, message -> LOGGER.fine(message));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error importing flight schedule " + fileName + " for airline " + iataCode, e);
+            return null;
+        }
+    }
+
+    // No transaction of its own: SeatAllocator commits every seat claim separately.
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public boolean bookSeats(String flightNumber, int seats) {
+        if (seats <= 0) {
+            LOGGER.log(Level.WARNING, "Cannot book {0} seats on flight {1}.", new Object[]{seats, flightNumber});
+            return false;
+        }
+        try {
+            Flight flight = referenceData.findFlightByNumber(flightNumber);
+            if (flight == null) {
+                LOGGER.log(Level.WARNING, "Cannot book seats: Flight {0} not found.", flightNumber);
+                return false;
+            }
+            return seatAllocator.book(flight.getId(), seats);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error booking seats on flight " + flightNumber, e);
+            return false;
+        }
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public boolean cancelSeats(String flightNumber, int seats) {
+        if (seats <= 0) {
+            return false;
+        }
+        try {
+            Flight flight = referenceData.findFlightByNumber(flightNumber);
+            if (flight == null) {
+                LOGGER.log(Level.WARNING, "Cannot cancel seats: Flight {0} not found.", flightNumber);
+                return false;
+            }
+            return seatAllocator.cancel(flight.getId(), seats);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error cancelling seats on flight " + flightNumber, e);
+            return false;
+        }
+    }
+
+    @Override
+    public SeatInventoryStats getSeatInventoryStats() {
+        return seatAllocator.getStats();
+    }
+
+    @Override
+    public void setSeatTokenBlockSize(int blockSize) {
+        seatAllocator.setTokenBlockSize(blockSize);
+    }
+
+    @Override
+    public List<ReferenceCacheStats> getReferenceCacheStats() {
+        return referenceData.getStats();
+    }
+
+    @Override
+    public void setReferenceCacheEnabled(boolean enabled) {
+        referenceData.setEnabled(enabled);
+    }
+
+    @Override
+    public Flight updateFlightStartTime(String flightNumber, LocalDateTime startTime) {
+        try {
+            Flight flight = referenceData.findFlightByNumber(flightNumber);
+            if (flight == null) {
+                LOGGER.log(Level.WARNING, "Cannot update start time: Flight {0} not found.", flightNumber);
+                return null;
+            }
+            // The change reaches the second-level cache when this transaction commits.
+            LocalDateTime previous = flight.getStartTime();
+            flight.setStartTime(startTime);
+            departureBoard.updateAfterCommit(flight);
+            em.flush(); // The pipeline expects the flight's row to be updated already
+            baggagePipeline.departureChangedAfterCommit(flight.getId(), startTime);
+            LOGGER.log(Level.INFO, "Start time of flight {0} changed from {1} to {2}.", new Object[]{flightNumber, previous, startTime});
+            return flight;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error updating flight start time", e);
+            return null;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ScheduleImportReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Bulk import of an airline's flight schedule (see ScheduleLine for the line format).
+ *
+ * The schedule is read line by line, so its size is not limited by memory. Flight numbers are checked against
+ * a set of all scheduled flight numbers loaded once up front (and extended by every accepted line), instead of
+ * one query per flight. Accepted lines are inserted in chunks of CHUNK_SIZE flights, each in a transaction of its
+ * own, as JDBC insert batches; a chunk needs no SELECT at all, the airline is only referenced (the name the
+ * departure board shows comes from the second-level cache). If a chunk fails (e.g. a flight number added
+ * concurrently by addFlight), its lines are inserted one by one, so only the offending lines are rejected.
+ * Chunks already committed stay imported if a later one fails.
+ *
+ * Configuration (system properties):
+ *   flight.import.dir  directory of schedule files for importFlightSchedule (default "imports" in the WildFly data directory)
+ */
+@Stateless
+public class FlightScheduleImporter {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightScheduleImporter.class.getName());
+
+    private static final int CHUNK_SIZE = 1000; // Flights per transaction
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @EJB
+    private ReferenceDataCache referenceData;
+
+    @EJB
+    private DepartureBoard departureBoard;
+
+    // Counters and messages of one import.
+    private static final class Run {
+        private final Consumer<String> progress;
+        private final List<String> errors = new ArrayList<>();
+        private long lines;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+
+        Run(Consumer<String> progress) {
+            this.progress = progress;
+        }
+
+        void reject(int lineNumber, String reason) {
+            String message = "line " + lineNumber + ": " + reason;
+            if (errors.size() < ScheduleImportReport.MAX_ERRORS) {
+                errors.add(message);
+            }
+            progress.accept(message);
+        }
+    }
+
+    /**
+     * Imports the schedule read from in for the given airline.
+     * @param progress Receives a message for every rejected line and after every committed chunk.
+     * @return The report, or null if there is no airline with this IATA code.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ScheduleImportReport importSchedule(String iataCode, BufferedReader in, Consumer<String> progress) throws IOException {
+        long start = System.nanoTime();
+        Airline airline = referenceData.findAirlineByIataCode(iataCode.toUpperCase(Locale.ROOT));
+        if (airline == null) {
+            LOGGER.warning("Schedule import rejected: no airline with IATA code " + iataCode + ".");
+            return null;
+        }
+        FlightScheduleImporter self = sessionContext.getBusinessObject(FlightScheduleImporter.class);
+        Set<String> scheduled = new HashSet<>(em.createQuery("SELECT f.flightNumber FROM Flight f", String.class)
+                                                .setHint("org.hibernate.fetchSize", 10_000)
+                                                .getResultList());
+
+        Run run = new Run(progress);
+        List<ScheduleLine> chunk = new ArrayList<>(CHUNK_SIZE);
+        int lineNumber = 0;
+        for (String text = in.readLine(); text != null; text = in.readLine()) {
+            lineNumber++;
+            run.lines++;
+            ScheduleLine line;
+            try {
+                line = ScheduleLine.parse(lineNumber, text);
+            } catch (IllegalArgumentException e) {
+                run.rejected++;
+                run.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (line == null) {
+                continue;
+            }
+            if (!scheduled.add(line.getFlightNumber())) {
+                run.duplicates++;
+                run.reject(lineNumber, "duplicate flight number " + line.getFlightNumber());
+                continue;
+            }
+            chunk.add(line);
+            if (chunk.size() == CHUNK_SIZE) {
+                write(self, airline.getId(), chunk, run);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(self, airline.getId(), chunk, run);
+        }
+
+        ScheduleImportReport report = new ScheduleImportReport(airline.getIataCode(), run.lines, run.imported, run.duplicates,
+                run.rejected, run.errors, (System.nanoTime() - start) / 1_000_000);
+        LOGGER.info(report.toString());
+        return report;
+    }
+
+    /**
+     * Inserts the flights of one chunk in one transaction.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void insert(Long airlineId, List<ScheduleLine> lines) {
+        Airline airline = em.getReference(Airline.class, airlineId); // Only the foreign key is needed
+        List<Flight> flights = new ArrayList<>(lines.size());
+        for (ScheduleLine line : lines) {
+            Flight flight = line.toFlight(airline);
+            em.persist(flight);
+            flights.add(flight);
+        }
+        em.flush(); // Sent as JDBC batches of hibernate.jdbc.batch_size; sequence ids make that possible
+        departureBoard.updateAllAfterCommit(flights);
+    }
+
+    /**
+     * Resolves a schedule file name against the import directory.
+     * @throws IllegalArgumentException if the name points outside the import directory.
+     */
+    public static Path importFile(String fileName) throws IOException {
+        String configured = System.getProperty("flight.import.dir");
+        Path dir = Files.createDirectories(configured != null
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("jboss.server.data.dir", System.getProperty("java.io.tmpdir")), "imports"));
+        Path file = dir.resolve(fileName).normalize();
+        if (!file.startsWith(dir.normalize())) {
+            throw new IllegalArgumentException("Schedule file " + fileName + " is outside the import directory " + dir);
+        }
+        return file;
+    }
+
+    private void write(FlightScheduleImporter self, Long airlineId, List<ScheduleLine> chunk, Run run) {
+        try {
+            self.insert(airlineId, chunk);
+            run.imported += chunk.size();
+        } catch (RuntimeException e) {
+            LOGGER.warning("Schedule chunk of " + chunk.size() + " flight(s) failed (" + rootMessage(e) + "), inserting them one by one.");
+            for (ScheduleLine line : chunk) {
+                try {
+                    self.insert(airlineId, List.of(line));
+                    run.imported++;
+                } catch (RuntimeException lineFailure) {
+                    run.rejected++;
+                    run.reject(line.getLineNumber(), "flight " + line.getFlightNumber() + " not imported: " + rootMessage(lineFailure));
+                }
+            }
+        }
+        run.progress.accept("# " + run.lines + " line(s) read, " + run.imported + " flight(s) imported, "
+                + run.duplicates + " duplicate(s), " + run.rejected + " rejected");
+        chunk.clear();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
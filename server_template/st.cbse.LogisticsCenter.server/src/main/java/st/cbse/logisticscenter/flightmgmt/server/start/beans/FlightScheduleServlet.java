@@ -0,0 +1,50 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ScheduleImportReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Imports an airline's flight schedule uploaded as the request body, read while it arrives:
+ *   POST /st.cbse.LogisticsCenter.server/schedules/{iataCode}   (text/csv, UTF-8, see ScheduleLine)
+ * Answers text/plain, one line per rejected schedule line ("line 17: ..."), a "#" progress line per committed
+ * chunk and a final "# done: ..." summary. Responds 404 if the airline does not exist.
+ */
+@WebServlet("/schedules/*")
+public class FlightScheduleServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    @EJB
+    private transient FlightScheduleImporter scheduleImporter; // Injected again by the container, never serialized
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo();
+        if (path == null || path.length() <= 1) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected /schedules/{iataCode}");
+            return;
+        }
+        String iataCode = path.substring(1);
+
+        response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter out = response.getWriter();
+        BufferedReader in = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+        ScheduleImportReport report = scheduleImporter.importSchedule(iataCode, in, out::println);
+        if (report == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Airline " + iataCode + " not found");
+            return;
+        }
+        out.println("# done: " + report);
+    }
+}
@@ -0,0 +1,229 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.Cache;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ReferenceCacheStats;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Cached lookups of the flight reference data (Flight, Airline), which is read on every booking and bag drop
+ * but rarely written.
+ *
+ * Three layers, all in-process:
+ *   - the JPA second-level cache holds the Flight and Airline entities by id (both are @Cacheable);
+ *   - flight-number and IATA-code maps resolve the natural keys to ids, so a lookup by key is a map read plus a
+ *     second-level hit instead of a query;
+ *   - key lookups that miss the maps run as cacheable queries (query cache).
+ * Invalidation: entity changes made through JPA update the second-level entries when their transaction commits,
+ * JPQL bulk UPDATEs evict the affected region, and SeatInventory's native seat UPDATEs evict only their flight
+ * (evictFlight). Writes also invalidate the query cache (by table). The key maps
+ * hold ids only, which never change; an entry whose entity is gone or carries another key is dropped on use.
+ * clear() empties all three layers.
+ *
+ * Lookups run in the caller's transaction and return entities managed there.
+ *
+ * Configuration (system properties):
+ *   flight.referenceCache.enabled  use the caches (default true); can be switched at runtime with setEnabled
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class ReferenceDataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ReferenceDataCache.class.getName());
+
+    // With the caches switched off, reads go to the database even if the second-level cache holds the entity.
+    private static final Map<String, Object> BYPASS = Map.of("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS);
+
+    private static final class Counter {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        void count(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+
+        ReferenceCacheStats stats(String name, long entries) {
+            return new ReferenceCacheStats(name, hits.sum(), misses.sum(), entries);
+        }
+
+        void reset() {
+            hits.reset();
+            misses.reset();
+        }
+    }
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    // Flights changed by statements that bypass the entity (seat counts), evicted again once their change committed
+    private final AfterCommitChanges<Long, Boolean> changedFlights =
+            new AfterCommitChanges<>(ReferenceDataCache.class.getName() + ".changedFlights",
+                    (changes, stamp) -> changes.keySet().forEach(id -> cache().evict(Flight.class, id)));
+
+    private final Map<String, Long> flightIdsByNumber = new ConcurrentHashMap<>();
+    private final Map<String, Long> airlineIdsByIataCode = new ConcurrentHashMap<>();
+    private final Counter flightNumbers = new Counter();
+    private final Counter iataCodes = new Counter();
+    private final Counter flights = new Counter();
+    private final Counter airlines = new Counter();
+    private volatile boolean enabled = Boolean.parseBoolean(System.getProperty("flight.referenceCache.enabled", "true"));
+
+    public Flight findFlight(Long id) {
+        if (!enabled) {
+            return em.find(Flight.class, id, BYPASS);
+        }
+        flights.count(cache().contains(Flight.class, id));
+        return em.find(Flight.class, id);
+    }
+
+    public Airline findAirline(Long id) {
+        if (!enabled) {
+            return em.find(Airline.class, id, BYPASS);
+        }
+        airlines.count(cache().contains(Airline.class, id));
+        return em.find(Airline.class, id);
+    }
+
+    /**
+     * @return The flight with this number, or null if there is none.
+     */
+    public Flight findFlightByNumber(String flightNumber) {
+        if (enabled) {
+            Long id = flightIdsByNumber.get(flightNumber);
+            if (id != null) {
+                Flight flight = findFlight(id);
+                if (flight != null && flightNumber.equals(flight.getFlightNumber())) {
+                    flightNumbers.count(true);
+                    return flight;
+                }
+                flightIdsByNumber.remove(flightNumber, id); // E.g. the inserting transaction rolled back
+            }
+            flightNumbers.count(false);
+        }
+        List<Flight> found = query("SELECT f FROM Flight f WHERE f.flightNumber = :key", Flight.class, flightNumber);
+        if (found.isEmpty()) {
+            return null;
+        }
+        Flight flight = found.get(0);
+        if (enabled) {
+            flightIdsByNumber.put(flightNumber, flight.getId());
+        }
+        return flight;
+    }
+
+    /**
+     * @param iataCode Upper-case IATA code.
+     * @return The airline with this code, or null if there is none.
+     */
+    public Airline findAirlineByIataCode(String iataCode) {
+        if (enabled) {
+            Long id = airlineIdsByIataCode.get(iataCode);
+            if (id != null) {
+                Airline airline = findAirline(id);
+                if (airline != null && iataCode.equals(airline.getIataCode())) {
+                    iataCodes.count(true);
+                    return airline;
+                }
+                airlineIdsByIataCode.remove(iataCode, id);
+            }
+            iataCodes.count(false);
+        }
+        List<Airline> found = query("SELECT a FROM Airline a WHERE a.iataCode = :key", Airline.class, iataCode);
+        if (found.isEmpty()) {
+            return null;
+        }
+        Airline airline = found.get(0);
+        if (enabled) {
+            airlineIdsByIataCode.put(iataCode, airline.getId());
+        }
+        return airline;
+    }
+
+    /**
+     * Drops one flight from the key map and the second-level cache, e.g. after it was changed outside JPA.
+     */
+    public void evictFlight(Flight flight) {
+        flightIdsByNumber.remove(flight.getFlightNumber(), flight.getId());
+        cache().evict(Flight.class, flight.getId());
+    }
+
+    /**
+     * Drops one flight's second-level entry after its row was changed by a native statement (SeatInventory),
+     * without touching the rest of the Flight region. The entry is evicted now and again when the transaction
+     * commits, so a concurrent reader cannot leave the state from before the change in the cache.
+     */
+    public void evictFlight(Long flightId) {
+        cache().evict(Flight.class, flightId);
+        changedFlights.put(txRegistry, flightId, Boolean.TRUE);
+    }
+
+    /**
+     * Empties the key maps, the Flight and Airline second-level regions and the query cache.
+     */
+    public void clear() {
+        flightIdsByNumber.clear();
+        airlineIdsByIataCode.clear();
+        cache().evictAll(); // Only Flight and Airline are cacheable; this also empties the query cache
+        LOGGER.info("Flight reference data caches cleared.");
+    }
+
+    /**
+     * Switches the caches on or off (off: every lookup reads from the database). Clears the caches and counters.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        clear();
+        for (Counter counter : List.of(flightNumbers, iataCodes, flights, airlines)) {
+            counter.reset();
+        }
+        LOGGER.info("Flight reference data caches " + (enabled ? "enabled" : "disabled") + ".");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<ReferenceCacheStats> getStats() {
+        return List.of(
+                flightNumbers.stats("flightNumber -> Flight", flightIdsByNumber.size()),
+                iataCodes.stats("iataCode -> Airline", airlineIdsByIataCode.size()),
+                flights.stats("Flight (second-level)", -1),
+                airlines.stats("Airline (second-level)", -1));
+    }
+
+    private <T> List<T> query(String jpql, Class<T> type, String key) {
+        TypedQuery<T> query = em.createQuery(jpql, type).setParameter("key", key);
+        if (enabled) {
+            query.setHint("org.hibernate.cacheable", true);
+        } else {
+            query.setHint("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS);
+        }
+        return query.getResultList();
+    }
+
+    private Cache cache() {
+        return em.getEntityManagerFactory().getCache();
+    }
+}
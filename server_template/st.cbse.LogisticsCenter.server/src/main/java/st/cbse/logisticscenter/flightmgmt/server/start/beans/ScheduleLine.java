@@ -0,0 +1,109 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * One departure of an airline's flight schedule, read by FlightScheduleImporter from a CSV line
+ * "flightNumber,origin,destination,startTime,basePrice,pricePerBaggage,planeType,planeNumber,capacity",
+ * e.g. "LH400,FRA,JFK,2025-07-01T10:15,499.0,35.0,B748,D-ABYA,364". The start time is ISO local date-time
+ * (a space instead of the T is accepted). Fields must not contain commas.
+ */
+public final class ScheduleLine {
+
+    static final String HEADER = "flightNumber,origin,destination,startTime,basePrice,pricePerBaggage,planeType,planeNumber,capacity";
+
+    private final int lineNumber;
+    private final String flightNumber;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime startTime;
+    private final double basePrice;
+    private final double pricePerBaggage;
+    private final String planeType;
+    private final String planeNumber;
+    private final int capacity;
+
+    private ScheduleLine(int lineNumber, String[] fields, LocalDateTime startTime, double basePrice, double pricePerBaggage, int capacity) {
+        this.lineNumber = lineNumber;
+        this.flightNumber = fields[0];
+        this.origin = fields[1];
+        this.destination = fields[2];
+        this.startTime = startTime;
+        this.basePrice = basePrice;
+        this.pricePerBaggage = pricePerBaggage;
+        this.planeType = fields[6];
+        this.planeNumber = fields[7];
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return The departure, or null if the line is blank, a comment (#) or the header line.
+     * @throws IllegalArgumentException if the line is malformed; the message says why.
+     */
+    public static ScheduleLine parse(int lineNumber, String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.regionMatches(true, 0, "flightNumber,", 0, 13)) {
+            return null;
+        }
+        String[] fields = trimmed.split(",", -1);
+        if (fields.length != 9) {
+            throw new IllegalArgumentException("expected 9 fields (" + HEADER + "), found " + fields.length);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+            if (fields[i].isEmpty()) {
+                throw new IllegalArgumentException("field " + HEADER.split(",")[i] + " is empty");
+            }
+        }
+        LocalDateTime startTime;
+        try {
+            startTime = LocalDateTime.parse(fields[3].replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("startTime '" + fields[3] + "' is not a date-time like 2025-07-01T10:15");
+        }
+        double basePrice = number(fields[4], "basePrice");
+        double pricePerBaggage = number(fields[5], "pricePerBaggage");
+        int capacity;
+        try {
+            capacity = Integer.parseInt(fields[8]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("capacity '" + fields[8] + "' is not a whole number");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        return new ScheduleLine(lineNumber, fields, startTime, basePrice, pricePerBaggage, capacity);
+    }
+
+    private static double number(String field, String name) {
+        try {
+            double value = Double.parseDouble(field);
+            if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " '" + field + "' is not a number");
+        }
+    }
+
+    /**
+     * @return A new, unbooked flight of the given airline.
+     */
+    public Flight toFlight(Airline airline) {
+        return new Flight(airline, flightNumber, origin, destination, startTime, basePrice, pricePerBaggage,
+                planeType, planeNumber, capacity, 0);
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+}
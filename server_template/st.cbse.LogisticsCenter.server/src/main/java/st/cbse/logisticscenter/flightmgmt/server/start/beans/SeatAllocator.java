@@ -0,0 +1,262 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+
+import st.cbse.logisticscenter.flightmgmt.server.start.data.SeatInventoryStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Books seats on flights through SeatInventory's conditional UPDATEs, optionally from pre-allocated seat tokens.
+ *
+ * Without tokens (block size 0, the default) every booking is one conditional UPDATE of the flight row. That
+ * cannot oversell, but all bookers of one flight queue on that row's lock. For very hot flights, seat tokens
+ * take the row out of the common path: each flight gets a fixed set of stripes, and a booking is served
+ * from the stripe of its thread by a compare-and-set on an in-memory counter. Only an empty stripe goes to the
+ * database, claiming a whole block of seats with one UPDATE under that stripe's lock. Near the capacity limit,
+ * where no full block is left, bookings claim their exact seats, and then take tokens left over in other stripes.
+ *
+ * Seats held as tokens are already counted in Flight.currentPassengers, so a flight shows up to
+ * stripes x blockSize more passengers than have booked, and it only reports itself full once all stripes are
+ * empty. A failed claim is remembered per flight as "fewer than n seats free", so later bookings of n or more
+ * seats skip the UPDATE while smaller parties can still book the last seats; a cancellation forgets it.
+ * Held tokens are given back when the block size is changed and on shutdown; after a crash they stay
+ * counted until corrected by hand.
+ *
+ * Every database call runs in a transaction of its own (this bean does not take part in the caller's), so a
+ * block of tokens is only handed out once its UPDATE has committed.
+ *
+ * Configuration (system properties):
+ *   flight.seats.tokenBlock  seats claimed per token block, 0 books every call directly (default 0);
+ *                            can be changed at runtime with setTokenBlockSize
+ *   flight.seats.stripes     token stripes per flight (default: number of available processors)
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class SeatAllocator {
+
+    private static final Logger LOGGER = Logger.getLogger(SeatAllocator.class.getName());
+
+    private static final class Stripe {
+        private final AtomicInteger tokens = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock(); // Serialises refills and the final drain
+        private boolean closed; // Guarded by lock; set once the stripe's tokens were given back
+
+        boolean tryTake(int seats) {
+            for (;;) {
+                int available = tokens.get();
+                if (available < seats) {
+                    return false;
+                }
+                if (tokens.compareAndSet(available, available - seats)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    // A claim of this many seats (or more) failed. Never reused: a cancellation installs a new instance, so
+    // a claim that failed before the cancellation cannot record its result over the reset (see FlightSeats).
+    private static final class Shortage {
+        private final int seats;
+
+        Shortage(int seats) {
+            this.seats = seats;
+        }
+    }
+
+    // The token stripes of one flight.
+    private static final class FlightSeats {
+        private final Stripe[] stripes;
+        private final AtomicReference<Shortage> shortage = new AtomicReference<>(new Shortage(Integer.MAX_VALUE));
+
+        FlightSeats(int count) {
+            stripes = new Stripe[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        // Records that a claim of seats failed, unless seats were released since seen was read.
+        void claimFailed(Shortage seen, int seats) {
+            if (seats < seen.seats) {
+                shortage.compareAndSet(seen, new Shortage(seats));
+            }
+        }
+
+        void seatsReleased() {
+            shortage.set(new Shortage(Integer.MAX_VALUE));
+        }
+    }
+
+    @EJB
+    private SeatInventory inventory;
+
+    private final int stripes = Math.max(1, Integer.getInteger("flight.seats.stripes", Runtime.getRuntime().availableProcessors()));
+    private volatile int blockSize = Math.max(0, Integer.getInteger("flight.seats.tokenBlock", 0));
+    // Replaced as a whole when the block size changes; stripes of the old map are closed and drained.
+    private volatile Map<Long, FlightSeats> pools = new ConcurrentHashMap<>();
+
+    private final LongAdder bookings = new LongAdder();
+    private final LongAdder seatsBooked = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder tokenBookings = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+
+    /**
+     * Books seats on a flight.
+     * @return true if the seats were booked, false if the flight does not have that many free.
+     */
+    public boolean book(Long flightId, int seats) {
+        boolean booked = allocate(flightId, seats);
+        if (booked) {
+            bookings.increment();
+            seatsBooked.add(seats);
+        } else {
+            rejected.increment();
+        }
+        return booked;
+    }
+
+    /**
+     * Gives booked seats back to the flight.
+     * @return true if the seats were released, false if fewer are booked.
+     */
+    public boolean cancel(Long flightId, int seats) {
+        boolean released = inventory.release(flightId, seats);
+        FlightSeats flight = pools.get(flightId);
+        if (released && flight != null) {
+            flight.seatsReleased();
+        }
+        return released;
+    }
+
+    /**
+     * Gives all held tokens back and switches to the new block size (0 turns seat tokens off). Resets the counters.
+     */
+    public synchronized void setTokenBlockSize(int blockSize) {
+        Map<Long, FlightSeats> previous = pools;
+        this.blockSize = Math.max(0, blockSize);
+        pools = new ConcurrentHashMap<>();
+        giveBack(previous);
+        for (LongAdder counter : new LongAdder[] {bookings, seatsBooked, rejected, tokenBookings, updates}) {
+            counter.reset();
+        }
+        LOGGER.info("Seat tokens " + (this.blockSize > 0 ? "in blocks of " + this.blockSize + " seats, " + stripes + " stripe(s) per flight." : "disabled."));
+    }
+
+    public SeatInventoryStats getStats() {
+        long held = 0;
+        for (FlightSeats flight : pools.values()) {
+            for (Stripe stripe : flight.stripes) {
+                held += stripe.tokens.get();
+            }
+        }
+        return new SeatInventoryStats(blockSize, stripes, bookings.sum(), seatsBooked.sum(), rejected.sum(),
+                tokenBookings.sum(), updates.sum(), held);
+    }
+
+    @PreDestroy
+    void stop() {
+        giveBack(pools);
+    }
+
+    private boolean allocate(Long flightId, int seats) {
+        for (;;) {
+            Map<Long, FlightSeats> current = pools;
+            int block = blockSize;
+            if (block < seats) { // Tokens off, or more seats than a block holds
+                return claim(flightId, seats);
+            }
+            FlightSeats flight = current.computeIfAbsent(flightId, id -> new FlightSeats(stripes));
+            Stripe home = flight.stripes[(int) (Thread.currentThread().threadId() % flight.stripes.length)];
+            if (home.tryTake(seats)) {
+                tokenBookings.increment();
+                return true;
+            }
+            boolean closed;
+            home.lock.lock();
+            try {
+                // A pool created after the switch in setTokenBlockSize could be missed when the tokens are given back.
+                closed = home.closed || current != pools;
+                if (!closed) {
+                    if (home.tryTake(seats)) { // Refilled by another thread while this one waited
+                        tokenBookings.increment();
+                        return true;
+                    }
+                    Shortage seen = flight.shortage.get();
+                    if (block < seen.seats) {
+                        if (claim(flightId, block)) {
+                            home.tokens.addAndGet(block - seats);
+                            return true;
+                        }
+                        flight.claimFailed(seen, block);
+                    }
+                }
+            } finally {
+                home.lock.unlock();
+            }
+            if (closed) {
+                continue; // The block size changed meanwhile; book from the new pools
+            }
+            // Less than a block left: claim the exact seats, then use up what the other stripes still hold.
+            // Once that fails too, further bookings of as many seats only look at the stripes.
+            Shortage seen = flight.shortage.get();
+            if (seats < block && seats < seen.seats) {
+                if (claim(flightId, seats)) {
+                    return true;
+                }
+                flight.claimFailed(seen, seats);
+            }
+            for (Stripe stripe : flight.stripes) {
+                if (stripe.tryTake(seats)) {
+                    tokenBookings.increment();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean claim(Long flightId, int seats) {
+        updates.increment();
+        return inventory.claim(flightId, seats);
+    }
+
+    // Closes the stripes and returns their tokens to the flights.
+    private void giveBack(Map<Long, FlightSeats> closing) {
+        for (Map.Entry<Long, FlightSeats> entry : closing.entrySet()) {
+            int held = 0;
+            for (Stripe stripe : entry.getValue().stripes) {
+                stripe.lock.lock();
+                try {
+                    stripe.closed = true;
+                    held += stripe.tokens.getAndSet(0);
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            if (held > 0) {
+                try {
+                    inventory.release(entry.getKey(), held);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Could not give " + held + " held seat(s) back to flight id " + entry.getKey() + ".", e);
+                }
+            }
+        }
+    }
+}
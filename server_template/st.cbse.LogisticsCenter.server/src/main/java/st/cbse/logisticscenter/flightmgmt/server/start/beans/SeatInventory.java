@@ -0,0 +1,61 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Seat counter of a flight (Flight.currentPassengers against Flight.capacity), changed only by conditional
+ * UPDATEs. The check and the increment are one statement, so concurrent bookings can neither oversell a flight
+ * nor lose each other's seats, and no booking reads the flight first or holds a lock beyond its own UPDATE.
+ *
+ * Both methods run in the caller's transaction. A JPQL bulk UPDATE of Flight would evict the whole Flight
+ * second-level cache region, so the UPDATEs are native statements declared against a query space of their own
+ * (SEAT_SPACE, no entity table): Hibernate evicts no entity region for them, and only the changed flight's entry
+ * is evicted (ReferenceDataCache.evictFlight). The cached key lookups hold ids only, which a booking never changes.
+ * SeatAllocator's seat tokens keep these statements rare on hot flights.
+ */
+@Stateless
+public class SeatInventory {
+
+    private static final String SPACES_HINT = "org.hibernate.query.native.spaces";
+    private static final String SEAT_SPACE = "FLIGHTS_SEATS";
+
+    @PersistenceContext(unitName = "JPAUnit")
+    private EntityManager em;
+
+    @EJB
+    private ReferenceDataCache referenceCache;
+
+    /**
+     * Books seats if the flight still has that many free.
+     * @return true if the seats were booked, false if the flight is too full or does not exist.
+     */
+    public boolean claim(Long flightId, int seats) {
+        return update("UPDATE \"FLIGHTS\" SET \"currentPassengers\" = \"currentPassengers\" + ?1 "
+                + "WHERE \"id\" = ?2 AND \"currentPassengers\" + ?1 <= \"capacity\"", flightId, seats);
+    }
+
+    /**
+     * Gives booked seats back.
+     * @return true if the seats were released, false if fewer are booked or the flight does not exist.
+     */
+    public boolean release(Long flightId, int seats) {
+        return update("UPDATE \"FLIGHTS\" SET \"currentPassengers\" = \"currentPassengers\" - ?1 "
+                + "WHERE \"id\" = ?2 AND \"currentPassengers\" >= ?1", flightId, seats);
+    }
+
+    // Identifiers are quoted like Hibernate's own SQL (hibernate.globally_quoted_identifiers)
+    private boolean update(String sql, Long flightId, int seats) {
+        boolean updated = em.createNativeQuery(sql)
+                            .setParameter(1, seats)
+                            .setParameter(2, flightId)
+                            .setHint(SPACES_HINT, SEAT_SPACE)
+                            .executeUpdate() == 1;
+        if (updated) {
+            referenceCache.evictFlight(flightId);
+        }
+        return updated;
+    }
+}
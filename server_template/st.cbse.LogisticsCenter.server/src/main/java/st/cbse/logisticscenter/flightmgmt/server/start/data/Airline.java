@@ -1,5 +1,6 @@
 package st.cbse.logisticscenter.flightmgmt.server.start.data;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -8,6 +9,7 @@ import java.io.Serializable;
 import java.util.Objects;
 
 @Entity
+@Cacheable // Reference data, see ReferenceDataCache
 public class Airline implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,73 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One line of the departure board: a scheduled flight with its airline, route and departure time.
+ * Seat counts are not part of it, they change with every booking; read them from the flight itself.
+ */
+public class Departure implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String flightNumber;
+    private String airlineName;
+    private String airlineIataCode;
+    private String origin;
+    private String destination;
+    private LocalDateTime startTime;
+    private String planeType;
+
+    public Departure() {
+    }
+
+    public Departure(Long id, String flightNumber, String airlineName, String airlineIataCode, String origin,
+                     String destination, LocalDateTime startTime, String planeType) {
+        this.id = id;
+        this.flightNumber = flightNumber;
+        this.airlineName = airlineName;
+        this.airlineIataCode = airlineIataCode;
+        this.origin = origin;
+        this.destination = destination;
+        this.startTime = startTime;
+        this.planeType = planeType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public String getAirlineName() {
+        return airlineName;
+    }
+
+    public String getAirlineIataCode() {
+        return airlineIataCode;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public String getPlaneType() {
+        return planeType;
+    }
+
+    @Override
+    public String toString() {
+        return startTime + " " + flightNumber + " " + origin + " -> " + destination + " (" + airlineName + ")";
+    }
+}
@@ -6,11 +6,19 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "FLIGHTS")
+@Cacheable // Reference data, see ReferenceDataCache
+@Table(name = "FLIGHTS",
+       indexes = {
+           // searchFlights: equality on the route, range and order on the departure time
+           @Index(name = "IDX_FLIGHTS_ROUTE_START", columnList = "origin, destination, startTime"),
+           @Index(name = "IDX_FLIGHTS_DESTINATION_START", columnList = "destination, startTime"), // Searches by destination only
+           @Index(name = "IDX_FLIGHTS_START", columnList = "startTime")  // Searches by departure time only
+       })
 public class Flight implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flightSeq")
+    @SequenceGenerator(name = "flightSeq", sequenceName = "FLIGHT_SEQ", allocationSize = 50) // Batched inserts, see FlightScheduleImporter
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER) // Eagerly fetch airline details
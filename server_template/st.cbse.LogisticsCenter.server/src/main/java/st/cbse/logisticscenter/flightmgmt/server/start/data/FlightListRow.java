@@ -0,0 +1,104 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Compact view of a flight for flight lists: the flight's own columns plus the airline's name and IATA code,
+ * instead of the Flight entity with its whole Airline. Filled directly by a JPQL constructor projection.
+ */
+public class FlightListRow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String flightNumber;
+    private String airlineName;
+    private String airlineIataCode;
+    private String origin;
+    private String destination;
+    private LocalDateTime startTime;
+    private double basePrice;
+    private double pricePerBaggage;
+    private String planeType;
+    private int capacity;
+    private int currentPassengers;
+
+    public FlightListRow() {
+    }
+
+    public FlightListRow(Long id, String flightNumber, String airlineName, String airlineIataCode, String origin,
+                         String destination, LocalDateTime startTime, double basePrice, double pricePerBaggage,
+                         String planeType, int capacity, int currentPassengers) {
+        this.id = id;
+        this.flightNumber = flightNumber;
+        this.airlineName = airlineName;
+        this.airlineIataCode = airlineIataCode;
+        this.origin = origin;
+        this.destination = destination;
+        this.startTime = startTime;
+        this.basePrice = basePrice;
+        this.pricePerBaggage = pricePerBaggage;
+        this.planeType = planeType;
+        this.capacity = capacity;
+        this.currentPassengers = currentPassengers;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public String getAirlineName() {
+        return airlineName;
+    }
+
+    public String getAirlineIataCode() {
+        return airlineIataCode;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public double getBasePrice() {
+        return basePrice;
+    }
+
+    public double getPricePerBaggage() {
+        return pricePerBaggage;
+    }
+
+    public String getPlaneType() {
+        return planeType;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getCurrentPassengers() {
+        return currentPassengers;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightListRow{" +
+               "flightNumber='" + flightNumber + '\'' +
+               ", airline='" + airlineIataCode + '\'' +
+               ", " + origin + " -> " + destination +
+               ", startTime=" + startTime +
+               ", booked=" + currentPassengers + "/" + capacity +
+               '}';
+    }
+}
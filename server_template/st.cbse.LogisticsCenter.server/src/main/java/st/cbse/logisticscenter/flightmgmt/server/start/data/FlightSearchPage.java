@@ -0,0 +1,63 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a flight search, ordered by departure time (then id).
+ * Pass nextCursor to the next searchFlights call; it is null on the last page.
+ */
+public class FlightSearchPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Position after the last flight of a page (keyset, so a page costs the same however deep it is).
+     */
+    public static class Cursor implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private LocalDateTime startTime;
+        private Long id;
+
+        public Cursor() {
+        }
+
+        public Cursor(LocalDateTime startTime, Long id) {
+            this.startTime = startTime;
+            this.id = id;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    private ArrayList<Flight> items = new ArrayList<>(); // Concrete type: the page is sent to remote clients
+    private Cursor nextCursor;
+
+    public FlightSearchPage() {
+    }
+
+    public FlightSearchPage(List<Flight> items, Cursor nextCursor) {
+        this.items = new ArrayList<>(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Flight> getItems() {
+        return items;
+    }
+
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,55 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Hit/miss counters of one flight reference data cache (since server startup or the last reset).
+ */
+public class ReferenceCacheStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String cache;
+    private long hits;
+    private long misses;
+    private long entries; // -1 where the cache does not report its size (second-level regions)
+
+    public ReferenceCacheStats() {
+    }
+
+    public ReferenceCacheStats(String cache, long hits, long misses, long entries) {
+        this.cache = cache;
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = entries;
+    }
+
+    public String getCache() {
+        return cache;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public double getHitRatio() {
+        return hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceCacheStats{" +
+               "cache='" + cache + '\'' +
+               ", hits=" + hits +
+               ", misses=" + misses +
+               ", entries=" + entries +
+               '}';
+    }
+}
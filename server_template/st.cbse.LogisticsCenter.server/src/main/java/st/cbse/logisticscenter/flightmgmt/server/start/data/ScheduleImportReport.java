@@ -0,0 +1,71 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a flight schedule import: line counts and one message per rejected line
+ * ("line 17: duplicate flight number LH400"), the first MAX_ERRORS of them.
+ */
+public class ScheduleImportReport implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_ERRORS = 1000;
+
+    private String iataCode;
+    private long lines;       // Lines read, including blank, comment and header lines
+    private long imported;
+    private long duplicates;  // Flight numbers already scheduled, or repeated within the file
+    private long rejected;    // Malformed lines and lines whose insert failed
+    private ArrayList<String> errors = new ArrayList<>();
+    private long elapsedMillis;
+
+    public ScheduleImportReport() {
+    }
+
+    public ScheduleImportReport(String iataCode, long lines, long imported, long duplicates, long rejected,
+                                List<String> errors, long elapsedMillis) {
+        this.iataCode = iataCode;
+        this.lines = lines;
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.errors = new ArrayList<>(errors);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getIataCode() {
+        return iataCode;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Schedule import for " + iataCode + ": " + lines + " line(s) read, " + imported + " flight(s) imported, "
+                + duplicates + " duplicate(s), " + rejected + " rejected, " + elapsedMillis + " ms";
+    }
+}
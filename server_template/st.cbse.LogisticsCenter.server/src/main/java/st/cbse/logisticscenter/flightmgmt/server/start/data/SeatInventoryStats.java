@@ -0,0 +1,73 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Seat booking counters (since server startup or the last change of the seat token block size).
+ */
+public class SeatInventoryStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int tokenBlockSize;  // 0: every booking is its own conditional UPDATE
+    private int stripes;
+    private long bookings;       // Accepted bookSeats calls
+    private long seatsBooked;
+    private long rejected;       // bookSeats calls refused because the flight was full
+    private long tokenBookings;  // Accepted calls served from seat tokens, without a database statement
+    private long updates;        // Conditional UPDATEs issued for bookings (direct claims and token blocks)
+    private long heldTokens;     // Seats counted as booked in the database but still held as tokens
+
+    public SeatInventoryStats() {
+    }
+
+    public SeatInventoryStats(int tokenBlockSize, int stripes, long bookings, long seatsBooked, long rejected,
+                              long tokenBookings, long updates, long heldTokens) {
+        this.tokenBlockSize = tokenBlockSize;
+        this.stripes = stripes;
+        this.bookings = bookings;
+        this.seatsBooked = seatsBooked;
+        this.rejected = rejected;
+        this.tokenBookings = tokenBookings;
+        this.updates = updates;
+        this.heldTokens = heldTokens;
+    }
+
+    public int getTokenBlockSize() {
+        return tokenBlockSize;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getSeatsBooked() {
+        return seatsBooked;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getTokenBookings() {
+        return tokenBookings;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getHeldTokens() {
+        return heldTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatInventoryStats{tokenBlockSize=" + tokenBlockSize + ", stripes=" + stripes + ", bookings=" + bookings
+                + ", seatsBooked=" + seatsBooked + ", rejected=" + rejected + ", tokenBookings=" + tokenBookings
+                + ", updates=" + updates + ", heldTokens=" + heldTokens + '}';
+    }
+}
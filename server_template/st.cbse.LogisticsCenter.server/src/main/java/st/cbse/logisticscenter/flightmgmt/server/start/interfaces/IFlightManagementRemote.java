@@ -2,7 +2,13 @@ package st.cbse.logisticscenter.flightmgmt.server.start.interfaces;
 
 import jakarta.ejb.Remote;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Departure;
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightListRow;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.FlightSearchPage;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ReferenceCacheStats;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.ScheduleImportReport;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.SeatInventoryStats;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -49,6 +55,13 @@ public interface IFlightManagementRemote {
      */
     List<Flight> getAllFlights();
 
+    /**
+     * Lists all flights as compact rows (airline name and IATA code instead of the whole Airline), latest departure
+     * first. Prefer this to getAllFlights for display; the rows are read without loading any entity.
+     * @return One row per flight, or an empty list if none available.
+     */
+    List<FlightListRow> getFlightList();
+
     // --- NEW METHOD ADDED ---
     /**
      * Retrieves a specific flight by its unique flight number.
@@ -57,4 +70,91 @@ public interface IFlightManagementRemote {
      * @return The Flight object if found, null otherwise.
      */
     Flight getFlightByFlightNumber(String flightNumber); // <--- NEW METHOD
+
+    /**
+     * Searches flights by route and departure window, one page at a time, ordered by departure time.
+     * A route search is served by the (origin, destination, startTime) index, so its cost depends on the page size,
+     * not on the size of the schedule. The airline of each flight is fetched with the same query.
+     * @param origin Departure location, or null for any.
+     * @param destination Arrival location, or null for any.
+     * @param fromTime Earliest departure (inclusive), or null for no lower bound.
+     * @param toTime Latest departure (exclusive), or null for no upper bound.
+     * @param after The nextCursor of the previous page, or null for the first page.
+     * @param pageSize Maximum number of flights per page (capped at 100).
+     * @return The page; empty if nothing matches.
+     */
+    FlightSearchPage searchFlights(String origin, String destination, LocalDateTime fromTime, LocalDateTime toTime,
+                                   FlightSearchPage.Cursor after, int pageSize);
+
+    /**
+     * Returns the departures of the coming hours, in departure order, from the in-memory departure board
+     * (no database access). Flights added or rescheduled appear as soon as their transaction has committed.
+     * @param origin Departure location, or null for all airports.
+     * @param hours Length of the window from now.
+     * @return At most flight.board.maxRows departures; empty if there are none.
+     */
+    List<Departure> getUpcomingDepartures(String origin, int hours);
+
+    /**
+     * Imports an airline's flight schedule from a CSV file in the server's import directory (flight.import.dir), one
+     * departure per line: flightNumber,origin,destination,startTime,basePrice,pricePerBaggage,planeType,planeNumber,capacity.
+     * The file is streamed and committed in chunks; lines with errors or already scheduled flight numbers are skipped
+     * and reported. Large schedules can also be uploaded over HTTP (POST /schedules/{iataCode}).
+     * @param iataCode IATA code of the airline owning the flights.
+     * @param fileName File name, relative to the import directory.
+     * @return The import report, or null if the airline or the file does not exist.
+     */
+    ScheduleImportReport importFlightSchedule(String iataCode, String fileName);
+
+    /**
+     * Books seats on a flight. The seats are claimed with a single conditional UPDATE that also checks the capacity,
+     * so concurrent bookings never oversell a flight (see SeatAllocator for the optional seat tokens).
+     * @param flightNumber The unique flight number.
+     * @param seats Number of seats to book (at least 1).
+     * @return true if the seats were booked, false if the flight does not exist or has fewer seats free.
+     */
+    boolean bookSeats(String flightNumber, int seats);
+
+    /**
+     * Gives booked seats of a flight back.
+     * @param flightNumber The unique flight number.
+     * @param seats Number of seats to release (at least 1).
+     * @return true if the seats were released, false if the flight does not exist or has fewer seats booked.
+     */
+    boolean cancelSeats(String flightNumber, int seats);
+
+    /**
+     * Returns the seat booking counters: accepted and rejected bookings, database updates and held seat tokens.
+     */
+    SeatInventoryStats getSeatInventoryStats();
+
+    /**
+     * Sets how many seats a flight's token stripe claims from the database at once, e.g. to compare contention.
+     * Seats still held as tokens are given back first, and the counters are reset.
+     * @param blockSize Seats per block; 0 books every call directly on the flight row.
+     */
+    void setSeatTokenBlockSize(int blockSize);
+
+    /**
+     * Returns the hit/miss counters of the flight reference data caches: the flight-number and IATA-code maps and the
+     * second-level cache regions of Flight and Airline.
+     * @return One entry per cache.
+     */
+    List<ReferenceCacheStats> getReferenceCacheStats();
+
+    /**
+     * Switches the flight reference data caches on or off, e.g. to compare lookup latency. Either way the caches
+     * are emptied and their counters reset.
+     * @param enabled false to read every Flight and Airline lookup from the database.
+     */
+    void setReferenceCacheEnabled(boolean enabled);
+
+    /**
+     * Changes the scheduled departure time of a flight, e.g. after a delay.
+     * Bags of the flight still waiting for ground processing are re-prioritised for the new time.
+     * @param flightNumber The unique flight number.
+     * @param startTime The new scheduled departure time.
+     * @return The updated Flight object, or null if the flight was not found.
+     */
+    Flight updateFlightStartTime(String flightNumber, LocalDateTime startTime);
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import st.cbse.logisticscenter.passengermgmt.server.start.data.Passenger;
+import st.cbse.logisticscenter.passengermgmt.server.start.data.PassengerProfile;
 import st.cbse.logisticscenter.passengermgmt.server.start.interfaces.IPassengerManagementRemote;
 
 // NEW IMPORTS: For interacting with BaggageManagement and Flight data
@@ -47,8 +48,9 @@ public class PassengerManagementBean implements IPassengerManagementRemote {
 
             Passenger passenger = new Passenger(username, password, firstName, lastName, email);
             em.persist(passenger);
+            em.flush(); // Insert before the entity is detached without its password
             LOGGER.log(Level.INFO, "Passenger registered: {0}", username);
-            return passenger;
+            return withoutPassword(passenger);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error registering passenger", e);
             return null;
@@ -65,7 +67,7 @@ public class PassengerManagementBean implements IPassengerManagementRemote {
 
             if (passenger != null && passenger.getPassword().equals(password)) { // In a real app, hash and compare passwords
                 LOGGER.log(Level.INFO, "Passenger {0} logged in successfully.", username);
-                return passenger;
+                return withoutPassword(passenger);
             } else {
                 LOGGER.log(Level.WARNING, "Login failed: Incorrect password for user {0}.", username);
                 return null;
@@ -82,9 +84,9 @@ public class PassengerManagementBean implements IPassengerManagementRemote {
     @Override
     public Passenger getPassengerByUsername(String username) {
         try {
-            return em.createQuery("SELECT p FROM Passenger p WHERE p.username = :username", Passenger.class)
+            return withoutPassword(em.createQuery("SELECT p FROM Passenger p WHERE p.username = :username", Passenger.class)
                              .setParameter("username", username)
-                             .getSingleResult();
+                             .getSingleResult());
         } catch (NoResultException e) {
             LOGGER.log(Level.INFO, "No passenger found with username: {0}", username);
             return null;
@@ -94,6 +96,33 @@ public class PassengerManagementBean implements IPassengerManagementRemote {
         }
     }
 
+    @Override
+    public PassengerProfile getPassengerProfile(String username) {
+        try {
+            List<PassengerProfile> profiles = em.createQuery(
+                                "SELECT new st.cbse.logisticscenter.passengermgmt.server.start.data.PassengerProfile("
+                                + "p.id, p.username, p.firstName, p.lastName, p.email) FROM Passenger p WHERE p.username = :username",
+                                PassengerProfile.class)
+                            .setParameter("username", username)
+                            .getResultList();
+            if (profiles.isEmpty()) {
+                LOGGER.log(Level.INFO, "No passenger found with username: {0}", username);
+                return null;
+            }
+            return profiles.get(0);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving passenger profile", e);
+            return null;
+        }
+    }
+
+    // The password never leaves the server. Detached first, so the cleared field is not written back.
+    private Passenger withoutPassword(Passenger passenger) {
+        em.detach(passenger);
+        passenger.setPassword(null);
+        return passenger;
+    }
+
     // --- NEW METHOD IMPLEMENTATION: dropBaggageForPassenger ---
     @Override
     public boolean dropBaggageForPassenger(Passenger passenger, String baggageNumber, double weightKg, Flight flight) {
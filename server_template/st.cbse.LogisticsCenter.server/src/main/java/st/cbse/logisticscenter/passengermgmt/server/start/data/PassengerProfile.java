@@ -0,0 +1,59 @@
+package st.cbse.logisticscenter.passengermgmt.server.start.data;
+
+import java.io.Serializable;
+
+/**
+ * Public profile of a passenger, never including the password.
+ * Filled directly by a JPQL constructor projection, no Passenger entity is loaded.
+ */
+public class PassengerProfile implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String email;
+
+    public PassengerProfile() {
+    }
+
+    public PassengerProfile(Long id, String username, String firstName, String lastName, String email) {
+        this.id = id;
+        this.username = username;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "PassengerProfile{" +
+               "id=" + id +
+               ", username='" + username + '\'' +
+               ", firstName='" + firstName + '\'' +
+               ", lastName='" + lastName + '\'' +
+               ", email='" + email + '\'' +
+               '}';
+    }
+}
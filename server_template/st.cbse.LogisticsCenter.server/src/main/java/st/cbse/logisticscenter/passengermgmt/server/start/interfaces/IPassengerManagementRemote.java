@@ -3,6 +3,7 @@ package st.cbse.logisticscenter.passengermgmt.server.start.interfaces;
 
 import jakarta.ejb.Remote;
 import st.cbse.logisticscenter.passengermgmt.server.start.data.Passenger;
+import st.cbse.logisticscenter.passengermgmt.server.start.data.PassengerProfile;
 // NEW IMPORT: Required because dropBaggageForPassenger uses the Flight object
 import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
 
@@ -16,7 +17,7 @@ public interface IPassengerManagementRemote {
      * @param firstName The passenger's first name.
      * @param lastName The passenger's last name.
      * @param email The passenger's email address (must be unique).
-     * @return The registered Passenger object, or null if registration fails (e.g., username/email taken).
+     * @return The registered Passenger object (without password), or null if registration fails (e.g., username/email taken).
      */
     Passenger registerPassenger(String username, String password, String firstName, String lastName, String email);
 
@@ -24,7 +25,7 @@ public interface IPassengerManagementRemote {
      * Authenticates a passenger based on username and password.
      * @param username The passenger's username.
      * @param password The passenger's password.
-     * @return The Passenger object if login is successful, null otherwise.
+     * @return The Passenger object (without password) if login is successful, null otherwise.
      */
     Passenger loginPassenger(String username, String password);
 
@@ -33,10 +34,17 @@ public interface IPassengerManagementRemote {
      * This method is needed for the client to fetch passenger details after login
      * or for other management operations.
      * @param username The username of the passenger to retrieve.
-     * @return The Passenger object if found, null otherwise.
+     * @return The Passenger object (without password) if found, null otherwise.
      */
     Passenger getPassengerByUsername(String username); // <--- Existing Method
 
+    /**
+     * Retrieves the public profile of a passenger (id, username, name, email), read without loading the entity.
+     * @param username The username of the passenger.
+     * @return The profile if found, null otherwise.
+     */
+    PassengerProfile getPassengerProfile(String username);
+
     // --- NEW METHOD DECLARATION FOR BAGGAGE DROP-OFF ---
     /**
      * Allows a passenger to drop off a piece of baggage for a specific flight.
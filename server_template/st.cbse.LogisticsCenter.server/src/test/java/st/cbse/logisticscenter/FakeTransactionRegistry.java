@@ -0,0 +1,109 @@
+package st.cbse.logisticscenter;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stands in for the container's TransactionSynchronizationRegistry. Tests begin transactions on it and complete them
+ * in two steps (prepare runs beforeCompletion, complete runs afterCompletion), so that the completions of concurrent
+ * transactions can be interleaved in any order.
+ */
+public class FakeTransactionRegistry implements TransactionSynchronizationRegistry {
+
+    public static final class Tx {
+        private final Map<Object, Object> resources = new HashMap<>();
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+        private int status = Status.STATUS_ACTIVE;
+
+        public void markRollbackOnly() {
+            status = Status.STATUS_MARKED_ROLLBACK;
+        }
+
+        public void prepare() {
+            synchronizations.forEach(Synchronization::beforeCompletion);
+            status = Status.STATUS_PREPARED;
+        }
+
+        public void complete(int outcome) {
+            status = outcome;
+            synchronizations.forEach(sync -> sync.afterCompletion(outcome));
+        }
+
+        public void commit() {
+            prepare();
+            complete(Status.STATUS_COMMITTED);
+        }
+
+        public void rollback() {
+            complete(Status.STATUS_ROLLEDBACK);
+        }
+    }
+
+    private Tx current;
+
+    /**
+     * Begins a transaction and makes it the current one.
+     */
+    public Tx begin() {
+        current = new Tx();
+        return current;
+    }
+
+    /**
+     * Makes tx (or no transaction, if null) the current one.
+     */
+    public void resume(Tx tx) {
+        current = tx;
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        return current;
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        active().resources.put(key, value);
+    }
+
+    @Override
+    public Object getResource(Object key) {
+        return active().resources.get(key);
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        if (active().status != Status.STATUS_ACTIVE) {
+            throw new IllegalStateException("Transaction is not active");
+        }
+        current.synchronizations.add(sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        return current == null ? Status.STATUS_NO_TRANSACTION : current.status;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        active().markRollbackOnly();
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        return active().status == Status.STATUS_MARKED_ROLLBACK;
+    }
+
+    private Tx active() {
+        if (current == null) {
+            throw new IllegalStateException("No transaction");
+        }
+        return current;
+    }
+}
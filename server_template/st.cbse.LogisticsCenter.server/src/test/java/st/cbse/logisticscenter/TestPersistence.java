@@ -0,0 +1,86 @@
+package st.cbse.logisticscenter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the JPAUnit persistence unit outside the container: resource-local transactions on a private in-memory H2
+ * database, without the second-level cache. Beans are created with new and their container-injected fields set by
+ * inject.
+ */
+public final class TestPersistence {
+
+    private TestPersistence() {
+    }
+
+    public static EntityManagerFactory createFactory() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.transactionType", "RESOURCE_LOCAL");
+        JdbcDataSource dataSource = new JdbcDataSource(); // Replaces the container's ExampleDS
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=5000");
+        dataSource.setUser("sa");
+        properties.put("jakarta.persistence.jtaDataSource", dataSource);
+        properties.put("jakarta.persistence.nonJtaDataSource", dataSource);
+        properties.put("jakarta.persistence.sharedCache.mode", "NONE");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        properties.put("hibernate.cache.use_query_cache", "false");
+        properties.put("hibernate.show_sql", "false");
+        return Persistence.createEntityManagerFactory("JPAUnit", properties);
+    }
+
+    /**
+     * Runs work in a transaction of its own and commits it (rolls back if work throws).
+     */
+    public static <T> T query(EntityManagerFactory factory, Function<EntityManager, T> work) {
+        EntityManager em = factory.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            T result = work.apply(em);
+            tx.commit();
+            return result;
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+
+    public static void inTransaction(EntityManagerFactory factory, Consumer<EntityManager> work) {
+        query(factory, em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    /**
+     * Sets a field the container would inject (@PersistenceContext, @EJB, @Resource), also if declared by a superclass.
+     */
+    public static <T> T inject(T bean, String fieldName, Object value) {
+        for (Class<?> type = bean.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(bean, value);
+                return bean;
+            } catch (NoSuchFieldException e) {
+                // Declared further up
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException(bean.getClass().getName() + " has no field " + fieldName);
+    }
+}
@@ -0,0 +1,78 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.TestPersistence;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Idempotent drops and status updates answered from the IdempotencyCache: a retry gets the original result, a key
+ * reused for another bag is rejected as on the IdempotencyRecord path.
+ */
+class BaggageManagementBeanTest {
+
+    private final Flight flight = TestPersistence.inject(new Flight(new Airline("Key Air", "KA", "ops@key.example"), "KA100",
+            "FRA", "JFK", LocalDateTime.now().plusDays(1), 100, 20, "A320", "D-KEYS", 180, 0), "id", 1L);
+
+    // Calls that reached the database layer
+    private final List<String> commands = new ArrayList<>();
+    private BaggageManagementBean bean;
+
+    @BeforeEach
+    void createBean() {
+        IdempotencyCache cache = new IdempotencyCache();
+        cache.init();
+        bean = new BaggageManagementBean();
+        TestPersistence.inject(bean, "idempotencyCache", cache);
+        TestPersistence.inject(bean, "baggageCommands", new BaggageCommands() {
+            @Override
+            public Baggage drop(String idempotencyKey, String baggageNumber, double weightKg, Long flightId) {
+                commands.add("drop " + baggageNumber);
+                return new Baggage(baggageNumber, weightKg, flight);
+            }
+
+            @Override
+            public BaggageStatus recordStatusOnce(String idempotencyKey, String baggageNumber, BaggageStatus newStatus, String details) {
+                commands.add("status " + baggageNumber);
+                return newStatus;
+            }
+        });
+    }
+
+    @Test
+    void retriedDropIsAnsweredFromTheCache() {
+        Baggage dropped = bean.dropBaggage("key-1", "A", 20.0, flight);
+
+        assertSame(dropped, bean.dropBaggage("key-1", "A", 20.0, flight));
+        assertEquals(List.of("drop A"), commands);
+    }
+
+    @Test
+    void dropKeyReusedForAnotherBagIsRejected() {
+        bean.dropBaggage("key-1", "A", 20.0, flight);
+
+        assertNull(bean.dropBaggage("key-1", "B", 20.0, flight));
+        assertEquals(List.of("drop A"), commands);
+    }
+
+    @Test
+    void statusKeyReusedForAnotherBagIsRejected() {
+        assertEquals(BaggageStatus.LOST, bean.recordBaggageStatus("key-1", "A", BaggageStatus.LOST, "test"));
+
+        assertEquals(BaggageStatus.LOST, bean.recordBaggageStatus("key-1", "A", BaggageStatus.LOST, "test"));
+        assertNull(bean.recordBaggageStatus("key-1", "B", BaggageStatus.LOST, "test"));
+        assertEquals(List.of("status A"), commands);
+    }
+}
@@ -0,0 +1,136 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.FakeTransactionRegistry;
+import st.cbse.logisticscenter.TestPersistence;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tracking index updates against interleaved transaction completions, and its warm-up from the database.
+ */
+class BaggageTrackingIndexTest {
+
+    private static final Long FLIGHT = 7L;
+
+    private final FakeTransactionRegistry transactions = new FakeTransactionRegistry();
+    private BaggageTrackingIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        index = new BaggageTrackingIndex();
+        TestPersistence.inject(index, "txRegistry", transactions);
+    }
+
+    @AfterEach
+    void clearRetention() {
+        System.clearProperty("baggage.index.deliveredRetentionMinutes");
+    }
+
+    @Test
+    void showsCommittedChangesOnly() {
+        FakeTransactionRegistry.Tx committed = transactions.begin();
+        index.updateAfterCommit(bag("A", 0), BaggageStatus.DROPPED_OFF);
+        assertNull(index.get("A")); // Not before the commit
+        committed.commit();
+
+        FakeTransactionRegistry.Tx rolledBack = transactions.begin();
+        index.updateAfterCommit(bag("A", 1), BaggageStatus.SECURITY_CLEARED);
+        rolledBack.rollback();
+
+        assertEquals(BaggageStatus.DROPPED_OFF, index.get("A").getStatus());
+    }
+
+    @Test
+    void changeInTransactionMarkedForRollbackIsNotApplied() {
+        transactions.begin().markRollbackOnly();
+        index.updateAfterCommit(bag("A", 0), BaggageStatus.DROPPED_OFF);
+
+        assertNull(index.get("A"));
+    }
+
+    @Test
+    void olderVersionCompletingLateIsIgnored() {
+        FakeTransactionRegistry.Tx first = transactions.begin();
+        index.updateAfterCommit(bag("A", 3), BaggageStatus.SORTED);
+        first.prepare();
+        FakeTransactionRegistry.Tx second = transactions.begin();
+        index.updateAfterCommit(bag("A", 4), BaggageStatus.HELD_FOR_INSPECTION);
+        second.prepare();
+
+        second.complete(Status.STATUS_COMMITTED);
+        first.complete(Status.STATUS_COMMITTED);
+
+        TrackedBaggage tracked = index.get("A");
+        assertEquals(BaggageStatus.HELD_FOR_INSPECTION, tracked.getStatus());
+        assertEquals(4, tracked.getVersion());
+    }
+
+    @Test
+    void evictsDeliveredBagsAfterTheRetentionTime() throws InterruptedException {
+        transactions.resume(null);
+        index.updateAfterCommit(bag("A", 9), BaggageStatus.DELIVERED);
+        index.updateAfterCommit(bag("B", 2), BaggageStatus.LOADED);
+
+        index.evictDelivered();
+        assertEquals(2, index.size()); // Within the default retention
+
+        System.setProperty("baggage.index.deliveredRetentionMinutes", "0");
+        Thread.sleep(5);
+        index.evictDelivered();
+        assertNull(index.get("A"));
+        assertEquals(BaggageStatus.LOADED, index.get("B").getStatus());
+    }
+
+    @Test
+    void warmsUpWithUndeliveredBagsWithoutOverwritingNewerChanges() {
+        EntityManagerFactory factory = TestPersistence.createFactory();
+        try {
+            TestPersistence.inTransaction(factory, em -> {
+                Airline airline = new Airline("Index Air", "IX", "ops@index.example");
+                em.persist(airline);
+                Flight flight = new Flight(airline, "IX100", "FRA", "JFK", LocalDateTime.now().plusDays(1), 100, 20, "A320", "D-INDX", 180, 0);
+                em.persist(flight);
+                em.persist(new Baggage("A", 20.0, flight));
+                em.persist(new Baggage("B", 20.0, flight));
+                Baggage delivered = new Baggage("C", 20.0, flight);
+                delivered.setStatus(BaggageStatus.DELIVERED);
+                em.persist(delivered);
+            });
+            transactions.resume(null);
+            index.updateAfterCommit(bag("B", 1), BaggageStatus.SECURITY_CLEARED); // Committed while warming up
+
+            EntityManager em = factory.createEntityManager();
+            try {
+                TestPersistence.inject(index, "em", em);
+                index.warmUp();
+            } finally {
+                em.close();
+            }
+
+            assertEquals(BaggageStatus.DROPPED_OFF, index.get("A").getStatus());
+            assertEquals(BaggageStatus.SECURITY_CLEARED, index.get("B").getStatus());
+            assertNull(index.get("C"));
+        } finally {
+            factory.close();
+        }
+    }
+
+    private static BaggageState bag(String number, long version) {
+        return new BaggageState(null, number, null, FLIGHT, "IX100", 20.0, null, version);
+    }
+}
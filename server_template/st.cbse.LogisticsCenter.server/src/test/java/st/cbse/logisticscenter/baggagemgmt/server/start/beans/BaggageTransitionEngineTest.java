@@ -0,0 +1,231 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.interceptor.InvocationContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.FakeTransactionRegistry;
+import st.cbse.logisticscenter.TestPersistence;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statements per processed bag against a real database: before the engine, every stage re-read the bag with its
+ * whole history (about ten history-fetching selects per drop); now a bag is read once, without its history.
+ * Also: parallel scans of one bag through the retry path (ScanBatchApplier.applyRetrying) lose no transition.
+ */
+class BaggageTransitionEngineTest {
+
+    private static final String FLIGHT = "TE100";
+    private static final int STAGES = 4; // DROPPED_OFF -> SECURITY_CLEARED -> SORTED -> CBR_READY -> LOADED
+
+    private EntityManagerFactory factory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createFlight() {
+        factory = TestPersistence.createFactory();
+        statistics = factory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        TestPersistence.inTransaction(factory, em -> {
+            Airline airline = new Airline("Engine Air", "TE", "ops@engine.example");
+            em.persist(airline);
+            em.persist(new Flight(airline, FLIGHT, "FRA", "JFK", LocalDateTime.now().plusDays(1), 100, 20, "A320", "D-ENGN", 180, 0));
+        });
+    }
+
+    @AfterEach
+    void close() {
+        factory.close();
+    }
+
+    @Test
+    void processingABagTakesOneReadAndOneUpdatePerStage() {
+        addBag("A", 0);
+
+        // One projection read, one status UPDATE per stage and the history inserts as one JDBC batch, plus at most
+        // one sequence call for the history ids (allocated 50 at a time).
+        assertTrue(statementsToProcess("A") <= 1 + STAGES + 1 + 1);
+        assertEquals(BaggageStatus.LOADED, statusOf("A"));
+    }
+
+    @Test
+    void statementsDoNotDependOnTheLengthOfTheHistory() {
+        addBag("A", 0);
+        addBag("B", 200);
+
+        assertEquals(statementsToProcess("A"), statementsToProcess("B"));
+    }
+
+    @Test
+    void disallowedTransitionWritesNothing() {
+        addBag("A", 0);
+
+        long statements = TestPersistence.query(factory, em -> {
+            BaggageTransitionEngine engine = engine(em);
+            BaggageState state = engine.load("A");
+            statistics.clear();
+            assertFalse(engine.transition(state, BaggageStatus.DELIVERED, "test"));
+            return statistics.getPrepareStatementCount();
+        });
+
+        assertEquals(0, statements);
+        assertEquals(BaggageStatus.DROPPED_OFF, statusOf("A"));
+    }
+
+    @Test
+    void parallelScansOfOneBagThroughTheRetryPathLoseNoTransition() throws Exception {
+        addBag("A", 0);
+        long initialVersion = versionOf("A");
+        long initialHistory = historyOf("A");
+        int threads = 4;
+        int scansPerThread = 10;
+
+        OptimisticRetryInterceptor retry = new OptimisticRetryInterceptor();
+        TestPersistence.inject(retry, "metrics", new ContentionMetrics());
+        TestPersistence.inject(retry, "txRegistry", new FakeTransactionRegistry()); // No transaction, as NOT_SUPPORTED
+        String maxAttempts = System.setProperty("baggage.optimistic.maxAttempts", "1000");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String scanPoint = "belt " + t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < scansPerThread; i++) {
+                        ScanBatchResult result = (ScanBatchResult) retry.retry(applyRetrying(new TagScan("A", scanPoint, null)));
+                        assertEquals(1, result.getApplied());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+            if (maxAttempts == null) {
+                System.clearProperty("baggage.optimistic.maxAttempts");
+            } else {
+                System.setProperty("baggage.optimistic.maxAttempts", maxAttempts);
+            }
+        }
+
+        assertEquals(initialVersion + threads * scansPerThread, versionOf("A"));
+        assertEquals(initialHistory + threads * scansPerThread, historyOf("A"));
+    }
+
+    // One call of ScanBatchApplier.applyRetrying as the interceptor sees it: every proceed is a new transaction.
+    private InvocationContext applyRetrying(TagScan scan) throws NoSuchMethodException {
+        Method method = ScanBatchApplier.class.getMethod("applyRetrying", List.class);
+        return (InvocationContext) Proxy.newProxyInstance(InvocationContext.class.getClassLoader(),
+                new Class<?>[]{InvocationContext.class}, (proxy, invoked, args) -> {
+                    switch (invoked.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "proceed":
+                            return TestPersistence.query(factory, em -> {
+                                ScanBatchApplier applier = new ScanBatchApplier();
+                                TestPersistence.inject(applier, "em", em);
+                                TestPersistence.inject(applier, "transitionEngine", engine(em));
+                                return applier.apply(List.of(scan));
+                            });
+                        default:
+                            throw new UnsupportedOperationException(invoked.getName());
+                    }
+                });
+    }
+
+    // Runs all automated stages of a bag in one transaction, as the inline pipeline does.
+    private long statementsToProcess(String number) {
+        statistics.clear();
+        TestPersistence.inTransaction(factory, em -> {
+            BaggageTransitionEngine engine = engine(em);
+            assertEquals(STAGES, engine.advance(engine.load(number), Integer.MAX_VALUE));
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    // The collaborators keep their own rows; only the bag's own statements are counted.
+    private static BaggageTransitionEngine engine(EntityManager em) {
+        BaggageTransitionEngine engine = new BaggageTransitionEngine();
+        TestPersistence.inject(engine, "em", em);
+        TestPersistence.inject(engine, "flightCounters", new FlightBaggageCounters() {
+            @Override
+            public void move(Long flightId, BaggageStatus from, BaggageStatus to) {
+            }
+        });
+        TestPersistence.inject(engine, "loadAggregates", new FlightLoadAggregates() {
+            @Override
+            public void onTransition(BaggageState bag, BaggageStatus from, BaggageStatus to) {
+            }
+        });
+        TestPersistence.inject(engine, "snapshots", new BaggageSnapshots() {
+            @Override
+            public void record(BaggageState baggage, BaggageStatus newStatus, LocalDateTime at) {
+            }
+        });
+        TestPersistence.inject(engine, "statusPublisher", new BaggageStatusPublisher() {
+            @Override
+            public void publish(BaggageState baggage, BaggageStatus previousStatus, BaggageStatus newStatus, String details) {
+            }
+        });
+        TestPersistence.inject(engine, "trackingIndex", new BaggageTrackingIndex() {
+            @Override
+            public void updateAfterCommit(BaggageState baggage, BaggageStatus status) {
+            }
+        });
+        return engine;
+    }
+
+    private void addBag(String number, int extraHistoryEntries) {
+        TestPersistence.inTransaction(factory, em -> {
+            Flight flight = em.createQuery("SELECT f FROM Flight f WHERE f.flightNumber = :n", Flight.class)
+                              .setParameter("n", FLIGHT).getSingleResult();
+            Baggage baggage = new Baggage(number, 20.0, flight);
+            em.persist(baggage);
+            for (int i = 0; i < extraHistoryEntries; i++) {
+                em.persist(new BaggageHistoryEntry(baggage, BaggageStatus.DROPPED_OFF, "re-scanned " + i));
+            }
+        });
+    }
+
+    private long versionOf(String number) {
+        return TestPersistence.query(factory, em -> em.createQuery(
+                "SELECT b.version FROM Baggage b WHERE b.baggageNumber = :n", Long.class)
+                .setParameter("n", number).getSingleResult());
+    }
+
+    private long historyOf(String number) {
+        return TestPersistence.query(factory, em -> em.createQuery(
+                "SELECT COUNT(h) FROM BaggageHistoryEntry h WHERE h.baggage.baggageNumber = :n", Long.class)
+                .setParameter("n", number).getSingleResult());
+    }
+
+    private BaggageStatus statusOf(String number) {
+        return TestPersistence.query(factory, em -> em.createQuery(
+                "SELECT b.status FROM Baggage b WHERE b.baggageNumber = :n", BaggageStatus.class)
+                .setParameter("n", number).getSingleResult());
+    }
+}
@@ -0,0 +1,258 @@
+package st.cbse.logisticscenter.baggagemgmt.server.start.beans;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.TestPersistence;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.Baggage;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageHistoryEntry;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageSelectionCriteria;
+import st.cbse.logisticscenter.baggagemgmt.server.start.data.BaggageStatus;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk hold and release against a real database, with another transaction changing bags between the selection and
+ * the UPDATE.
+ */
+class BulkBaggageOperationsTest {
+
+    private static final String FLIGHT = "BK100";
+
+    private EntityManagerFactory factory;
+
+    // What the bulk operation reported to its collaborators.
+    private final List<BaggageState> published = new ArrayList<>();
+    private final Map<BaggageStatus, Long> counterDeltas = new EnumMap<>(BaggageStatus.class);
+
+    @BeforeEach
+    void createFlight() {
+        factory = TestPersistence.createFactory();
+        TestPersistence.inTransaction(factory, em -> {
+            Airline airline = new Airline("Bulk Air", "BK", "ops@bulk.example");
+            em.persist(airline);
+            em.persist(new Flight(airline, FLIGHT, "FRA", "JFK", LocalDateTime.now().plusDays(1), 100, 20, "A320", "D-BULK", 180, 0));
+        });
+    }
+
+    @AfterEach
+    void close() {
+        factory.close();
+    }
+
+    @Test
+    void holdsOnlyBagsInGroundProcessing() {
+        addBags("A", "B", "C");
+        setStatus("C", BaggageStatus.LOADED);
+
+        assertEquals(2, hold(null));
+
+        assertEquals(BaggageStatus.HELD_FOR_INSPECTION, statusOf("A"));
+        assertEquals(BaggageStatus.HELD_FOR_INSPECTION, statusOf("B"));
+        assertEquals(BaggageStatus.LOADED, statusOf("C"));
+        assertEquals(1, heldEntries("A"));
+    }
+
+    @Test
+    void bagHeldConcurrentlyIsNotReportedTwice() {
+        addBags("A", "B", "C");
+
+        // Another transaction holds B after the bulk hold has selected it, before it updates.
+        int held = hold(() -> setStatus("B", BaggageStatus.HELD_FOR_INSPECTION));
+
+        assertEquals(2, held);
+        assertEquals(List.of("A", "C"), publishedNumbers());
+        assertEquals(2L, counterDeltas.get(BaggageStatus.HELD_FOR_INSPECTION));
+        assertEquals(-2L, counterDeltas.get(BaggageStatus.DROPPED_OFF));
+        assertEquals(1, heldEntries("B")); // Only the concurrent transaction's
+    }
+
+    @Test
+    void bagChangedAndChangedBackIsSkipped() {
+        addBags("A", "B");
+
+        int held = hold(() -> {
+            setStatus("B", BaggageStatus.HELD_FOR_INSPECTION);
+            setStatus("B", BaggageStatus.DROPPED_OFF);
+        });
+
+        assertEquals(1, held);
+        assertEquals(List.of("A"), publishedNumbers());
+        assertEquals(BaggageStatus.DROPPED_OFF, statusOf("B"));
+    }
+
+    @Test
+    void callersEntitiesStayManaged() {
+        addBags("A", "B");
+        EntityManager em = factory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Flight flight = em.createQuery("SELECT f FROM Flight f WHERE f.flightNumber = :n", Flight.class)
+                              .setParameter("n", FLIGHT).getSingleResult();
+            operations(em).hold(BaggageSelectionCriteria.forFlight(FLIGHT));
+            assertTrue(em.contains(flight));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Test
+    void inlineReleaseAdvancesTheReleasedBagsTogether() {
+        addBags("A", "B", "C");
+        setStatus("A", BaggageStatus.HELD_FOR_INSPECTION);
+        setStatus("B", BaggageStatus.HELD_FOR_INSPECTION);
+        List<List<String>> advanced = new ArrayList<>();
+
+        EntityManager em = factory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            BulkBaggageOperations operations = operations(em);
+            TestPersistence.inject(operations, "baggagePipeline", new BaggagePipeline() {
+                @Override
+                public boolean isInline() {
+                    return true;
+                }
+            });
+            TestPersistence.inject(operations, "transitionEngine", new BaggageTransitionEngine() {
+                @Override
+                public void advanceAll(List<BaggageState> bags) {
+                    advanced.add(bags.stream().map(BaggageState::getBaggageNumber).sorted().toList());
+                }
+
+                @Override
+                public int advance(BaggageState baggage, int maxSteps) {
+                    throw new AssertionError("Released bags are advanced per chunk");
+                }
+            });
+            assertEquals(2, operations.release(BaggageSelectionCriteria.forFlight(FLIGHT)));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+
+        assertEquals(List.of(List.of("A", "B")), advanced);
+        assertEquals(BaggageStatus.DROPPED_OFF, statusOf("A"));
+    }
+
+    // Runs a bulk hold of the flight's bags; beforeUpdate (if any) runs right after the bags were selected.
+    private int hold(Runnable beforeUpdate) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            EntityManager target = beforeUpdate == null ? em : interceptLockingSelect(em, beforeUpdate);
+            int held = operations(target).hold(BaggageSelectionCriteria.forFlight(FLIGHT));
+            em.getTransaction().commit();
+            return held;
+        } finally {
+            em.close();
+        }
+    }
+
+    private BulkBaggageOperations operations(EntityManager em) {
+        BulkBaggageOperations operations = new BulkBaggageOperations();
+        TestPersistence.inject(operations, "em", em);
+        TestPersistence.inject(operations, "snapshots", new BaggageSnapshots() {
+            @Override
+            public void recordAll(List<BaggageState> bags, BaggageStatus newStatus, LocalDateTime at) {
+            }
+        });
+        TestPersistence.inject(operations, "loadAggregates", new FlightLoadAggregates() {
+            @Override
+            public void onBulkTransition(List<BaggageState> bags, BaggageStatus to) {
+            }
+        });
+        TestPersistence.inject(operations, "statusPublisher", new BaggageStatusPublisher() {
+            @Override
+            public void publishAll(List<BaggageState> bags, BaggageStatus newStatus, String details) {
+                published.addAll(bags);
+            }
+        });
+        TestPersistence.inject(operations, "trackingIndex", new BaggageTrackingIndex() {
+            @Override
+            public void updateAllAfterCommit(List<BaggageState> bags, BaggageStatus status) {
+            }
+        });
+        TestPersistence.inject(operations, "flightCounters", new FlightBaggageCounters() {
+            @Override
+            public void adjust(Long flightId, BaggageStatus status, long delta) {
+                counterDeltas.merge(status, delta, Long::sum);
+            }
+        });
+        return operations;
+    }
+
+    // Delegates to em, but runs action (in transactions of its own) before the first locking re-read of the rows.
+    private static EntityManager interceptLockingSelect(EntityManager em, Runnable action) {
+        boolean[] done = {false};
+        return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(), new Class<?>[]{EntityManager.class},
+                (proxy, method, args) -> {
+                    if (!done[0] && method.getName().equals("createQuery") && args[0] instanceof String jpql
+                            && jpql.startsWith("SELECT b.id, b.version")) {
+                        done[0] = true;
+                        action.run();
+                    }
+                    try {
+                        return method.invoke(em, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void addBags(String... numbers) {
+        TestPersistence.inTransaction(factory, em -> {
+            Flight flight = em.createQuery("SELECT f FROM Flight f WHERE f.flightNumber = :n", Flight.class)
+                              .setParameter("n", FLIGHT).getSingleResult();
+            for (String number : numbers) {
+                em.persist(new Baggage(number, 20.0, flight));
+            }
+        });
+    }
+
+    // Changes a bag the way a single-bag transition does: entity update (version + 1) plus history entry.
+    private void setStatus(String number, BaggageStatus status) {
+        TestPersistence.inTransaction(factory, em -> {
+            Baggage baggage = find(em, number);
+            baggage.setStatus(status);
+            baggage.setHeldForInspection(status == BaggageStatus.HELD_FOR_INSPECTION);
+            em.persist(new BaggageHistoryEntry(baggage, status, "test"));
+        });
+    }
+
+    private BaggageStatus statusOf(String number) {
+        return TestPersistence.query(factory, em -> find(em, number).getStatus());
+    }
+
+    private long heldEntries(String number) {
+        return TestPersistence.query(factory, em -> em.createQuery(
+                "SELECT COUNT(h) FROM BaggageHistoryEntry h WHERE h.baggage.baggageNumber = :n AND h.status = :s", Long.class)
+                .setParameter("n", number)
+                .setParameter("s", BaggageStatus.HELD_FOR_INSPECTION)
+                .getSingleResult());
+    }
+
+    private static Baggage find(EntityManager em, String number) {
+        return em.createQuery("SELECT b FROM Baggage b WHERE b.baggageNumber = :n", Baggage.class)
+                 .setParameter("n", number).getSingleResult();
+    }
+
+    private List<String> publishedNumbers() {
+        return published.stream().map(BaggageState::getBaggageNumber).sorted().toList();
+    }
+}
@@ -0,0 +1,111 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.FakeTransactionRegistry;
+import st.cbse.logisticscenter.TestPersistence;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Departure;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Departure board updates against interleaved transaction completions.
+ */
+class DepartureBoardTest {
+
+    private final FakeTransactionRegistry transactions = new FakeTransactionRegistry();
+    private final Airline airline = new Airline("Board Air", "BA", "ops@board.example");
+    private DepartureBoard board;
+
+    @BeforeEach
+    void createBoard() {
+        board = new DepartureBoard();
+        // Only flush is called outside warm-up; the rows' locks are the database's business.
+        TestPersistence.inject(board, "em", Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, (proxy, method, args) -> null));
+        TestPersistence.inject(board, "txRegistry", transactions);
+        TestPersistence.inject(board, "maxRows", 100);
+    }
+
+    @Test
+    void showsCommittedFlightsOnly() {
+        FakeTransactionRegistry.Tx committed = transactions.begin();
+        board.updateAfterCommit(flight(1L, "FRA", 60));
+        assertEquals(List.of(), numbers("FRA")); // Not before the commit
+        committed.commit();
+
+        FakeTransactionRegistry.Tx rolledBack = transactions.begin();
+        board.updateAfterCommit(flight(2L, "FRA", 90));
+        rolledBack.rollback();
+
+        assertEquals(List.of("F1"), numbers("FRA"));
+    }
+
+    @Test
+    void changeInTransactionMarkedForRollbackIsNotApplied() {
+        transactions.begin().markRollbackOnly();
+        board.updateAfterCommit(flight(1L, "FRA", 60));
+
+        assertEquals(List.of(), numbers("FRA"));
+    }
+
+    @Test
+    void appliesImmediatelyWithoutTransaction() {
+        transactions.resume(null);
+        board.updateAfterCommit(flight(1L, "FRA", 60));
+
+        assertEquals(List.of("F1"), numbers("FRA"));
+    }
+
+    @Test
+    void olderChangeCompletingLateIsIgnored() {
+        FakeTransactionRegistry.Tx first = transactions.begin();
+        board.updateAfterCommit(flight(1L, "FRA", 60));
+        first.prepare();
+        FakeTransactionRegistry.Tx second = transactions.begin();
+        board.updateAfterCommit(flight(1L, "MUC", 90));
+        second.prepare();
+
+        second.complete(Status.STATUS_COMMITTED);
+        first.complete(Status.STATUS_COMMITTED);
+
+        assertEquals(List.of(), numbers("FRA"));
+        assertEquals(List.of("F1"), numbers("MUC"));
+    }
+
+    @Test
+    void olderChangeCannotBringBackAFlightThatLeftTheBoard() {
+        FakeTransactionRegistry.Tx moved = transactions.begin();
+        board.updateAfterCommit(flight(1L, "FRA", 60));
+        moved.prepare();
+        FakeTransactionRegistry.Tx departed = transactions.begin();
+        board.updateAfterCommit(flight(1L, "FRA", -5));
+        departed.prepare();
+
+        departed.complete(Status.STATUS_COMMITTED);
+        moved.complete(Status.STATUS_COMMITTED);
+
+        assertEquals(List.of(), numbers("FRA"));
+        assertEquals(0, board.size());
+    }
+
+    private Flight flight(Long id, String origin, long minutesFromNow) {
+        Flight flight = new Flight(airline, "F" + id, origin, "JFK", LocalDateTime.now().plusMinutes(minutesFromNow),
+                100, 20, "A320", "D-BORD", 180, 0);
+        return TestPersistence.inject(flight, "id", id);
+    }
+
+    private List<String> numbers(String origin) {
+        return board.departures(origin, null, null, 100).stream().map(Departure::getFlightNumber).toList();
+    }
+}
@@ -0,0 +1,137 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.TestPersistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seat tokens against an in-memory seat counter with the same conditional semantics as SeatInventory's UPDATEs.
+ */
+class SeatAllocatorTest {
+
+    private static final Long FLIGHT = 1L;
+
+    // One flight's Flight.currentPassengers and Flight.capacity.
+    private static class Seats extends SeatInventory {
+        private final int capacity;
+        private int booked;
+        private Runnable onFailedClaim;
+
+        Seats(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean claim(Long flightId, int seats) {
+            synchronized (this) {
+                if (booked + seats <= capacity) {
+                    booked += seats;
+                    return true;
+                }
+            }
+            Runnable action = onFailedClaim;
+            onFailedClaim = null;
+            if (action != null) {
+                action.run(); // Happens after the failed UPDATE, before the caller sees its result
+            }
+            return false;
+        }
+
+        @Override
+        public synchronized boolean release(Long flightId, int seats) {
+            if (booked < seats) {
+                return false;
+            }
+            booked -= seats;
+            return true;
+        }
+
+        synchronized int booked() {
+            return booked;
+        }
+    }
+
+    @Test
+    void lastSeatStillSellsAfterALargerPartyWasRefused() {
+        Seats seats = new Seats(3);
+        SeatAllocator allocator = allocator(seats, 10, 1);
+
+        assertTrue(allocator.book(FLIGHT, 2));
+        assertFalse(allocator.book(FLIGHT, 2));
+        assertTrue(allocator.book(FLIGHT, 1));
+        assertFalse(allocator.book(FLIGHT, 1));
+        assertEquals(3, seats.booked());
+    }
+
+    @Test
+    void cancellationDuringAFailedClaimIsNotOverwritten() {
+        Seats seats = new Seats(2);
+        SeatAllocator allocator = allocator(seats, 10, 1);
+        assertTrue(allocator.book(FLIGHT, 2));
+
+        // The flight is full when the 1-seat claim runs; a cancellation commits before the allocator records that.
+        seats.onFailedClaim = () -> assertTrue(allocator.cancel(FLIGHT, 1));
+        assertFalse(allocator.book(FLIGHT, 1)); // Skips the block claim (that failed already), the exact one fails
+
+        assertTrue(allocator.book(FLIGHT, 1));
+        assertEquals(2, seats.booked());
+    }
+
+    @Test
+    void mixedPartySizesSellExactlyTheCapacity() throws Exception {
+        int capacity = 5_003;
+        Seats seats = new Seats(capacity);
+        SeatAllocator allocator = allocator(seats, 16, 4);
+        AtomicLong granted = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                workers.add(pool.submit(() -> {
+                    int refused = 0;
+                    while (refused < 3) { // Larger parties are refused first; keep going with smaller ones
+                        int party = 1 + ThreadLocalRandom.current().nextInt(4);
+                        if (allocator.book(FLIGHT, party)) {
+                            granted.addAndGet(party);
+                        } else {
+                            refused++;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        while (allocator.book(FLIGHT, 1)) {
+            granted.incrementAndGet();
+        }
+
+        assertEquals(capacity, granted.get());
+        assertEquals(capacity, seats.booked());
+        assertEquals(0, allocator.getStats().getHeldTokens());
+    }
+
+    private static SeatAllocator allocator(SeatInventory inventory, int blockSize, int stripes) {
+        SeatAllocator allocator = new SeatAllocator();
+        TestPersistence.inject(allocator, "inventory", inventory);
+        TestPersistence.inject(allocator, "stripes", stripes);
+        TestPersistence.inject(allocator, "blockSize", blockSize);
+        return allocator;
+    }
+}
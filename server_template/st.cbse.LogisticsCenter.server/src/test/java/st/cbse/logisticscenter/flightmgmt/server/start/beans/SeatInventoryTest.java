@@ -0,0 +1,118 @@
+package st.cbse.logisticscenter.flightmgmt.server.start.beans;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import st.cbse.logisticscenter.TestPersistence;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Airline;
+import st.cbse.logisticscenter.flightmgmt.server.start.data.Flight;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The conditional seat UPDATEs against a real database, and the per-flight cache eviction that replaces the
+ * region-wide eviction of a JPQL bulk UPDATE.
+ */
+class SeatInventoryTest {
+
+    private static final int CAPACITY = 20;
+
+    private final List<Long> evicted = new CopyOnWriteArrayList<>();
+    private EntityManagerFactory factory;
+    private Long flightId;
+
+    @BeforeEach
+    void createFlight() {
+        factory = TestPersistence.createFactory();
+        flightId = TestPersistence.query(factory, em -> {
+            Airline airline = new Airline("Seat Air", "SE", "ops@seat.example");
+            em.persist(airline);
+            Flight flight = new Flight(airline, "SE100", "FRA", "JFK", LocalDateTime.now().plusDays(1), 100, 20, "A320", "D-SEAT", CAPACITY, 0);
+            em.persist(flight);
+            return flight.getId();
+        });
+    }
+
+    @AfterEach
+    void close() {
+        factory.close();
+    }
+
+    @Test
+    void claimsAndReleasesWithinTheCapacity() {
+        assertTrue(claim(CAPACITY - 1));
+        assertFalse(claim(2));
+        assertTrue(claim(1));
+        assertFalse(release(CAPACITY + 1));
+        assertTrue(release(CAPACITY));
+
+        assertEquals(0, booked());
+        assertEquals(List.of(flightId, flightId, flightId), evicted); // Only the successful statements
+    }
+
+    @Test
+    void concurrentClaimsNeitherOversellNorLoseSeats() throws Exception {
+        int bookers = 8;
+        AtomicInteger claimed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(bookers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < bookers; i++) {
+                results.add(pool.submit(() -> {
+                    for (int seat = 0; seat < CAPACITY; seat++) {
+                        if (claim(1)) {
+                            claimed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(CAPACITY, claimed.get());
+        assertEquals(CAPACITY, booked());
+    }
+
+    private boolean claim(int seats) {
+        return TestPersistence.query(factory, em -> inventory(em).claim(flightId, seats));
+    }
+
+    private boolean release(int seats) {
+        return TestPersistence.query(factory, em -> inventory(em).release(flightId, seats));
+    }
+
+    private SeatInventory inventory(EntityManager em) {
+        SeatInventory inventory = new SeatInventory();
+        TestPersistence.inject(inventory, "em", em);
+        TestPersistence.inject(inventory, "referenceCache", new ReferenceDataCache() {
+            @Override
+            public void evictFlight(Long id) {
+                evicted.add(id);
+            }
+        });
+        return inventory;
+    }
+
+    private int booked() {
+        return TestPersistence.query(factory, em -> em.find(Flight.class, flightId).getCurrentPassengers());
+    }
+}